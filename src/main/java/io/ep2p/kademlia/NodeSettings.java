@@ -22,9 +22,32 @@ public class NodeSettings implements Serializable {
   public int pingScheduleTimeValue;
   @Builder.Default
   public TimeUnit pingScheduleTimeUnit = TimeUnit.SECONDS;
+  /* Pool sizes for executors of the node's own, default shared executors are sized by SharedExecutors.configureDefault */
   public int dhtExecutorPoolSize;
   public int scheduledExecutorPoolSize;
+  /* Maximum number of threads that run tasks which may block on the transport, such as up to maximumInFlightPings pings of each node */
+  public int ioExecutorPoolSize;
   public boolean enabledFirstStoreRequestForcePass;
+  /* Maximum number of candidates each bucket keeps to replace its failing nodes */
+  public int replacementCacheSize;
+  /* Number of parallel in-flight queries of an iterative lookup */
+  public int alpha;
+  /* Time after which store and lookup futures complete with TIMEOUT result, not positive for no timeout */
+  public int dhtOperationTimeoutValue;
+  @Builder.Default
+  public TimeUnit dhtOperationTimeoutUnit = TimeUnit.SECONDS;
+  /* Number of closest nodes that keep a copy of each value in replicated store */
+  public int replicationFactor;
+  /* Number of replicas that should store a value before replicated store succeeds */
+  public int writeQuorum;
+  /* Number of replicas that should return the same value before hedged lookup succeeds */
+  public int readQuorum;
+  /* Percentile of recent query latencies after which hedged lookup sends a backup query */
+  public int hedgeLatencyPercentile;
+  /* Maximum number of liveness pings that are in flight at the same time */
+  public int maximumInFlightPings;
+  /* Pings of a round are spread over this percentage of the ping schedule period */
+  public int pingJitterPercentage;
 
 
   public static class Default {
@@ -38,7 +61,18 @@ public class NodeSettings implements Serializable {
     public static TimeUnit PING_SCHEDULE_TIME_UNIT = TimeUnit.SECONDS;
     public static int DHT_EXECUTOR_POOL_SIZE = 20;
     public static int SCHEDULED_EXECUTOR_POOL_SIZE = 1;
+    public static int IO_EXECUTOR_POOL_SIZE = 64;
     public static boolean ENABLED_FIRST_STORE_REQUEST_FORCE_PASS = false;
+    public static int REPLACEMENT_CACHE_SIZE = 10;
+    public static int ALPHA = 3;
+    public static int DHT_OPERATION_TIMEOUT_VALUE = 0;
+    public static TimeUnit DHT_OPERATION_TIMEOUT_UNIT = TimeUnit.SECONDS;
+    public static int REPLICATION_FACTOR = 3;
+    public static int WRITE_QUORUM = 2;
+    public static int READ_QUORUM = 1;
+    public static int HEDGE_LATENCY_PERCENTILE = 95;
+    public static int MAXIMUM_IN_FLIGHT_PINGS = 8;
+    public static int PING_JITTER_PERCENTAGE = 10;
 
     public static NodeSettings build(){
       return NodeSettings.builder()
@@ -50,7 +84,18 @@ public class NodeSettings implements Serializable {
               .pingScheduleTimeValue(PING_SCHEDULE_TIME_VALUE)
               .dhtExecutorPoolSize(DHT_EXECUTOR_POOL_SIZE)
               .scheduledExecutorPoolSize(SCHEDULED_EXECUTOR_POOL_SIZE)
+              .ioExecutorPoolSize(IO_EXECUTOR_POOL_SIZE)
               .enabledFirstStoreRequestForcePass(ENABLED_FIRST_STORE_REQUEST_FORCE_PASS)
+              .replacementCacheSize(REPLACEMENT_CACHE_SIZE)
+              .alpha(ALPHA)
+              .dhtOperationTimeoutValue(DHT_OPERATION_TIMEOUT_VALUE)
+              .dhtOperationTimeoutUnit(DHT_OPERATION_TIMEOUT_UNIT)
+              .replicationFactor(REPLICATION_FACTOR)
+              .writeQuorum(WRITE_QUORUM)
+              .readQuorum(READ_QUORUM)
+              .hedgeLatencyPercentile(HEDGE_LATENCY_PERCENTILE)
+              .maximumInFlightPings(MAXIMUM_IN_FLIGHT_PINGS)
+              .pingJitterPercentage(PING_JITTER_PERCENTAGE)
               .build();
     }
   }
@@ -0,0 +1,209 @@
+package io.ep2p.kademlia.connection;
+
+import com.google.common.base.Objects;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.message.BatchKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MessageSender decorator that holds back one way messages ({@link #sendAsyncMessage(KademliaNodeAPI, Node, KademliaMessage)})
+ * for a short window, and sends the ones going from the same caller to the same receiver as a single BATCH message.
+ * A batch is sent when its window ends or when it reaches the maximum batch size, whichever comes first.
+ * Batches of a single message are sent as the message itself.
+ * Messages that wait for a response are passed to the decorated sender right away.
+ * A node that stops sends the batches of its own messages right away. {@link #close()} does it for every node, and stops batching.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+@Slf4j
+public class BatchingMessageSender<I extends Number, C extends ConnectionInfo> implements MessageSender<I, C>, AutoCloseable {
+    private final MessageSender<I, C> messageSender;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long window;
+    private final TimeUnit windowUnit;
+    private final int maximumBatchSize;
+    private final Map<Route<I>, Batch> batches = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+    /* Messages in batches that have not been sent yet, batch sizes are only safe to read inside batches.compute() */
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+
+    /**
+     * @param messageSender sender to pass batches and other messages to
+     * @param scheduledExecutorService executor to send batches from when their window ends
+     * @param window time to hold the first message of a batch
+     * @param windowUnit unit of window
+     * @param maximumBatchSize number of messages that sends the batch before its window ends
+     */
+    public BatchingMessageSender(MessageSender<I, C> messageSender, ScheduledExecutorService scheduledExecutorService, long window, TimeUnit windowUnit, int maximumBatchSize) {
+        if (maximumBatchSize <= 0)
+            throw new IllegalArgumentException("Maximum batch size should be positive");
+        this.messageSender = messageSender;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.window = window;
+        this.windowUnit = windowUnit;
+        this.maximumBatchSize = maximumBatchSize;
+    }
+
+    @Override
+    public <U extends Serializable, O extends Serializable> KademliaMessage<I, C, O> sendMessage(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        return this.messageSender.sendMessage(caller, receiver, message);
+    }
+
+    @Override
+    public <U extends Serializable, O extends Serializable> CompletableFuture<KademliaMessage<I, C, O>> sendMessageAsync(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        return this.messageSender.sendMessageAsync(caller, receiver, message);
+    }
+
+    @Override
+    public <U extends Serializable> void sendAsyncMessage(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        if (this.closed) {
+            this.messageSender.sendAsyncMessage(caller, receiver, message);
+            return;
+        }
+        Route<I> route = new Route<>(caller.getId(), receiver.getId());
+        AtomicReference<Batch> created = new AtomicReference<>();
+        AtomicReference<Batch> full = new AtomicReference<>();
+        this.batches.compute(route, (r, batch) -> {
+            if (batch == null) {
+                batch = new Batch(caller, receiver);
+                if (!this.closed)
+                    created.set(batch);
+            }
+            batch.messages.add(message);
+            this.pendingMessages.incrementAndGet();
+            // Once closed, flushAll() may have already passed this route, so nothing is left waiting
+            if (this.closed || batch.messages.size() >= this.maximumBatchSize) {
+                full.set(batch);
+                return null;
+            }
+            return batch;
+        });
+        Batch fullBatch = full.get();
+        if (fullBatch != null) {
+            fullBatch.cancelFlushTask();
+            send(fullBatch);
+        }
+        // Scheduled out of compute(). A batch that is sent before its task is set is not in the map anymore, so the task does nothing
+        Batch createdBatch = created.get();
+        if (createdBatch != null && createdBatch != fullBatch)
+            createdBatch.setFlushTask(this.scheduledExecutorService.schedule(() -> flush(route, createdBatch), this.window, this.windowUnit));
+    }
+
+    /**
+     * Sends every waiting batch now, for example before the nodes stop
+     */
+    public void flushAll() {
+        this.batches.forEach(this::flush);
+    }
+
+    /**
+     * Sends the waiting batches of a caller now, on the calling thread. Called by nodes that stop
+     * @param caller node whose messages to send
+     */
+    public void flush(KademliaNodeAPI<I, C> caller) {
+        this.batches.forEach((route, batch) -> {
+            if (Objects.equal(route.callerId, caller.getId()))
+                flush(route, batch);
+        });
+    }
+
+    /**
+     * Cancels the pending flush tasks and sends every waiting batch on the calling thread.
+     * One way messages that are sent afterwards are passed to the decorated sender right away. Does not shut down the executor or the decorated sender.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        flushAll();
+    }
+
+    /**
+     * @return number of messages that are waiting to be sent
+     */
+    public int pendingMessages() {
+        return this.pendingMessages.get();
+    }
+
+    private void flush(Route<I> route, Batch batch) {
+        if (this.batches.remove(route, batch)) {
+            batch.cancelFlushTask();
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        this.pendingMessages.addAndGet(-batch.messages.size());
+        try {
+            if (batch.messages.size() == 1) {
+                this.messageSender.sendAsyncMessage(batch.caller, batch.receiver, batch.messages.get(0));
+            } else {
+                this.messageSender.sendAsyncMessage(batch.caller, batch.receiver, new BatchKademliaMessage<>(batch.messages));
+            }
+        } catch (Exception e) {
+            log.error("Failed to send " + batch.messages.size() + " messages to " + batch.receiver.getId(), e);
+        }
+    }
+
+    /* Messages of a batch are only changed inside batches.compute() of their route */
+    private class Batch {
+        private final KademliaNodeAPI<I, C> caller;
+        private final Node<I, C> receiver;
+        private final ArrayList<KademliaMessage<I, C, ? extends Serializable>> messages = new ArrayList<>();
+        /* Set once the batch is created, may be cancelled before that */
+        private ScheduledFuture<?> flushTask;
+        private boolean cancelled = false;
+
+        private Batch(KademliaNodeAPI<I, C> caller, Node<I, C> receiver) {
+            this.caller = caller;
+            this.receiver = receiver;
+        }
+
+        private synchronized void setFlushTask(ScheduledFuture<?> flushTask) {
+            this.flushTask = flushTask;
+            if (this.cancelled)
+                flushTask.cancel(false);
+        }
+
+        private synchronized void cancelFlushTask() {
+            this.cancelled = true;
+            if (this.flushTask != null)
+                this.flushTask.cancel(false);
+        }
+    }
+
+    private static final class Route<I> {
+        private final I callerId;
+        private final I receiverId;
+
+        private Route(I callerId, I receiverId) {
+            this.callerId = callerId;
+            this.receiverId = receiverId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Route<?> route = (Route<?>) o;
+            return Objects.equal(callerId, route.callerId) && Objects.equal(receiverId, route.receiverId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(callerId, receiverId);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.protocol.message.KademliaMessage;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
 public interface MessageSender<I extends Number, C extends ConnectionInfo> {
 
@@ -22,6 +23,29 @@ public interface MessageSender<I extends Number, C extends ConnectionInfo> {
             KademliaMessage<I, C, U> message
     );
 
+    /**
+     * Sends message and completes the returned future with the response, so that the caller does not wait for it.
+     * Default implementation calls {@link #sendMessage(KademliaNodeAPI, Node, KademliaMessage)} on the current thread.
+     * Implementations whose transport can wait for responses without holding a thread should override it.
+     * @param caller Caller KademliaNodeAPI of this method
+     * @param receiver Node to send the message to
+     * @param message Message
+     * @param <U> Serializable input type of the message
+     * @param <O> Serializable output type of the message
+     * @return Future of output message, completed exceptionally if sending fails
+     */
+    default <U extends Serializable, O extends Serializable> CompletableFuture<KademliaMessage<I, C, O>> sendMessageAsync(
+            KademliaNodeAPI<I, C> caller,
+            Node<I, C> receiver,
+            KademliaMessage<I, C, U> message
+    ) {
+        try {
+            return CompletableFuture.completedFuture(this.sendMessage(caller, receiver, message));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Sends message async and doesnt return any response
      * @param caller Caller KademliaNodeAPI of this method
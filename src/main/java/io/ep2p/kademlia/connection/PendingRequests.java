@@ -0,0 +1,94 @@
+package io.ep2p.kademlia.connection;
+
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Requests that are sent and wait for their responses, by correlation id.
+ * Lets a MessageSender send many requests over the same connection without waiting for each response,
+ * and match the responses to their requests in whatever order they arrive.
+ * The receiving node copies the correlation id of a request to its response in {@link io.ep2p.kademlia.node.KademliaNodeAPI#onMessage(KademliaMessage)}.
+ * {@link PipeliningMessageSender} uses it to send requests, transports that do not extend it can use it directly:
+ * <pre>
+ * CompletableFuture&lt;KademliaMessage&lt;I, C, O&gt;&gt; future = pendingRequests.register(message, timeout, unit);
+ * connection.write(codec.encode(message));
+ * ...
+ * // for every incoming message of the connection
+ * if (!pendingRequests.complete(incoming)) {
+ *     // not a response, so it is a request of the other side
+ * }
+ * </pre>
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+public class PendingRequests<I extends Number, C extends ConnectionInfo> {
+    private final AtomicLong lastCorrelationId = new AtomicLong();
+    private final Map<Long, CompletableFuture<KademliaMessage<I, C, ? extends Serializable>>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Sets a new correlation id on the request and starts waiting for its response.
+     * The request should not be sent again before it is answered, since it carries the id.
+     * @param request message to send
+     * @param timeout time to wait for the response
+     * @param timeUnit unit of timeout
+     * @param <O> Serializable output type of the response
+     * @return future of the response, completed exceptionally with TimeoutException if it does not arrive in time
+     */
+    @SuppressWarnings("unchecked")
+    public <O extends Serializable> CompletableFuture<KademliaMessage<I, C, O>> register(KademliaMessage<I, C, ? extends Serializable> request, long timeout, TimeUnit timeUnit) {
+        long correlationId = this.lastCorrelationId.incrementAndGet();
+        if (correlationId == 0)
+            correlationId = this.lastCorrelationId.incrementAndGet();
+        request.setCorrelationId(correlationId);
+
+        CompletableFuture<KademliaMessage<I, C, ? extends Serializable>> future = new CompletableFuture<>();
+        this.pending.put(correlationId, future);
+        long id = correlationId;
+        // Callers only see the response once the request has left the table
+        CompletableFuture<KademliaMessage<I, C, ? extends Serializable>> response = future.orTimeout(timeout, timeUnit).whenComplete((message, throwable) -> this.pending.remove(id, future));
+        return (CompletableFuture<KademliaMessage<I, C, O>>) (CompletableFuture<?>) response;
+    }
+
+    /**
+     * @param response received message
+     * @return true if the message is the response of a pending request, false if it is not answering anything this side is waiting for
+     */
+    public boolean complete(KademliaMessage<I, C, ? extends Serializable> response) {
+        CompletableFuture<KademliaMessage<I, C, ? extends Serializable>> future = this.pending.remove(response.getCorrelationId());
+        return future != null && future.complete(response);
+    }
+
+    /**
+     * @param correlationId id of the request
+     * @param throwable reason, for example the request could not be written
+     * @return true if the request was pending
+     */
+    public boolean fail(long correlationId, Throwable throwable) {
+        CompletableFuture<KademliaMessage<I, C, ? extends Serializable>> future = this.pending.remove(correlationId);
+        return future != null && future.completeExceptionally(throwable);
+    }
+
+    /**
+     * Fails every pending request, for example when the connection is closed
+     * @param throwable reason
+     */
+    public void failAll(Throwable throwable) {
+        for (Long correlationId : new ArrayList<>(this.pending.keySet())) {
+            fail(correlationId, throwable);
+        }
+    }
+
+    /**
+     * @return number of requests waiting for their response
+     */
+    public int size() {
+        return this.pending.size();
+    }
+}
@@ -0,0 +1,107 @@
+package io.ep2p.kademlia.connection;
+
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of MessageSenders whose transport writes a request without waiting for the response of the previous one,
+ * so that a single connection to a peer carries many requests at once.
+ * Each request gets a correlation id from {@link PendingRequests}, and its response completes it whenever it arrives, in any order.
+ * Implementations write messages in {@link #write(KademliaNodeAPI, Node, KademliaMessage)} and pass every response they read to {@link #onResponse(KademliaMessage)}.
+ * Requests of the other side go to {@link KademliaNodeAPI#onMessage(KademliaMessage)}, which copies their correlation id to the response to write back.
+ * Requests whose response does not arrive in time, or that can not be written, are answered with a message that is not alive.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+@Slf4j
+public abstract class PipeliningMessageSender<I extends Number, C extends ConnectionInfo> implements MessageSender<I, C>, AutoCloseable {
+    protected final PendingRequests<I, C> pendingRequests = new PendingRequests<>();
+    private final long responseTimeout;
+    private final TimeUnit responseTimeoutUnit;
+
+    /**
+     * @param responseTimeout time to wait for the response of each request
+     * @param responseTimeoutUnit unit of responseTimeout
+     */
+    protected PipeliningMessageSender(long responseTimeout, TimeUnit responseTimeoutUnit) {
+        this.responseTimeout = responseTimeout;
+        this.responseTimeoutUnit = responseTimeoutUnit;
+    }
+
+    /**
+     * Writes the message to the connection of the receiver, without waiting for a response
+     * @param caller Caller KademliaNodeAPI of the send
+     * @param receiver Node to write the message to
+     * @param message Message, carries the correlation id of the request or 0 if no response is expected
+     * @throws IOException if the message can not be written
+     */
+    protected abstract void write(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, ? extends Serializable> message) throws IOException;
+
+    @Override
+    public <U extends Serializable, O extends Serializable> KademliaMessage<I, C, O> sendMessage(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        return this.<U, O>sendMessageAsync(caller, receiver, message).join();
+    }
+
+    @Override
+    public <U extends Serializable, O extends Serializable> CompletableFuture<KademliaMessage<I, C, O>> sendMessageAsync(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        CompletableFuture<KademliaMessage<I, C, O>> future = this.pendingRequests.register(message, this.responseTimeout, this.responseTimeoutUnit);
+        try {
+            write(caller, receiver, message);
+        } catch (IOException | RuntimeException e) {
+            this.pendingRequests.fail(message.getCorrelationId(), e);
+        }
+        return future.exceptionally(throwable -> {
+            log.debug("No response from " + receiver.getId() + " to " + message.getType(), throwable);
+            return getUnreachableMessage(receiver);
+        });
+    }
+
+    @Override
+    public <U extends Serializable> void sendAsyncMessage(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        try {
+            write(caller, receiver, message);
+        } catch (IOException e) {
+            log.error("Failed to write " + message.getType() + " to " + receiver.getId(), e);
+        }
+    }
+
+    /**
+     * @param response message read from a connection
+     * @return true if the message is the response of a pending request, false if it is not answering anything this side is waiting for
+     */
+    public boolean onResponse(KademliaMessage<I, C, ? extends Serializable> response) {
+        return this.pendingRequests.complete(response);
+    }
+
+    /**
+     * @return number of requests waiting for their response
+     */
+    public int pendingRequests() {
+        return this.pendingRequests.size();
+    }
+
+    /**
+     * Answers every pending request with a message that is not alive
+     */
+    @Override
+    public void close() {
+        this.pendingRequests.failAll(new CancellationException("Message sender is closed"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <O extends Serializable> KademliaMessage<I, C, O> getUnreachableMessage(Node<I, C> receiver) {
+        EmptyKademliaMessage<I, C> message = new EmptyKademliaMessage<>();
+        message.setAlive(false);
+        message.setNode(receiver);
+        return (KademliaMessage<I, C, O>) (KademliaMessage<I, C, ?>) message;
+    }
+}
@@ -0,0 +1,14 @@
+package io.ep2p.kademlia.exception;
+
+/**
+ * Thrown when a message can not be encoded, or received bytes are not a valid encoded message
+ */
+public class MessageCodecException extends RuntimeException {
+    public MessageCodecException(String message) {
+        super(message);
+    }
+
+    public MessageCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
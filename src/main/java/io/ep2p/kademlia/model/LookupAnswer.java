@@ -22,7 +22,7 @@ public class LookupAnswer<I extends Number, C extends ConnectionInfo, K extends
     private Result result = Result.FAILED;
 
     public enum Result {
-        PASSED, FOUND, FAILED
+        PASSED, FOUND, FAILED, TIMEOUT
     }
 
 }
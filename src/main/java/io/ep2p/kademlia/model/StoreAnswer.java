@@ -1,9 +1,12 @@
 package io.ep2p.kademlia.model;
 
 import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
 import lombok.*;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Model for store request reply
@@ -19,8 +22,11 @@ import java.io.Serializable;
 public class StoreAnswer<I extends Number, C extends ConnectionInfo, K extends Serializable> extends Answer<I, C> {
     private K key;
     private Result result = Result.FAILED;
+    /* Nodes that acknowledged storing the value, filled by replicated store */
+    @Builder.Default
+    private List<Node<I, C>> replicas = new ArrayList<>();
 
     public enum Result {
-        STORED, PASSED, FAILED
+        STORED, PASSED, FAILED, TIMEOUT
     }
 }
@@ -9,7 +9,10 @@ import io.ep2p.kademlia.services.*;
 import lombok.Getter;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class DHTKademliaNode<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends KademliaNodeAPIDecorator<I, C> implements DHTKademliaNodeAPI<I, C, K, V>{
     @Getter
@@ -64,6 +67,25 @@ public class DHTKademliaNode<I extends Number, C extends ConnectionInfo, K exten
         return this.storeService.store(key, value);
     }
 
+    @Override
+    public Future<StoreAnswer<I, C, K>> store(K key, V value, long timeout, TimeUnit timeUnit) {
+        if(!isRunning())
+            throw new IllegalStateException("Node is not running");
+        return this.storeService.store(key, value, timeout, timeUnit);
+    }
+
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries) {
+        return storeAll(entries, getNodeSettings().getDhtOperationTimeoutValue(), getNodeSettings().getDhtOperationTimeoutUnit());
+    }
+
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit) {
+        if(!isRunning())
+            throw new IllegalStateException("Node is not running");
+        return this.storeService.storeAll(entries, timeout, timeUnit);
+    }
+
     @Override
     public Future<LookupAnswer<I, C, K, V>> lookup(K key) {
         if(!isRunning())
@@ -71,6 +93,25 @@ public class DHTKademliaNode<I extends Number, C extends ConnectionInfo, K exten
         return this.lookupService.lookup(key);
     }
 
+    @Override
+    public Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit) {
+        if(!isRunning())
+            throw new IllegalStateException("Node is not running");
+        return this.lookupService.lookup(key, timeout, timeUnit);
+    }
+
+    @Override
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys) {
+        return lookupAll(keys, getNodeSettings().getDhtOperationTimeoutValue(), getNodeSettings().getDhtOperationTimeoutUnit());
+    }
+
+    @Override
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys, long timeout, TimeUnit timeUnit) {
+        if(!isRunning())
+            throw new IllegalStateException("Node is not running");
+        return this.lookupService.lookupAll(keys, timeout, timeUnit);
+    }
+
     protected void initDHTKademliaNode(){
         setLookupService(this.dhtLookupServiceFactory.getDhtLookupService(this));
         setStoreService(this.dhtStoreServiceFactory.getDhtStoreService(this));
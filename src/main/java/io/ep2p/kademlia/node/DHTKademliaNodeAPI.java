@@ -6,7 +6,10 @@ import io.ep2p.kademlia.model.StoreAnswer;
 import io.ep2p.kademlia.repository.KademliaRepository;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * KademliaNodeAPI for DHT operations, extends KademliaNodeAPI
@@ -22,11 +25,52 @@ public interface DHTKademliaNodeAPI<I extends Number, C extends ConnectionInfo,
      * @return Future object of StoreAnswer, contains result status and node that stored the data
      */
     Future<StoreAnswer<I, C, K>> store(K key, V value);
+    /**
+     * @param key Serializable key of the data to store
+     * @param value Serializable value of the data to store
+     * @param timeout time to wait for the result before completing with TIMEOUT result, not positive for no timeout
+     * @param timeUnit unit of timeout
+     * @return Future object of StoreAnswer, contains result status and node that stored the data
+     */
+    Future<StoreAnswer<I, C, K>> store(K key, V value, long timeout, TimeUnit timeUnit);
+    /**
+     * Stores several values at once, sending one request to each node that is the closest to some of the keys
+     * @param entries Serializable keys and values of the data to store
+     * @return Future object of the StoreAnswer of each key
+     */
+    Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries);
+    /**
+     * @param entries Serializable keys and values of the data to store
+     * @param timeout time to wait for the result of each key before completing it with TIMEOUT result, not positive for no timeout
+     * @param timeUnit unit of timeout
+     * @return Future object of the StoreAnswer of each key
+     */
+    Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit);
     /**
      * @param key Serializable key of the data to look up
      * @return Future object of LookupAnswer, contains value, result status and node that stored the data
      */
     Future<LookupAnswer<I, C, K, V>> lookup(K key);
+    /**
+     * @param key Serializable key of the data to look up
+     * @param timeout time to wait for the result before completing with TIMEOUT result, not positive for no timeout
+     * @param timeUnit unit of timeout
+     * @return Future object of LookupAnswer, contains value, result status and node that stored the data
+     */
+    Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit);
+    /**
+     * Looks several keys up at once, sending one request to each node that is the next hop of some of the keys
+     * @param keys Serializable keys of the data to look up
+     * @return Future object of the LookupAnswer of each key
+     */
+    Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys);
+    /**
+     * @param keys Serializable keys of the data to look up
+     * @param timeout time to wait for the result of each key before completing it with TIMEOUT result, not positive for no timeout
+     * @param timeUnit unit of timeout
+     * @return Future object of the LookupAnswer of each key
+     */
+    Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys, long timeout, TimeUnit timeUnit);
     /**
      * @return KademliaRepository of this node
      */
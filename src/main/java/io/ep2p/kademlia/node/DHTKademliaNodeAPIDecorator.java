@@ -6,7 +6,10 @@ import io.ep2p.kademlia.model.StoreAnswer;
 import io.ep2p.kademlia.repository.KademliaRepository;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public abstract class DHTKademliaNodeAPIDecorator<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends KademliaNodeAPIDecorator<I, C> implements DHTKademliaNodeAPI<I, C, K, V> {
 
@@ -19,11 +22,41 @@ public abstract class DHTKademliaNodeAPIDecorator<I extends Number, C extends Co
         return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).store(key, value);
     }
 
+    @Override
+    public Future<StoreAnswer<I, C, K>> store(K key, V value, long timeout, TimeUnit timeUnit) {
+        return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).store(key, value, timeout, timeUnit);
+    }
+
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries) {
+        return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).storeAll(entries);
+    }
+
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit) {
+        return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).storeAll(entries, timeout, timeUnit);
+    }
+
     @Override
     public Future<LookupAnswer<I, C, K, V>> lookup(K key) {
         return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).lookup(key);
     }
 
+    @Override
+    public Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit) {
+        return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).lookup(key, timeout, timeUnit);
+    }
+
+    @Override
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys) {
+        return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).lookupAll(keys);
+    }
+
+    @Override
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys, long timeout, TimeUnit timeUnit) {
+        return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).lookupAll(keys, timeout, timeUnit);
+    }
+
     @Override
     public KademliaRepository<K, V> getKademliaRepository() {
         return ((DHTKademliaNodeAPI<I, C, K, V>) getKademliaNode()).getKademliaRepository();
@@ -2,11 +2,14 @@ package io.ep2p.kademlia.node;
 
 import com.google.common.base.Objects;
 import io.ep2p.kademlia.NodeSettings;
+import io.ep2p.kademlia.connection.BatchingMessageSender;
 import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.connection.MessageSender;
 import io.ep2p.kademlia.exception.HandlerNotFoundException;
+import io.ep2p.kademlia.node.external.ExternalNode;
 import io.ep2p.kademlia.node.strategies.ReferencedNodesStrategy;
 import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.OpcodeTable;
 import io.ep2p.kademlia.protocol.handler.*;
 import io.ep2p.kademlia.protocol.message.FindNodeRequestMessage;
 import io.ep2p.kademlia.protocol.message.KademliaMessage;
@@ -14,14 +17,20 @@ import io.ep2p.kademlia.protocol.message.PingKademliaMessage;
 import io.ep2p.kademlia.protocol.message.ShutdownKademliaMessage;
 import io.ep2p.kademlia.table.Bucket;
 import io.ep2p.kademlia.table.RoutingTable;
+import io.ep2p.kademlia.util.DateUtil;
+import io.ep2p.kademlia.util.SharedExecutors;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 @Slf4j
@@ -38,7 +47,11 @@ public class KademliaNode<I extends Number, C extends ConnectionInfo> implements
     private final transient NodeSettings nodeSettings;
 
     @Getter
-    private final transient ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final transient SharedExecutors sharedExecutors;
+    @Getter
+    private final transient ExecutorService executorService;
+    @Getter
+    private final transient ExecutorService ioExecutorService;
     @Getter
     private final transient ScheduledExecutorService scheduledExecutorService;
     @Getter
@@ -47,26 +60,59 @@ public class KademliaNode<I extends Number, C extends ConnectionInfo> implements
 
     //** None Accessible Fields **//
     protected final transient Map<String, MessageHandler<I, C>> messageHandlerRegistry = new ConcurrentHashMap<>();
+    /* Handlers of messageHandlerRegistry by opcode, for dispatch */
+    private final transient OpcodeTable<MessageHandler<I, C>> messageHandlerTable = new OpcodeTable<>();
     private volatile boolean isRunning;
+    private final transient List<ScheduledFuture<?>> scheduledTasks = new CopyOnWriteArrayList<>();
+    private final transient AtomicBoolean released = new AtomicBoolean();
+    /* Pings whose jitter has passed, waiting for a permit */
+    private final transient Queue<Node<I, C>> duePings = new ConcurrentLinkedQueue<>();
+    /* Ids of the nodes that have a ping scheduled, due or in flight */
+    private final transient Set<I> pendingPings = ConcurrentHashMap.newKeySet();
+    private final transient Semaphore pingPermits;
+    /* Time of the latest pong of each node in the routing table, so that sightings caused by pings are not taken for normal traffic */
+    private final transient Map<I, Long> pongTimes = new ConcurrentHashMap<>();
 
 
+    /**
+     * Creates a node that runs on the default shared executors
+     */
     public KademliaNode(I id, C connectionInfo, RoutingTable<I, C, Bucket<I, C>> routingTable, MessageSender<I, C> messageSender, NodeSettings nodeSettings) {
-        this(id, connectionInfo, routingTable, messageSender, nodeSettings, Executors.newSingleThreadScheduledExecutor());
+        this(SharedExecutors.acquireDefault(), id, connectionInfo, routingTable, messageSender, nodeSettings);
     }
 
+    /**
+     * Creates a node that runs all of its tasks on scheduledExecutorService, and shuts it down when the node stops
+     */
     public KademliaNode(I id, C connectionInfo, RoutingTable<I, C, Bucket<I, C>> routingTable, MessageSender<I, C> messageSender, NodeSettings nodeSettings, ScheduledExecutorService scheduledExecutorService) {
+        this(new SharedExecutors(scheduledExecutorService, scheduledExecutorService).acquire(), id, connectionInfo, routingTable, messageSender, nodeSettings);
+    }
+
+    /**
+     * Creates a node that runs on sharedExecutors, which are released when the node stops
+     */
+    public KademliaNode(I id, C connectionInfo, RoutingTable<I, C, Bucket<I, C>> routingTable, MessageSender<I, C> messageSender, NodeSettings nodeSettings, SharedExecutors sharedExecutors) {
+        this(sharedExecutors.acquire(), id, connectionInfo, routingTable, messageSender, nodeSettings);
+    }
+
+    private KademliaNode(SharedExecutors acquiredExecutors, I id, C connectionInfo, RoutingTable<I, C, Bucket<I, C>> routingTable, MessageSender<I, C> messageSender, NodeSettings nodeSettings) {
         this.id = id;
         this.connectionInfo = connectionInfo;
         this.routingTable = routingTable;
         this.messageSender = messageSender;
         this.nodeSettings = nodeSettings;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.sharedExecutors = acquiredExecutors;
+        this.executorService = acquiredExecutors.getExecutorService();
+        this.ioExecutorService = acquiredExecutors.getIoExecutorService();
+        this.scheduledExecutorService = acquiredExecutors.getScheduledExecutorService();
+        this.pingPermits = new Semaphore(Math.max(1, nodeSettings.getMaximumInFlightPings()));
         this.init();
     }
 
     @Override
     public void start() {
         pingSchedule();
+        staleNodesSchedule();
         getRoutingTable().forceUpdate(this);
         this.isRunning = true;
     }
@@ -81,20 +127,20 @@ public class KademliaNode<I extends Number, C extends ConnectionInfo> implements
     @Override
     public void stop() {
         this.gracefulShutdown();
-        if (this.isRunning()){
-            this.executorService.shutdown();
-            this.scheduledExecutorService.shutdown();
-            this.isRunning = false;
-        }
+        this.flushMessages();
+        this.cancelScheduledTasks();
+        this.isRunning = false;
+        if (this.released.compareAndSet(false, true))
+            this.sharedExecutors.release();
     }
 
     @Override
     public void stopNow() {
-        if (this.isRunning()){
-            this.executorService.shutdownNow();
-            this.scheduledExecutorService.shutdownNow();
-            this.isRunning = false;
-        }
+        this.flushMessages();
+        this.cancelScheduledTasks();
+        this.isRunning = false;
+        if (this.released.compareAndSet(false, true))
+            this.sharedExecutors.releaseNow();
     }
 
     @Override
@@ -107,15 +153,22 @@ public class KademliaNode<I extends Number, C extends ConnectionInfo> implements
         if (message == null) {
             throw new IllegalArgumentException("Message can not be null");
         }
-        MessageHandler<I, C> messageHandler = messageHandlerRegistry.get(message.getType());
+        MessageHandler<I, C> messageHandler = messageHandlerTable.get(message.getOpcode());
+        // Handlers that subclasses have put in the registry directly are only found by type
+        if (messageHandler == null)
+            messageHandler = messageHandlerRegistry.get(message.getType());
         if (messageHandler == null)
             throw new HandlerNotFoundException(message.getType());
-        return messageHandler.handle(this, message);
+        KademliaMessage<I, C, ? extends Serializable> response = messageHandler.handle(this, message);
+        if (response != null && response != message)
+            response.setCorrelationId(message.getCorrelationId());
+        return response;
     }
 
     @Override
     public void registerMessageHandler(String type, MessageHandler<I, C> messageHandler) {
         this.messageHandlerRegistry.put(type, messageHandler);
+        this.messageHandlerTable.put(type, messageHandler);
     }
 
     @Override
@@ -136,6 +189,12 @@ public class KademliaNode<I extends Number, C extends ConnectionInfo> implements
         this.referencedNodesStrategy.getReferencedNodes(this).forEach(node -> getMessageSender().sendAsyncMessage(this, node, new ShutdownKademliaMessage<>()));
     }
 
+    /* Sends the messages of this node that are held back by a batching sender, which may be shared with nodes that keep running */
+    protected void flushMessages(){
+        if (getMessageSender() instanceof BatchingMessageSender)
+            ((BatchingMessageSender<I, C>) getMessageSender()).flush(this);
+    }
+
     protected void init(){
         this.registerMessageHandler(MessageType.EMPTY, new GeneralResponseMessageHandler<>());
         this.registerMessageHandler(MessageType.PONG, new PongMessageHandler<>());
@@ -143,48 +202,183 @@ public class KademliaNode<I extends Number, C extends ConnectionInfo> implements
         this.registerMessageHandler(MessageType.FIND_NODE_REQ, new FindNodeRequestMessageHandler<>());
         this.registerMessageHandler(MessageType.FIND_NODE_RES, new FindNodeResponseMessageHandler<>());
         this.registerMessageHandler(MessageType.SHUTDOWN, new ShutdownMessageHandler<>());
+        this.registerMessageHandler(MessageType.BATCH, new BatchMessageHandler<>());
     }
 
 
     protected Future<Boolean> bootstrap(Node<I, C> bootstrapNode) {
         this.getRoutingTable().forceUpdate(bootstrapNode);
 
-        KademliaNode<I, C> node = this;
-        return this.executorService.submit(() -> {
-            FindNodeRequestMessage<I, C> message = new FindNodeRequestMessage<>();
-            message.setData(node.getId());
-            try {
-                KademliaMessage<I, C, ?> response = node.getMessageSender().sendMessage(node, bootstrapNode, message);
-                onMessage(response);
-                return true;
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
-                return false;
-            } finally {
-                executorService.shutdown();
+        FindNodeRequestMessage<I, C> message = new FindNodeRequestMessage<>();
+        message.setData(this.getId());
+        // Composed asynchronously, otherwise a completed stage would send from the calling thread
+        return CompletableFuture.completedFuture(message)
+                .thenComposeAsync(findNodeRequestMessage -> getMessageSender().sendMessageAsync(this, bootstrapNode, findNodeRequestMessage), this.ioExecutorService)
+                .thenApply(response -> {
+                    try {
+                        onMessage(response);
+                    } catch (HandlerNotFoundException e) {
+                        throw new CompletionException(e);
+                    }
+                    return true;
+                })
+                .exceptionally(throwable -> {
+                    log.error(throwable.getMessage(), throwable);
+                    return false;
+                });
+    }
+
+    protected void pingSchedule(){
+        this.schedule(this::pingReferencedNodes, 0);
+    }
+
+    /**
+     * Pings the referenced nodes, skipping the ones that are seen through normal traffic within the part of the period that is not spread by jitter.
+     * Each ping is delayed by a random jitter of up to `pingJitterPercentage` of the period, so a round is spread instead of sent at once.
+     * At most `maximumInFlightPings` pings are in flight at the same time, so a dead node with a slow transport timeout only holds a single permit.
+     * A node is not scheduled again while its previous ping is pending
+     */
+    protected void pingReferencedNodes(){
+        long period = this.getNodeSettings().getPingScheduleTimeUnit().toMillis(this.getNodeSettings().getPingScheduleTimeValue());
+        long maximumJitter = period * Math.max(0, Math.min(100, this.getNodeSettings().getPingJitterPercentage())) / 100;
+        long seenSince = System.currentTimeMillis() - (period - maximumJitter);
+        // Nodes leave the table through deletes, evictions and replacements, their pong times are dropped with them
+        this.pongTimes.keySet().removeIf(nodeId -> !this.getRoutingTable().contains(nodeId));
+
+        for (Node<I, C> node : this.referencedNodesStrategy.getReferencedNodes(this)) {
+            if (node.getId().equals(this.getId()) || isSeenThroughTraffic(node, seenSince) || !this.pendingPings.add(node.getId()))
+                continue;
+            long jitter = maximumJitter > 0 ? ThreadLocalRandom.current().nextLong(maximumJitter) : 0;
+            this.scheduledExecutorService.schedule(() -> {
+                this.duePings.add(node);
+                this.executorService.execute(this::sendDuePings);
+            }, jitter, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* Nodes returned by the routing table lookups are copies, the bucket keeps the actual last seen date */
+    private boolean isSeenThroughTraffic(Node<I, C> node, long since){
+        ExternalNode<I, C> tableNode = this.getRoutingTable().findBucket(node.getId()).getNode(node.getId());
+        if (tableNode == null)
+            return false;
+        long lastSeen = tableNode.getLastSeen().getTime();
+        Long pongTime = this.pongTimes.get(node.getId());
+        return lastSeen > since && (pongTime == null || lastSeen > pongTime);
+    }
+
+    /*
+     * Sends due pings while permits are available. The queue is checked again after giving a permit back,
+     * so a ping that is added while the last permit is held is not left behind
+     */
+    private void sendDuePings(){
+        while (!this.duePings.isEmpty() && this.pingPermits.tryAcquire()) {
+            Node<I, C> node = this.duePings.poll();
+            if (node == null) {
+                this.pingPermits.release();
+                continue;
+            }
+            // Transports may send synchronously, so each ping gets an I/O thread of its own
+            this.ioExecutorService.execute(() -> ping(node));
+        }
+    }
+
+    private void ping(Node<I, C> node){
+        if (this.released.get()) {
+            this.onPingComplete(node);
+            return;
+        }
+        // A message per node, transports may set a different correlation id on each of them
+        getMessageSender().sendMessageAsync(this, node, new PingKademliaMessage<>()).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                log.debug("Failed to ping node " + node.getId(), throwable);
+            } else if (response != null) {
+                this.onResponse(response);
+                this.pongTimes.put(node.getId(), System.currentTimeMillis());
             }
+            this.onPingComplete(node);
         });
     }
 
-    protected void pingSchedule(){
-        this.scheduledExecutorService.scheduleAtFixedRate(
-                () -> {
-                    List<Node<I, C>> referencedNodes = this.referencedNodesStrategy.getReferencedNodes(this);
+    private void onPingComplete(Node<I, C> node){
+        this.pendingPings.remove(node.getId());
+        this.pingPermits.release();
+        if (!this.duePings.isEmpty() && !this.released.get())
+            this.executorService.execute(this::sendDuePings);
+    }
+
+    protected void staleNodesSchedule(){
+        this.schedule(this::checkStaleNodes, this.getNodeSettings().getPingScheduleTimeValue());
+    }
 
-                    PingKademliaMessage<I, C> message = new PingKademliaMessage<>();
-                    referencedNodes.forEach(node -> {
+    /**
+     * Runs task on the executor service every ping schedule period, until the node stops.
+     * The scheduler may be shared by many nodes, so it only hands the task over.
+     * Like scheduleAtFixedRate on a thread of its own, a period is skipped while the previous run has not finished
+     * @param task task to run
+     * @param initialDelay delay of the first run, in ping schedule time unit
+     */
+    protected void schedule(Runnable task, long initialDelay){
+        AtomicBoolean pending = new AtomicBoolean();
+        this.scheduledTasks.add(this.scheduledExecutorService.scheduleAtFixedRate(
+                () -> {
+                    if (!pending.compareAndSet(false, true))
+                        return;
+                    this.executorService.execute(() -> {
                         try {
-                            KademliaMessage<I, C, ?> response = getMessageSender().sendMessage(this, node, message);
-                            onMessage(response);
-                        } catch (HandlerNotFoundException e) {
-                            log.error(e.getMessage(), e);
+                            task.run();
+                        } finally {
+                            pending.set(false);
                         }
                     });
                 },
-                0,
+                initialDelay,
                 this.getNodeSettings().getPingScheduleTimeValue(),
                 this.getNodeSettings().getPingScheduleTimeUnit()
-        );
+        ));
+    }
+
+    protected void cancelScheduledTasks(){
+        this.scheduledTasks.forEach(scheduledFuture -> scheduledFuture.cancel(false));
+        this.scheduledTasks.clear();
+    }
+
+    /**
+     * Pings the least recently seen node of each bucket that has replacement candidates, if it is not seen recently.
+     * Nodes that answer as not alive get deleted by the response handler, and nodes that can not be reached are deleted here.
+     * Either way, the best candidate of the bucket takes their place
+     */
+    protected void checkStaleNodes(){
+        Date date = DateUtil.getDateOfSecondsAgo(this.getNodeSettings().getMaximumLastSeenAgeToConsiderAlive());
+        for (Bucket<I, C> bucket : this.getRoutingTable().getBuckets()) {
+            if (bucket.getReplacementIds().isEmpty())
+                continue;
+            List<I> nodeIds = bucket.getNodeIds();
+            if (nodeIds.isEmpty())
+                continue;
+            ExternalNode<I, C> node = bucket.getNode(nodeIds.get(nodeIds.size() - 1));
+            if (node == null || node.getId().equals(this.getId()) || node.getLastSeen().after(date))
+                continue;
+            this.ioExecutorService.execute(() -> getMessageSender().sendMessageAsync(this, node, new PingKademliaMessage<>()).whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    log.debug("Failed to ping stale node " + node.getId(), throwable);
+                    this.getRoutingTable().delete(node);
+                } else if (response != null) {
+                    this.onResponse(response);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Handles response of a message sent by this node itself
+     * @param response response message
+     */
+    protected void onResponse(KademliaMessage<I, C, ? extends Serializable> response){
+        try {
+            onMessage(response);
+        } catch (HandlerNotFoundException e) {
+            log.error(e.getMessage(), e);
+        }
     }
 
     @Override
@@ -11,7 +11,9 @@ import io.ep2p.kademlia.table.Bucket;
 import io.ep2p.kademlia.table.RoutingTable;
 
 import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Basic KademliaNodeAPI, contains core functionality of any sort of KademliaNode
@@ -54,6 +56,20 @@ public interface KademliaNodeAPI<I extends Number, C extends ConnectionInfo> ext
      * @return NodeSettings set for this node
      */
     NodeSettings getNodeSettings();
+    /**
+     * @return ExecutorService that runs the tasks of this node, may be shared with other nodes
+     */
+    ExecutorService getExecutorService();
+    /**
+     * @return ExecutorService to run tasks that may block on the transport, such as sending messages, may be shared with other nodes
+     */
+    default ExecutorService getIoExecutorService() {
+        return getExecutorService();
+    }
+    /**
+     * @return ScheduledExecutorService that schedules the tasks of this node, may be shared with other nodes
+     */
+    ScheduledExecutorService getScheduledExecutorService();
     /**
      * Called when there is a message that this node should handle
      * @param message message to handle
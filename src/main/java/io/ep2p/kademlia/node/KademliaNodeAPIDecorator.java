@@ -12,7 +12,9 @@ import io.ep2p.kademlia.table.RoutingTable;
 import lombok.Getter;
 
 import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 
 public abstract class KademliaNodeAPIDecorator<I extends Number, C extends ConnectionInfo> implements KademliaNodeAPI<I, C> {
     @Getter
@@ -72,6 +74,21 @@ public abstract class KademliaNodeAPIDecorator<I extends Number, C extends Conne
         return this.getKademliaNode().getNodeSettings();
     }
 
+    @Override
+    public ExecutorService getExecutorService() {
+        return this.getKademliaNode().getExecutorService();
+    }
+
+    @Override
+    public ExecutorService getIoExecutorService() {
+        return this.getKademliaNode().getIoExecutorService();
+    }
+
+    @Override
+    public ScheduledExecutorService getScheduledExecutorService() {
+        return this.getKademliaNode().getScheduledExecutorService();
+    }
+
     @Override
     public C getConnectionInfo() {
         return this.getKademliaNode().getConnectionInfo();
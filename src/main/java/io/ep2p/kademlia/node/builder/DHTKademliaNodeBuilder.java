@@ -9,11 +9,13 @@ import io.ep2p.kademlia.services.DHTLookupServiceFactory;
 import io.ep2p.kademlia.services.DHTStoreServiceFactory;
 import io.ep2p.kademlia.table.Bucket;
 import io.ep2p.kademlia.table.RoutingTable;
+import io.ep2p.kademlia.util.SharedExecutors;
+import io.ep2p.kademlia.util.VirtualThreads;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serializable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 
@@ -23,6 +25,7 @@ import java.util.concurrent.ScheduledExecutorService;
  * @param <K> Type of keys in DHT (serializable)
  * @param <V> Type of values in DHT (serializable)
  */
+@Slf4j
 public class DHTKademliaNodeBuilder<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> {
     private I id;
     private C connectionInfo;
@@ -33,6 +36,8 @@ public class DHTKademliaNodeBuilder<I extends Number, C extends ConnectionInfo,
     private NodeSettings nodeSettings;
     private ScheduledExecutorService scheduledExecutorService;
     private ExecutorService dhtExecutorService;
+    private SharedExecutors sharedExecutors;
+    private boolean virtualThreads;
     private DHTStoreServiceFactory<I, C, K, V> dhtStoreServiceFactory;
     private DHTLookupServiceFactory<I, C, K, V> dhtLookupServiceFactory;
 
@@ -61,7 +66,11 @@ public class DHTKademliaNodeBuilder<I extends Number, C extends ConnectionInfo,
     }
 
     protected KademliaNodeAPI<I, C> buildKademliaNode(){
-        return new KademliaNode<>(getId(), getConnectionInfo(), getRoutingTable(), getMessageSender(), getNodeSettings(), getScheduledExecutorService());
+        if (getScheduledExecutorService() != null)
+            return new KademliaNode<>(getId(), getConnectionInfo(), getRoutingTable(), getMessageSender(), getNodeSettings(), getScheduledExecutorService());
+        if (getSharedExecutors() != null)
+            return new KademliaNode<>(getId(), getConnectionInfo(), getRoutingTable(), getMessageSender(), getNodeSettings(), getSharedExecutors());
+        return new KademliaNode<>(getId(), getConnectionInfo(), getRoutingTable(), getMessageSender(), getNodeSettings());
     }
 
     public DHTKademliaNodeBuilder<I, C, K, V> setId(I id) {
@@ -89,16 +98,34 @@ public class DHTKademliaNodeBuilder<I extends Number, C extends ConnectionInfo,
         return this;
     }
 
+    /**
+     * @param scheduledExecutorService executor to run all tasks of the node on, instead of the shared executors. Node shuts it down when it stops
+     * @return this builder
+     */
     public DHTKademliaNodeBuilder<I, C, K, V> setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
         this.scheduledExecutorService = scheduledExecutorService;
         return this;
     }
 
+    /**
+     * @param dhtExecutorService executor to run the default store and lookup services on, instead of the I/O executor service of the node
+     * @return this builder
+     */
     public DHTKademliaNodeBuilder<I, C, K, V> setDhtExecutorService(ExecutorService dhtExecutorService) {
         this.dhtExecutorService = dhtExecutorService;
         return this;
     }
 
+    /**
+     * @param sharedExecutors executors to run the node on. Node acquires them when it is built and releases them when it stops.
+     *                        When not set, nodes share {@link SharedExecutors#acquireDefault()}
+     * @return this builder
+     */
+    public DHTKademliaNodeBuilder<I, C, K, V> setSharedExecutors(SharedExecutors sharedExecutors) {
+        this.sharedExecutors = sharedExecutors;
+        return this;
+    }
+
     public DHTKademliaNodeBuilder<I, C, K, V> setKeyHashGenerator(KeyHashGenerator<I, K> keyHashGenerator) {
         this.keyHashGenerator = keyHashGenerator;
         return this;
@@ -139,17 +166,38 @@ public class DHTKademliaNodeBuilder<I extends Number, C extends ConnectionInfo,
         return nodeSettings == null ? NodeSettings.Default.build() : nodeSettings;
     }
 
+    /**
+     * @param virtualThreads whether the default store and lookup services should run their blocking hops on virtual threads,
+     *                       so that they are not limited by the I/O executor of the node. Needs Java 21 or newer, older runtimes keep using the I/O executor.
+     *                       Ignored if a DHT executor is set
+     * @return this builder
+     */
+    public DHTKademliaNodeBuilder<I, C, K, V> setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
     protected ScheduledExecutorService getScheduledExecutorService() {
-        return scheduledExecutorService == null ? Executors.newSingleThreadScheduledExecutor() : scheduledExecutorService;
+        return scheduledExecutorService;
     }
 
-    protected synchronized ExecutorService getDhtExecutorService() {
-        if (dhtExecutorService == null){
-            dhtExecutorService = Executors.newFixedThreadPool(getNodeSettings().getDhtExecutorPoolSize());
+    protected ExecutorService getDhtExecutorService() {
+        if (dhtExecutorService == null && virtualThreads) {
+            if (VirtualThreads.isAvailable())
+                return VirtualThreads.getExecutorService();
+            log.warn("Virtual threads are not supported by this runtime, DHT services run on the I/O executor service of the node");
         }
         return dhtExecutorService;
     }
 
+    protected boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    protected SharedExecutors getSharedExecutors() {
+        return sharedExecutors;
+    }
+
     protected KeyHashGenerator<I, K> getKeyHashGenerator() {
         return keyHashGenerator;
     }
@@ -159,6 +207,7 @@ public class DHTKademliaNodeBuilder<I extends Number, C extends ConnectionInfo,
     }
 
     protected DHTStoreServiceFactory<I, C, K, V> getDhtStoreServiceFactory() {
+        // Without a DHT executor, the services run on the I/O executor service of the node
         return dhtStoreServiceFactory != null ? dhtStoreServiceFactory : new DHTStoreServiceFactory.DefaultDHTStoreServiceFactory<>(
                 getDhtExecutorService()
         );
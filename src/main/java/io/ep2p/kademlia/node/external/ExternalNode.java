@@ -37,16 +37,16 @@ public abstract class ExternalNode<I extends Number, C extends ConnectionInfo> e
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     ExternalNode<?, ?> that = (ExternalNode<?, ?>) o;
-    return Objects.equals(distance, that.distance) && Objects.equals(this.node, that.node);
+    return Objects.equals(getDistance(), that.getDistance()) && Objects.equals(this.node, that.node);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(distance, getLastSeen());
+    return Objects.hash(getDistance(), getLastSeen());
   }
 
   @Override
   public String toString() {
-    return "ExternalNode [id=" + getId() + ", distance=" + distance + "]";
+    return "ExternalNode [id=" + getId() + ", distance=" + getDistance() + "]";
   }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package io.ep2p.kademlia.node.external;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.id.LongArrayId;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * External node with ID of type LongArrayId
+ * @param <C> Your implementation of connection info
+ */
+public class LongArrayIdExternalNode<C extends ConnectionInfo> extends ExternalNode<LongArrayId, C> {
+    /* Id the distance is measured from, while the distance is not computed yet */
+    private transient LongArrayId destination;
+
+    public LongArrayIdExternalNode(Node<LongArrayId, C> node, LongArrayId distance) {
+        super(node, distance);
+    }
+
+    /**
+     * Creates a node that computes its distance to the destination once the distance is read.
+     * Nodes created for the same destination instance are compared without computing their distances.
+     * @param node node to wrap
+     * @param destination id to measure the distance from
+     * @param <C> Your implementation of connection info
+     * @return node with a lazily computed distance
+     */
+    public static <C extends ConnectionInfo> LongArrayIdExternalNode<C> withDestination(Node<LongArrayId, C> node, LongArrayId destination) {
+        LongArrayIdExternalNode<C> externalNode = new LongArrayIdExternalNode<>(node, null);
+        externalNode.destination = destination;
+        return externalNode;
+    }
+
+    @Override
+    public LongArrayId getDistance() {
+        if (this.distance == null && this.destination != null)
+            this.distance = this.destination.xor(getId());
+        return this.distance;
+    }
+
+    @Override
+    public void setDistance(LongArrayId distance) {
+        this.destination = null;
+        this.distance = distance;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compareTo(@NotNull Object o) {
+        if (o instanceof LongArrayIdExternalNode && this.destination != null && this.destination == ((LongArrayIdExternalNode<C>) o).destination)
+            return LongArrayId.compareDistance(getId(), ((LongArrayIdExternalNode<C>) o).getId(), this.destination);
+        ExternalNode<LongArrayId, C> c = (ExternalNode<LongArrayId, C>) o;
+        return getDistance().compareTo(c.getDistance());
+    }
+}
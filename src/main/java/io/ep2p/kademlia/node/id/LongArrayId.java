@@ -0,0 +1,305 @@
+package io.ep2p.kademlia.node.id;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Fixed width, unsigned node ID backed by a `long[]` (most significant word first).
+ * Meant for 160 and 256 bit identifiers where {@link BigInteger} would allocate on every xor and comparison.
+ * Distance comparison and prefix calculation can be done without creating the xor result, see
+ * {@link #xorBitLength(LongArrayId, int)} and {@link #compareDistance(LongArrayId, LongArrayId, LongArrayId)}.
+ * Instances are immutable.
+ */
+public final class LongArrayId extends Number implements Comparable<LongArrayId> {
+    private static final long serialVersionUID = -3197206426536094457L;
+    private final long[] words;
+    private transient int hash;
+
+    private LongArrayId(long[] words, boolean copy) {
+        if (words.length == 0)
+            throw new IllegalArgumentException("LongArrayId needs at least one word");
+        this.words = copy ? words.clone() : words;
+    }
+
+    /**
+     * @param words words of the id, most significant word first
+     */
+    public LongArrayId(long... words) {
+        this(words, true);
+    }
+
+    /**
+     * @param bits width of the id in bits
+     * @return id with value of zero
+     */
+    public static LongArrayId zero(int bits) {
+        return new LongArrayId(new long[wordsFor(bits)], false);
+    }
+
+    /**
+     * @param value value of the id, lower bits are kept if value does not fit
+     * @param bits width of the id in bits
+     * @return id holding value
+     */
+    public static LongArrayId valueOf(long value, int bits) {
+        long[] words = new long[wordsFor(bits)];
+        words[words.length - 1] = value;
+        return new LongArrayId(words, false);
+    }
+
+    /**
+     * @param value non-negative value of the id, lower bits are kept if value does not fit
+     * @param bits width of the id in bits
+     * @return id holding value
+     */
+    public static LongArrayId valueOf(BigInteger value, int bits) {
+        long[] words = new long[wordsFor(bits)];
+        for (int i = 0; i < words.length; i++) {
+            words[words.length - 1 - i] = value.shiftRight(i * Long.SIZE).longValue();
+        }
+        return new LongArrayId(words, false);
+    }
+
+    /**
+     * @param bytes big-endian unsigned bytes, length should be a multiple of 8
+     * @return id holding value of bytes
+     */
+    public static LongArrayId fromBytes(byte[] bytes) {
+        long[] words = new long[wordsFor(bytes.length * Byte.SIZE)];
+        int offset = words.length * Long.BYTES - bytes.length;
+        for (int i = 0; i < bytes.length; i++) {
+            int position = offset + i;
+            words[position / Long.BYTES] |= (bytes[i] & 0xFFL) << ((Long.BYTES - 1 - position % Long.BYTES) * Byte.SIZE);
+        }
+        return new LongArrayId(words, false);
+    }
+
+    private static int wordsFor(int bits) {
+        return Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * @return width of this id in bits
+     */
+    public int width() {
+        return words.length * Long.SIZE;
+    }
+
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * @param index index of the word, 0 is the most significant one
+     * @return word at index
+     */
+    public long word(int index) {
+        return words[index];
+    }
+
+    /**
+     * @return copy of the words, most significant word first
+     */
+    public long[] toWords() {
+        return words.clone();
+    }
+
+    /**
+     * @return big-endian unsigned bytes of the id, length is width / 8
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[words.length * Long.BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[i / Long.BYTES] >>> ((Long.BYTES - 1 - i % Long.BYTES) * Byte.SIZE));
+        }
+        return bytes;
+    }
+
+    public BigInteger toBigInteger() {
+        byte[] bytes = toBytes();
+        return new BigInteger(1, bytes);
+    }
+
+    public LongArrayId xor(LongArrayId other) {
+        checkWidth(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] ^ other.words[i];
+        }
+        return new LongArrayId(result, false);
+    }
+
+    /**
+     * @param n index of the bit, 0 is the least significant bit
+     * @return id with bit `n` flipped
+     */
+    public LongArrayId flipBit(int n) {
+        long[] result = words.clone();
+        result[wordIndexOf(n)] ^= 1L << (n % Long.SIZE);
+        return new LongArrayId(result, false);
+    }
+
+    /**
+     * @param n index of the bit, 0 is the least significant bit
+     * @return true if bit `n` is set
+     */
+    public boolean testBit(int n) {
+        if (n >= width())
+            return false;
+        return (words[wordIndexOf(n)] >>> (n % Long.SIZE) & 1L) != 0;
+    }
+
+    /**
+     * @param bits number of lower bits to keep
+     * @return id with every bit above `bits` cleared
+     */
+    public LongArrayId mask(int bits) {
+        if (bits >= width())
+            return this;
+        long[] result = words.clone();
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= wordMask(i, bits);
+        }
+        return new LongArrayId(result, false);
+    }
+
+    /**
+     * @return number of bits in the minimal representation of this id, 0 for zero
+     */
+    public int bitLength() {
+        return bitLength(width());
+    }
+
+    /**
+     * @param bits number of lower bits to consider
+     * @return bit length of the lower `bits` bits of this id
+     */
+    public int bitLength(int bits) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i] & wordMask(i, bits);
+            if (word != 0) {
+                return (words.length - i) * Long.SIZE - Long.numberOfLeadingZeros(word);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Bit length of `this xor other` without creating the xor result
+     * @param other id to xor with
+     * @param bits number of lower bits to consider
+     * @return bit length of the lower `bits` bits of `this xor other`
+     */
+    public int xorBitLength(LongArrayId other, int bits) {
+        checkWidth(other);
+        for (int i = 0; i < words.length; i++) {
+            long word = (words[i] ^ other.words[i]) & wordMask(i, bits);
+            if (word != 0) {
+                return (words.length - i) * Long.SIZE - Long.numberOfLeadingZeros(word);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares distances of two ids to a target without creating the xor results
+     * @param a first id
+     * @param b second id
+     * @param target id to measure distances from
+     * @return negative, zero or positive if `a` is closer, as close or farther than `b` to target
+     */
+    public static int compareDistance(LongArrayId a, LongArrayId b, LongArrayId target) {
+        a.checkWidth(b);
+        a.checkWidth(target);
+        for (int i = 0; i < a.words.length; i++) {
+            int result = Long.compareUnsigned(a.words[i] ^ target.words[i], b.words[i] ^ target.words[i]);
+            if (result != 0)
+                return result;
+        }
+        return 0;
+    }
+
+    @Override
+    public int compareTo(@NotNull LongArrayId other) {
+        checkWidth(other);
+        for (int i = 0; i < words.length; i++) {
+            int result = Long.compareUnsigned(words[i], other.words[i]);
+            if (result != 0)
+                return result;
+        }
+        return 0;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        return words[words.length - 1];
+    }
+
+    @Override
+    public float floatValue() {
+        return toBigInteger().floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return toBigInteger().doubleValue();
+    }
+
+    private int wordIndexOf(int bit) {
+        if (bit < 0 || bit >= width())
+            throw new IllegalArgumentException("Bit " + bit + " is out of range of " + width() + " bit id");
+        return words.length - 1 - bit / Long.SIZE;
+    }
+
+    /* Mask of the bits of word at index that are among the lower `bits` bits of the id */
+    private long wordMask(int index, int bits) {
+        int lowestBit = (words.length - 1 - index) * Long.SIZE;
+        if (bits <= lowestBit)
+            return 0L;
+        if (bits >= lowestBit + Long.SIZE)
+            return -1L;
+        return (1L << (bits - lowestBit)) - 1;
+    }
+
+    private void checkWidth(LongArrayId other) {
+        if (other.words.length != words.length)
+            throw new IllegalArgumentException("Can not compare " + width() + " bit id with " + other.width() + " bit id");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(words, ((LongArrayId) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Arrays.hashCode(words);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder(words.length * 16 + 2).append("0x");
+        for (long word : words) {
+            String hex = Long.toHexString(word);
+            for (int i = hex.length(); i < 16; i++) {
+                stringBuilder.append('0');
+            }
+            stringBuilder.append(hex);
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -1,28 +1,36 @@
 package io.ep2p.kademlia.node.strategies;
 
 import io.ep2p.kademlia.connection.ConnectionInfo;
-import io.ep2p.kademlia.model.FindNodeAnswer;
 import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.node.Node;
-import io.ep2p.kademlia.util.KadDistanceUtil;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.table.Bucket;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * References the closest node to `id ^ 2^i` for each bit `i` of the identifier.
+ * Bucket `i + 1` holds the nodes whose distance to the owner is in [2^i, 2^(i+1)), and every node outside of it is at least 2^i away from `id ^ 2^i`,
+ * so the closest node of that bucket to the owner is the answer. Each bucket is scanned once instead of running a full closest nodes lookup per bit.
+ */
 public class ClosestPerBucketReferencedNodeStrategy implements ReferencedNodesStrategy {
     @Override
     public <I extends Number, C extends ConnectionInfo> List<Node<I, C>> getReferencedNodes(KademliaNodeAPI<I, C> kademliaNodeAPI) {
         List<Node<I, C>> referencedNodes = new ArrayList<>();
 
-        List<I> distances = KadDistanceUtil.getNodesWithDistance(kademliaNodeAPI.getId(), kademliaNodeAPI.getNodeSettings().getIdentifierSize());
-        distances.forEach(distance -> {
-            FindNodeAnswer<I, C> findNodeAnswer = kademliaNodeAPI.getRoutingTable().findClosest(distance);
-            if (findNodeAnswer.getNodes().isEmpty()) {
-                return;
+        for (Bucket<I, C> bucket : kademliaNodeAPI.getRoutingTable().getBuckets()) {
+            ExternalNode<I, C> closest = null;
+            for (I nodeId : bucket.getNodeIds()) {
+                if (nodeId.equals(kademliaNodeAPI.getId()))
+                    continue;
+                ExternalNode<I, C> node = bucket.getNode(nodeId);
+                if (node != null && (closest == null || node.compareTo(closest) < 0))
+                    closest = node;
             }
-            if (!findNodeAnswer.getNodes().get(0).getId().equals(kademliaNodeAPI.getId()) && !referencedNodes.contains(findNodeAnswer.getNodes().get(0)))
-                referencedNodes.add(findNodeAnswer.getNodes().get(0));
-        });
+            if (closest != null)
+                referencedNodes.add(closest);
+        }
 
         return referencedNodes;
     }
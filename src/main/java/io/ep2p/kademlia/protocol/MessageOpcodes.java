@@ -0,0 +1,117 @@
+package io.ep2p.kademlia.protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact numeric codes of message types, used to dispatch messages with an array index instead of a string lookup.
+ * Built-in types have the fixed opcodes below, which are also their tags on the wire.
+ * Custom string types get the next free opcode when a handler is registered for them, so their opcodes are only meaningful inside this JVM.
+ * Types of received messages are only looked up with {@link #find(String)}, so peers can not grow the registry.
+ */
+public final class MessageOpcodes {
+    public static final int EMPTY = 0;
+    public static final int FIND_NODE_REQ = 1;
+    public static final int FIND_NODE_RES = 2;
+    public static final int PING = 3;
+    public static final int PONG = 4;
+    public static final int SHUTDOWN = 5;
+    public static final int DHT_STORE = 6;
+    public static final int DHT_STORE_PULL = 7;
+    public static final int DHT_STORE_RESULT = 8;
+    public static final int DHT_STORE_REPLICA = 9;
+    public static final int DHT_STORE_BATCH = 10;
+    public static final int DHT_STORE_BATCH_RESULT = 11;
+    public static final int DHT_LOOKUP = 12;
+    public static final int DHT_LOOKUP_RESULT = 13;
+    public static final int DHT_FIND_VALUE = 14;
+    public static final int DHT_LOOKUP_BATCH = 15;
+    public static final int DHT_LOOKUP_BATCH_RESULT = 16;
+    public static final int BATCH = 17;
+    /* Opcode of messages without a type */
+    public static final int UNKNOWN = -1;
+
+    /* Index of each type is its opcode, new built-in types should only be appended */
+    private static final List<String> BUILT_IN_TYPES = List.of(
+            MessageType.EMPTY,
+            MessageType.FIND_NODE_REQ,
+            MessageType.FIND_NODE_RES,
+            MessageType.PING,
+            MessageType.PONG,
+            MessageType.SHUTDOWN,
+            MessageType.DHT_STORE,
+            MessageType.DHT_STORE_PULL,
+            MessageType.DHT_STORE_RESULT,
+            MessageType.DHT_STORE_REPLICA,
+            MessageType.DHT_STORE_BATCH,
+            MessageType.DHT_STORE_BATCH_RESULT,
+            MessageType.DHT_LOOKUP,
+            MessageType.DHT_LOOKUP_RESULT,
+            MessageType.DHT_FIND_VALUE,
+            MessageType.DHT_LOOKUP_BATCH,
+            MessageType.DHT_LOOKUP_BATCH_RESULT,
+            MessageType.BATCH
+    );
+    private static final Map<String, Integer> OPCODES = new ConcurrentHashMap<>();
+    private static final List<String> TYPES = new ArrayList<>(BUILT_IN_TYPES);
+
+    static {
+        for (int i = 0; i < BUILT_IN_TYPES.size(); i++) {
+            OPCODES.put(BUILT_IN_TYPES.get(i), i);
+        }
+    }
+
+    private MessageOpcodes(){}
+
+    /**
+     * Assigns opcodes permanently, so it is only meant for registration of handlers. Use {@link #find(String)} for types of messages
+     * @param type message type
+     * @return opcode of the type, a new one is assigned to types that are not seen before
+     */
+    public static int opcodeOf(String type) {
+        if (type == null)
+            return UNKNOWN;
+        Integer opcode = OPCODES.get(type);
+        if (opcode != null)
+            return opcode;
+        synchronized (TYPES) {
+            return OPCODES.computeIfAbsent(type, t -> {
+                TYPES.add(t);
+                return TYPES.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * @param type message type
+     * @return opcode of the type, or UNKNOWN if it has none yet
+     */
+    public static int find(String type) {
+        if (type == null)
+            return UNKNOWN;
+        return OPCODES.getOrDefault(type, UNKNOWN);
+    }
+
+    /**
+     * @param opcode opcode of a type
+     * @return type of the opcode, null if no type has it
+     */
+    public static String typeOf(int opcode) {
+        synchronized (TYPES) {
+            return opcode >= 0 && opcode < TYPES.size() ? TYPES.get(opcode) : null;
+        }
+    }
+
+    /**
+     * @return number of built-in types, whose opcodes are 0 up to this number
+     */
+    public static int builtInCount() {
+        return BUILT_IN_TYPES.size();
+    }
+
+    public static boolean isBuiltIn(int opcode) {
+        return opcode >= 0 && opcode < BUILT_IN_TYPES.size();
+    }
+}
@@ -10,6 +10,13 @@ public interface MessageType {
     String DHT_STORE = "DHT_STORE";
     String DHT_STORE_PULL = "DHT_STORE_PULL";
     String DHT_STORE_RESULT = "DHT_STORE_RESULT";
+    String DHT_STORE_REPLICA = "DHT_STORE_REPLICA";
+    String DHT_STORE_BATCH = "DHT_STORE_BATCH";
+    String DHT_STORE_BATCH_RESULT = "DHT_STORE_BATCH_RESULT";
     String DHT_LOOKUP = "DHT_LOOKUP";
     String DHT_LOOKUP_RESULT = "DHT_LOOKUP_RESULT";
+    String DHT_FIND_VALUE = "DHT_FIND_VALUE";
+    String DHT_LOOKUP_BATCH = "DHT_LOOKUP_BATCH";
+    String DHT_LOOKUP_BATCH_RESULT = "DHT_LOOKUP_BATCH_RESULT";
+    String BATCH = "BATCH";
 }
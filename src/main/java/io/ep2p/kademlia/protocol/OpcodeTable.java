@@ -0,0 +1,50 @@
+package io.ep2p.kademlia.protocol;
+
+import java.util.Arrays;
+
+/**
+ * Map from message type to a value, backed by an array indexed by the opcode of the type.
+ * Reads are a single array index and never lock. Writes copy the array, so they are meant for registration time.
+ * @param <T> Type of the values
+ */
+public class OpcodeTable<T> {
+    private volatile Object[] values = new Object[MessageOpcodes.builtInCount()];
+
+    /**
+     * @param type message type, gets an opcode if it has none
+     * @param value value of the type
+     * @return previous value of the type
+     */
+    public synchronized T put(String type, T value) {
+        int opcode = MessageOpcodes.opcodeOf(type);
+        if (opcode == MessageOpcodes.UNKNOWN)
+            throw new IllegalArgumentException("Type can not be null");
+        Object[] copy = Arrays.copyOf(this.values, Math.max(this.values.length, opcode + 1));
+        T previous = cast(copy[opcode]);
+        copy[opcode] = value;
+        this.values = copy;
+        return previous;
+    }
+
+    /**
+     * @param opcode opcode of message type
+     * @return value of the type, null if there is none
+     */
+    public T get(int opcode) {
+        Object[] values = this.values;
+        return opcode >= 0 && opcode < values.length ? cast(values[opcode]) : null;
+    }
+
+    /**
+     * @param type message type
+     * @return value of the type, null if there is none
+     */
+    public T get(String type) {
+        return get(MessageOpcodes.find(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+}
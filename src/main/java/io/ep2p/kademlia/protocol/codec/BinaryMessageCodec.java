@@ -0,0 +1,357 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import io.ep2p.kademlia.protocol.message.*;
+import io.ep2p.kademlia.util.DateUtil;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compact binary encoding of the built-in message types.
+ * <p>
+ * Every message starts with a one byte type tag, which is the opcode of the type, and a flags byte, followed by the correlation id if it is set,
+ * the sender node and the data of the type.
+ * Node IDs take the fixed width of the IdCodec, lengths and counts are variable length ints, and answer results are single bytes.
+ * Nodes of a find node answer are packed one after another without their distance, which is computed again from the destination ID.
+ * Connection info, keys and values are written by the given ObjectCodecs.
+ * Messages of a batch are encoded one by one, each prefixed with its length.
+ * Last seen dates of nodes are not encoded.
+ * </p>
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+public class BinaryMessageCodec<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> implements MessageCodec<I, C> {
+    static final int FLAG_ALIVE = 1;
+    static final int FLAG_NODE = 1 << 1;
+    static final int FLAG_FROM_FIND_HANDLER = 1 << 2;
+    static final int FLAG_CORRELATION_ID = 1 << 3;
+
+    private static final StoreAnswer.Result[] STORE_RESULTS = StoreAnswer.Result.values();
+    private static final LookupAnswer.Result[] LOOKUP_RESULTS = LookupAnswer.Result.values();
+
+    private final IdCodec<I> idCodec;
+    private final ObjectCodec<C> connectionInfoCodec;
+    private final ObjectCodec<K> keyCodec;
+    private final ObjectCodec<V> valueCodec;
+
+    public BinaryMessageCodec(IdCodec<I> idCodec, ObjectCodec<C> connectionInfoCodec, ObjectCodec<K> keyCodec, ObjectCodec<V> valueCodec) {
+        this.idCodec = idCodec;
+        this.connectionInfoCodec = connectionInfoCodec;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    @Override
+    public byte[] encode(KademliaMessage<I, C, ? extends Serializable> message) {
+        int tag = message.getOpcode();
+        if (!MessageOpcodes.isBuiltIn(tag))
+            throw new MessageCodecException("Unsupported message type: " + message.getType());
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(byteArrayOutputStream);
+        try {
+            int flags = 0;
+            if (message.isAlive())
+                flags |= FLAG_ALIVE;
+            if (message.getNode() != null)
+                flags |= FLAG_NODE;
+            if (message instanceof PongKademliaMessage && ((PongKademliaMessage<?, ?>) message).isFromFindHandler())
+                flags |= FLAG_FROM_FIND_HANDLER;
+            if (message.getCorrelationId() != 0)
+                flags |= FLAG_CORRELATION_ID;
+            out.writeByte(tag);
+            out.writeByte(flags);
+            if (message.getCorrelationId() != 0)
+                VarInts.writeLong(out, message.getCorrelationId());
+            if (message.getNode() != null)
+                writeNode(out, message.getNode());
+            writeData(out, tag, message.getData());
+            out.flush();
+        } catch (IOException | ClassCastException e) {
+            throw new MessageCodecException("Failed to encode " + message.getType() + " message", e);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <O extends Serializable> KademliaMessage<I, C, O> decode(byte[] bytes) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            int tag = in.readUnsignedByte();
+            if (!MessageOpcodes.isBuiltIn(tag))
+                throw new MessageCodecException("Unknown message tag: " + tag);
+            int flags = in.readUnsignedByte();
+            long correlationId = (flags & FLAG_CORRELATION_ID) != 0 ? VarInts.readLong(in) : 0;
+            Node<I, C> node = (flags & FLAG_NODE) != 0 ? readNode(in) : null;
+            KademliaMessage<I, C, ? extends Serializable> message = readMessage(in, tag, flags);
+            message.setNode(node);
+            message.setAlive((flags & FLAG_ALIVE) != 0);
+            message.setCorrelationId(correlationId);
+            if (in.available() > 0)
+                throw new MessageCodecException(in.available() + " unexpected bytes after " + message.getType() + " message");
+            return (KademliaMessage<I, C, O>) message;
+        } catch (IOException e) {
+            throw new MessageCodecException("Failed to decode message", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeData(DataOutputStream out, int opcode, Object data) throws IOException {
+        switch (opcode) {
+            case MessageOpcodes.EMPTY:
+            case MessageOpcodes.PING:
+            case MessageOpcodes.PONG:
+            case MessageOpcodes.SHUTDOWN:
+                break;
+            case MessageOpcodes.FIND_NODE_REQ:
+                this.idCodec.write(out, (I) data);
+                break;
+            case MessageOpcodes.FIND_NODE_RES:
+                writeFindNodeAnswer(out, (FindNodeAnswer<I, C>) data);
+                break;
+            case MessageOpcodes.DHT_STORE:
+            case MessageOpcodes.DHT_STORE_REPLICA:
+                DHTStoreKademliaMessage.DHTData<I, C, K, V> dhtData = (DHTStoreKademliaMessage.DHTData<I, C, K, V>) data;
+                writeNode(out, dhtData.getRequester());
+                this.keyCodec.write(out, dhtData.getKey());
+                writeNullable(out, this.valueCodec, dhtData.getValue());
+                out.writeLong(DateUtil.getRemainingMillis(dhtData.getDeadline()));
+                break;
+            case MessageOpcodes.DHT_STORE_PULL:
+                this.keyCodec.write(out, ((DHTStorePullKademliaMessage.DHTStorePullData<K>) data).getKey());
+                break;
+            case MessageOpcodes.DHT_STORE_RESULT:
+                DHTStoreResultKademliaMessage.DHTStoreResult<K> storeResult = (DHTStoreResultKademliaMessage.DHTStoreResult<K>) data;
+                this.keyCodec.write(out, storeResult.getKey());
+                out.writeByte(storeResult.getResult().ordinal());
+                break;
+            case MessageOpcodes.DHT_STORE_BATCH:
+                DHTStoreBatchKademliaMessage.DHTStoreBatch<I, C, K, V> storeBatch = (DHTStoreBatchKademliaMessage.DHTStoreBatch<I, C, K, V>) data;
+                writeNode(out, storeBatch.getRequester());
+                VarInts.write(out, storeBatch.getEntries().size());
+                for (Map.Entry<K, V> entry : storeBatch.getEntries().entrySet()) {
+                    this.keyCodec.write(out, entry.getKey());
+                    writeNullable(out, this.valueCodec, entry.getValue());
+                }
+                out.writeLong(DateUtil.getRemainingMillis(storeBatch.getDeadline()));
+                break;
+            case MessageOpcodes.DHT_STORE_BATCH_RESULT:
+                Map<K, StoreAnswer.Result> results = ((DHTStoreBatchResultKademliaMessage.DHTStoreBatchResult<K>) data).getResults();
+                VarInts.write(out, results.size());
+                for (Map.Entry<K, StoreAnswer.Result> entry : results.entrySet()) {
+                    this.keyCodec.write(out, entry.getKey());
+                    out.writeByte(entry.getValue().ordinal());
+                }
+                break;
+            case MessageOpcodes.DHT_LOOKUP:
+                DHTLookupKademliaMessage.DHTLookup<I, C, K> lookup = (DHTLookupKademliaMessage.DHTLookup<I, C, K>) data;
+                writeNode(out, lookup.getRequester());
+                this.keyCodec.write(out, lookup.getKey());
+                VarInts.write(out, lookup.getCurrentTry());
+                out.writeLong(DateUtil.getRemainingMillis(lookup.getDeadline()));
+                break;
+            case MessageOpcodes.DHT_LOOKUP_RESULT:
+                writeLookupResult(out, (DHTLookupResultKademliaMessage.DHTLookupResult<K, V>) data);
+                break;
+            case MessageOpcodes.DHT_FIND_VALUE:
+                this.keyCodec.write(out, (K) data);
+                break;
+            case MessageOpcodes.DHT_LOOKUP_BATCH:
+                DHTLookupBatchKademliaMessage.DHTLookupBatch<I, C, K> lookupBatch = (DHTLookupBatchKademliaMessage.DHTLookupBatch<I, C, K>) data;
+                writeNode(out, lookupBatch.getRequester());
+                VarInts.write(out, lookupBatch.getKeys().size());
+                for (K key : lookupBatch.getKeys()) {
+                    this.keyCodec.write(out, key);
+                }
+                VarInts.write(out, lookupBatch.getCurrentTry());
+                out.writeLong(DateUtil.getRemainingMillis(lookupBatch.getDeadline()));
+                break;
+            case MessageOpcodes.DHT_LOOKUP_BATCH_RESULT:
+                List<DHTLookupResultKademliaMessage.DHTLookupResult<K, V>> lookupResults = (List<DHTLookupResultKademliaMessage.DHTLookupResult<K, V>>) data;
+                VarInts.write(out, lookupResults.size());
+                for (DHTLookupResultKademliaMessage.DHTLookupResult<K, V> lookupResult : lookupResults) {
+                    writeLookupResult(out, lookupResult);
+                }
+                break;
+            case MessageOpcodes.BATCH:
+                List<KademliaMessage<I, C, ? extends Serializable>> messages = (List<KademliaMessage<I, C, ? extends Serializable>>) data;
+                VarInts.write(out, messages.size());
+                for (KademliaMessage<I, C, ? extends Serializable> inner : messages) {
+                    byte[] bytes = encode(inner);
+                    VarInts.write(out, bytes.length);
+                    out.write(bytes);
+                }
+                break;
+            default:
+                throw new MessageCodecException("Unsupported message type: " + MessageOpcodes.typeOf(opcode));
+        }
+    }
+
+    private KademliaMessage<I, C, ? extends Serializable> readMessage(DataInputStream in, int opcode, int flags) throws IOException {
+        switch (opcode) {
+            case MessageOpcodes.EMPTY:
+                return new EmptyKademliaMessage<>();
+            case MessageOpcodes.PING:
+                return new PingKademliaMessage<>();
+            case MessageOpcodes.PONG:
+                PongKademliaMessage<I, C> pongMessage = new PongKademliaMessage<>();
+                pongMessage.setFromFindHandler((flags & FLAG_FROM_FIND_HANDLER) != 0);
+                return pongMessage;
+            case MessageOpcodes.SHUTDOWN:
+                return new ShutdownKademliaMessage<>();
+            case MessageOpcodes.FIND_NODE_REQ:
+                FindNodeRequestMessage<I, C> findNodeRequestMessage = new FindNodeRequestMessage<>();
+                findNodeRequestMessage.setData(this.idCodec.read(in));
+                return findNodeRequestMessage;
+            case MessageOpcodes.FIND_NODE_RES:
+                FindNodeResponseMessage<I, C> findNodeResponseMessage = new FindNodeResponseMessage<>();
+                findNodeResponseMessage.setData(readFindNodeAnswer(in));
+                return findNodeResponseMessage;
+            case MessageOpcodes.DHT_STORE:
+                return new DHTStoreKademliaMessage<>(readDHTData(in));
+            case MessageOpcodes.DHT_STORE_REPLICA:
+                return new DHTStoreReplicaKademliaMessage<>(readDHTData(in));
+            case MessageOpcodes.DHT_STORE_PULL:
+                return new DHTStorePullKademliaMessage<I, C, K>(new DHTStorePullKademliaMessage.DHTStorePullData<>(this.keyCodec.read(in)));
+            case MessageOpcodes.DHT_STORE_RESULT:
+                K storedKey = this.keyCodec.read(in);
+                return new DHTStoreResultKademliaMessage<I, C, K>(new DHTStoreResultKademliaMessage.DHTStoreResult<>(storedKey, readStoreResult(in)));
+            case MessageOpcodes.DHT_STORE_BATCH:
+                Node<I, C> storeRequester = readNode(in);
+                int entryCount = VarInts.read(in);
+                Map<K, V> entries = new LinkedHashMap<>();
+                for (int i = 0; i < entryCount; i++) {
+                    entries.put(this.keyCodec.read(in), readNullable(in, this.valueCodec));
+                }
+                return new DHTStoreBatchKademliaMessage<>(new DHTStoreBatchKademliaMessage.DHTStoreBatch<>(storeRequester, entries, DateUtil.getDeadlineOfRemaining(in.readLong())));
+            case MessageOpcodes.DHT_STORE_BATCH_RESULT:
+                int resultCount = VarInts.read(in);
+                Map<K, StoreAnswer.Result> results = new LinkedHashMap<>();
+                for (int i = 0; i < resultCount; i++) {
+                    results.put(this.keyCodec.read(in), readStoreResult(in));
+                }
+                return new DHTStoreBatchResultKademliaMessage<I, C, K>(new DHTStoreBatchResultKademliaMessage.DHTStoreBatchResult<>(results));
+            case MessageOpcodes.DHT_LOOKUP:
+                Node<I, C> lookupRequester = readNode(in);
+                K lookupKey = this.keyCodec.read(in);
+                int currentTry = VarInts.read(in);
+                return new DHTLookupKademliaMessage<>(new DHTLookupKademliaMessage.DHTLookup<>(lookupRequester, lookupKey, currentTry, DateUtil.getDeadlineOfRemaining(in.readLong())));
+            case MessageOpcodes.DHT_LOOKUP_RESULT:
+                return new DHTLookupResultKademliaMessage<I, C, K, V>(readLookupResult(in));
+            case MessageOpcodes.DHT_FIND_VALUE:
+                return new DHTFindValueKademliaMessage<I, C, K>(this.keyCodec.read(in));
+            case MessageOpcodes.DHT_LOOKUP_BATCH:
+                Node<I, C> batchRequester = readNode(in);
+                int keyCount = VarInts.read(in);
+                List<K> keys = new ArrayList<>(keyCount);
+                for (int i = 0; i < keyCount; i++) {
+                    keys.add(this.keyCodec.read(in));
+                }
+                int batchTry = VarInts.read(in);
+                return new DHTLookupBatchKademliaMessage<>(new DHTLookupBatchKademliaMessage.DHTLookupBatch<>(batchRequester, keys, batchTry, DateUtil.getDeadlineOfRemaining(in.readLong())));
+            case MessageOpcodes.DHT_LOOKUP_BATCH_RESULT:
+                int lookupResultCount = VarInts.read(in);
+                ArrayList<DHTLookupResultKademliaMessage.DHTLookupResult<K, V>> lookupResults = new ArrayList<>(lookupResultCount);
+                for (int i = 0; i < lookupResultCount; i++) {
+                    lookupResults.add(readLookupResult(in));
+                }
+                return new DHTLookupBatchResultKademliaMessage<I, C, K, V>(lookupResults);
+            case MessageOpcodes.BATCH:
+                int messageCount = VarInts.read(in);
+                ArrayList<KademliaMessage<I, C, ? extends Serializable>> messages = new ArrayList<>(messageCount);
+                for (int i = 0; i < messageCount; i++) {
+                    byte[] bytes = new byte[VarInts.read(in)];
+                    in.readFully(bytes);
+                    messages.add(decode(bytes));
+                }
+                return new BatchKademliaMessage<>(messages);
+            default:
+                throw new MessageCodecException("Unsupported message type: " + MessageOpcodes.typeOf(opcode));
+        }
+    }
+
+    private void writeNode(DataOutput out, Node<I, C> node) throws IOException {
+        this.idCodec.write(out, node.getId());
+        writeNullable(out, this.connectionInfoCodec, node.getConnectionInfo());
+    }
+
+    private Node<I, C> readNode(DataInput in) throws IOException {
+        I id = this.idCodec.read(in);
+        return new DecodedNode<>(id, readNullable(in, this.connectionInfoCodec));
+    }
+
+    private void writeFindNodeAnswer(DataOutput out, FindNodeAnswer<I, C> findNodeAnswer) throws IOException {
+        this.idCodec.write(out, findNodeAnswer.getDestinationId());
+        List<ExternalNode<I, C>> nodes = findNodeAnswer.getNodes();
+        VarInts.write(out, nodes.size());
+        for (ExternalNode<I, C> externalNode : nodes) {
+            writeNode(out, externalNode);
+        }
+    }
+
+    private FindNodeAnswer<I, C> readFindNodeAnswer(DataInput in) throws IOException {
+        FindNodeAnswer<I, C> findNodeAnswer = new FindNodeAnswer<>(this.idCodec.read(in));
+        int count = VarInts.read(in);
+        for (int i = 0; i < count; i++) {
+            Node<I, C> node = readNode(in);
+            findNodeAnswer.add(this.idCodec.externalNode(node, this.idCodec.distance(node.getId(), findNodeAnswer.getDestinationId())));
+        }
+        return findNodeAnswer;
+    }
+
+    private DHTStoreKademliaMessage.DHTData<I, C, K, V> readDHTData(DataInput in) throws IOException {
+        Node<I, C> requester = readNode(in);
+        K key = this.keyCodec.read(in);
+        V value = readNullable(in, this.valueCodec);
+        return new DHTStoreKademliaMessage.DHTData<>(requester, key, value, DateUtil.getDeadlineOfRemaining(in.readLong()));
+    }
+
+    private void writeLookupResult(DataOutput out, DHTLookupResultKademliaMessage.DHTLookupResult<K, V> lookupResult) throws IOException {
+        out.writeByte(lookupResult.getResult().ordinal());
+        this.keyCodec.write(out, lookupResult.getKey());
+        writeNullable(out, this.valueCodec, lookupResult.getValue());
+    }
+
+    private DHTLookupResultKademliaMessage.DHTLookupResult<K, V> readLookupResult(DataInput in) throws IOException {
+        LookupAnswer.Result result = readResult(in, LOOKUP_RESULTS);
+        K key = this.keyCodec.read(in);
+        return new DHTLookupResultKademliaMessage.DHTLookupResult<>(result, key, readNullable(in, this.valueCodec));
+    }
+
+    private StoreAnswer.Result readStoreResult(DataInput in) throws IOException {
+        return readResult(in, STORE_RESULTS);
+    }
+
+    private static <R> R readResult(DataInput in, R[] values) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= values.length)
+            throw new MessageCodecException("Unknown result: " + ordinal);
+        return values[ordinal];
+    }
+
+    static <T> void writeNullable(DataOutput out, ObjectCodec<T> objectCodec, T value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            objectCodec.write(out, value);
+    }
+
+    static <T> T readNullable(DataInput in, ObjectCodec<T> objectCodec) throws IOException {
+        return in.readBoolean() ? objectCodec.read(in) : null;
+    }
+
+    static <T> void skipNullable(DataInput in, ObjectCodec<T> objectCodec) throws IOException {
+        if (in.readBoolean())
+            objectCodec.skip(in);
+    }
+}
@@ -0,0 +1,140 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * DataInput that reads straight from a ByteBuffer, so ObjectCodecs can be used on network buffers.
+ * Values are read big-endian like DataInputStream does, whatever the order of the buffer is.
+ * Reading past the limit of the buffer throws {@link EOFException}.
+ */
+public class ByteBufferDataInput implements DataInput {
+    private final ByteBuffer buffer;
+    private final boolean swap;
+
+    /**
+     * @param buffer buffer to read from its current position
+     */
+    public ByteBufferDataInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.swap = buffer.order() != ByteOrder.BIG_ENDIAN;
+    }
+
+    public ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    private void require(int bytes) throws EOFException {
+        if (this.buffer.remaining() < bytes)
+            throw new EOFException("Needed " + bytes + " bytes, " + this.buffer.remaining() + " remaining");
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        require(len);
+        this.buffer.get(b, off, len);
+    }
+
+    /* Unlike DataInputStream, skips exactly n bytes or throws */
+    @Override
+    public int skipBytes(int n) throws IOException {
+        if (n <= 0)
+            return 0;
+        require(n);
+        this.buffer.position(this.buffer.position() + n);
+        return n;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return this.buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(Short.BYTES);
+        short v = this.buffer.getShort();
+        return this.swap ? Short.reverseBytes(v) : v;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        require(Character.BYTES);
+        char v = this.buffer.getChar();
+        return this.swap ? Character.reverseBytes(v) : v;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        int v = this.buffer.getInt();
+        return this.swap ? Integer.reverseBytes(v) : v;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        long v = this.buffer.getLong();
+        return this.swap ? Long.reverseBytes(v) : v;
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /* Same line ends as DataInputStream#readLine, bytes are taken as ISO-8859-1 chars */
+    @Override
+    public String readLine() {
+        if (!this.buffer.hasRemaining())
+            return null;
+        StringBuilder line = new StringBuilder();
+        while (this.buffer.hasRemaining()) {
+            char c = (char) (this.buffer.get() & 0xFF);
+            if (c == '\n')
+                break;
+            if (c == '\r') {
+                if (this.buffer.hasRemaining() && this.buffer.get(this.buffer.position()) == '\n')
+                    this.buffer.get();
+                break;
+            }
+            line.append(c);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
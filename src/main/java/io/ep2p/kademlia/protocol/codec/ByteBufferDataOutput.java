@@ -0,0 +1,123 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import java.io.DataOutput;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * DataOutput that writes straight into a ByteBuffer, so ObjectCodecs can be used on network buffers.
+ * Values are written big-endian like DataOutputStream does, whatever the order of the buffer is.
+ * Writing past the limit of the buffer throws {@link java.nio.BufferOverflowException}.
+ */
+public class ByteBufferDataOutput implements DataOutput {
+    private final ByteBuffer buffer;
+    private final boolean swap;
+
+    /**
+     * @param buffer buffer to write to from its current position
+     */
+    public ByteBufferDataOutput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.swap = buffer.order() != ByteOrder.BIG_ENDIAN;
+    }
+
+    public ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+        this.buffer.put(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        this.buffer.put(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        this.buffer.put((byte) (v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(int v) {
+        this.buffer.put((byte) v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        this.buffer.putShort(this.swap ? Short.reverseBytes((short) v) : (short) v);
+    }
+
+    @Override
+    public void writeChar(int v) {
+        this.buffer.putChar(this.swap ? Character.reverseBytes((char) v) : (char) v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        this.buffer.putInt(this.swap ? Integer.reverseBytes(v) : v);
+    }
+
+    @Override
+    public void writeLong(long v) {
+        this.buffer.putLong(this.swap ? Long.reverseBytes(v) : v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            this.buffer.put((byte) s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    /* Modified UTF-8, same as DataOutputStream#writeUTF */
+    @Override
+    public void writeUTF(String s) throws UTFDataFormatException {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c > 0x07FF ? 3 : 2;
+        }
+        if (length > 0xFFFF)
+            throw new UTFDataFormatException("Encoded string too long: " + length + " bytes");
+        writeShort(length);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                this.buffer.put((byte) c);
+            } else if (c > 0x07FF) {
+                this.buffer.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+                this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                this.buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                this.buffer.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+                this.buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import com.google.common.base.Objects;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Node as it is read from the wire, only holds what is needed to contact it
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class DecodedNode<I extends Number, C extends ConnectionInfo> implements Node<I, C> {
+    private final I id;
+    private final C connectionInfo;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DecodedNode<?, ?> that = (DecodedNode<?, ?>) o;
+        return Objects.equal(getId(), that.getId()) && Objects.equal(getConnectionInfo(), that.getConnectionInfo());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId(), getConnectionInfo());
+    }
+}
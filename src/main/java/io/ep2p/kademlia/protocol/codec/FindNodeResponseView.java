@@ -0,0 +1,208 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.external.LongExternalNode;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import io.ep2p.kademlia.protocol.MessageType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Flyweight reader of FIND_NODE_RES messages with 64-bit node IDs, as {@link BinaryMessageCodec} and {@link FindNodeResponseWriter} write them.
+ * Only the header is read when a buffer is wrapped. Entries are read one at a time with {@link #next()},
+ * and connection info is only decoded when asked for, so going through the IDs does not allocate per entry.
+ * A view is not thread safe, and can be reused for the next buffer.
+ * <pre>
+ * view.wrap(buffer);
+ * while (view.next()) {
+ *     long id = view.id();
+ * }
+ * </pre>
+ * @param <C> Your implementation of connection info
+ */
+public class FindNodeResponseView<C extends ConnectionInfo> {
+    private static final int TAG = MessageOpcodes.FIND_NODE_RES;
+
+    private final ObjectCodec<C> connectionInfoCodec;
+    private ByteBuffer buffer;
+    private ByteBufferDataInput in;
+    private boolean alive;
+    private long correlationId;
+    private boolean hasSender;
+    private long senderId;
+    private int senderConnectionInfoPosition;
+    private long destinationId;
+    private int size;
+    private int firstEntryPosition;
+    private int index;
+    private int entryPosition;
+    private int nextEntryPosition;
+
+    /**
+     * @param connectionInfoCodec same connection info codec as the one of the sender
+     */
+    public FindNodeResponseView(ObjectCodec<C> connectionInfoCodec) {
+        this.connectionInfoCodec = connectionInfoCodec;
+    }
+
+    /**
+     * Reads the header of the message that starts at the current position of the buffer. The buffer itself is not moved.
+     * @param buffer buffer holding the message
+     * @return this view, before the first entry
+     * @throws MessageCodecException if the buffer does not hold a FIND_NODE_RES message
+     */
+    public FindNodeResponseView<C> wrap(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.in = new ByteBufferDataInput(this.buffer);
+        try {
+            int tag = this.in.readUnsignedByte();
+            if (tag != TAG)
+                throw new MessageCodecException("Not a " + MessageType.FIND_NODE_RES + " message, tag: " + tag);
+            int flags = this.in.readUnsignedByte();
+            this.alive = (flags & BinaryMessageCodec.FLAG_ALIVE) != 0;
+            this.correlationId = (flags & BinaryMessageCodec.FLAG_CORRELATION_ID) != 0 ? VarInts.readLong(this.in) : 0;
+            this.hasSender = (flags & BinaryMessageCodec.FLAG_NODE) != 0;
+            if (this.hasSender) {
+                this.senderId = this.in.readLong();
+                this.senderConnectionInfoPosition = this.buffer.position();
+                BinaryMessageCodec.skipNullable(this.in, this.connectionInfoCodec);
+            }
+            this.destinationId = this.in.readLong();
+            this.size = VarInts.read(this.in);
+        } catch (IOException e) {
+            throw new MessageCodecException("Failed to decode " + MessageType.FIND_NODE_RES + " message", e);
+        }
+        this.firstEntryPosition = this.buffer.position();
+        rewind();
+        return this;
+    }
+
+    /**
+     * Moves back before the first entry
+     */
+    public void rewind() {
+        this.index = -1;
+        this.nextEntryPosition = this.firstEntryPosition;
+    }
+
+    /**
+     * Moves to the next entry
+     * @return false if there are no more entries
+     */
+    public boolean next() {
+        if (this.index + 1 >= this.size)
+            return false;
+        this.index++;
+        this.entryPosition = this.nextEntryPosition;
+        this.buffer.position(this.entryPosition);
+        try {
+            VarInts.skipFully(this.in, Long.BYTES);
+            BinaryMessageCodec.skipNullable(this.in, this.connectionInfoCodec);
+        } catch (IOException e) {
+            throw new MessageCodecException("Failed to decode " + MessageType.FIND_NODE_RES + " entry " + this.index, e);
+        }
+        this.nextEntryPosition = this.buffer.position();
+        return true;
+    }
+
+    /**
+     * @return index of the current entry, entries are ordered closest first
+     */
+    public int index() {
+        return this.index;
+    }
+
+    /**
+     * @return id of the node of the current entry
+     */
+    public long id() {
+        checkEntry();
+        return this.buffer.getLong(this.entryPosition);
+    }
+
+    /**
+     * @return distance of the node of the current entry to the destination
+     */
+    public long distance() {
+        return id() ^ this.destinationId;
+    }
+
+    /**
+     * @return decoded connection info of the node of the current entry
+     */
+    public C connectionInfo() {
+        checkEntry();
+        return readConnectionInfo(this.entryPosition + Long.BYTES);
+    }
+
+    public boolean isAlive() {
+        return this.alive;
+    }
+
+    /**
+     * @return correlation id of the request this message answers, 0 if it has none
+     */
+    public long correlationId() {
+        return this.correlationId;
+    }
+
+    public boolean hasSender() {
+        return this.hasSender;
+    }
+
+    public long senderId() {
+        return this.senderId;
+    }
+
+    /**
+     * @return decoded connection info of the sender, null if the message has no sender
+     */
+    public C senderConnectionInfo() {
+        return this.hasSender ? readConnectionInfo(this.senderConnectionInfoPosition) : null;
+    }
+
+    public long destinationId() {
+        return this.destinationId;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Builds the whole answer, for code that needs a FindNodeAnswer. Rewinds the view.
+     * @return answer holding every entry
+     */
+    public FindNodeAnswer<Long, C> toFindNodeAnswer() {
+        FindNodeAnswer<Long, C> findNodeAnswer = new FindNodeAnswer<>(this.destinationId);
+        rewind();
+        while (next()) {
+            findNodeAnswer.add(new LongExternalNode<>(new DecodedNode<>(id(), connectionInfo()), distance()));
+        }
+        rewind();
+        return findNodeAnswer;
+    }
+
+    private void checkEntry() {
+        if (this.buffer == null || this.index < 0)
+            throw new IllegalStateException("View is not on an entry, call next() first");
+    }
+
+    private C readConnectionInfo(int position) {
+        this.buffer.position(position);
+        try {
+            return BinaryMessageCodec.readNullable(this.in, this.connectionInfoCodec);
+        } catch (IOException e) {
+            throw new MessageCodecException("Failed to decode connection info", e);
+        } finally {
+            this.buffer.position(this.nextEntryPosition);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.table.PrimitiveLongRoutingTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the answer of a FIND_NODE request straight from a {@link PrimitiveLongRoutingTable} into a ByteBuffer,
+ * without building a FindNodeAnswer or any ExternalNode.
+ * The bytes are a FIND_NODE_RES message as {@link BinaryMessageCodec} encodes it with a {@link IdCodec.LongIdCodec},
+ * so they can be decoded by that codec or read lazily with a {@link FindNodeResponseView}.
+ * @param <C> Your implementation of connection info
+ */
+public class FindNodeResponseWriter<C extends ConnectionInfo> {
+    private static final int TAG = MessageOpcodes.FIND_NODE_RES;
+
+    private final ObjectCodec<C> connectionInfoCodec;
+
+    /**
+     * @param connectionInfoCodec same connection info codec as the BinaryMessageCodec of the receivers
+     */
+    public FindNodeResponseWriter(ObjectCodec<C> connectionInfoCodec) {
+        this.connectionInfoCodec = connectionInfoCodec;
+    }
+
+    /**
+     * Writes the message from the current position of the buffer, and leaves the position after it
+     * @param buffer buffer to write to, heap or direct. A buffer with too little room throws {@link java.nio.BufferOverflowException}
+     * @param sender node that answers, usually owner of the routing table
+     * @param routingTable routing table to select the closest nodes from
+     * @param destinationId id that was requested
+     */
+    public void write(ByteBuffer buffer, Node<Long, C> sender, PrimitiveLongRoutingTable<C> routingTable, long destinationId) {
+        write(buffer, sender, routingTable, destinationId, 0);
+    }
+
+    /**
+     * Same as {@link #write(ByteBuffer, Node, PrimitiveLongRoutingTable, long)}, answering a request with a correlation id
+     * @param correlationId correlation id of the FIND_NODE_REQ, 0 if it has none
+     */
+    public void write(ByteBuffer buffer, Node<Long, C> sender, PrimitiveLongRoutingTable<C> routingTable, long destinationId, long correlationId) {
+        PrimitiveLongRoutingTable.ClosestSelection<C> selection = routingTable.selectClosest(destinationId);
+        ByteBufferDataOutput out = new ByteBufferDataOutput(buffer);
+        try {
+            out.writeByte(TAG);
+            if (correlationId != 0) {
+                out.writeByte(BinaryMessageCodec.FLAG_ALIVE | BinaryMessageCodec.FLAG_NODE | BinaryMessageCodec.FLAG_CORRELATION_ID);
+                VarInts.writeLong(out, correlationId);
+            } else {
+                out.writeByte(BinaryMessageCodec.FLAG_ALIVE | BinaryMessageCodec.FLAG_NODE);
+            }
+            out.writeLong(sender.getId());
+            BinaryMessageCodec.writeNullable(out, this.connectionInfoCodec, sender.getConnectionInfo());
+            out.writeLong(destinationId);
+            VarInts.write(out, selection.size());
+            for (int i = 0; i < selection.size(); i++) {
+                out.writeLong(selection.distance(i) ^ destinationId);
+                BinaryMessageCodec.writeNullable(out, this.connectionInfoCodec, selection.node(i).getConnectionInfo());
+            }
+        } catch (IOException e) {
+            throw new MessageCodecException("Failed to encode " + MessageType.FIND_NODE_RES + " message", e);
+        }
+    }
+}
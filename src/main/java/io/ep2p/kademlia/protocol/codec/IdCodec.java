@@ -0,0 +1,177 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.*;
+import io.ep2p.kademlia.node.id.LongArrayId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Writes node IDs with a fixed number of bytes, and rebuilds the external nodes of find node answers
+ * @param <I> Number type of node ID between supported types
+ */
+public interface IdCodec<I extends Number> {
+    /**
+     * @return number of bytes every ID takes
+     */
+    int size();
+    void write(DataOutput out, I id) throws IOException;
+    I read(DataInput in) throws IOException;
+    /**
+     * @return xor distance of the two IDs
+     */
+    I distance(I a, I b);
+    <C extends ConnectionInfo> ExternalNode<I, C> externalNode(Node<I, C> node, I distance);
+
+    class IntegerIdCodec implements IdCodec<Integer> {
+        @Override
+        public int size() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(DataOutput out, Integer id) throws IOException {
+            out.writeInt(id);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+
+        @Override
+        public Integer distance(Integer a, Integer b) {
+            return a ^ b;
+        }
+
+        @Override
+        public <C extends ConnectionInfo> ExternalNode<Integer, C> externalNode(Node<Integer, C> node, Integer distance) {
+            return new IntegerExternalNode<>(node, distance);
+        }
+    }
+
+    class LongIdCodec implements IdCodec<Long> {
+        @Override
+        public int size() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(DataOutput out, Long id) throws IOException {
+            out.writeLong(id);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+
+        @Override
+        public Long distance(Long a, Long b) {
+            return a ^ b;
+        }
+
+        @Override
+        public <C extends ConnectionInfo> ExternalNode<Long, C> externalNode(Node<Long, C> node, Long distance) {
+            return new LongExternalNode<>(node, distance);
+        }
+    }
+
+    /**
+     * Writes non-negative IDs as big-endian unsigned bytes, left padded to the identifier size
+     */
+    class BigIntegerIdCodec implements IdCodec<BigInteger> {
+        private final int size;
+
+        /**
+         * @param identifierSize size of the IDs in bits
+         */
+        public BigIntegerIdCodec(int identifierSize) {
+            this.size = (identifierSize + Byte.SIZE - 1) / Byte.SIZE;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public void write(DataOutput out, BigInteger id) throws IOException {
+            if (id.signum() < 0 || id.bitLength() > this.size * Byte.SIZE)
+                throw new MessageCodecException("ID " + id + " does not fit in " + this.size + " unsigned bytes");
+            byte[] bytes = id.toByteArray();
+            // toByteArray() may add a sign byte or be shorter than the fixed size
+            int length = Math.min(bytes.length, this.size);
+            for (int i = length; i < this.size; i++) {
+                out.writeByte(0);
+            }
+            out.write(bytes, bytes.length - length, length);
+        }
+
+        @Override
+        public BigInteger read(DataInput in) throws IOException {
+            byte[] bytes = new byte[this.size];
+            in.readFully(bytes);
+            return new BigInteger(1, bytes);
+        }
+
+        @Override
+        public BigInteger distance(BigInteger a, BigInteger b) {
+            return a.xor(b);
+        }
+
+        @Override
+        public <C extends ConnectionInfo> ExternalNode<BigInteger, C> externalNode(Node<BigInteger, C> node, BigInteger distance) {
+            return new BigIntegerExternalNode<>(node, distance);
+        }
+    }
+
+    class LongArrayIdCodec implements IdCodec<LongArrayId> {
+        private final int words;
+
+        /**
+         * @param identifierSize size of the IDs in bits
+         */
+        public LongArrayIdCodec(int identifierSize) {
+            this.words = LongArrayId.zero(identifierSize).wordCount();
+        }
+
+        @Override
+        public int size() {
+            return this.words * Long.BYTES;
+        }
+
+        @Override
+        public void write(DataOutput out, LongArrayId id) throws IOException {
+            if (id.wordCount() != this.words)
+                throw new IllegalArgumentException("Expected an ID of " + this.words + " words, got " + id.wordCount());
+            for (int i = 0; i < this.words; i++) {
+                out.writeLong(id.word(i));
+            }
+        }
+
+        @Override
+        public LongArrayId read(DataInput in) throws IOException {
+            long[] words = new long[this.words];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return new LongArrayId(words);
+        }
+
+        @Override
+        public LongArrayId distance(LongArrayId a, LongArrayId b) {
+            return a.xor(b);
+        }
+
+        @Override
+        public <C extends ConnectionInfo> ExternalNode<LongArrayId, C> externalNode(Node<LongArrayId, C> node, LongArrayId distance) {
+            return new LongArrayIdExternalNode<>(node, distance);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+
+import java.io.Serializable;
+
+/**
+ * Turns messages into bytes and back, for MessageSender implementations to put on the wire
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+public interface MessageCodec<I extends Number, C extends ConnectionInfo> {
+    /**
+     * @param message message to encode
+     * @return encoded message
+     * @throws MessageCodecException if the message type or its data is not supported
+     */
+    byte[] encode(KademliaMessage<I, C, ? extends Serializable> message);
+
+    /**
+     * @param bytes encoded message
+     * @param <O> Serializable type of the message data
+     * @return decoded message
+     * @throws MessageCodecException if the bytes are not a valid encoded message
+     */
+    <O extends Serializable> KademliaMessage<I, C, O> decode(byte[] bytes);
+}
@@ -0,0 +1,112 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.exception.MessageCodecException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes and reads a single object of a type that the library does not know, such as connection info, keys and values
+ * @param <T> Type of the object
+ */
+public interface ObjectCodec<T> {
+    void write(DataOutput out, T value) throws IOException;
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Moves past a written value without building it. Codecs that know the size of the value should skip it directly
+     */
+    default void skip(DataInput in) throws IOException {
+        read(in);
+    }
+
+    /**
+     * Fallback for types without a dedicated codec, writes the length of the serialized object followed by it
+     */
+    class JavaSerializationCodec<T extends Serializable> implements ObjectCodec<T> {
+        @Override
+        public void write(DataOutput out, T value) throws IOException {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+                objectOutputStream.writeObject(value);
+            }
+            VarInts.write(out, byteArrayOutputStream.size());
+            out.write(byteArrayOutputStream.toByteArray());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T read(DataInput in) throws IOException {
+            byte[] bytes = new byte[VarInts.read(in)];
+            in.readFully(bytes);
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return (T) objectInputStream.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new MessageCodecException("Unknown serialized class", e);
+            }
+        }
+
+        @Override
+        public void skip(DataInput in) throws IOException {
+            VarInts.skipPrefixed(in);
+        }
+    }
+
+    /**
+     * Writes the length of the UTF-8 bytes followed by them
+     */
+    class StringCodec implements ObjectCodec<String> {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            VarInts.write(out, bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[VarInts.read(in)];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void skip(DataInput in) throws IOException {
+            VarInts.skipPrefixed(in);
+        }
+    }
+
+    class IntegerCodec implements ObjectCodec<Integer> {
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+
+        @Override
+        public void skip(DataInput in) throws IOException {
+            VarInts.skipFully(in, Integer.BYTES);
+        }
+    }
+
+    class LongCodec implements ObjectCodec<Long> {
+        @Override
+        public void write(DataOutput out, Long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+
+        @Override
+        public void skip(DataInput in) throws IOException {
+            VarInts.skipFully(in, Long.BYTES);
+        }
+    }
+}
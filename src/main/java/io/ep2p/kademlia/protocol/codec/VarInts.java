@@ -0,0 +1,77 @@
+package io.ep2p.kademlia.protocol.codec;
+
+import io.ep2p.kademlia.exception.MessageCodecException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Unsigned LEB128 encoding of non-negative ints and longs, for lengths, counts and ids that are usually small, and skipping of what they prefix
+ */
+final class VarInts {
+    private VarInts(){}
+
+    static void write(DataOutput out, int value) throws IOException {
+        if (value < 0)
+            throw new MessageCodecException("Negative length: " + value);
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int read(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0)
+                    throw new MessageCodecException("Negative length");
+                return value;
+            }
+        }
+        throw new MessageCodecException("Malformed length");
+    }
+
+    /* Unsigned, so negative values take ten bytes */
+    static void writeLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new MessageCodecException("Malformed long");
+    }
+
+    /**
+     * Skips a length followed by that many bytes
+     */
+    static void skipPrefixed(DataInput in) throws IOException {
+        skipFully(in, read(in));
+    }
+
+    static void skipFully(DataInput in, int bytes) throws IOException {
+        while (bytes > 0) {
+            int skipped = in.skipBytes(bytes);
+            if (skipped <= 0) {
+                in.readByte();
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.ep2p.kademlia.protocol.handler;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.HandlerNotFoundException;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.protocol.message.BatchKademliaMessage;
+import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+
+@Slf4j
+public class BatchMessageHandler<I extends Number, C extends ConnectionInfo> implements MessageHandler<I, C> {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <U extends KademliaMessage<I, C, ?>, O extends KademliaMessage<I, C, ?>> O handle(KademliaNodeAPI<I, C> kademliaNode, U message) {
+        if (!(message instanceof BatchKademliaMessage))
+            throw new IllegalArgumentException("Cant handle message. Required: BatchKademliaMessage");
+        for (KademliaMessage<I, C, ? extends Serializable> innerMessage : ((BatchKademliaMessage<I, C>) message).getData()) {
+            if (innerMessage.getNode() == null)
+                innerMessage.setNode(message.getNode());
+            try {
+                kademliaNode.onMessage(innerMessage);
+            } catch (HandlerNotFoundException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return (O) new EmptyKademliaMessage<I, C>();
+    }
+}
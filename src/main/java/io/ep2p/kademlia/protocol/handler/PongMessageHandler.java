@@ -1,16 +1,12 @@
 package io.ep2p.kademlia.protocol.handler;
 
 import io.ep2p.kademlia.connection.ConnectionInfo;
-import io.ep2p.kademlia.exception.HandlerNotFoundException;
 import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
 import io.ep2p.kademlia.protocol.message.KademliaMessage;
 import io.ep2p.kademlia.protocol.message.PongKademliaMessage;
-import io.ep2p.kademlia.util.RoutingTableUtil;
-import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
-@Slf4j
 public class PongMessageHandler<I extends Number, C extends ConnectionInfo> extends GeneralResponseMessageHandler<I, C> {
     @Override
     @SuppressWarnings("unchecked")
@@ -19,11 +15,7 @@ public class PongMessageHandler<I extends Number, C extends ConnectionInfo> exte
     }
 
     protected EmptyKademliaMessage<I, C> doHandle(KademliaNodeAPI<I, C> kademliaNode, @NotNull PongKademliaMessage<I, C> message){
-        try {
-            RoutingTableUtil.softUpdate(kademliaNode, message.getNode());
-        } catch (HandlerNotFoundException e) {
-            log.error(e.getMessage(), e);
-        }
+        kademliaNode.getRoutingTable().updateOrCache(message.getNode());
         return new EmptyKademliaMessage<>();
     }
 }
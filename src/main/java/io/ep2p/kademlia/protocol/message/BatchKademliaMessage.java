@@ -0,0 +1,27 @@
+package io.ep2p.kademlia.protocol.message;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.protocol.MessageType;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Envelope of several one way messages to the same node, sent as a single message.
+ * The receiver passes each of them to its own onMessage, and their responses are dropped.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+@ToString(callSuper = true)
+public class BatchKademliaMessage<I extends Number, C extends ConnectionInfo> extends KademliaMessage<I, C, ArrayList<KademliaMessage<I, C, ? extends Serializable>>> {
+
+    public BatchKademliaMessage(ArrayList<KademliaMessage<I, C, ? extends Serializable>> data) {
+        this();
+        setData(data);
+    }
+
+    public BatchKademliaMessage() {
+        super(MessageType.BATCH);
+    }
+}
@@ -0,0 +1,28 @@
+package io.ep2p.kademlia.protocol.message;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.protocol.MessageType;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Single hop lookup request of an iterative lookup. The receiver answers directly with a DHT_LOOKUP_RESULT if it holds the key,
+ * otherwise with a FIND_NODE_RES containing the closest nodes it knows to the hash of the key.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ */
+@ToString(callSuper = true)
+public class DHTFindValueKademliaMessage<I extends Number, C extends ConnectionInfo, K extends Serializable> extends KademliaMessage<I, C, K> {
+
+    public DHTFindValueKademliaMessage(K key) {
+        this();
+        setData(key);
+    }
+
+    public DHTFindValueKademliaMessage() {
+        super(MessageType.DHT_FIND_VALUE);
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.ep2p.kademlia.protocol.message;
+
+import com.google.common.base.Objects;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.util.DateUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Lookup request of several keys whose next hop is the receiver.
+ * Results of the keys are sent back to the requester with DHT_LOOKUP_BATCH_RESULT, one message from each node that answers some of them.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ */
+@ToString(callSuper = true)
+public class DHTLookupBatchKademliaMessage<I extends Number, C extends ConnectionInfo, K extends Serializable> extends KademliaMessage<I, C, DHTLookupBatchKademliaMessage.DHTLookupBatch<I, C, K>> {
+
+    public DHTLookupBatchKademliaMessage(DHTLookupBatch<I, C, K> data) {
+        this();
+        setData(data);
+    }
+
+    public DHTLookupBatchKademliaMessage() {
+        super(MessageType.DHT_LOOKUP_BATCH);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @ToString
+    public static class DHTLookupBatch<I extends Number, C extends ConnectionInfo, K extends Serializable> implements Serializable{
+        private Node<I, C> requester;
+        /* Should be a serializable list implementation */
+        private List<K> keys;
+        private int currentTry;
+        /* Epoch milliseconds after which the requester no longer waits for the result, 0 for no deadline. Serialized as the time that is left */
+        private transient long deadline;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DHTLookupBatch<?, ?, ?> that = (DHTLookupBatch<?, ?, ?>) o;
+            return getCurrentTry() == that.getCurrentTry() && getDeadline() == that.getDeadline() && Objects.equal(getRequester(), that.getRequester()) && Objects.equal(getKeys(), that.getKeys());
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeLong(DateUtil.getRemainingMillis(this.deadline));
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.deadline = DateUtil.getDeadlineOfRemaining(in.readLong());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getRequester(), getKeys(), getCurrentTry(), getDeadline());
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package io.ep2p.kademlia.protocol.message;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.protocol.MessageType;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Results of the keys of a DHT_LOOKUP_BATCH that the sender has found, or has failed to pass on
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+@ToString(callSuper = true)
+public class DHTLookupBatchResultKademliaMessage<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends KademliaMessage<I, C, ArrayList<DHTLookupResultKademliaMessage.DHTLookupResult<K, V>>> {
+
+    public DHTLookupBatchResultKademliaMessage(ArrayList<DHTLookupResultKademliaMessage.DHTLookupResult<K, V>> data) {
+        this();
+        setData(data);
+    }
+
+    public DHTLookupBatchResultKademliaMessage() {
+        super(MessageType.DHT_LOOKUP_BATCH_RESULT);
+    }
+
+}
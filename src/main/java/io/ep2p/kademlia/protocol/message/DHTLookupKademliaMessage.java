@@ -4,11 +4,15 @@ import com.google.common.base.Objects;
 import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.util.DateUtil;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 @ToString(callSuper = true)
@@ -31,18 +35,34 @@ public class DHTLookupKademliaMessage<I extends Number, C extends ConnectionInfo
         private Node<I, C> requester;
         private K key;
         private int currentTry;
+        /* Epoch milliseconds after which the requester no longer waits for the result, 0 for no deadline. Serialized as the time that is left */
+        private transient long deadline;
+
+        public DHTLookup(Node<I, C> requester, K key, int currentTry) {
+            this(requester, key, currentTry, 0);
+        }
 
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             DHTLookup<?, ?, ?> dhtLookup = (DHTLookup<?, ?, ?>) o;
-            return getCurrentTry() == dhtLookup.getCurrentTry() && Objects.equal(getRequester(), dhtLookup.getRequester()) && Objects.equal(getKey(), dhtLookup.getKey());
+            return getCurrentTry() == dhtLookup.getCurrentTry() && getDeadline() == dhtLookup.getDeadline() && Objects.equal(getRequester(), dhtLookup.getRequester()) && Objects.equal(getKey(), dhtLookup.getKey());
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeLong(DateUtil.getRemainingMillis(this.deadline));
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.deadline = DateUtil.getDeadlineOfRemaining(in.readLong());
         }
 
         @Override
         public int hashCode() {
-            return Objects.hashCode(getRequester(), getKey(), getCurrentTry());
+            return Objects.hashCode(getRequester(), getKey(), getCurrentTry(), getDeadline());
         }
     }
 
@@ -0,0 +1,74 @@
+package io.ep2p.kademlia.protocol.message;
+
+import com.google.common.base.Objects;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.util.DateUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Store request of several keys that the sender knows the receiver as the closest node to.
+ * The receiver answers directly with a DHT_STORE_BATCH_RESULT.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+@ToString(callSuper = true)
+public class DHTStoreBatchKademliaMessage<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends KademliaMessage<I, C, DHTStoreBatchKademliaMessage.DHTStoreBatch<I, C, K, V>> {
+
+    public DHTStoreBatchKademliaMessage(DHTStoreBatch<I, C, K, V> data) {
+        this();
+        setData(data);
+    }
+
+    public DHTStoreBatchKademliaMessage() {
+        super(MessageType.DHT_STORE_BATCH);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @ToString
+    public static class DHTStoreBatch<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> implements Serializable{
+        private Node<I, C> requester;
+        /* Should be a serializable map implementation */
+        private Map<K, V> entries;
+        /* Epoch milliseconds after which the requester no longer waits for the result, 0 for no deadline. Serialized as the time that is left */
+        private transient long deadline;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DHTStoreBatch<?, ?, ?, ?> that = (DHTStoreBatch<?, ?, ?, ?>) o;
+            return getDeadline() == that.getDeadline() && Objects.equal(getRequester(), that.getRequester()) && Objects.equal(getEntries(), that.getEntries());
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeLong(DateUtil.getRemainingMillis(this.deadline));
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.deadline = DateUtil.getDeadlineOfRemaining(in.readLong());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getRequester(), getEntries(), getDeadline());
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.ep2p.kademlia.protocol.message;
+
+import com.google.common.base.Objects;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.protocol.MessageType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Answer to DHT_STORE_BATCH with the result of each key.
+ * Keys that are PASSED to other nodes get their final result with DHT_STORE_RESULT.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ */
+@ToString(callSuper = true)
+public class DHTStoreBatchResultKademliaMessage<I extends Number, C extends ConnectionInfo, K extends Serializable> extends KademliaMessage<I, C, DHTStoreBatchResultKademliaMessage.DHTStoreBatchResult<K>> {
+
+    public DHTStoreBatchResultKademliaMessage(DHTStoreBatchResult<K> data) {
+        this();
+        setData(data);
+    }
+
+    public DHTStoreBatchResultKademliaMessage() {
+        super(MessageType.DHT_STORE_BATCH_RESULT);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @ToString
+    public static class DHTStoreBatchResult<K extends Serializable> implements Serializable{
+        /* Should be a serializable map implementation */
+        private Map<K, StoreAnswer.Result> results;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DHTStoreBatchResult<?> that = (DHTStoreBatchResult<?>) o;
+            return Objects.equal(getResults(), that.getResults());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getResults());
+        }
+    }
+
+}
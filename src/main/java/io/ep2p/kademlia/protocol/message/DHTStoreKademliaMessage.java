@@ -4,11 +4,15 @@ import com.google.common.base.Objects;
 import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.util.DateUtil;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 @ToString(callSuper = true)
@@ -31,18 +35,34 @@ public class DHTStoreKademliaMessage<I extends Number, C extends ConnectionInfo,
         private Node<I, C> requester;
         private K key;
         private V value;
+        /* Epoch milliseconds after which the requester no longer waits for the result, 0 for no deadline. Serialized as the time that is left */
+        private transient long deadline;
+
+        public DHTData(Node<I, C> requester, K key, V value) {
+            this(requester, key, value, 0);
+        }
 
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             DHTData<?, ?, ?, ?> dhtData = (DHTData<?, ?, ?, ?>) o;
-            return Objects.equal(getRequester(), dhtData.getRequester()) && Objects.equal(getKey(), dhtData.getKey()) && Objects.equal(getValue(), dhtData.getValue());
+            return getDeadline() == dhtData.getDeadline() && Objects.equal(getRequester(), dhtData.getRequester()) && Objects.equal(getKey(), dhtData.getKey()) && Objects.equal(getValue(), dhtData.getValue());
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeLong(DateUtil.getRemainingMillis(this.deadline));
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.deadline = DateUtil.getDeadlineOfRemaining(in.readLong());
         }
 
         @Override
         public int hashCode() {
-            return Objects.hashCode(getRequester(), getKey(), getValue());
+            return Objects.hashCode(getRequester(), getKey(), getValue(), getDeadline());
         }
     }
 
@@ -0,0 +1,28 @@
+package io.ep2p.kademlia.protocol.message;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.protocol.MessageType;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Asks the receiver to keep a copy of the value itself. The receiver answers directly with a DHT_STORE_RESULT.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+@ToString(callSuper = true)
+public class DHTStoreReplicaKademliaMessage<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends KademliaMessage<I, C, DHTStoreKademliaMessage.DHTData<I, C, K, V>> {
+
+    public DHTStoreReplicaKademliaMessage(DHTStoreKademliaMessage.DHTData<I, C, K, V> data) {
+        this();
+        setData(data);
+    }
+
+    public DHTStoreReplicaKademliaMessage() {
+        super(MessageType.DHT_STORE_REPLICA);
+    }
+
+}
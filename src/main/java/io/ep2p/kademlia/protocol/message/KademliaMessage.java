@@ -3,26 +3,64 @@ package io.ep2p.kademlia.protocol.message;
 import com.google.common.base.Objects;
 import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 @Getter
 @Setter
 @ToString
-public abstract class KademliaMessage<I extends Number, C extends ConnectionInfo, D extends Serializable> {
+public abstract class KademliaMessage<I extends Number, C extends ConnectionInfo, D extends Serializable> implements Serializable {
+    private static final long serialVersionUID = 4816339728712580187L;
+
     private D data;
     private String type;
     private Node<I, C> node;
     private boolean isAlive = true;
+    /* Numeric code of the type, to dispatch the message without looking up the type string */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient int opcode = MessageOpcodes.UNKNOWN;
+    /* Matches a response to its request, so a connection can carry many requests at once. 0 when not set */
+    private long correlationId;
 
     public KademliaMessage() {
     }
 
     protected KademliaMessage(String type) {
+        setType(type);
+    }
+
+    /**
+     * Types only get opcodes when a handler is registered for them, so types of received messages can not grow the opcode registry
+     * @param type message type
+     */
+    public void setType(String type) {
         this.type = type;
+        this.opcode = MessageOpcodes.find(type);
+    }
+
+    /**
+     * @return opcode of the type, or UNKNOWN if no handler is registered for it yet
+     */
+    public int getOpcode() {
+        // Message may be created before the handler of its type is registered
+        if (this.opcode == MessageOpcodes.UNKNOWN && this.type != null)
+            this.opcode = MessageOpcodes.find(this.type);
+        return this.opcode;
+    }
+
+    /* Opcodes of custom types differ between JVMs, so they are not serialized */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.opcode = MessageOpcodes.find(this.type);
     }
 
     @Override
@@ -8,28 +8,40 @@ import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
 import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
-import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import io.ep2p.kademlia.protocol.message.DHTFindValueKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTLookupBatchKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTLookupBatchResultKademliaMessage;
 import io.ep2p.kademlia.protocol.message.DHTLookupKademliaMessage;
 import io.ep2p.kademlia.protocol.message.DHTLookupResultKademliaMessage;
 import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import io.ep2p.kademlia.protocol.message.FindNodeResponseMessage;
 import io.ep2p.kademlia.protocol.message.KademliaMessage;
 import io.ep2p.kademlia.util.DateUtil;
+import io.ep2p.kademlia.util.FutureUtil;
 import io.ep2p.kademlia.util.NodeUtil;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 
 
 public class DHTLookupService<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> implements DHTLookupServiceAPI<I, C, K, V> {
-    private final Map<K, List<CompletableFuture<LookupAnswer<I, C, K, V>>>> lookupFutureMap = new ConcurrentHashMap<>();
+    protected final Map<K, List<CompletableFuture<LookupAnswer<I, C, K, V>>>> lookupFutureMap = new ConcurrentHashMap<>();
 
-    private final DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode;
-    private final ExecutorService handlerExecutorService;
+    protected final DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode;
+    protected final ExecutorService handlerExecutorService;
 
     public DHTLookupService(
             DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode,
@@ -43,17 +55,29 @@ public class DHTLookupService<I extends Number, C extends ConnectionInfo, K exte
     @SuppressWarnings("unchecked")
     public <U extends KademliaMessage<I, C, ?>, O extends KademliaMessage<I, C, ?>> O handle(KademliaNodeAPI<I, C> kademliaNode, U message) {
         if (message.isAlive()){
-            this.dhtKademliaNode.getRoutingTable().forceUpdate(message.getNode());
+            this.dhtKademliaNode.getRoutingTable().updateOrCache(message.getNode());
         }
-        switch (message.getType()) {
-            case MessageType.DHT_LOOKUP:
+        switch (message.getOpcode()) {
+            case MessageOpcodes.DHT_LOOKUP:
                 if (!(message instanceof DHTLookupKademliaMessage))
                     throw new IllegalArgumentException("Cant handle message. Required: DHTLookupKademliaMessage");
                 return (O) handleLookupRequest((DHTLookupKademliaMessage<I, C, K>) message);
-            case MessageType.DHT_LOOKUP_RESULT:
+            case MessageOpcodes.DHT_LOOKUP_RESULT:
                 if (!(message instanceof DHTLookupResultKademliaMessage))
                     throw new IllegalArgumentException("Cant handle message. Required: DHTLookupResultKademliaMessage");
                 return (O) handleLookupResult((DHTLookupResultKademliaMessage<I, C, K, V>) message);
+            case MessageOpcodes.DHT_FIND_VALUE:
+                if (!(message instanceof DHTFindValueKademliaMessage))
+                    throw new IllegalArgumentException("Cant handle message. Required: DHTFindValueKademliaMessage");
+                return (O) handleFindValueRequest((DHTFindValueKademliaMessage<I, C, K>) message);
+            case MessageOpcodes.DHT_LOOKUP_BATCH:
+                if (!(message instanceof DHTLookupBatchKademliaMessage))
+                    throw new IllegalArgumentException("Cant handle message. Required: DHTLookupBatchKademliaMessage");
+                return (O) handleLookupBatchRequest((DHTLookupBatchKademliaMessage<I, C, K>) message);
+            case MessageOpcodes.DHT_LOOKUP_BATCH_RESULT:
+                if (!(message instanceof DHTLookupBatchResultKademliaMessage))
+                    throw new IllegalArgumentException("Cant handle message. Required: DHTLookupBatchResultKademliaMessage");
+                return (O) handleLookupBatchResult((DHTLookupBatchResultKademliaMessage<I, C, K, V>) message);
             default:
                 throw new IllegalArgumentException("message param is not supported");
         }
@@ -66,45 +90,136 @@ public class DHTLookupService<I extends Number, C extends ConnectionInfo, K exte
 
 
     public Future<LookupAnswer<I, C, K, V>> lookup(K key){
-        List<CompletableFuture<LookupAnswer<I, C, K, V>>> futures = this.lookupFutureMap.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>());
-
-        CompletableFuture<LookupAnswer<I, C, K, V>> lookupAnswerFuture = new CompletableFuture<>();
-        lookupAnswerFuture.whenComplete((a, t) -> futures.remove(lookupAnswerFuture));
+        return lookup(key, this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutValue(), this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutUnit());
+    }
 
-        futures.add(lookupAnswerFuture);
+    @Override
+    public Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit){
+        CompletableFuture<LookupAnswer<I, C, K, V>> lookupAnswerFuture = newLookupFuture(key, timeout, timeUnit);
+        long deadline = DateUtil.getDeadline(timeout, timeUnit);
 
-        this.handlerExecutorService.submit(() -> {
-            LookupAnswer<I, C, K, V> lookupAnswer = handleLookup(this.dhtKademliaNode, this.dhtKademliaNode, key, 0);
-            if (lookupAnswer.getResult().equals(LookupAnswer.Result.FOUND) || lookupAnswer.getResult().equals(LookupAnswer.Result.FAILED)) {
+        this.handlerExecutorService.submit(() -> handleLookup(this.dhtKademliaNode, this.dhtKademliaNode, key, 0, deadline).whenComplete((lookupAnswer, throwable) -> {
+            if (throwable != null) {
+                lookupAnswerFuture.completeExceptionally(throwable);
+            } else if (lookupAnswer.getResult().equals(LookupAnswer.Result.FOUND) || lookupAnswer.getResult().equals(LookupAnswer.Result.FAILED)) {
                 lookupAnswerFuture.complete(lookupAnswer);
-                futures.remove(lookupAnswerFuture);
             }
-        });
+        }));
 
         return lookupAnswerFuture;
     }
 
-    protected LookupAnswer<I, C, K, V> handleLookup(Node<I, C> caller, Node<I, C> requester, K key, int currentTry){
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys){
+        return lookupAll(keys, this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutValue(), this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutUnit());
+    }
+
+    /**
+     * Groups the keys by their next hop, and passes each group on with a single DHT_LOOKUP_BATCH.
+     * Every node on the way answers the keys it has found with a single DHT_LOOKUP_BATCH_RESULT, and passes the rest on the same way.
+     */
+    @Override
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys, long timeout, TimeUnit timeUnit){
+        long deadline = DateUtil.getDeadline(timeout, timeUnit);
+        Map<K, CompletableFuture<LookupAnswer<I, C, K, V>>> futures = new LinkedHashMap<>();
+        List<K> remainingKeys = new ArrayList<>();
+        for (K key : keys) {
+            if (futures.containsKey(key))
+                continue;
+            CompletableFuture<LookupAnswer<I, C, K, V>> lookupAnswerFuture = newLookupFuture(key, timeout, timeUnit);
+            futures.put(key, lookupAnswerFuture);
+            if (this.dhtKademliaNode.getKademliaRepository().contains(key)) {
+                V value = this.dhtKademliaNode.getKademliaRepository().get(key);
+                lookupAnswerFuture.complete(getNewLookupAnswer(key, LookupAnswer.Result.FOUND, this.dhtKademliaNode, value));
+            } else {
+                remainingKeys.add(key);
+            }
+        }
+
+        if (!remainingKeys.isEmpty()) {
+            this.handlerExecutorService.submit(() -> handleLookupBatch(this.dhtKademliaNode, this.dhtKademliaNode, remainingKeys, 0, deadline).whenComplete((lookupAnswers, throwable) -> {
+                if (throwable != null) {
+                    remainingKeys.forEach(key -> futures.get(key).completeExceptionally(throwable));
+                } else {
+                    lookupAnswers.forEach((key, lookupAnswer) -> futures.get(key).complete(lookupAnswer));
+                }
+            }));
+        }
+        return FutureUtil.allOf(futures);
+    }
+
+    /**
+     * Looks the keys up one by one with {@link #lookup(Serializable, long, TimeUnit)}
+     * Used by services that can not batch their lookups
+     */
+    protected Future<Map<K, LookupAnswer<I, C, K, V>>> lookupEach(Collection<K> keys, long timeout, TimeUnit timeUnit){
+        Map<K, Future<LookupAnswer<I, C, K, V>>> futures = new LinkedHashMap<>();
+        keys.forEach(key -> futures.computeIfAbsent(key, k -> lookup(k, timeout, timeUnit)));
+        return FutureUtil.allOf(futures);
+    }
+
+    /**
+     * Creates a future that waits for the lookup result of a key, and completes with TIMEOUT result if it does not arrive in time.
+     * The future is registered to receive DHT_LOOKUP_RESULT messages until it completes.
+     * @param key key to look up
+     * @param timeout time to wait for the result, not positive for no timeout
+     * @param timeUnit unit of timeout
+     * @return registered future
+     */
+    protected CompletableFuture<LookupAnswer<I, C, K, V>> newLookupFuture(K key, long timeout, TimeUnit timeUnit){
+        CompletableFuture<LookupAnswer<I, C, K, V>> lookupAnswerFuture = new CompletableFuture<>();
+        if (timeout > 0)
+            lookupAnswerFuture.completeOnTimeout(getNewLookupAnswer(key, LookupAnswer.Result.TIMEOUT, this.dhtKademliaNode, null), timeout, timeUnit);
+        this.lookupFutureMap.compute(key, (k, futures) -> {
+            if (futures == null)
+                futures = new CopyOnWriteArrayList<>();
+            futures.add(lookupAnswerFuture);
+            return futures;
+        });
+        lookupAnswerFuture.whenComplete((a, t) -> this.lookupFutureMap.computeIfPresent(key, (k, futures) -> {
+            futures.remove(lookupAnswerFuture);
+            return futures.isEmpty() ? null : futures;
+        }));
+        return lookupAnswerFuture;
+    }
+
+    protected CompletableFuture<LookupAnswer<I, C, K, V>> handleLookup(Node<I, C> caller, Node<I, C> requester, K key, int currentTry, long deadline){
+        // Requester has stopped waiting for the result
+        if (DateUtil.isExpired(deadline)){
+            return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.TIMEOUT, this.dhtKademliaNode, null));
+        }
+
         // Check if current node contains data
         if(this.dhtKademliaNode.getKademliaRepository().contains(key)){
             V value = this.dhtKademliaNode.getKademliaRepository().get(key);
-            return getNewLookupAnswer(key, LookupAnswer.Result.FOUND, this.dhtKademliaNode, value);
+            return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.FOUND, this.dhtKademliaNode, value));
         }
 
         // If max tries has reached then return failed
         if (currentTry == this.dhtKademliaNode.getNodeSettings().getIdentifierSize()){
-            return getNewLookupAnswer(key, LookupAnswer.Result.FAILED, this.dhtKademliaNode, null);
+            return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.FAILED, this.dhtKademliaNode, null));
         }
 
         //Otherwise, ask the closest node we know to key
-        return getDataFromClosestNodes(caller, requester, key, currentTry);
+        return getDataFromClosestNodes(caller, requester, key, currentTry, deadline);
     }
 
-    protected LookupAnswer<I, C, K, V> getDataFromClosestNodes(Node<I, C> caller, Node<I, C> requester, K key, int currentTry){
+    protected CompletableFuture<LookupAnswer<I, C, K, V>> getDataFromClosestNodes(Node<I, C> caller, Node<I, C> requester, K key, int currentTry, long deadline){
         I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
         FindNodeAnswer<I, C> findNodeAnswer = this.dhtKademliaNode.getRoutingTable().findClosest(hash);
         Date date = DateUtil.getDateOfSecondsAgo(this.dhtKademliaNode.getNodeSettings().getMaximumLastSeenAgeToConsiderAlive());
-        for (ExternalNode<I, C> externalNode : findNodeAnswer.getNodes()) {
+        return getDataFromNextNode(caller, requester, key, currentTry, deadline, findNodeAnswer.getNodes().iterator(), date);
+    }
+
+    /*
+     * Passes the lookup to the first alive node left in the iterator, moving to the next one only once the previous has failed
+     */
+    private CompletableFuture<LookupAnswer<I, C, K, V>> getDataFromNextNode(Node<I, C> caller, Node<I, C> requester, K key, int currentTry, long deadline, Iterator<ExternalNode<I, C>> iterator, Date date){
+        while (iterator.hasNext()) {
+            if (DateUtil.isExpired(deadline)){
+                return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.TIMEOUT, this.dhtKademliaNode, null));
+            }
+
+            ExternalNode<I, C> externalNode = iterator.next();
             //ignore self because we already checked if current node holds the data or not
             //Also ignore nodeToIgnore if its not null
             if(externalNode.getId().equals(this.dhtKademliaNode.getId()) || (caller != null && externalNode.getId().equals(caller.getId())))
@@ -116,58 +231,196 @@ public class DHTLookupService<I extends Number, C extends ConnectionInfo, K exte
             }
 
             //if node is alive, ask for data
-            if(NodeUtil.recentlySeenOrAlive(this.dhtKademliaNode, externalNode, date)){
-                KademliaMessage<I, C, Serializable> response = this.dhtKademliaNode.getMessageSender().sendMessage(
+            return NodeUtil.recentlySeenOrAliveAsync(this.dhtKademliaNode, externalNode, date).thenCompose(alive -> {
+                if (!alive)
+                    return getDataFromNextNode(caller, requester, key, currentTry, deadline, iterator, date);
+                return this.dhtKademliaNode.getMessageSender().sendMessageAsync(
                         this.dhtKademliaNode,
                         externalNode,
                         new DHTLookupKademliaMessage<>(
-                                new DHTLookupKademliaMessage.DHTLookup<>(requester, key, currentTry + 1)
+                                new DHTLookupKademliaMessage.DHTLookup<>(requester, key, currentTry + 1, deadline)
                         )
-                );
-                if (response.isAlive()){
-                    return getNewLookupAnswer(key, LookupAnswer.Result.PASSED, this.dhtKademliaNode, null);
-                }
+                ).thenCompose(response -> {
+                    if (response.isAlive()){
+                        return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.PASSED, this.dhtKademliaNode, null));
+                    }
+                    return getDataFromNextNode(caller, requester, key, currentTry, deadline, iterator, date);
+                });
+            });
+        }
+
+        return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.FAILED, this.dhtKademliaNode, null));
+    }
+
+    /**
+     * Answers the keys this node has, and passes the others on to their next hops, grouped by the hop
+     * @return answers of the keys that are found, or could not be passed on. Keys that are passed on are left out
+     */
+    protected CompletableFuture<Map<K, LookupAnswer<I, C, K, V>>> handleLookupBatch(Node<I, C> caller, Node<I, C> requester, List<K> keys, int currentTry, long deadline){
+        Map<K, LookupAnswer<I, C, K, V>> lookupAnswers = new HashMap<>();
+        Map<K, Iterator<ExternalNode<I, C>>> keysToPass = new LinkedHashMap<>();
+        boolean expired = DateUtil.isExpired(deadline);
+        for (K key : keys) {
+            if (expired) {
+                lookupAnswers.put(key, getNewLookupAnswer(key, LookupAnswer.Result.TIMEOUT, this.dhtKademliaNode, null));
+            } else if (this.dhtKademliaNode.getKademliaRepository().contains(key)) {
+                V value = this.dhtKademliaNode.getKademliaRepository().get(key);
+                lookupAnswers.put(key, getNewLookupAnswer(key, LookupAnswer.Result.FOUND, this.dhtKademliaNode, value));
+            } else if (currentTry == this.dhtKademliaNode.getNodeSettings().getIdentifierSize()) {
+                lookupAnswers.put(key, getNewLookupAnswer(key, LookupAnswer.Result.FAILED, this.dhtKademliaNode, null));
+            } else {
+                I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
+                keysToPass.put(key, this.dhtKademliaNode.getRoutingTable().findClosest(hash).getNodes().iterator());
             }
         }
 
-        return getNewLookupAnswer(key, LookupAnswer.Result.FAILED, this.dhtKademliaNode, null);
+        return passLookupBatch(caller, requester, keysToPass, currentTry, deadline).thenApply(failedKeys -> {
+            failedKeys.forEach(key -> lookupAnswers.put(key, getNewLookupAnswer(key, LookupAnswer.Result.FAILED, this.dhtKademliaNode, null)));
+            return lookupAnswers;
+        });
+    }
+
+    /*
+     * Sends each key to the first node left in its iterator, one message per node.
+     * Keys whose node does not answer move on to the next node in their iterator.
+     * Completes with the keys that ran out of nodes.
+     */
+    private CompletableFuture<Set<K>> passLookupBatch(Node<I, C> caller, Node<I, C> requester, Map<K, Iterator<ExternalNode<I, C>>> keysToPass, int currentTry, long deadline){
+        Set<K> failedKeys = new HashSet<>();
+        Map<I, ExternalNode<I, C>> nextHops = new HashMap<>();
+        Map<I, Map<K, Iterator<ExternalNode<I, C>>>> batches = new HashMap<>();
+        keysToPass.forEach((key, iterator) -> {
+            ExternalNode<I, C> nextHop = getNextHop(caller, requester, iterator);
+            if (nextHop == null || DateUtil.isExpired(deadline)) {
+                failedKeys.add(key);
+                return;
+            }
+            nextHops.putIfAbsent(nextHop.getId(), nextHop);
+            batches.computeIfAbsent(nextHop.getId(), id -> new LinkedHashMap<>()).put(key, iterator);
+        });
+
+        List<CompletableFuture<Set<K>>> batchFutures = new ArrayList<>();
+        batches.forEach((id, batch) -> batchFutures.add(
+                this.dhtKademliaNode.getMessageSender().sendMessageAsync(
+                        this.dhtKademliaNode,
+                        nextHops.get(id),
+                        new DHTLookupBatchKademliaMessage<>(
+                                new DHTLookupBatchKademliaMessage.DHTLookupBatch<>(requester, new ArrayList<>(batch.keySet()), currentTry + 1, deadline)
+                        )
+                ).handle((response, throwable) -> throwable == null && response.isAlive())
+                        .thenCompose(alive -> alive ? CompletableFuture.completedFuture(Collections.<K>emptySet()) : passLookupBatch(caller, requester, batch, currentTry, deadline))
+        ));
+
+        return CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            batchFutures.forEach(batchFuture -> failedKeys.addAll(batchFuture.join()));
+            return failedKeys;
+        });
+    }
 
+    /*
+     * Same candidates as getDataFromNextNode(), without checking if they are alive since the batch message itself tells that
+     */
+    private ExternalNode<I, C> getNextHop(Node<I, C> caller, Node<I, C> requester, Iterator<ExternalNode<I, C>> iterator){
+        while (iterator.hasNext()) {
+            ExternalNode<I, C> externalNode = iterator.next();
+            if (externalNode.getId().equals(this.dhtKademliaNode.getId()) || externalNode.getId().equals(caller.getId()) || externalNode.getId().equals(requester.getId()))
+                continue;
+            return externalNode;
+        }
+        return null;
     }
 
     protected EmptyKademliaMessage<I, C> handleLookupResult(DHTLookupResultKademliaMessage<I, C, K, V> message) {
-        DHTLookupResultKademliaMessage.DHTLookupResult<K, V> data = message.getData();
+        completeLookup(message.getData(), message.getNode());
+        return new EmptyKademliaMessage<>();
+    }
+
+    protected EmptyKademliaMessage<I, C> handleLookupBatchResult(DHTLookupBatchResultKademliaMessage<I, C, K, V> message) {
+        message.getData().forEach(data -> completeLookup(data, message.getNode()));
+        return new EmptyKademliaMessage<>();
+    }
+
+    protected void completeLookup(DHTLookupResultKademliaMessage.DHTLookupResult<K, V> data, Node<I, C> node) {
         List<CompletableFuture<LookupAnswer<I, C, K, V>>> futuresList = this.lookupFutureMap.get(data.getKey());
         if (futuresList != null){
             LookupAnswer<I, C, K, V> answer = new LookupAnswer<>();
             answer.setResult(data.getResult());
             answer.setKey(data.getKey());
             answer.setValue(data.getValue());
-            answer.setNode(message.getNode());
+            answer.setNode(node);
             for (CompletableFuture<LookupAnswer<I, C, K, V>> future : futuresList) {
                 future.complete(answer);
             }
         }
-        return new EmptyKademliaMessage<>();
     }
 
     protected EmptyKademliaMessage<I, C> handleLookupRequest(DHTLookupKademliaMessage<I, C, K> message) {
+        DHTLookupKademliaMessage.DHTLookup<I, C, K> data = message.getData();
+        // Drop requests that requester has stopped waiting for
+        if (DateUtil.isExpired(data.getDeadline()))
+            return new EmptyKademliaMessage<>();
+
         this.handlerExecutorService.submit(() -> {
-            DHTLookupKademliaMessage.DHTLookup<I, C, K> data = message.getData();
-            LookupAnswer<I, C, K, V> lookupAnswer = handleLookup(this.dhtKademliaNode, data.getRequester(), data.getKey(), data.getCurrentTry());
-            if (lookupAnswer.getResult().equals(LookupAnswer.Result.FAILED) || lookupAnswer.getResult().equals(LookupAnswer.Result.FOUND)){
-                this.dhtKademliaNode.getMessageSender().sendAsyncMessage(this.dhtKademliaNode, data.getRequester(), new DHTLookupResultKademliaMessage<>(
-                        new DHTLookupResultKademliaMessage.DHTLookupResult<>(
-                                lookupAnswer.getResult(),
-                                data.getKey(),
-                                lookupAnswer.getValue()
-                        )
-                ));
-            }
+            handleLookup(this.dhtKademliaNode, data.getRequester(), data.getKey(), data.getCurrentTry(), data.getDeadline()).thenAccept(lookupAnswer -> {
+                if (lookupAnswer.getResult().equals(LookupAnswer.Result.FAILED) || lookupAnswer.getResult().equals(LookupAnswer.Result.FOUND)){
+                    this.dhtKademliaNode.getMessageSender().sendAsyncMessage(this.dhtKademliaNode, data.getRequester(), new DHTLookupResultKademliaMessage<>(
+                            new DHTLookupResultKademliaMessage.DHTLookupResult<>(
+                                    lookupAnswer.getResult(),
+                                    data.getKey(),
+                                    lookupAnswer.getValue()
+                            )
+                    ));
+                }
+            });
         });
 
         return new EmptyKademliaMessage<>();
     }
 
+    protected EmptyKademliaMessage<I, C> handleLookupBatchRequest(DHTLookupBatchKademliaMessage<I, C, K> message) {
+        DHTLookupBatchKademliaMessage.DHTLookupBatch<I, C, K> data = message.getData();
+        // Drop requests that requester has stopped waiting for
+        if (DateUtil.isExpired(data.getDeadline()))
+            return new EmptyKademliaMessage<>();
+
+        this.handlerExecutorService.submit(() -> {
+            handleLookupBatch(message.getNode(), data.getRequester(), data.getKeys(), data.getCurrentTry(), data.getDeadline()).thenAccept(lookupAnswers -> {
+                ArrayList<DHTLookupResultKademliaMessage.DHTLookupResult<K, V>> results = new ArrayList<>();
+                lookupAnswers.forEach((key, lookupAnswer) -> {
+                    // Requester has its own timeouts
+                    if (!lookupAnswer.getResult().equals(LookupAnswer.Result.TIMEOUT))
+                        results.add(new DHTLookupResultKademliaMessage.DHTLookupResult<>(lookupAnswer.getResult(), key, lookupAnswer.getValue()));
+                });
+                if (!results.isEmpty())
+                    this.dhtKademliaNode.getMessageSender().sendAsyncMessage(this.dhtKademliaNode, data.getRequester(), new DHTLookupBatchResultKademliaMessage<>(results));
+            });
+        });
+
+        return new EmptyKademliaMessage<>();
+    }
+
+    /**
+     * Answers a single hop of an iterative lookup without passing it to other nodes
+     * @param message find value request
+     * @return DHTLookupResultKademliaMessage if the key is stored in this node, otherwise FindNodeResponseMessage with the closest nodes to the key
+     */
+    protected KademliaMessage<I, C, ?> handleFindValueRequest(DHTFindValueKademliaMessage<I, C, K> message) {
+        K key = message.getData();
+        if (this.dhtKademliaNode.getKademliaRepository().contains(key)){
+            return new DHTLookupResultKademliaMessage<>(
+                    new DHTLookupResultKademliaMessage.DHTLookupResult<>(
+                            LookupAnswer.Result.FOUND,
+                            key,
+                            this.dhtKademliaNode.getKademliaRepository().get(key)
+                    )
+            );
+        }
+        I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
+        FindNodeResponseMessage<I, C> response = new FindNodeResponseMessage<>();
+        response.setData(this.dhtKademliaNode.getRoutingTable().findClosest(hash));
+        return response;
+    }
+
     protected LookupAnswer<I, C, K, V> getNewLookupAnswer(K k, LookupAnswer.Result result, Node<I, C> node, @Nullable V value){
         LookupAnswer<I, C, K, V> lookupAnswer = new LookupAnswer<>();
         lookupAnswer.setAlive(true);
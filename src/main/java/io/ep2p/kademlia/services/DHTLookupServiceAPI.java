@@ -4,16 +4,36 @@ import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.model.LookupAnswer;
 import io.ep2p.kademlia.protocol.MessageType;
 import io.ep2p.kademlia.protocol.handler.MessageHandler;
+import io.ep2p.kademlia.util.FutureUtil;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public interface DHTLookupServiceAPI<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends MessageHandler<I, C> {
     default void cleanUp(){}
     Future<LookupAnswer<I, C, K, V>> lookup(K key);
+    /**
+     * Default implementation ignores the timeout, services should override it to complete with TIMEOUT result
+     */
+    default Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit){
+        return lookup(key);
+    }
+    /**
+     * Default implementation looks the keys up one by one
+     * @return future of the answer of each key
+     */
+    default Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys, long timeout, TimeUnit timeUnit){
+        Map<K, Future<LookupAnswer<I, C, K, V>>> futures = new LinkedHashMap<>();
+        keys.forEach(key -> futures.computeIfAbsent(key, k -> lookup(k, timeout, timeUnit)));
+        return FutureUtil.allOf(futures);
+    }
     default List<String> getMessageHandlerTypes(){
-        return Arrays.asList(MessageType.DHT_LOOKUP, MessageType.DHT_LOOKUP_RESULT);
+        return Arrays.asList(MessageType.DHT_LOOKUP, MessageType.DHT_LOOKUP_RESULT, MessageType.DHT_FIND_VALUE, MessageType.DHT_LOOKUP_BATCH, MessageType.DHT_LOOKUP_BATCH_RESULT);
     }
 }
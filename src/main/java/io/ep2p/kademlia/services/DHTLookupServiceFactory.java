@@ -2,10 +2,11 @@ package io.ep2p.kademlia.services;
 
 import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.util.LatencyTracker;
 
 import java.io.Serializable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public interface DHTLookupServiceFactory<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> {
     DHTLookupServiceAPI<I, C, K, V> getDhtLookupService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI);
@@ -17,13 +18,79 @@ public interface DHTLookupServiceFactory<I extends Number, C extends ConnectionI
             this.handlerExecutorService = handlerExecutorService;
         }
 
+        /**
+         * Runs the services on the I/O executor service of their node
+         */
         public DefaultDHTLookupServiceFactory() {
-            this(Executors.newSingleThreadExecutor());
+            this(null);
         }
 
         @Override
         public DHTLookupServiceAPI<I, C, K, V> getDhtLookupService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI) {
-            return new DHTLookupService<>(kademliaNodeAPI, handlerExecutorService);
+            return new DHTLookupService<>(kademliaNodeAPI, handlerExecutorService != null ? handlerExecutorService : kademliaNodeAPI.getIoExecutorService());
+        }
+    }
+
+    /**
+     * Creates IterativeDHTLookupService, which queries the closest nodes to the key in parallel from the requesting node
+     */
+    class IterativeDHTLookupServiceFactory<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> implements DHTLookupServiceFactory<I, C, K, V> {
+        private final ExecutorService handlerExecutorService;
+        private final ExecutorService queryExecutorService;
+
+        public IterativeDHTLookupServiceFactory(ExecutorService handlerExecutorService, ExecutorService queryExecutorService) {
+            this.handlerExecutorService = handlerExecutorService;
+            this.queryExecutorService = queryExecutorService;
+        }
+
+        /**
+         * Runs the services and their queries on the I/O executor service of their node
+         */
+        public IterativeDHTLookupServiceFactory() {
+            this(null, null);
+        }
+
+        @Override
+        public DHTLookupServiceAPI<I, C, K, V> getDhtLookupService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI) {
+            return new IterativeDHTLookupService<>(
+                    kademliaNodeAPI,
+                    handlerExecutorService != null ? handlerExecutorService : kademliaNodeAPI.getIoExecutorService(),
+                    queryExecutorService != null ? queryExecutorService : kademliaNodeAPI.getIoExecutorService()
+            );
+        }
+    }
+
+    /**
+     * Creates HedgedDHTLookupService, which sends backup queries when a node is slower than usual and may wait for a read quorum
+     */
+    class HedgedDHTLookupServiceFactory<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> implements DHTLookupServiceFactory<I, C, K, V> {
+        public static int LATENCY_WINDOW_SIZE = 128;
+        public static long INITIAL_HEDGE_DELAY_MILLIS = 100;
+
+        private final ExecutorService handlerExecutorService;
+        private final ExecutorService queryExecutorService;
+
+        public HedgedDHTLookupServiceFactory(ExecutorService handlerExecutorService, ExecutorService queryExecutorService) {
+            this.handlerExecutorService = handlerExecutorService;
+            this.queryExecutorService = queryExecutorService;
+        }
+
+        /**
+         * Runs the services and their queries on the I/O executor service of their node
+         */
+        public HedgedDHTLookupServiceFactory() {
+            this(null, null);
+        }
+
+        @Override
+        public DHTLookupServiceAPI<I, C, K, V> getDhtLookupService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI) {
+            LatencyTracker latencyTracker = new LatencyTracker(LATENCY_WINDOW_SIZE, TimeUnit.MILLISECONDS.toNanos(INITIAL_HEDGE_DELAY_MILLIS));
+            return new HedgedDHTLookupService<>(
+                    kademliaNodeAPI,
+                    handlerExecutorService != null ? handlerExecutorService : kademliaNodeAPI.getIoExecutorService(),
+                    queryExecutorService != null ? queryExecutorService : kademliaNodeAPI.getIoExecutorService(),
+                    latencyTracker
+            );
         }
     }
 }
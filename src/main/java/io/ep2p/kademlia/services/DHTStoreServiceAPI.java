@@ -4,17 +4,36 @@ import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.model.StoreAnswer;
 import io.ep2p.kademlia.protocol.MessageType;
 import io.ep2p.kademlia.protocol.handler.MessageHandler;
+import io.ep2p.kademlia.util.FutureUtil;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public interface DHTStoreServiceAPI<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends MessageHandler<I, C> {
     default void cleanUp(){}
     Future<StoreAnswer<I, C, K>> store(K key, V value);
+    /**
+     * Default implementation ignores the timeout, services should override it to complete with TIMEOUT result
+     */
+    default Future<StoreAnswer<I, C, K>> store(K key, V value, long timeout, TimeUnit timeUnit){
+        return store(key, value);
+    }
+    /**
+     * Default implementation stores the entries one by one
+     * @return future of the answer of each key
+     */
+    default Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit){
+        Map<K, Future<StoreAnswer<I, C, K>>> futures = new LinkedHashMap<>();
+        entries.forEach((key, value) -> futures.put(key, store(key, value, timeout, timeUnit)));
+        return FutureUtil.allOf(futures);
+    }
     default List<String> getMessageHandlerTypes(){
-        return new ArrayList<>(Arrays.asList(MessageType.DHT_STORE, MessageType.DHT_STORE_RESULT));
+        return new ArrayList<>(Arrays.asList(MessageType.DHT_STORE, MessageType.DHT_STORE_RESULT, MessageType.DHT_STORE_REPLICA, MessageType.DHT_STORE_BATCH, MessageType.DHT_STORE_BATCH_RESULT));
     }
 }
@@ -5,7 +5,6 @@ import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
 
 import java.io.Serializable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public interface DHTStoreServiceFactory<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> {
     PushingDHTStoreService<I, C, K, V> getDhtStoreService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI);
@@ -17,13 +16,45 @@ public interface DHTStoreServiceFactory<I extends Number, C extends ConnectionIn
             this.handlerExecutorService = handlerExecutorService;
         }
 
+        /**
+         * Runs the services on the I/O executor service of their node
+         */
         public DefaultDHTStoreServiceFactory() {
-            this(Executors.newSingleThreadExecutor());
+            this(null);
         }
 
         @Override
         public PushingDHTStoreService<I, C, K, V> getDhtStoreService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI) {
-            return new PushingDHTStoreService<>(kademliaNodeAPI, handlerExecutorService);
+            return new PushingDHTStoreService<>(kademliaNodeAPI, handlerExecutorService != null ? handlerExecutorService : kademliaNodeAPI.getIoExecutorService());
+        }
+    }
+
+    /**
+     * Creates ReplicatedDHTStoreService, which stores each value on the closest nodes to the key and waits for a write quorum
+     */
+    class ReplicatedDHTStoreServiceFactory<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> implements DHTStoreServiceFactory<I, C, K, V> {
+        private final ExecutorService handlerExecutorService;
+        private final ExecutorService replicaExecutorService;
+
+        public ReplicatedDHTStoreServiceFactory(ExecutorService handlerExecutorService, ExecutorService replicaExecutorService) {
+            this.handlerExecutorService = handlerExecutorService;
+            this.replicaExecutorService = replicaExecutorService;
+        }
+
+        /**
+         * Runs the services and their replica sends on the I/O executor service of their node
+         */
+        public ReplicatedDHTStoreServiceFactory() {
+            this(null, null);
+        }
+
+        @Override
+        public PushingDHTStoreService<I, C, K, V> getDhtStoreService(DHTKademliaNodeAPI<I, C, K, V> kademliaNodeAPI) {
+            return new ReplicatedDHTStoreService<>(
+                    kademliaNodeAPI,
+                    handlerExecutorService != null ? handlerExecutorService : kademliaNodeAPI.getIoExecutorService(),
+                    replicaExecutorService != null ? replicaExecutorService : kademliaNodeAPI.getIoExecutorService()
+            );
         }
     }
 }
@@ -0,0 +1,151 @@
+package io.ep2p.kademlia.services;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.util.LatencyTracker;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterative lookup that does not let a single slow node hold the lookup back.
+ * When a queried node has not answered within the `hedgeLatencyPercentile` of recent query latencies, a backup query is sent to the next candidate.
+ * The lookup completes once `readQuorum` nodes have returned the same value. With a read quorum of 1, the first found value wins.
+ * If candidates run out before the quorum is met, the value returned by the most nodes is used.
+ * Queries that are still in flight when the lookup completes are cancelled.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+public class HedgedDHTLookupService<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends IterativeDHTLookupService<I, C, K, V> {
+    protected final LatencyTracker latencyTracker;
+
+    /**
+     * @param dhtKademliaNode owner node
+     * @param executorService executor to handle lookup requests of other nodes
+     * @param queryExecutorService executor to send find value queries from, should be able to run `alpha` blocking sends and their hedges in parallel
+     * @param latencyTracker latencies of the queries of this node, in nanoseconds
+     */
+    public HedgedDHTLookupService(
+            DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode,
+            ExecutorService executorService,
+            ExecutorService queryExecutorService,
+            LatencyTracker latencyTracker
+    ) {
+        super(dhtKademliaNode, executorService, queryExecutorService);
+        this.latencyTracker = latencyTracker;
+    }
+
+    @Override
+    public Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit) {
+        if (this.dhtKademliaNode.getKademliaRepository().contains(key)){
+            V value = this.dhtKademliaNode.getKademliaRepository().get(key);
+            return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.FOUND, this.dhtKademliaNode, value));
+        }
+
+        HedgedLookup hedgedLookup = new HedgedLookup(key, newLookupFuture(key, timeout, timeUnit));
+        hedgedLookup.start();
+        return hedgedLookup.future;
+    }
+
+    /**
+     * State of a single hedged lookup. All fields are guarded by the instance lock.
+     */
+    protected class HedgedLookup extends IterativeLookup {
+        private final int readQuorum;
+        /* Computed once per lookup, the latencies of the queries of this lookup barely move it */
+        private final long hedgeDelay;
+        /* Send time of the queries that have not been answered yet, by node id */
+        private final Map<I, Long> pending = new HashMap<>();
+        /* Number of nodes that have returned each value, with the first node that has returned it */
+        private final Map<V, Integer> votes = new HashMap<>();
+        private final Map<V, Node<I, C>> voters = new HashMap<>();
+
+        protected HedgedLookup(K key, CompletableFuture<LookupAnswer<I, C, K, V>> future) {
+            super(key, future);
+            this.readQuorum = Math.max(1, dhtKademliaNode.getNodeSettings().getReadQuorum());
+            this.hedgeDelay = latencyTracker.percentile(dhtKademliaNode.getNodeSettings().getHedgeLatencyPercentile());
+        }
+
+        /**
+         * Sends a primary query and arms its hedge
+         * @param externalNode node to query
+         */
+        @Override
+        protected void send(ExternalNode<I, C> externalNode) {
+            sendBackup(externalNode);
+            CompletableFuture.delayedExecutor(this.hedgeDelay, TimeUnit.NANOSECONDS, queryExecutorService)
+                    .execute(() -> hedge(externalNode));
+        }
+
+        /*
+         * Sends a query without arming a hedge, so a slow backup does not trigger another backup
+         */
+        private void sendBackup(ExternalNode<I, C> externalNode) {
+            this.pending.put(externalNode.getId(), System.nanoTime());
+            super.send(externalNode);
+        }
+
+        /*
+         * Sends a backup query to the closest candidate that has not been asked yet, if the node has not answered in time.
+         * The backup query is on top of the alpha queries that are normally in flight.
+         */
+        private synchronized void hedge(ExternalNode<I, C> externalNode) {
+            if (this.future.isDone() || !this.pending.containsKey(externalNode.getId()))
+                return;
+            Iterator<ExternalNode<I, C>> iterator = this.shortlist.iterator();
+            int position = 0;
+            while (iterator.hasNext() && position++ < this.shortlistSize) {
+                ExternalNode<I, C> candidate = iterator.next();
+                if (this.queried.add(candidate.getId())) {
+                    sendBackup(candidate);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        protected synchronized void onResponse(ExternalNode<I, C> externalNode, KademliaMessage<I, C, Serializable> response) {
+            Long sentAt = this.pending.remove(externalNode.getId());
+            if (sentAt != null && response != null && response.isAlive())
+                latencyTracker.record(System.nanoTime() - sentAt);
+            super.onResponse(externalNode, response);
+        }
+
+        @Override
+        protected void onFound(Node<I, C> node, V value) {
+            int count = this.votes.merge(value, 1, Integer::sum);
+            this.voters.putIfAbsent(value, node);
+            if (count >= this.readQuorum)
+                super.onFound(this.voters.get(value), value);
+        }
+
+        @Override
+        protected void onExhausted() {
+            V best = null;
+            int bestCount = 0;
+            for (Map.Entry<V, Integer> entry : this.votes.entrySet()) {
+                if (entry.getValue() > bestCount) {
+                    best = entry.getKey();
+                    bestCount = entry.getValue();
+                }
+            }
+            if (best == null) {
+                super.onExhausted();
+            } else {
+                super.onFound(this.voters.get(best), best);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.ep2p.kademlia.services;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.protocol.message.DHTFindValueKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTLookupResultKademliaMessage;
+import io.ep2p.kademlia.protocol.message.FindNodeResponseMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup service that runs the whole lookup from the requesting node, instead of passing the request from hop to hop.
+ * The closest nodes to the key are asked for the value with DHT_FIND_VALUE, `alpha` of them at a time.
+ * Each answer is either the value or closer nodes, which join a shortlist ordered by distance to the key.
+ * The lookup fails once closer nodes stop coming back, meaning all of the `findNodeSize` closest nodes in the shortlist have been queried.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+@Slf4j
+public class IterativeDHTLookupService<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends DHTLookupService<I, C, K, V> {
+    protected final ExecutorService queryExecutorService;
+
+    /**
+     * @param dhtKademliaNode owner node
+     * @param executorService executor to handle lookup requests of other nodes
+     * @param queryExecutorService executor to send find value queries from, should be able to run `alpha` blocking sends in parallel
+     */
+    public IterativeDHTLookupService(
+            DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode,
+            ExecutorService executorService,
+            ExecutorService queryExecutorService
+    ) {
+        super(dhtKademliaNode, executorService);
+        this.queryExecutorService = queryExecutorService;
+    }
+
+    @Override
+    public Future<LookupAnswer<I, C, K, V>> lookup(K key, long timeout, TimeUnit timeUnit) {
+        if (this.dhtKademliaNode.getKademliaRepository().contains(key)){
+            V value = this.dhtKademliaNode.getKademliaRepository().get(key);
+            return CompletableFuture.completedFuture(getNewLookupAnswer(key, LookupAnswer.Result.FOUND, this.dhtKademliaNode, value));
+        }
+
+        // Registered only so cleanUp() cancels lookups that are still running, queries stop once the future is done
+        IterativeLookup iterativeLookup = new IterativeLookup(key, newLookupFuture(key, timeout, timeUnit));
+        iterativeLookup.start();
+        return iterativeLookup.future;
+    }
+
+    @Override
+    public Future<Map<K, LookupAnswer<I, C, K, V>>> lookupAll(Collection<K> keys, long timeout, TimeUnit timeUnit) {
+        // Each key converges to different nodes, so queries are not batched
+        return lookupEach(keys, timeout, timeUnit);
+    }
+
+    /**
+     * State of a single lookup. All fields are guarded by the instance lock.
+     */
+    protected class IterativeLookup {
+        protected final K key;
+        protected final CompletableFuture<LookupAnswer<I, C, K, V>> future;
+        /* Candidates ordered by distance to the key, nodes that did not answer are removed */
+        protected final TreeSet<ExternalNode<I, C>> shortlist = new TreeSet<>();
+        /* Every node that has been asked, including the ones that did not answer */
+        protected final Set<I> queried = new HashSet<>();
+        protected final int alpha;
+        protected final int shortlistSize;
+        protected int inFlight = 0;
+
+        protected IterativeLookup(K key, CompletableFuture<LookupAnswer<I, C, K, V>> future) {
+            this.key = key;
+            this.future = future;
+            this.alpha = Math.max(1, dhtKademliaNode.getNodeSettings().getAlpha());
+            this.shortlistSize = dhtKademliaNode.getNodeSettings().getFindNodeSize();
+        }
+
+        protected synchronized void start() {
+            I hash = dhtKademliaNode.getKeyHashGenerator().generateHash(key);
+            addCandidates(dhtKademliaNode.getRoutingTable().findClosest(hash).getNodes());
+            queryNext();
+        }
+
+        private void addCandidates(List<ExternalNode<I, C>> externalNodes) {
+            for (ExternalNode<I, C> externalNode : externalNodes) {
+                // Self has already been checked, and nodes that have been asked once are never asked again
+                if (externalNode.getId().equals(dhtKademliaNode.getId()) || this.queried.contains(externalNode.getId()))
+                    continue;
+                this.shortlist.add(externalNode);
+            }
+        }
+
+        /*
+         * Keeps up to alpha queries in flight, picking nodes among the closest candidates that have not been asked yet.
+         * Fails the lookup when none is left and no answer is pending.
+         */
+        private void queryNext() {
+            if (this.future.isDone())
+                return;
+            Iterator<ExternalNode<I, C>> iterator = this.shortlist.iterator();
+            int position = 0;
+            while (this.inFlight < this.alpha && iterator.hasNext() && position++ < this.shortlistSize) {
+                ExternalNode<I, C> externalNode = iterator.next();
+                if (this.queried.add(externalNode.getId())) {
+                    send(externalNode);
+                }
+            }
+            if (this.inFlight == 0) {
+                onExhausted();
+            }
+        }
+
+        /**
+         * Sends a find value query to a node that has just been added to `queried`. Called while holding the instance lock.
+         * Queries that are not sent yet when the lookup completes are dropped.
+         * @param externalNode node to query
+         */
+        protected void send(ExternalNode<I, C> externalNode) {
+            this.inFlight++;
+            Future<?> task = queryExecutorService.submit(() -> query(externalNode));
+            this.future.whenComplete((answer, throwable) -> task.cancel(false));
+        }
+
+        private void query(ExternalNode<I, C> externalNode) {
+            CompletableFuture<KademliaMessage<I, C, Serializable>> responseFuture;
+            try {
+                responseFuture = dhtKademliaNode.getMessageSender().sendMessageAsync(dhtKademliaNode, externalNode, new DHTFindValueKademliaMessage<>(this.key));
+            } catch (Exception e) {
+                responseFuture = CompletableFuture.failedFuture(e);
+            }
+            // Answers that are still pending are not needed anymore once the lookup is done
+            CompletableFuture<KademliaMessage<I, C, Serializable>> pendingResponse = responseFuture;
+            this.future.whenComplete((answer, throwable) -> pendingResponse.cancel(false));
+            responseFuture.whenComplete((response, throwable) -> {
+                if (this.future.isDone())
+                    return;
+                if (throwable != null)
+                    log.error("Failed to query " + externalNode.getId() + " for key " + this.key, throwable);
+                onResponse(externalNode, throwable == null ? response : null);
+            });
+        }
+
+        /**
+         * Called when a node has the value
+         * @param node node that has answered
+         * @param value value of the key in that node
+         */
+        protected void onFound(Node<I, C> node, V value) {
+            this.future.complete(getNewLookupAnswer(this.key, LookupAnswer.Result.FOUND, node, value));
+        }
+
+        /**
+         * Called when no candidate is left to query and no answer is pending
+         */
+        protected void onExhausted() {
+            this.future.complete(getNewLookupAnswer(this.key, LookupAnswer.Result.FAILED, dhtKademliaNode, null));
+        }
+
+        /**
+         * @param externalNode node that has been queried
+         * @param response answer of the node, null if sending the query failed
+         */
+        @SuppressWarnings("unchecked")
+        protected synchronized void onResponse(ExternalNode<I, C> externalNode, KademliaMessage<I, C, Serializable> response) {
+            this.inFlight--;
+            if (response == null || !response.isAlive()) {
+                this.shortlist.remove(externalNode);
+                if (response != null)
+                    dhtKademliaNode.getRoutingTable().delete(externalNode);
+            } else {
+                dhtKademliaNode.getRoutingTable().updateOrCache(response.getNode());
+                if (response instanceof DHTLookupResultKademliaMessage) {
+                    DHTLookupResultKademliaMessage.DHTLookupResult<K, V> result = ((DHTLookupResultKademliaMessage<I, C, K, V>) (KademliaMessage<I, C, ?>) response).getData();
+                    if (result.getResult().equals(LookupAnswer.Result.FOUND)) {
+                        onFound(response.getNode(), result.getValue());
+                    }
+                } else if (response instanceof FindNodeResponseMessage) {
+                    addCandidates(((FindNodeResponseMessage<I, C>) (KademliaMessage<I, C, ?>) response).getData().getNodes());
+                }
+            }
+            queryNext();
+        }
+    }
+}
@@ -15,10 +15,13 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static io.ep2p.kademlia.protocol.MessageType.DHT_STORE_PULL;
 
@@ -39,19 +42,30 @@ public class PullingDHTStoreService<I extends Number, C extends ConnectionInfo,
         });
     }
 
-    public Future<StoreAnswer<I, C, K>> store(K key, @Nullable V value) {
+    @Override
+    public Future<StoreAnswer<I, C, K>> store(K key, @Nullable V value, long timeout, TimeUnit timeUnit) {
         this.dhtKademliaNode.getKademliaRepository().store(key, value);
-        CompletableFuture<StoreAnswer<I, C, K>> completableFuture = (CompletableFuture<StoreAnswer<I, C, K>>) super.store(key, null);
+        CompletableFuture<StoreAnswer<I, C, K>> completableFuture = (CompletableFuture<StoreAnswer<I, C, K>>) super.store(key, null, timeout, timeUnit);
         completableFuture.whenComplete((a, t) -> {
-            if ((a != null && a.getResult().equals(StoreAnswer.Result.FAILED)) || t != null){
+            if ((a != null && (a.getResult().equals(StoreAnswer.Result.FAILED) || a.getResult().equals(StoreAnswer.Result.TIMEOUT))) || t != null){
                 this.dhtKademliaNode.getKademliaRepository().remove(key);
             }
         });
         return completableFuture;
     }
 
-    protected StoreAnswer<I, C, K> handleStore(Node<I, C> caller, Node<I, C> requester, K key, @Nullable V value){
-        StoreAnswer<I, C, K> storeAnswer;
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit) {
+        // Values are pulled from this node key by key, so there is nothing to batch
+        return storeEach(entries, timeout, timeUnit);
+    }
+
+    protected CompletableFuture<StoreAnswer<I, C, K>> handleStore(Node<I, C> caller, Node<I, C> requester, K key, @Nullable V value, long deadline){
+        // Requester has stopped waiting for the result
+        if (DateUtil.isExpired(deadline)){
+            return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.TIMEOUT, requester));
+        }
+
         I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
 
         // If some other node is calling the store, and that other node is not this node,
@@ -66,43 +80,56 @@ public class PullingDHTStoreService<I extends Number, C extends ConnectionInfo,
         // For smaller networks this helps to avoid the process of finding alive close nodes to pass data to
 
         FindNodeAnswer<I, C> findNodeAnswer = this.dhtKademliaNode.getRoutingTable().findClosest(hash);
-        storeAnswer = storeDataToClosestNode(caller, requester, findNodeAnswer.getNodes(), key, value);
-
-        if(storeAnswer.getResult().equals(StoreAnswer.Result.FAILED)){
-            storeAnswer = getNewStoreAnswer(key, StoreAnswer.Result.STORED, this.dhtKademliaNode);
-        }
-        return storeAnswer;
+        return storeDataToClosestNode(caller, requester, findNodeAnswer.getNodes(), key, value, deadline).thenApply(storeAnswer -> {
+            if(storeAnswer.getResult().equals(StoreAnswer.Result.FAILED)){
+                return getNewStoreAnswer(key, StoreAnswer.Result.STORED, this.dhtKademliaNode);
+            }
+            return storeAnswer;
+        });
     }
 
     @SuppressWarnings("unchecked")
-    protected StoreAnswer<I, C, K> pullAndStore(Node<I, C> pullFrom, K key){
-        KademliaMessage<I, C, ? extends Serializable> kademliaMessage = this.dhtKademliaNode.getMessageSender().sendMessage(
+    protected CompletableFuture<StoreAnswer<I, C, K>> pullAndStore(Node<I, C> pullFrom, K key){
+        return this.dhtKademliaNode.getMessageSender().sendMessageAsync(
                 this.dhtKademliaNode,
                 pullFrom,
                 new DHTStorePullKademliaMessage<>(
                         new DHTStorePullKademliaMessage.DHTStorePullData<>(key)
                 )
-        );
-        if (kademliaMessage instanceof DHTLookupResultKademliaMessage){
-            DHTLookupResultKademliaMessage<I, C, K, V> dhtLookupResultKademliaMessage = (DHTLookupResultKademliaMessage<I, C, K, V>) kademliaMessage;
-            if (dhtLookupResultKademliaMessage.getData().getResult().equals(LookupAnswer.Result.FOUND)) {
-                return this.doStore(key, dhtLookupResultKademliaMessage.getData().getValue());
+        ).thenApply(kademliaMessage -> {
+            if (kademliaMessage instanceof DHTLookupResultKademliaMessage){
+                DHTLookupResultKademliaMessage<I, C, K, V> dhtLookupResultKademliaMessage = (DHTLookupResultKademliaMessage<I, C, K, V>) (KademliaMessage<I, C, ?>) kademliaMessage;
+                if (dhtLookupResultKademliaMessage.getData().getResult().equals(LookupAnswer.Result.FOUND)) {
+                    return this.doStore(key, dhtLookupResultKademliaMessage.getData().getValue());
+                }
             }
-        }
-        return getNewStoreAnswer(key, StoreAnswer.Result.FAILED, this.dhtKademliaNode);
+            return getNewStoreAnswer(key, StoreAnswer.Result.FAILED, this.dhtKademliaNode);
+        });
     }
 
-    protected StoreAnswer<I, C, K> doStore(Node<I, C> requester, K key, V value){
+    protected CompletableFuture<StoreAnswer<I, C, K>> doStore(Node<I, C> requester, K key, V value){
         if (value != null)
-            return doStore(key, value);
+            return CompletableFuture.completedFuture(doStore(key, value));
         else {
             return this.pullAndStore(requester, key);
         }
     }
 
-    protected StoreAnswer<I, C, K> storeDataToClosestNode(Node<I, C> caller, Node<I, C> requester, List<ExternalNode<I, C>> externalNodeList, K key, V value){
+    protected CompletableFuture<StoreAnswer<I, C, K>> storeDataToClosestNode(Node<I, C> caller, Node<I, C> requester, List<ExternalNode<I, C>> externalNodeList, K key, V value, long deadline){
         Date date = DateUtil.getDateOfSecondsAgo(this.dhtKademliaNode.getNodeSettings().getMaximumLastSeenAgeToConsiderAlive());
-        for (ExternalNode<I, C> externalNode : externalNodeList) {
+        return storeDataToNextNode(caller, requester, externalNodeList.iterator(), key, value, deadline, date);
+    }
+
+    /*
+     * Passes the request to the first alive node left in the iterator, moving to the next one only once the previous has failed
+     */
+    private CompletableFuture<StoreAnswer<I, C, K>> storeDataToNextNode(Node<I, C> caller, Node<I, C> requester, Iterator<ExternalNode<I, C>> iterator, K key, V value, long deadline, Date date){
+        while (iterator.hasNext()) {
+            if (DateUtil.isExpired(deadline)){
+                return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.TIMEOUT, requester));
+            }
+
+            ExternalNode<I, C> externalNode = iterator.next();
             //if current node is the closest node, store the value (Scenario A)
             if(externalNode.getId().equals(this.dhtKademliaNode.getId())){
                 return doStore(requester, key, value);
@@ -125,21 +152,25 @@ public class PullingDHTStoreService<I extends Number, C extends ConnectionInfo,
             // otherwise, try next closest node in routing table
             // if close node is alive, tell it to store the data
             // to know if it's alive the last seen should either be close or we ping and check the result
-            if(NodeUtil.recentlySeenOrAlive(this.dhtKademliaNode, externalNode, date)){
-                KademliaMessage<I, C, Serializable> response = this.dhtKademliaNode.getMessageSender().sendMessage(
+            return NodeUtil.recentlySeenOrAliveAsync(this.dhtKademliaNode, externalNode, date).thenCompose(alive -> {
+                if (!alive)
+                    return storeDataToNextNode(caller, requester, iterator, key, value, deadline, date);
+                return this.dhtKademliaNode.getMessageSender().sendMessageAsync(
                         this.dhtKademliaNode,
                         externalNode,
                         new DHTStoreKademliaMessage<>(
-                                new DHTStoreKademliaMessage.DHTData<>(requester, key, value)
+                                new DHTStoreKademliaMessage.DHTData<>(requester, key, value, deadline)
                         )
-                );
-                if (response.isAlive()){
-                    return getNewStoreAnswer(key, StoreAnswer.Result.PASSED, requester);
-                }
-            }
+                ).thenCompose(response -> {
+                    if (response.isAlive()){
+                        return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.PASSED, requester));
+                    }
+                    return storeDataToNextNode(caller, requester, iterator, key, value, deadline, date);
+                });
+            });
 
         }
-        return getNewStoreAnswer(key, StoreAnswer.Result.FAILED, requester);
+        return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.FAILED, requester));
     }
 
     protected void finalizeStoreResult(K key, StoreAnswer.Result result, Node<I, C> node) {
@@ -8,22 +8,31 @@ import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
 import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.OpcodeTable;
+import io.ep2p.kademlia.protocol.message.DHTStoreBatchKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTStoreBatchResultKademliaMessage;
 import io.ep2p.kademlia.protocol.message.DHTStoreKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTStoreReplicaKademliaMessage;
 import io.ep2p.kademlia.protocol.message.DHTStoreResultKademliaMessage;
 import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
 import io.ep2p.kademlia.protocol.message.KademliaMessage;
 import io.ep2p.kademlia.util.DateUtil;
+import io.ep2p.kademlia.util.FutureUtil;
 import io.ep2p.kademlia.util.NodeUtil;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -32,7 +41,7 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
     protected final DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode;
     protected final ExecutorService handlerExecutorService;
     protected final Map<K, CompletableFuture<StoreAnswer<I, C, K>>> storeFutureMap = new ConcurrentHashMap<>();
-    protected final Map<String, BiFunction<KademliaNodeAPI<I, C>, KademliaMessage<I, C, ? extends Serializable>, KademliaMessage<I, C, ? extends Serializable>>> handlerMapping = new HashMap<>();
+    protected final OpcodeTable<BiFunction<KademliaNodeAPI<I, C>, KademliaMessage<I, C, ? extends Serializable>, KademliaMessage<I, C, ? extends Serializable>>> handlerMapping = new OpcodeTable<>();
 
     @SuppressWarnings("unchecked")
     public PushingDHTStoreService(
@@ -51,20 +60,139 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
                 throw new IllegalArgumentException("Cant handle message. Required: DHTStoreResultKademliaMessage");
             return handleStoreResult((DHTStoreResultKademliaMessage<I, C, K>) message);
         });
+        this.handlerMapping.put(MessageType.DHT_STORE_REPLICA, (kademliaNodeAPI, message) -> {
+            if (!(message instanceof DHTStoreReplicaKademliaMessage))
+                throw new IllegalArgumentException("Cant handle message. Required: DHTStoreReplicaKademliaMessage");
+            return handleStoreReplicaRequest((DHTStoreReplicaKademliaMessage<I, C, K, V>) message);
+        });
+        this.handlerMapping.put(MessageType.DHT_STORE_BATCH, (kademliaNodeAPI, message) -> {
+            if (!(message instanceof DHTStoreBatchKademliaMessage))
+                throw new IllegalArgumentException("Cant handle message. Required: DHTStoreBatchKademliaMessage");
+            return handleStoreBatchRequest((DHTStoreBatchKademliaMessage<I, C, K, V>) message);
+        });
+        this.handlerMapping.put(MessageType.DHT_STORE_BATCH_RESULT, (kademliaNodeAPI, message) -> {
+            if (!(message instanceof DHTStoreBatchResultKademliaMessage))
+                throw new IllegalArgumentException("Cant handle message. Required: DHTStoreBatchResultKademliaMessage");
+            return handleStoreBatchResult((DHTStoreBatchResultKademliaMessage<I, C, K>) message);
+        });
     }
 
     public Future<StoreAnswer<I, C, K>> store(K key, V value) {
+        return store(key, value, this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutValue(), this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutUnit());
+    }
+
+    @Override
+    public Future<StoreAnswer<I, C, K>> store(K key, V value, long timeout, TimeUnit timeUnit) {
         CompletableFuture<StoreAnswer<I, C, K>> completableFuture = new CompletableFuture<>();
-        storeFutureMap.computeIfAbsent(key, k -> {
-            completableFuture.whenComplete((a, t) -> storeFutureMap.remove(key));
-            StoreAnswer<I, C, K> storeAnswer = handleStore(this.dhtKademliaNode, this.dhtKademliaNode, key, value);
-            if (storeAnswer.getResult().equals(StoreAnswer.Result.STORED) || storeAnswer.getResult().equals(StoreAnswer.Result.FAILED)){
+        // Register the future before passing the request, the result may arrive before handleStore() returns
+        CompletableFuture<StoreAnswer<I, C, K>> existingFuture = registerStoreFuture(key, completableFuture, timeout, timeUnit);
+        if (existingFuture != null)
+            return existingFuture;
+        storeSingle(key, value, DateUtil.getDeadline(timeout, timeUnit), completableFuture);
+        return completableFuture;
+    }
+
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries) {
+        return storeAll(entries, this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutValue(), this.dhtKademliaNode.getNodeSettings().getDhtOperationTimeoutUnit());
+    }
+
+    /**
+     * Groups the keys by the closest node this node knows to each of them, and sends one DHT_STORE_BATCH to each of those nodes.
+     * Keys that a node can not take are stored one by one through the usual store path.
+     */
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit) {
+        long deadline = DateUtil.getDeadline(timeout, timeUnit);
+        Map<K, CompletableFuture<StoreAnswer<I, C, K>>> futures = new LinkedHashMap<>();
+        Map<I, ExternalNode<I, C>> destinations = new HashMap<>();
+        Map<I, Map<K, V>> batches = new HashMap<>();
+        entries.forEach((key, value) -> {
+            CompletableFuture<StoreAnswer<I, C, K>> completableFuture = new CompletableFuture<>();
+            CompletableFuture<StoreAnswer<I, C, K>> existingFuture = registerStoreFuture(key, completableFuture, timeout, timeUnit);
+            if (existingFuture != null) {
+                futures.put(key, existingFuture);
+                return;
+            }
+            futures.put(key, completableFuture);
+
+            I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
+            List<ExternalNode<I, C>> closestNodes = this.dhtKademliaNode.getRoutingTable().findClosest(hash).getNodes();
+            if (closestNodes.isEmpty() || closestNodes.get(0).getId().equals(this.dhtKademliaNode.getId())) {
+                completableFuture.complete(doStore(key, value));
+                return;
+            }
+            ExternalNode<I, C> destination = closestNodes.get(0);
+            destinations.putIfAbsent(destination.getId(), destination);
+            batches.computeIfAbsent(destination.getId(), id -> new LinkedHashMap<>()).put(key, value);
+        });
+        batches.forEach((id, batch) -> storeBatch(destinations.get(id), batch, futures, deadline));
+        return FutureUtil.allOf(futures);
+    }
+
+    /**
+     * Stores the entries one by one with {@link #store(Serializable, Serializable, long, TimeUnit)}
+     * Used by services that can not batch their store requests
+     */
+    protected Future<Map<K, StoreAnswer<I, C, K>>> storeEach(Map<K, V> entries, long timeout, TimeUnit timeUnit) {
+        Map<K, Future<StoreAnswer<I, C, K>>> futures = new LinkedHashMap<>();
+        entries.forEach((key, value) -> futures.put(key, store(key, value, timeout, timeUnit)));
+        return FutureUtil.allOf(futures);
+    }
+
+    /**
+     * Registers the future of a key, unless another store of the same key is in progress
+     * @return future of the store that is already in progress, or null if `completableFuture` has been registered
+     */
+    protected CompletableFuture<StoreAnswer<I, C, K>> registerStoreFuture(K key, CompletableFuture<StoreAnswer<I, C, K>> completableFuture, long timeout, TimeUnit timeUnit) {
+        CompletableFuture<StoreAnswer<I, C, K>> existingFuture = storeFutureMap.putIfAbsent(key, completableFuture);
+        if (existingFuture != null)
+            return existingFuture;
+        if (timeout > 0)
+            completableFuture.completeOnTimeout(getNewStoreAnswer(key, StoreAnswer.Result.TIMEOUT, this.dhtKademliaNode), timeout, timeUnit);
+        completableFuture.whenComplete((a, t) -> storeFutureMap.remove(key, completableFuture));
+        return null;
+    }
+
+    /*
+     * Passes a single key through the usual store path. PASSED answers leave the future to be completed by DHT_STORE_RESULT
+     */
+    private void storeSingle(K key, V value, long deadline, CompletableFuture<StoreAnswer<I, C, K>> completableFuture) {
+        handleStore(this.dhtKademliaNode, this.dhtKademliaNode, key, value, deadline).whenComplete((storeAnswer, throwable) -> {
+            if (throwable != null) {
+                completableFuture.completeExceptionally(throwable);
+            } else if (storeAnswer.getResult().equals(StoreAnswer.Result.STORED) || storeAnswer.getResult().equals(StoreAnswer.Result.FAILED)){
                 completableFuture.complete(storeAnswer);
-                return null;
             }
-            return completableFuture;
         });
-        return completableFuture;
+    }
+
+    private void storeBatch(ExternalNode<I, C> destination, Map<K, V> batch, Map<K, CompletableFuture<StoreAnswer<I, C, K>>> futures, long deadline) {
+        this.dhtKademliaNode.getMessageSender().sendMessageAsync(
+                this.dhtKademliaNode,
+                destination,
+                new DHTStoreBatchKademliaMessage<>(
+                        new DHTStoreBatchKademliaMessage.DHTStoreBatch<>(this.dhtKademliaNode, batch, deadline)
+                )
+        ).whenComplete((response, throwable) -> {
+            Map<K, StoreAnswer.Result> results = getStoreBatchResults(response, throwable);
+            batch.forEach((key, value) -> {
+                CompletableFuture<StoreAnswer<I, C, K>> completableFuture = futures.get(key);
+                StoreAnswer.Result result = results.get(key);
+                if (result == null || result.equals(StoreAnswer.Result.FAILED)) {
+                    // Destination is gone or did not take the key, try the other close nodes
+                    storeSingle(key, value, deadline, completableFuture);
+                } else if (!result.equals(StoreAnswer.Result.PASSED)) {
+                    completableFuture.complete(getNewStoreAnswer(key, result, response.getNode()));
+                }
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<K, StoreAnswer.Result> getStoreBatchResults(KademliaMessage<I, C, Serializable> response, Throwable throwable) {
+        if (throwable != null || !response.isAlive() || !(response instanceof DHTStoreBatchResultKademliaMessage))
+            return Collections.emptyMap();
+        return ((DHTStoreBatchResultKademliaMessage<I, C, K>) (KademliaMessage<I, C, ?>) response).getData().getResults();
     }
 
     public void cleanUp(){
@@ -72,8 +200,12 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
         this.storeFutureMap.clear();
     }
 
-    protected StoreAnswer<I, C, K> handleStore(Node<I, C> caller, Node<I, C> requester, K key, V value){
-        StoreAnswer<I, C, K> storeAnswer;
+    protected CompletableFuture<StoreAnswer<I, C, K>> handleStore(Node<I, C> caller, Node<I, C> requester, K key, V value, long deadline){
+        // Requester has stopped waiting for the result
+        if (DateUtil.isExpired(deadline)){
+            return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.TIMEOUT, requester));
+        }
+
         I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
 
         // If some other node is calling the store, and that other node is not this node,
@@ -81,19 +213,19 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
         // The closest node we know to the key knows us as the closest know to the key and not themselves (?!?)
         // Useful only in case of nodeSettings.isEnabledFirstStoreRequestForcePass()
         if (!caller.getId().equals(this.dhtKademliaNode.getId()) && requester.getId().equals(this.dhtKademliaNode.getId())){
-            return doStore(key, value);
+            return CompletableFuture.completedFuture(doStore(key, value));
         }
 
         // If current node should persist the data, do it immediately
         // For smaller networks this helps to avoid the process of finding alive close nodes to pass data to
 
         FindNodeAnswer<I, C> findNodeAnswer = this.dhtKademliaNode.getRoutingTable().findClosest(hash);
-        storeAnswer = storeDataToClosestNode(caller, requester, findNodeAnswer.getNodes(), key, value);
-
-        if(storeAnswer.getResult().equals(StoreAnswer.Result.FAILED)){
-            storeAnswer = doStore(key, value);
-        }
-        return storeAnswer;
+        return storeDataToClosestNode(caller, requester, findNodeAnswer.getNodes(), key, value, deadline).thenApply(storeAnswer -> {
+            if(storeAnswer.getResult().equals(StoreAnswer.Result.FAILED)){
+                return doStore(key, value);
+            }
+            return storeAnswer;
+        });
     }
 
     protected StoreAnswer<I, C, K> doStore(K key, V value){
@@ -101,12 +233,24 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
         return getNewStoreAnswer(key, StoreAnswer.Result.STORED, this.dhtKademliaNode);
     }
 
-    protected StoreAnswer<I, C, K> storeDataToClosestNode(Node<I, C> caller, Node<I, C> requester, List<ExternalNode<I, C>> externalNodeList, K key, V value){
+    protected CompletableFuture<StoreAnswer<I, C, K>> storeDataToClosestNode(Node<I, C> caller, Node<I, C> requester, List<ExternalNode<I, C>> externalNodeList, K key, V value, long deadline){
         Date date = DateUtil.getDateOfSecondsAgo(this.dhtKademliaNode.getNodeSettings().getMaximumLastSeenAgeToConsiderAlive());
-        for (ExternalNode<I, C> externalNode : externalNodeList) {
+        return storeDataToNextNode(caller, requester, externalNodeList.iterator(), key, value, deadline, date);
+    }
+
+    /*
+     * Passes the data to the first alive node left in the iterator, moving to the next one only once the previous has failed
+     */
+    private CompletableFuture<StoreAnswer<I, C, K>> storeDataToNextNode(Node<I, C> caller, Node<I, C> requester, Iterator<ExternalNode<I, C>> iterator, K key, V value, long deadline, Date date){
+        while (iterator.hasNext()) {
+            if (DateUtil.isExpired(deadline)){
+                return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.TIMEOUT, requester));
+            }
+
+            ExternalNode<I, C> externalNode = iterator.next();
             //if current node is the closest node, store the value (Scenario A)
             if(externalNode.getId().equals(this.dhtKademliaNode.getId())){
-                return doStore(key, value);
+                return CompletableFuture.completedFuture(doStore(key, value));
             }
 
             // Continue if requester is known to be the closest, but it's also same as caller
@@ -126,21 +270,24 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
             // otherwise, try next closest node in routing table
             // if close node is alive, tell it to store the data
             // to know if it's alive the last seen should either be close or we ping and check the result
-            if(NodeUtil.recentlySeenOrAlive(this.dhtKademliaNode, externalNode, date)){
-                KademliaMessage<I, C, Serializable> response = this.dhtKademliaNode.getMessageSender().sendMessage(
+            return NodeUtil.recentlySeenOrAliveAsync(this.dhtKademliaNode, externalNode, date).thenCompose(alive -> {
+                if (!alive)
+                    return storeDataToNextNode(caller, requester, iterator, key, value, deadline, date);
+                return this.dhtKademliaNode.getMessageSender().sendMessageAsync(
                         this.dhtKademliaNode,
                         externalNode,
                         new DHTStoreKademliaMessage<>(
-                                new DHTStoreKademliaMessage.DHTData<>(requester, key, value)
+                                new DHTStoreKademliaMessage.DHTData<>(requester, key, value, deadline)
                         )
-                );
-                if (response.isAlive()){
-                    return getNewStoreAnswer(key, StoreAnswer.Result.PASSED, requester);
-                }
-            }
-
+                ).thenCompose(response -> {
+                    if (response.isAlive()){
+                        return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.PASSED, requester));
+                    }
+                    return storeDataToNextNode(caller, requester, iterator, key, value, deadline, date);
+                });
+            });
         }
-        return getNewStoreAnswer(key, StoreAnswer.Result.FAILED, requester);
+        return CompletableFuture.completedFuture(getNewStoreAnswer(key, StoreAnswer.Result.FAILED, requester));
     }
 
 
@@ -158,22 +305,81 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
     }
 
     protected EmptyKademliaMessage<I, C> handleStoreRequest(DHTStoreKademliaMessage<I,C,K,V> dhtStoreKademliaMessage){
+        DHTStoreKademliaMessage.DHTData<I, C, K, V> data = dhtStoreKademliaMessage.getData();
+        // Drop requests that requester has stopped waiting for
+        if (DateUtil.isExpired(data.getDeadline()))
+            return new EmptyKademliaMessage<>();
+
+        passStoreRequest(dhtStoreKademliaMessage.getNode(), data.getRequester(), data.getKey(), data.getValue(), data.getDeadline());
+        return new EmptyKademliaMessage<>();
+    }
+
+    /*
+     * Stores the data or passes it on in the background, and tells the requester once it is stored
+     */
+    private void passStoreRequest(Node<I, C> caller, Node<I, C> requester, K key, V value, long deadline){
         this.handlerExecutorService.submit(() -> {
-            DHTStoreKademliaMessage.DHTData<I, C, K, V> data = dhtStoreKademliaMessage.getData();
-            StoreAnswer<I, C, K> storeAnswer = handleStore(dhtStoreKademliaMessage.getNode(), data.getRequester(), data.getKey(), data.getValue());
-            if (storeAnswer.getResult().equals(StoreAnswer.Result.STORED)) {
-                this.dhtKademliaNode.getMessageSender().sendAsyncMessage(
-                        this.dhtKademliaNode,
-                        data.getRequester(),
-                        new DHTStoreResultKademliaMessage<>(
-                                new DHTStoreResultKademliaMessage.DHTStoreResult<>(data.getKey(), StoreAnswer.Result.STORED)
-                        )
-                );
+            handleStore(caller, requester, key, value, deadline).thenAccept(storeAnswer -> {
+                if (storeAnswer.getResult().equals(StoreAnswer.Result.STORED)) {
+                    this.dhtKademliaNode.getMessageSender().sendAsyncMessage(
+                            this.dhtKademliaNode,
+                            requester,
+                            new DHTStoreResultKademliaMessage<>(
+                                    new DHTStoreResultKademliaMessage.DHTStoreResult<>(key, StoreAnswer.Result.STORED)
+                            )
+                    );
+                }
+            });
+        });
+    }
+
+    /**
+     * Stores the keys this node is the closest known node to, and passes the others on like DHT_STORE requests
+     * @param message batch store request
+     * @return result of each key, PASSED for the keys that were passed on
+     */
+    protected DHTStoreBatchResultKademliaMessage<I, C, K> handleStoreBatchRequest(DHTStoreBatchKademliaMessage<I, C, K, V> message){
+        DHTStoreBatchKademliaMessage.DHTStoreBatch<I, C, K, V> data = message.getData();
+        boolean expired = DateUtil.isExpired(data.getDeadline());
+        HashMap<K, StoreAnswer.Result> results = new HashMap<>();
+        data.getEntries().forEach((key, value) -> {
+            if (expired) {
+                results.put(key, StoreAnswer.Result.TIMEOUT);
+                return;
+            }
+            I hash = this.dhtKademliaNode.getKeyHashGenerator().generateHash(key);
+            List<ExternalNode<I, C>> closestNodes = this.dhtKademliaNode.getRoutingTable().findClosest(hash).getNodes();
+            if (closestNodes.isEmpty() || closestNodes.get(0).getId().equals(this.dhtKademliaNode.getId())) {
+                results.put(key, doStore(key, value).getResult());
+            } else {
+                passStoreRequest(message.getNode(), data.getRequester(), key, value, data.getDeadline());
+                results.put(key, StoreAnswer.Result.PASSED);
             }
         });
+        return new DHTStoreBatchResultKademliaMessage<>(new DHTStoreBatchResultKademliaMessage.DHTStoreBatchResult<>(results));
+    }
+
+    protected EmptyKademliaMessage<I, C> handleStoreBatchResult(DHTStoreBatchResultKademliaMessage<I, C, K> message) {
+        message.getData().getResults().forEach((key, result) -> {
+            if (result.equals(StoreAnswer.Result.STORED))
+                this.finalizeStoreResult(key, result, message.getNode());
+        });
         return new EmptyKademliaMessage<>();
     }
 
+    /**
+     * Stores a replica without passing it to other nodes
+     * @param message replica store request
+     * @return result of storing the replica in this node
+     */
+    protected DHTStoreResultKademliaMessage<I, C, K> handleStoreReplicaRequest(DHTStoreReplicaKademliaMessage<I, C, K, V> message){
+        DHTStoreKademliaMessage.DHTData<I, C, K, V> data = message.getData();
+        if (DateUtil.isExpired(data.getDeadline())){
+            return new DHTStoreResultKademliaMessage<>(new DHTStoreResultKademliaMessage.DHTStoreResult<>(data.getKey(), StoreAnswer.Result.TIMEOUT));
+        }
+        StoreAnswer<I, C, K> storeAnswer = doStore(data.getKey(), data.getValue());
+        return new DHTStoreResultKademliaMessage<>(new DHTStoreResultKademliaMessage.DHTStoreResult<>(data.getKey(), storeAnswer.getResult()));
+    }
 
     protected StoreAnswer<I, C, K> getNewStoreAnswer(K k, StoreAnswer.Result result, Node<I, C> node){
         StoreAnswer<I, C, K> storeAnswer = new StoreAnswer<>();
@@ -188,9 +394,9 @@ public class PushingDHTStoreService<I extends Number, C extends ConnectionInfo,
     @SuppressWarnings("unchecked")
     public <U extends KademliaMessage<I, C, ?>, O extends KademliaMessage<I, C, ?>> O handle(KademliaNodeAPI<I, C> kademliaNode, U message) {
         if (message.isAlive()){
-            this.dhtKademliaNode.getRoutingTable().forceUpdate(message.getNode());
+            this.dhtKademliaNode.getRoutingTable().updateOrCache(message.getNode());
         }
-        BiFunction<KademliaNodeAPI<I, C>, KademliaMessage<I, C, ? extends Serializable>, KademliaMessage<I, C, ? extends Serializable>> biFunction = this.handlerMapping.get(message.getType());
+        BiFunction<KademliaNodeAPI<I, C>, KademliaMessage<I, C, ? extends Serializable>, KademliaMessage<I, C, ? extends Serializable>> biFunction = this.handlerMapping.get(message.getOpcode());
         if (biFunction == null){
             throw new IllegalArgumentException("Message param is not supported");
         }
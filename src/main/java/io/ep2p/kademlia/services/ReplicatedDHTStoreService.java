@@ -0,0 +1,182 @@
+package io.ep2p.kademlia.services;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.protocol.message.DHTStoreKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTStoreReplicaKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTStoreResultKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.util.DateUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store service that keeps a copy of each value on the `replicationFactor` closest known nodes to the key, instead of a single node.
+ * The value is sent to all of them in parallel with DHT_STORE_REPLICA, and the store succeeds once `writeQuorum` of them have stored it.
+ * Replicas that fail are replaced by the next closest known nodes.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ * @param <K> Type of storage key
+ * @param <V> Type of storage value
+ */
+@Slf4j
+public class ReplicatedDHTStoreService<I extends Number, C extends ConnectionInfo, K extends Serializable, V extends Serializable> extends PushingDHTStoreService<I, C, K, V> {
+    protected final ExecutorService replicaExecutorService;
+
+    /**
+     * @param dhtKademliaNode owner node
+     * @param executorService executor to handle store requests of other nodes
+     * @param replicaExecutorService executor to send replicas from, should be able to run `replicationFactor` blocking sends in parallel
+     */
+    public ReplicatedDHTStoreService(
+            DHTKademliaNodeAPI<I, C, K, V> dhtKademliaNode,
+            ExecutorService executorService,
+            ExecutorService replicaExecutorService
+    ) {
+        super(dhtKademliaNode, executorService);
+        this.replicaExecutorService = replicaExecutorService;
+    }
+
+    @Override
+    public Future<StoreAnswer<I, C, K>> store(K key, V value, long timeout, TimeUnit timeUnit) {
+        CompletableFuture<StoreAnswer<I, C, K>> completableFuture = new CompletableFuture<>();
+        CompletableFuture<StoreAnswer<I, C, K>> existingFuture = storeFutureMap.putIfAbsent(key, completableFuture);
+        if (existingFuture != null)
+            return existingFuture;
+        if (timeout > 0)
+            completableFuture.completeOnTimeout(getNewStoreAnswer(key, StoreAnswer.Result.TIMEOUT, this.dhtKademliaNode), timeout, timeUnit);
+        completableFuture.whenComplete((a, t) -> storeFutureMap.remove(key, completableFuture));
+        new ReplicatedStore(key, value, DateUtil.getDeadline(timeout, timeUnit), completableFuture).start();
+        return completableFuture;
+    }
+
+    @Override
+    public Future<Map<K, StoreAnswer<I, C, K>>> storeAll(Map<K, V> entries, long timeout, TimeUnit timeUnit) {
+        // Each key has its own set of replicas, so there is nothing to batch
+        return storeEach(entries, timeout, timeUnit);
+    }
+
+    /**
+     * State of a single replicated store. All fields are guarded by the instance lock.
+     */
+    protected class ReplicatedStore {
+        private final K key;
+        private final V value;
+        private final long deadline;
+        private final CompletableFuture<StoreAnswer<I, C, K>> future;
+        private final List<Node<I, C>> replicas = new ArrayList<>();
+        private Iterator<ExternalNode<I, C>> candidates;
+        private int quorum;
+        private int pending = 0;
+
+        protected ReplicatedStore(K key, V value, long deadline, CompletableFuture<StoreAnswer<I, C, K>> future) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+            this.future = future;
+        }
+
+        protected synchronized void start() {
+            I hash = dhtKademliaNode.getKeyHashGenerator().generateHash(key);
+            List<ExternalNode<I, C>> closestNodes = dhtKademliaNode.getRoutingTable().findClosest(hash).getNodes();
+            this.candidates = closestNodes.iterator();
+
+            // Small networks may not have enough nodes for the configured replication
+            int replicationFactor = Math.max(1, Math.min(dhtKademliaNode.getNodeSettings().getReplicationFactor(), closestNodes.size()));
+            this.quorum = Math.max(1, Math.min(dhtKademliaNode.getNodeSettings().getWriteQuorum(), replicationFactor));
+            for (int i = 0; i < replicationFactor; i++) {
+                sendToNextCandidate();
+            }
+            checkCompletion();
+        }
+
+        private void sendToNextCandidate() {
+            if (!this.candidates.hasNext() || DateUtil.isExpired(this.deadline))
+                return;
+            ExternalNode<I, C> externalNode = this.candidates.next();
+            this.pending++;
+            if (externalNode.getId().equals(dhtKademliaNode.getId())) {
+                StoreAnswer<I, C, K> storeAnswer = doStore(this.key, this.value);
+                onReplicaResult(dhtKademliaNode, storeAnswer.getResult().equals(StoreAnswer.Result.STORED));
+            } else {
+                replicaExecutorService.submit(() -> sendReplica(externalNode));
+            }
+        }
+
+        private void sendReplica(ExternalNode<I, C> externalNode) {
+            CompletableFuture<KademliaMessage<I, C, Serializable>> responseFuture;
+            try {
+                responseFuture = dhtKademliaNode.getMessageSender().sendMessageAsync(
+                        dhtKademliaNode,
+                        externalNode,
+                        new DHTStoreReplicaKademliaMessage<>(
+                                new DHTStoreKademliaMessage.DHTData<>(dhtKademliaNode, this.key, this.value, this.deadline)
+                        )
+                );
+            } catch (Exception e) {
+                responseFuture = CompletableFuture.failedFuture(e);
+            }
+            responseFuture.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    log.error("Failed to store replica of " + this.key + " in " + externalNode.getId(), throwable);
+                    onReplicaResult(externalNode, false);
+                    return;
+                }
+                if (!response.isAlive()) {
+                    dhtKademliaNode.getRoutingTable().delete(externalNode);
+                    onReplicaResult(externalNode, false);
+                    return;
+                }
+                dhtKademliaNode.getRoutingTable().updateOrCache(response.getNode());
+                onReplicaResult(response.getNode(), isStored(response));
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean isStored(KademliaMessage<I, C, Serializable> response) {
+            if (!(response instanceof DHTStoreResultKademliaMessage))
+                return false;
+            DHTStoreResultKademliaMessage<I, C, K> storeResult = (DHTStoreResultKademliaMessage<I, C, K>) (KademliaMessage<I, C, ?>) response;
+            return storeResult.getData().getResult().equals(StoreAnswer.Result.STORED);
+        }
+
+        private synchronized void onReplicaResult(Node<I, C> node, boolean stored) {
+            this.pending--;
+            // Failed replicas are replaced even after the quorum is met, so that the value still ends up on `replicationFactor` nodes
+            if (stored) {
+                this.replicas.add(node);
+            } else {
+                sendToNextCandidate();
+            }
+            checkCompletion();
+        }
+
+        private void checkCompletion() {
+            if (this.future.isDone())
+                return;
+            if (this.replicas.size() >= this.quorum) {
+                this.future.complete(getNewStoreAnswer(StoreAnswer.Result.STORED, this.replicas.get(0)));
+            } else if (this.pending == 0) {
+                this.future.complete(getNewStoreAnswer(StoreAnswer.Result.FAILED, dhtKademliaNode));
+            }
+        }
+
+        private StoreAnswer<I, C, K> getNewStoreAnswer(StoreAnswer.Result result, Node<I, C> node) {
+            StoreAnswer<I, C, K> storeAnswer = ReplicatedDHTStoreService.this.getNewStoreAnswer(this.key, result, node);
+            storeAnswer.setReplicas(new ArrayList<>(this.replicas));
+            return storeAnswer;
+        }
+    }
+}
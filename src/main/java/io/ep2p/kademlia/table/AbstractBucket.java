@@ -10,26 +10,38 @@ import io.ep2p.kademlia.connection.ConnectionInfo;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
 
 /**
+ * Bucket that keeps its nodes in a doubly linked list in last seen order, indexed by a map from node id to list entry.
+ * Membership check, push to front, add, remove and eviction of the least recently seen node are all O(1) and pushing
+ * to front does not allocate. Mutations are guarded by the bucket monitor (the same one routing tables lock while updating).
+ * {@link #getNodeIds()} returns an immutable snapshot that is rebuilt lazily after a mutation, so readers iterate a
+ * consistent view without locking.
  * @param <I> Number type of node ID between supported types
  * @param <C> Your implementation of connection info
  */
 public class AbstractBucket<I extends Number, C extends ConnectionInfo> implements Bucket<I, C> {
   private static final long serialVersionUID = -6049494618368168254L;
   protected final int id;
-  protected final CopyOnWriteArrayList<I> nodeIds;
-  protected final ConcurrentHashMap<I, ExternalNode<I, C>> nodeMap = new ConcurrentHashMap<>();
+  protected final Map<I, Entry<I, C>> entries = new HashMap<>();
+  /* Most recently seen node */
+  protected Entry<I, C> head;
+  /* Least recently seen node */
+  protected Entry<I, C> tail;
+  protected transient volatile List<I> snapshot;
+  protected final ReplacementCache<I, C> replacementCache = new ReplacementCache<>();
 
   /**
    * Create a bucket for prefix `id`
    * @param id prefix
    */
   public AbstractBucket(int id) {
-    this.nodeIds = new CopyOnWriteArrayList<>();
     this.id = id;
   }
 
@@ -37,25 +49,34 @@ public class AbstractBucket<I extends Number, C extends ConnectionInfo> implemen
     return this.id;
   }
 
-  public int size() {
-    return nodeIds.size();
+  public synchronized int size() {
+    return entries.size();
   }
 
-  public boolean contains(I id) {
-    return nodeIds.contains(id);
+  public synchronized boolean contains(I id) {
+    return entries.containsKey(id);
   }
 
   public boolean contains(Node<I, C> node){
-    return nodeIds.contains(node.getId());
+    return this.contains(node.getId());
   }
 
   /**
    * @param node to add to this bucket
    */
   @Override
-  public void add(ExternalNode<I, C> node) {
-    nodeIds.add(0,node.getId());
-    nodeMap.put(node.getId(), node);
+  public synchronized void add(ExternalNode<I, C> node) {
+    Entry<I, C> entry = entries.get(node.getId());
+    if (entry != null) {
+      unlink(entry);
+      entry.node = node;
+    } else {
+      entry = new Entry<>(node);
+      entries.put(node.getId(), entry);
+      replacementCache.remove(node.getId());
+    }
+    linkFirst(entry);
+    snapshot = null;
   }
 
   @Override
@@ -64,9 +85,12 @@ public class AbstractBucket<I extends Number, C extends ConnectionInfo> implemen
   }
 
   @Override
-  public void remove(I nodeId){
-    nodeIds.remove(nodeId);
-    nodeMap.remove(nodeId);
+  public synchronized void remove(I nodeId){
+    Entry<I, C> entry = entries.remove(nodeId);
+    if (entry != null) {
+      unlink(entry);
+      snapshot = null;
+    }
   }
 
   /**
@@ -74,23 +98,123 @@ public class AbstractBucket<I extends Number, C extends ConnectionInfo> implemen
    */
   @Override
   public synchronized void pushToFront(ExternalNode<I, C> node) {
-    nodeIds.remove(node.getId());
-    nodeIds.add(0, node.getId());
-    nodeMap.get(node.getId()).setLastSeen(node.getLastSeen());
+    Entry<I, C> entry = entries.get(node.getId());
+    if (entry == null) {
+      return;
+    }
+    entry.node.setLastSeen(node.getLastSeen());
+    if (entry != head) {
+      unlink(entry);
+      linkFirst(entry);
+      snapshot = null;
+    }
   }
 
   @Override
-  public ExternalNode<I, C> getNode(I id) {
-    return nodeMap.get(id);
+  public synchronized ExternalNode<I, C> getNode(I id) {
+    Entry<I, C> entry = entries.get(id);
+    return entry == null ? null : entry.node;
   }
 
+  /**
+   * @return immutable snapshot of node ids, most recently seen first
+   */
   @Override
   public List<I> getNodeIds() {
-    return nodeIds;
+    List<I> nodeIds = snapshot;
+    if (nodeIds != null) {
+      return nodeIds;
+    }
+    synchronized (this) {
+      if (snapshot == null) {
+        List<I> ids = new ArrayList<>(entries.size());
+        for (Entry<I, C> entry = head; entry != null; entry = entry.next) {
+          ids.add(entry.node.getId());
+        }
+        snapshot = Collections.unmodifiableList(ids);
+      }
+      return snapshot;
+    }
+  }
+
+  /**
+   * Removes the least recently seen node, which is the tail of the bucket
+   * @param excludedId node id that should never be evicted (routing table owner)
+   * @return true if a node was evicted
+   */
+  @Override
+  public synchronized boolean evictOldest(I excludedId) {
+    Entry<I, C> entry = tail;
+    if (entry != null && entry.node.getId().equals(excludedId)) {
+      entry = entry.previous;
+    }
+    if (entry == null) {
+      return false;
+    }
+    entries.remove(entry.node.getId());
+    unlink(entry);
+    snapshot = null;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean addReplacement(ExternalNode<I, C> node, int capacity) {
+    if (entries.containsKey(node.getId())) {
+      return false;
+    }
+    return replacementCache.add(node, capacity);
+  }
+
+  @Override
+  public synchronized ExternalNode<I, C> pollReplacement() {
+    return replacementCache.poll();
+  }
+
+  @Override
+  public synchronized List<I> getReplacementIds() {
+    return replacementCache.getNodeIds();
+  }
+
+  private void linkFirst(Entry<I, C> entry) {
+    entry.previous = null;
+    entry.next = head;
+    if (head != null) {
+      head.previous = entry;
+    }
+    head = entry;
+    if (tail == null) {
+      tail = entry;
+    }
+  }
+
+  private void unlink(Entry<I, C> entry) {
+    if (entry.previous != null) {
+      entry.previous.next = entry.next;
+    } else {
+      head = entry.next;
+    }
+    if (entry.next != null) {
+      entry.next.previous = entry.previous;
+    } else {
+      tail = entry.previous;
+    }
+    entry.previous = null;
+    entry.next = null;
   }
 
   @Override
   public String toString() {
-    return "LongBucket [id= " + id + " nodeIds=" + nodeIds + "]";
+    return "LongBucket [id= " + id + " nodeIds=" + getNodeIds() + "]";
+  }
+
+  protected static final class Entry<I extends Number, C extends ConnectionInfo> implements Serializable {
+    private static final long serialVersionUID = 2546389012773604162L;
+    private ExternalNode<I, C> node;
+    private Entry<I, C> previous;
+    private Entry<I, C> next;
+
+    private Entry(ExternalNode<I, C> node) {
+      this.node = node;
+    }
   }
 }
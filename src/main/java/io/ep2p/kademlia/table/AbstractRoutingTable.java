@@ -13,11 +13,10 @@ import io.ep2p.kademlia.exception.FullBucketException;
 import io.ep2p.kademlia.model.FindNodeAnswer;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
-import io.ep2p.kademlia.util.FindNodeAnswerReducer;
+import io.ep2p.kademlia.util.ReferenceTargets;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -33,6 +32,8 @@ public abstract class AbstractRoutingTable<I extends Number, C extends Connectio
   /* Id of the routing table owner (node id) */
   protected I id;
   protected transient NodeSettings nodeSettings;
+  /* Built on first use, so deserialized tables build their own */
+  private transient volatile ReferenceTargets<I> referenceTargets;
 
   /**
    * @param id Node id of the table owner
@@ -56,97 +57,140 @@ public abstract class AbstractRoutingTable<I extends Number, C extends Connectio
    * @return if node is added newly (not updated)
    */
   public boolean update(Node<I, C> node) throws FullBucketException {
-    //Setting last seen date on node
-
-    ExternalNode<I, C> externalNode;
-
-    if (!(node instanceof ExternalNode))
-      externalNode = this.getExternalNode(node);
-    else
-      externalNode = (ExternalNode<I, C>) node;
+    ExternalNode<I, C> externalNode = this.toSeenExternalNode(node);
+    Bucket<I, C> bucket = this.findBucket(node.getId());
+    synchronized (bucket) {
+      if (bucket.contains(node)) {
+        // If the element is already in the bucket, we update it and push it to the front of the bucket.
+        bucket.pushToFront(externalNode);
+        return false;
+      } else if (bucket.size() < this.nodeSettings.getBucketSize()) {
+        bucket.add(externalNode);
+        return true;
+      }
+    }
+    throw new FullBucketException();
+  }
 
-    externalNode.setLastSeen(new Date());
+  /**
+   * Updates the routing table with a new value, evicting the oldest nodes of the bucket if it is full.
+   * Only the bucket of the node is locked, so updates landing in different buckets do not block each other
+   * @param node to add or update (push to front)
+   */
+  @Override
+  public void forceUpdate(Node<I, C> node) {
+    ExternalNode<I, C> externalNode = this.toSeenExternalNode(node);
     Bucket<I, C> bucket = this.findBucket(node.getId());
-    if (bucket.contains(node)) {
-      // If the element is already in the bucket, we update it and push it to the front of the bucket.
-      bucket.pushToFront(externalNode);
-      return false;
-    } else if (bucket.size() < this.nodeSettings.getBucketSize()) {
+    synchronized (bucket) {
+      if (bucket.contains(node)) {
+        bucket.pushToFront(externalNode);
+        return;
+      }
+      // No other update can fill the bucket again while we hold its monitor
+      while (bucket.size() >= this.nodeSettings.getBucketSize()) {
+        if (!bucket.evictOldest(this.id))
+          return;
+      }
       bucket.add(externalNode);
-      return true;
     }
-    throw new FullBucketException();
   }
 
   @Override
-  public synchronized void forceUpdate(Node<I, C> node) {
-    try {
-      this.update(node);
-    } catch (FullBucketException e) {
-      Bucket<I, C> bucket = this.findBucket(node.getId());
-      Date date = null;
-      I oldestNode = null;
-      for (I nodeId : bucket.getNodeIds()) {
-        if (nodeId.equals(this.id)){
-          continue;
-        }
-        if (date == null || bucket.getNode(nodeId).getLastSeen().before(date)){
-          date = bucket.getNode(nodeId).getLastSeen();
-          oldestNode = nodeId;
-        }
+  public boolean updateOrCache(Node<I, C> node) {
+    ExternalNode<I, C> externalNode = this.toSeenExternalNode(node);
+    Bucket<I, C> bucket = this.findBucket(node.getId());
+    synchronized (bucket) {
+      if (bucket.contains(node)) {
+        bucket.pushToFront(externalNode);
+        return false;
+      } else if (bucket.size() < this.nodeSettings.getBucketSize()) {
+        bucket.add(externalNode);
+        return true;
       }
-      bucket.remove(oldestNode);
-      // recursive, because some other thread may add new node to the bucket while we are making a space
-      this.forceUpdate(node);
+      bucket.addReplacement(externalNode, this.nodeSettings.getReplacementCacheSize());
+      return false;
     }
   }
 
   /**
-   * Delete node from table
+   * Delete node from table. The most recently seen replacement candidate of the bucket, if any, takes its place
    * @param node to delete
    */
   public void delete(Node<I, C> node) {
     Bucket<I, C> bucket = this.findBucket(node.getId());
-    bucket.remove(node);
+    synchronized (bucket) {
+      if (!bucket.contains(node)) {
+        return;
+      }
+      bucket.remove(node);
+      ExternalNode<I, C> replacement = bucket.pollReplacement();
+      if (replacement != null && bucket.size() < this.nodeSettings.getBucketSize()) {
+        bucket.add(replacement);
+      }
+    }
+  }
+
+  /* Wraps node as external node of this table and sets its last seen date */
+  protected ExternalNode<I, C> toSeenExternalNode(Node<I, C> node) {
+    ExternalNode<I, C> externalNode;
+    if (!(node instanceof ExternalNode))
+      externalNode = this.getExternalNode(node);
+    else
+      externalNode = (ExternalNode<I, C>) node;
+    externalNode.setLastSeen(new Date());
+    return externalNode;
   }
 
 
   /**
-   * Returns the closest nodes we know to a given id
-   * TODO: probably needs a better algorithm
+   * Returns the closest nodes we know to a given id.
+   * Only the best `findNodeSize` candidates are kept while scanning. Distances of nodes in buckets other than the
+   * destination bucket grow with the bucket prefix, so buckets are scanned in order of distance and scanning stops
+   * as soon as no remaining bucket can beat the current farthest candidate.
    * @param destinationId lookup
    * @return result for closest nodes to destination
    */
   public FindNodeAnswer<I, C> findClosest(I destinationId) {
-    FindNodeAnswer<I, C> findNodeAnswer = new FindNodeAnswer<>(destinationId);
-    Bucket<I, C> bucket = this.findBucket(destinationId);
-    BucketHelper.addToAnswer(bucket, findNodeAnswer, destinationId);
-
-    // Loop over every bucket (max common.BucketSize or lte identifier size) and add it to answer
-    for (int i = 1; findNodeAnswer.size() < this.nodeSettings.getBucketSize() && ((bucket.getId() - i) >= 0 ||
-                                    (bucket.getId() + i) <= this.nodeSettings.getIdentifierSize()); i++) {
-      //Check the previous buckets
-      if (bucket.getId() - i >= 0) {
-        Bucket<I, C> bucketP = this.buckets.get(bucket.getId() - i);
-        BucketHelper.addToAnswer(bucketP, findNodeAnswer, destinationId);
-      }
-      //Check the next buckets
-      if (bucket.getId() + i <= this.nodeSettings.getIdentifierSize()) {
-        Bucket<I, C> bucketN = this.buckets.get(bucket.getId() + i);
-        BucketHelper.addToAnswer(bucketN, findNodeAnswer, destinationId);
+    ClosestNodeHeap<I, C> heap = new ClosestNodeHeap<>(this.nodeSettings.getFindNodeSize());
+    int destinationBucket = this.findBucket(destinationId).getId();
+
+    // Nodes in destination bucket share the most bits with destination
+    BucketHelper.forEachCandidate(this.buckets.get(destinationBucket), destinationId, heap::offer);
+
+    // Nodes in any lower bucket are all at distance with prefix of destination bucket
+    if (!cannotImprove(heap, destinationId, destinationBucket)) {
+      for (int i = destinationBucket - 1; i >= 0; i--) {
+        BucketHelper.forEachCandidate(this.buckets.get(i), destinationId, heap::offer);
       }
     }
 
-    //We sort the list
-    Collections.sort(findNodeAnswer.getNodes());
-    //We trim the list
-    new FindNodeAnswerReducer<>(this.id, findNodeAnswer, this.nodeSettings.getFindNodeSize(), this.nodeSettings.getIdentifierSize()).reduce();
-    while (findNodeAnswer.size() > this.nodeSettings.getFindNodeSize()) {
-      findNodeAnswer.remove(findNodeAnswer.size() - 1); //TODO: Not the best thing.
+    // Nodes in higher buckets are at distance with prefix of their own bucket
+    for (int i = destinationBucket + 1; i <= this.nodeSettings.getIdentifierSize(); i++) {
+      if (cannotImprove(heap, destinationId, i))
+        break;
+      BucketHelper.forEachCandidate(this.buckets.get(i), destinationId, heap::offer);
     }
+
+    // Candidates may measure their distance lazily, the closest ones are measured before they are passed on
+    List<ExternalNode<I, C>> closest = heap.toSortedList();
+    for (ExternalNode<I, C> externalNode : closest) {
+      externalNode.getDistance();
+    }
+    FindNodeAnswer<I, C> findNodeAnswer = new FindNodeAnswer<>(destinationId);
+    findNodeAnswer.update(closest);
     return findNodeAnswer;
   }
 
+  /**
+   * @param heap current candidates
+   * @param destinationId lookup
+   * @param prefix smallest prefix of distance to destination that remaining buckets can have
+   * @return true if heap is full and its farthest candidate is closer than any node with given prefix
+   */
+  protected boolean cannotImprove(ClosestNodeHeap<I, C> heap, I destinationId, int prefix) {
+    return heap.isFull() && heap.size() > 0 && this.getNodePrefix(heap.peekFarthest().getDistance()) < prefix;
+  }
+
   @Override
   public boolean contains(I nodeId) {
     Bucket<I, C> bucket = this.findBucket(nodeId);
@@ -157,6 +201,17 @@ public abstract class AbstractRoutingTable<I extends Number, C extends Connectio
     return buckets;
   }
 
+  @Override
+  public ReferenceTargets<I> getReferenceTargets() {
+    ReferenceTargets<I> targets = this.referenceTargets;
+    if (targets == null) {
+      // Targets are immutable, threads that race here build equal ones and any of them can be kept
+      targets = ReferenceTargets.of(this.id, this.nodeSettings.getIdentifierSize());
+      this.referenceTargets = targets;
+    }
+    return targets;
+  }
+
   @Override
   public String toString() {
     StringBuilder string = new StringBuilder("LongRoutingTable [ id=" + id + " ");
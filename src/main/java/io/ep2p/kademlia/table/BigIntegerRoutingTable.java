@@ -35,10 +35,14 @@ public class BigIntegerRoutingTable<C extends ConnectionInfo> extends AbstractRo
 
   /* Returns the corresponding node prefix for a given id */
   public int getNodePrefix(BigInteger id) {
-    for (int j = 0; j < this.nodeSettings.getIdentifierSize(); j++) {
-      BigInteger xor = id.xor(BigInteger.valueOf(j));
-      if (!xor.shiftRight(this.nodeSettings.getIdentifierSize() - 1 - j).and(BigInteger.valueOf(0x1L)).equals(BigInteger.valueOf(0))) {
-        return this.nodeSettings.getIdentifierSize() - j;
+    int identifierSize = this.nodeSettings.getIdentifierSize();
+    if (id.signum() >= 0 && id.bitLength() <= identifierSize) {
+      return id.bitLength();
+    }
+    // id has bits above identifier size, only look at the lower ones
+    for (int i = identifierSize - 1; i >= 0; i--) {
+      if (id.testBit(i)) {
+        return i + 1;
       }
     }
     return 0;
@@ -5,6 +5,8 @@ import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 public interface Bucket<I extends Number, C extends ConnectionInfo> extends Serializable {
@@ -26,4 +28,54 @@ public interface Bucket<I extends Number, C extends ConnectionInfo> extends Seri
     void pushToFront(ExternalNode<I, C> node);
     ExternalNode<I, C> getNode(I id);
     List<I> getNodeIds();
+
+    /**
+     * Removes the node with the oldest last seen time from the bucket.
+     * Routing tables call this while holding the bucket monitor, so eviction and the following add happen atomically
+     * @param excludedId node id that should never be evicted (routing table owner)
+     * @return true if a node was evicted
+     */
+    default boolean evictOldest(I excludedId) {
+        I oldestNode = null;
+        Date date = null;
+        for (I nodeId : getNodeIds()) {
+            if (nodeId.equals(excludedId)) {
+                continue;
+            }
+            ExternalNode<I, C> node = getNode(nodeId);
+            if (node != null && (date == null || node.getLastSeen().before(date))) {
+                date = node.getLastSeen();
+                oldestNode = nodeId;
+            }
+        }
+        if (oldestNode == null) {
+            return false;
+        }
+        remove(oldestNode);
+        return true;
+    }
+
+    /**
+     * Keeps a node as candidate to replace a failing node of this (full) bucket. Buckets without a replacement cache ignore it
+     * @param node candidate
+     * @param capacity maximum number of candidates the bucket should keep
+     * @return true if node is kept as candidate
+     */
+    default boolean addReplacement(ExternalNode<I, C> node, int capacity) {
+        return false;
+    }
+
+    /**
+     * @return most recently seen replacement candidate, removed from the cache, or null if there is none
+     */
+    default ExternalNode<I, C> pollReplacement() {
+        return null;
+    }
+
+    /**
+     * @return ids of replacement candidates, most recently seen first
+     */
+    default List<I> getReplacementIds() {
+        return Collections.emptyList();
+    }
 }
@@ -5,9 +5,12 @@ import io.ep2p.kademlia.model.FindNodeAnswer;
 import io.ep2p.kademlia.node.external.BigIntegerExternalNode;
 import io.ep2p.kademlia.node.external.ExternalNode;
 import io.ep2p.kademlia.node.external.IntegerExternalNode;
+import io.ep2p.kademlia.node.external.LongArrayIdExternalNode;
 import io.ep2p.kademlia.node.external.LongExternalNode;
+import io.ep2p.kademlia.node.id.LongArrayId;
 
 import java.math.BigInteger;
+import java.util.function.Consumer;
 
 @SuppressWarnings("unchecked")
 public class BucketHelper {
@@ -15,27 +18,83 @@ public class BucketHelper {
     private BucketHelper(){}
 
     public static <I extends Number, C extends ConnectionInfo> void addToAnswer(Bucket<I, C> bucket, FindNodeAnswer<I, C> answer, I destination) {
+        forEachWithDistance(bucket, destination, answer::add);
+    }
+
+    /**
+     * Passes every node of the bucket to the consumer, wrapped with its distance to the destination
+     * @param bucket bucket to read nodes from
+     * @param destination destination to measure distances from
+     * @param consumer consumer of the wrapped nodes
+     * @param <I> Number type of node ID between supported types
+     * @param <C> Your implementation of connection info
+     */
+    public static <I extends Number, C extends ConnectionInfo> void forEachWithDistance(Bucket<I, C> bucket, I destination, Consumer<ExternalNode<I, C>> consumer) {
+        forEach(bucket, destination, consumer, false);
+    }
+
+    /**
+     * Same as {@link #forEachWithDistance}, except that nodes with ids of type {@link LongArrayId} only measure their distance once it is read.
+     * They are compared to each other without creating xor results, so selecting the closest nodes among them only measures the selected ones.
+     * Distances have to be read before the nodes are passed on.
+     * @param bucket bucket to read nodes from
+     * @param destination destination to measure distances from
+     * @param consumer consumer of the wrapped nodes
+     * @param <I> Number type of node ID between supported types
+     * @param <C> Your implementation of connection info
+     */
+    public static <I extends Number, C extends ConnectionInfo> void forEachCandidate(Bucket<I, C> bucket, I destination, Consumer<ExternalNode<I, C>> consumer) {
+        forEach(bucket, destination, consumer, true);
+    }
+
+    private static <I extends Number, C extends ConnectionInfo> void forEach(Bucket<I, C> bucket, I destination, Consumer<ExternalNode<I, C>> consumer, boolean lazy) {
         if(bucket instanceof LongBucket){
             for (long id : ((Bucket<Long, C>) bucket).getNodeIds()) {
                 ExternalNode<Long, C> node = ((Bucket<Long, C>) bucket).getNode(id);
+                if (node == null)
+                    continue;
                 long destination1 = (Long) destination;
-                answer.add((ExternalNode<I, C>) new LongExternalNode<>(node, id ^ destination1));
+                consumer.accept((ExternalNode<I, C>) new LongExternalNode<>(node, id ^ destination1));
+            }
+        }
+
+        if(bucket instanceof PrimitiveLongBucket){
+            for (long id : ((Bucket<Long, C>) bucket).getNodeIds()) {
+                ExternalNode<Long, C> node = ((Bucket<Long, C>) bucket).getNode(id);
+                if (node == null)
+                    continue;
+                long destination1 = (Long) destination;
+                consumer.accept((ExternalNode<I, C>) new LongExternalNode<>(node, id ^ destination1));
             }
         }
 
         if(bucket instanceof IntegerBucket){
             for (int id : ((Bucket<Integer, C>) bucket).getNodeIds()) {
                 ExternalNode<Integer, C> node = ((Bucket<Integer, C>) bucket).getNode(id);
+                if (node == null)
+                    continue;
                 int destination1 = (Integer) destination;
-                answer.add((ExternalNode<I, C>) new IntegerExternalNode<>(node, id ^ destination1));
+                consumer.accept((ExternalNode<I, C>) new IntegerExternalNode<>(node, id ^ destination1));
             }
         }
 
         if(bucket instanceof BigIntegerBucket){
             for (BigInteger id : ((Bucket<BigInteger, C>) bucket).getNodeIds()) {
                 ExternalNode<BigInteger, C> node = ((Bucket<BigInteger, C>) bucket).getNode(id);
+                if (node == null)
+                    continue;
                 BigInteger destination1 = (BigInteger) destination;
-                answer.add((ExternalNode<I, C>) new BigIntegerExternalNode<>(node, destination1.xor(id)));
+                consumer.accept((ExternalNode<I, C>) new BigIntegerExternalNode<>(node, destination1.xor(id)));
+            }
+        }
+
+        if(bucket instanceof LongArrayIdBucket){
+            for (LongArrayId id : ((Bucket<LongArrayId, C>) bucket).getNodeIds()) {
+                ExternalNode<LongArrayId, C> node = ((Bucket<LongArrayId, C>) bucket).getNode(id);
+                if (node == null)
+                    continue;
+                LongArrayId destination1 = (LongArrayId) destination;
+                consumer.accept((ExternalNode<I, C>) (lazy ? LongArrayIdExternalNode.withDestination(node, destination1) : new LongArrayIdExternalNode<>(node, destination1.xor(id))));
             }
         }
 
@@ -0,0 +1,63 @@
+package io.ep2p.kademlia.table;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.external.ExternalNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded max-heap that only keeps the closest `limit` nodes offered to it
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+public class ClosestNodeHeap<I extends Number, C extends ConnectionInfo> {
+  private final int limit;
+  private final PriorityQueue<ExternalNode<I, C>> heap;
+
+  public ClosestNodeHeap(int limit) {
+    this.limit = limit;
+    this.heap = new PriorityQueue<>(Math.max(limit, 1), Collections.reverseOrder());
+  }
+
+  /**
+   * @param externalNode node with distance to the destination
+   */
+  public void offer(ExternalNode<I, C> externalNode) {
+    if (this.limit <= 0) {
+      return;
+    }
+    if (this.heap.size() < this.limit) {
+      this.heap.add(externalNode);
+    } else if (externalNode.compareTo(this.heap.peek()) < 0) {
+      this.heap.poll();
+      this.heap.add(externalNode);
+    }
+  }
+
+  public boolean isFull() {
+    return this.heap.size() >= this.limit;
+  }
+
+  public int size() {
+    return this.heap.size();
+  }
+
+  /**
+   * @return the farthest node that is currently kept, null if heap is empty
+   */
+  public ExternalNode<I, C> peekFarthest() {
+    return this.heap.peek();
+  }
+
+  /**
+   * @return kept nodes, closest first
+   */
+  public List<ExternalNode<I, C>> toSortedList() {
+    List<ExternalNode<I, C>> nodes = new ArrayList<>(this.heap);
+    Collections.sort(nodes);
+    return nodes;
+  }
+}
@@ -2,11 +2,12 @@ package io.ep2p.kademlia.table;
 
 import io.ep2p.kademlia.NodeSettings;
 import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.id.LongArrayId;
 
 import java.math.BigInteger;
 
 public class DefaultRoutingTableFactory<I extends Number, C extends ConnectionInfo, B extends Bucket<I, C>> implements RoutingTableFactory<I, C, B> {
-    private final NodeSettings nodeSettings;
+    protected final NodeSettings nodeSettings;
 
     public DefaultRoutingTableFactory() {
         this(NodeSettings.Default.build());
@@ -20,12 +21,30 @@ public class DefaultRoutingTableFactory<I extends Number, C extends ConnectionIn
     @SuppressWarnings("unchecked")
     public RoutingTable<I, C, B> getRoutingTable(I i) {
         if (i instanceof BigInteger){
-            return (RoutingTable<I, C, B>) new BigIntegerRoutingTable<>((BigInteger) i, nodeSettings);
+            return (RoutingTable<I, C, B>) getBigIntegerRoutingTable((BigInteger) i);
         }else if (i instanceof Long){
-            return (RoutingTable<I, C, B>) new LongRoutingTable<>((Long) i, nodeSettings);
+            return (RoutingTable<I, C, B>) getLongRoutingTable((Long) i);
         }else if (i instanceof Integer){
-            return (RoutingTable<I, C, B>) new IntegerRoutingTable<>((Integer) i, nodeSettings);
+            return (RoutingTable<I, C, B>) getIntegerRoutingTable((Integer) i);
+        }else if (i instanceof LongArrayId){
+            return (RoutingTable<I, C, B>) getLongArrayIdRoutingTable((LongArrayId) i);
         }
         throw new IllegalArgumentException("Unsupported I type");
     }
+
+    protected RoutingTable<BigInteger, C, ? extends Bucket<BigInteger, C>> getBigIntegerRoutingTable(BigInteger i) {
+        return new BigIntegerRoutingTable<>(i, nodeSettings);
+    }
+
+    protected RoutingTable<Long, C, ? extends Bucket<Long, C>> getLongRoutingTable(Long i) {
+        return new LongRoutingTable<>(i, nodeSettings);
+    }
+
+    protected RoutingTable<Integer, C, ? extends Bucket<Integer, C>> getIntegerRoutingTable(Integer i) {
+        return new IntegerRoutingTable<>(i, nodeSettings);
+    }
+
+    protected RoutingTable<LongArrayId, C, ? extends Bucket<LongArrayId, C>> getLongArrayIdRoutingTable(LongArrayId i) {
+        return new LongArrayIdRoutingTable<>(i, nodeSettings);
+    }
 }
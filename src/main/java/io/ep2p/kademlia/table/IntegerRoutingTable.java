@@ -33,12 +33,9 @@ public class IntegerRoutingTable<C extends ConnectionInfo> extends AbstractRouti
 
   /* Returns the corresponding node prefix for a given id */
   public int getNodePrefix(Integer id) {
-    for (int j = 0; j < this.nodeSettings.getIdentifierSize(); j++) {
-      if ((id >> (this.nodeSettings.getIdentifierSize() - 1 - j) & 0x1) != 0) {
-        return this.nodeSettings.getIdentifierSize() - j;
-      }
-    }
-    return 0;
+    int identifierSize = this.nodeSettings.getIdentifierSize();
+    int masked = identifierSize >= Integer.SIZE ? id : id & ((1 << identifierSize) - 1);
+    return Integer.SIZE - Integer.numberOfLeadingZeros(masked);
   }
 
   /* Finds the corresponding bucket in a routing table for a given identifier */
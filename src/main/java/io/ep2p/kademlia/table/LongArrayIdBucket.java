@@ -0,0 +1,16 @@
+package io.ep2p.kademlia.table;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.id.LongArrayId;
+
+/**
+ * LongArrayId implementation of Bucket
+ * @param <C> Connection Info Type
+ */
+public class LongArrayIdBucket<C extends ConnectionInfo> extends AbstractBucket<LongArrayId, C> {
+  private static final long serialVersionUID = -6151207366389093734L;
+
+  public LongArrayIdBucket(int id) {
+    super(id);
+  }
+}
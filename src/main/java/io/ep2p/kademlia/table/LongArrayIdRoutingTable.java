@@ -0,0 +1,48 @@
+package io.ep2p.kademlia.table;
+
+
+import io.ep2p.kademlia.NodeSettings;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.node.external.LongArrayIdExternalNode;
+import io.ep2p.kademlia.node.id.LongArrayId;
+
+/**
+ * Routing table for wide (160, 256, ...) node IDs of type {@link LongArrayId}.
+ * Bucket lookup works on the words of ids directly, so no xor result is created to find a bucket.
+ * @param <C> Your implementation of connection info
+ */
+public class LongArrayIdRoutingTable<C extends ConnectionInfo> extends AbstractRoutingTable<LongArrayId, C, Bucket<LongArrayId, C>> {
+
+  private static final long serialVersionUID = 4350846711326413264L;
+
+  public LongArrayIdRoutingTable(LongArrayId id, NodeSettings nodeSettings) {
+    super(id, nodeSettings);
+  }
+
+  @Override
+  protected LongArrayIdBucket<C> createBucketOfId(int i) {
+    return new LongArrayIdBucket<>(i);
+  }
+
+  @Override
+  public ExternalNode<LongArrayId, C> getExternalNode(Node<LongArrayId, C> node) {
+    return new LongArrayIdExternalNode<>(node, this.getDistance(node.getId()));
+  }
+
+  /* Returns the corresponding node prefix for a given id */
+  public int getNodePrefix(LongArrayId id) {
+    return id.bitLength(this.nodeSettings.getIdentifierSize());
+  }
+
+  /* Finds the corresponding bucket in a routing table for a given identifier */
+  public Bucket<LongArrayId, C> findBucket(LongArrayId id) {
+    return buckets.get(this.id.xorBitLength(id, this.nodeSettings.getIdentifierSize()));
+  }
+
+  @Override
+  public LongArrayId getDistance(LongArrayId id) {
+    return id.xor(this.id);
+  }
+}
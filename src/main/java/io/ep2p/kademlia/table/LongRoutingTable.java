@@ -33,12 +33,9 @@ public class LongRoutingTable<C extends ConnectionInfo> extends AbstractRoutingT
 
   /* Returns the corresponding node prefix for a given id */
   public int getNodePrefix(Long id) {
-    for (int j = 0; j < this.nodeSettings.getIdentifierSize(); j++) {
-      if ((id >> (this.nodeSettings.getIdentifierSize() - 1 - j) & 0x1) != 0) {
-        return this.nodeSettings.getIdentifierSize() - j;
-      }
-    }
-    return 0;
+    int identifierSize = this.nodeSettings.getIdentifierSize();
+    long masked = identifierSize >= Long.SIZE ? id : id & ((1L << identifierSize) - 1);
+    return Long.SIZE - Long.numberOfLeadingZeros(masked);
   }
 
   /* Finds the corresponding bucket in a routing table for a given identifier */
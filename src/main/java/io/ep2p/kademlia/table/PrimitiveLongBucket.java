@@ -0,0 +1,256 @@
+package io.ep2p.kademlia.table;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bucket for 64-bit node IDs that keeps ids and last seen times in primitive arrays.
+ * Index 0 is the front of the bucket (most recently seen node).
+ * @param <C> Your implementation of connection info
+ */
+public class PrimitiveLongBucket<C extends ConnectionInfo> implements Bucket<Long, C> {
+  private static final long serialVersionUID = 5528641412458357716L;
+  private static final int DEFAULT_CAPACITY = 8;
+
+  protected final int id;
+  protected final long ownerId;
+  protected long[] ids;
+  protected long[] lastSeen;
+  protected ExternalNode<Long, C>[] nodes;
+  protected int size;
+  protected final ReplacementCache<Long, C> replacementCache = new ReplacementCache<>();
+
+  /**
+   * Create a bucket for prefix `id`
+   * @param id prefix
+   * @param ownerId node id of the routing table owner
+   * @param capacity initial capacity of the bucket, usually bucket size
+   */
+  public PrimitiveLongBucket(int id, long ownerId, int capacity) {
+    this.id = id;
+    this.ownerId = ownerId;
+    int initialCapacity = Math.max(capacity, 1);
+    this.ids = new long[initialCapacity];
+    this.lastSeen = new long[initialCapacity];
+    this.nodes = newNodeArray(initialCapacity);
+  }
+
+  public PrimitiveLongBucket(int id, long ownerId) {
+    this(id, ownerId, DEFAULT_CAPACITY);
+  }
+
+  @Override
+  public int getId() {
+    return this.id;
+  }
+
+  @Override
+  public synchronized int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean contains(Long id) {
+    return contains(id.longValue());
+  }
+
+  public synchronized boolean contains(long id) {
+    return indexOf(id) != -1;
+  }
+
+  @Override
+  public boolean contains(Node<Long, C> node) {
+    return contains(node.getId().longValue());
+  }
+
+  /**
+   * @param node to add to the front of this bucket
+   */
+  @Override
+  public synchronized void add(ExternalNode<Long, C> node) {
+    long nodeId = node.getId();
+    ensureCapacity(size + 1);
+    shiftRight(0, size);
+    set(0, nodeId, node);
+    size++;
+    replacementCache.remove(nodeId);
+  }
+
+  @Override
+  public void remove(Node<Long, C> node) {
+    this.remove(node.getId().longValue());
+  }
+
+  @Override
+  public void remove(Long nodeId) {
+    this.remove(nodeId.longValue());
+  }
+
+  public synchronized void remove(long nodeId) {
+    int index = indexOf(nodeId);
+    if (index != -1) {
+      removeAt(index);
+    }
+  }
+
+  /**
+   * @param node the node to push
+   */
+  @Override
+  public synchronized void pushToFront(ExternalNode<Long, C> node) {
+    int index = indexOf(node.getId());
+    if (index == -1) {
+      return;
+    }
+    ExternalNode<Long, C> existing = nodes[index];
+    shiftRight(0, index);
+    set(0, existing.getId(), existing);
+    existing.setLastSeen(node.getLastSeen());
+    lastSeen[0] = node.getLastSeen().getTime();
+  }
+
+  @Override
+  public synchronized ExternalNode<Long, C> getNode(Long id) {
+    int index = indexOf(id);
+    return index == -1 ? null : nodes[index];
+  }
+
+  /**
+   * @return snapshot of node ids in this bucket, front first
+   */
+  @Override
+  public synchronized List<Long> getNodeIds() {
+    List<Long> nodeIds = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      nodeIds.add(ids[i]);
+    }
+    return nodeIds;
+  }
+
+  /**
+   * Removes the node with the oldest last seen time from this bucket
+   * @param excludedId node id that should never be evicted (table owner)
+   * @return true if a node was evicted
+   */
+  @Override
+  public boolean evictOldest(Long excludedId) {
+    return evictOldest(excludedId.longValue());
+  }
+
+  public synchronized boolean evictOldest(long excludedId) {
+    int oldest = -1;
+    for (int i = 0; i < size; i++) {
+      if (ids[i] == excludedId) {
+        continue;
+      }
+      if (oldest == -1 || lastSeen[i] < lastSeen[oldest]) {
+        oldest = i;
+      }
+    }
+    if (oldest == -1) {
+      return false;
+    }
+    removeAt(oldest);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean addReplacement(ExternalNode<Long, C> node, int capacity) {
+    if (indexOf(node.getId()) != -1) {
+      return false;
+    }
+    return replacementCache.add(node, capacity);
+  }
+
+  @Override
+  public synchronized ExternalNode<Long, C> pollReplacement() {
+    return replacementCache.poll();
+  }
+
+  @Override
+  public synchronized List<Long> getReplacementIds() {
+    return replacementCache.getNodeIds();
+  }
+
+  /**
+   * Offers nodes of this bucket to the selection of closest nodes to a destination, without boxing or allocations
+   * @param destinationId destination to measure distances from
+   * @param selection selection to offer nodes to
+   */
+  synchronized void offerTo(long destinationId, PrimitiveLongRoutingTable.ClosestSelection<C> selection) {
+    for (int i = 0; i < size; i++) {
+      selection.offer(ids[i] ^ destinationId, nodes[i]);
+    }
+  }
+
+  /**
+   * @param nodeId id of the node
+   * @return distance of the node to the owner of routing table
+   */
+  public long distanceToOwner(long nodeId) {
+    return nodeId ^ ownerId;
+  }
+
+  protected int indexOf(long nodeId) {
+    for (int i = 0; i < size; i++) {
+      if (ids[i] == nodeId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  protected void set(int index, long nodeId, ExternalNode<Long, C> node) {
+    ids[index] = nodeId;
+    lastSeen[index] = node.getLastSeen().getTime();
+    nodes[index] = node;
+  }
+
+  /* Shifts [from, to) one slot to the right */
+  protected void shiftRight(int from, int to) {
+    int length = to - from;
+    if (length <= 0) {
+      return;
+    }
+    System.arraycopy(ids, from, ids, from + 1, length);
+    System.arraycopy(lastSeen, from, lastSeen, from + 1, length);
+    System.arraycopy(nodes, from, nodes, from + 1, length);
+  }
+
+  protected void removeAt(int index) {
+    int length = size - index - 1;
+    if (length > 0) {
+      System.arraycopy(ids, index + 1, ids, index, length);
+      System.arraycopy(lastSeen, index + 1, lastSeen, index, length);
+      System.arraycopy(nodes, index + 1, nodes, index, length);
+    }
+    size--;
+    nodes[size] = null;
+  }
+
+  protected void ensureCapacity(int capacity) {
+    if (capacity <= ids.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, ids.length * 2);
+    ids = Arrays.copyOf(ids, newCapacity);
+    lastSeen = Arrays.copyOf(lastSeen, newCapacity);
+    nodes = Arrays.copyOf(nodes, newCapacity);
+  }
+
+  /* Generic arrays can not be created directly */
+  @SuppressWarnings("unchecked")
+  static <C extends ConnectionInfo> ExternalNode<Long, C>[] newNodeArray(int length) {
+    return (ExternalNode<Long, C>[]) new ExternalNode<?, ?>[length];
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "PrimitiveLongBucket [id= " + id + " nodeIds=" + Arrays.toString(Arrays.copyOf(ids, size)) + "]";
+  }
+}
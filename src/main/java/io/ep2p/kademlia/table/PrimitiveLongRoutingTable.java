@@ -0,0 +1,164 @@
+package io.ep2p.kademlia.table;
+
+
+import io.ep2p.kademlia.NodeSettings;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.node.external.LongExternalNode;
+
+/**
+ * Routing table for 64-bit node IDs backed by {@link PrimitiveLongBucket}s.
+ * Behaves the same as {@link LongRoutingTable}, but scanning buckets and selecting the closest nodes happens on primitive
+ * values, so only the returned nodes get allocated.
+ * @param <C> Your implementation of connection info
+ */
+public class PrimitiveLongRoutingTable<C extends ConnectionInfo> extends AbstractRoutingTable<Long, C, PrimitiveLongBucket<C>> {
+
+  private static final long serialVersionUID = -2237340129412960478L;
+
+  public PrimitiveLongRoutingTable(Long id, NodeSettings nodeSettings) {
+    super(id, nodeSettings);
+  }
+
+  @Override
+  protected PrimitiveLongBucket<C> createBucketOfId(int i) {
+    return new PrimitiveLongBucket<>(i, this.id, this.nodeSettings.getBucketSize());
+  }
+
+  @Override
+  public ExternalNode<Long, C> getExternalNode(Node<Long, C> node) {
+    return new LongExternalNode<>(node, this.getDistance(node.getId()));
+  }
+
+  /* Returns the corresponding node prefix for a given id */
+  public int getNodePrefix(Long id) {
+    return getNodePrefix(id.longValue());
+  }
+
+  public int getNodePrefix(long id) {
+    int identifierSize = this.nodeSettings.getIdentifierSize();
+    long masked = identifierSize >= Long.SIZE ? id : id & ((1L << identifierSize) - 1);
+    return Long.SIZE - Long.numberOfLeadingZeros(masked);
+  }
+
+  /* Finds the corresponding bucket in a routing table for a given identifier */
+  public PrimitiveLongBucket<C> findBucket(Long id) {
+    return findBucket(id.longValue());
+  }
+
+  public PrimitiveLongBucket<C> findBucket(long id) {
+    return buckets.get(this.getNodePrefix(id ^ this.id));
+  }
+
+  @Override
+  public Long getDistance(Long id) {
+    return id ^ this.id;
+  }
+
+  @Override
+  public boolean contains(Long nodeId) {
+    return this.findBucket(nodeId.longValue()).contains(nodeId.longValue());
+  }
+
+  /**
+   * Returns the closest nodes we know to a given id.
+   * Scans buckets in the same order as {@link AbstractRoutingTable#findClosest(Number)} does, but keeps the best
+   * `findNodeSize` candidates in primitive arrays while scanning
+   * @param destinationId lookup
+   * @return result for closest nodes to destination
+   */
+  @Override
+  public FindNodeAnswer<Long, C> findClosest(Long destinationId) {
+    ClosestSelection<C> selection = selectClosest(destinationId);
+    FindNodeAnswer<Long, C> findNodeAnswer = new FindNodeAnswer<>(destinationId);
+    for (int i = 0; i < selection.size; i++) {
+      findNodeAnswer.add(new LongExternalNode<>(selection.nodes[i], selection.distances[i]));
+    }
+    return findNodeAnswer;
+  }
+
+  /**
+   * Same selection as {@link #findClosest(Long)}, without wrapping the nodes into a FindNodeAnswer
+   * @param destination lookup
+   * @return closest nodes to destination, closest first
+   */
+  public ClosestSelection<C> selectClosest(long destination) {
+    ClosestSelection<C> selection = new ClosestSelection<>(this.nodeSettings.getFindNodeSize());
+    int destinationBucket = this.findBucket(destination).getId();
+    this.buckets.get(destinationBucket).offerTo(destination, selection);
+
+    if (!cannotImprove(selection, destinationBucket)) {
+      for (int i = destinationBucket - 1; i >= 0; i--) {
+        this.buckets.get(i).offerTo(destination, selection);
+      }
+    }
+
+    for (int i = destinationBucket + 1; i <= this.nodeSettings.getIdentifierSize(); i++) {
+      if (cannotImprove(selection, i))
+        break;
+      this.buckets.get(i).offerTo(destination, selection);
+    }
+    return selection;
+  }
+
+  private boolean cannotImprove(ClosestSelection<C> selection, int prefix) {
+    return selection.isFull() && selection.size > 0 && this.getNodePrefix(selection.distances[selection.size - 1]) < prefix;
+  }
+
+  /**
+   * Bounded selection of closest nodes, kept sorted by distance (same order as {@link LongExternalNode#compareTo(Object)})
+   * @param <C> Your implementation of connection info
+   */
+  public static final class ClosestSelection<C extends ConnectionInfo> {
+    private final long[] distances;
+    private final ExternalNode<Long, C>[] nodes;
+    private int size;
+
+    ClosestSelection(int limit) {
+      this.distances = new long[limit];
+      this.nodes = PrimitiveLongBucket.newNodeArray(limit);
+    }
+
+    boolean isFull() {
+      return size == distances.length;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    /**
+     * @param index position in the selection, 0 is the closest node
+     * @return distance of the node to the destination
+     */
+    public long distance(int index) {
+      return distances[index];
+    }
+
+    /**
+     * @param index position in the selection, 0 is the closest node
+     * @return node at index
+     */
+    public ExternalNode<Long, C> node(int index) {
+      return nodes[index];
+    }
+
+    void offer(long distance, ExternalNode<Long, C> node) {
+      int limit = distances.length;
+      if (limit == 0 || (size == limit && Long.compare(distance, distances[size - 1]) >= 0)) {
+        return;
+      }
+      int index = size == limit ? size - 1 : size++;
+      // insertion sort, equal distances keep their scan order like a stable sort would
+      while (index > 0 && Long.compare(distances[index - 1], distance) > 0) {
+        distances[index] = distances[index - 1];
+        nodes[index] = nodes[index - 1];
+        index--;
+      }
+      distances[index] = distance;
+      nodes[index] = node;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package io.ep2p.kademlia.table;
+
+import io.ep2p.kademlia.NodeSettings;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+
+/**
+ * Same as {@link DefaultRoutingTableFactory}, but creates {@link PrimitiveLongRoutingTable} for `Long` node IDs
+ */
+public class PrimitiveRoutingTableFactory<I extends Number, C extends ConnectionInfo, B extends Bucket<I, C>> extends DefaultRoutingTableFactory<I, C, B> {
+
+    public PrimitiveRoutingTableFactory() {
+        super();
+    }
+
+    public PrimitiveRoutingTableFactory(NodeSettings nodeSettings) {
+        super(nodeSettings);
+    }
+
+    @Override
+    protected RoutingTable<Long, C, ? extends Bucket<Long, C>> getLongRoutingTable(Long i) {
+        return new PrimitiveLongRoutingTable<>(i, nodeSettings);
+    }
+}
@@ -0,0 +1,69 @@
+package io.ep2p.kademlia.table;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.external.ExternalNode;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bounded list of candidate nodes waiting to enter a full bucket, most recently seen first.
+ * Not thread safe, buckets guard it with their own monitor.
+ * @param <I> Number type of node ID between supported types
+ * @param <C> Your implementation of connection info
+ */
+public class ReplacementCache<I extends Number, C extends ConnectionInfo> implements Serializable {
+  private static final long serialVersionUID = -2786003418290374120L;
+  private final ArrayDeque<ExternalNode<I, C>> candidates = new ArrayDeque<>();
+
+  /**
+   * Adds a candidate to the front of the cache, dropping the least recently seen one if cache goes over capacity
+   * @param node candidate to add or refresh
+   * @param capacity maximum number of candidates to keep
+   * @return true if node is kept as candidate
+   */
+  public boolean add(ExternalNode<I, C> node, int capacity) {
+    if (capacity <= 0) {
+      return false;
+    }
+    remove(node.getId());
+    candidates.addFirst(node);
+    while (candidates.size() > capacity) {
+      candidates.removeLast();
+    }
+    return true;
+  }
+
+  /**
+   * @return most recently seen candidate, removed from the cache, or null if cache is empty
+   */
+  public ExternalNode<I, C> poll() {
+    return candidates.pollFirst();
+  }
+
+  public boolean remove(I nodeId) {
+    Iterator<ExternalNode<I, C>> iterator = candidates.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().getId().equals(nodeId)) {
+        iterator.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return candidates.size();
+  }
+
+  public List<I> getNodeIds() {
+    List<I> nodeIds = new ArrayList<>(candidates.size());
+    for (ExternalNode<I, C> candidate : candidates) {
+      nodeIds.add(candidate.getId());
+    }
+    return nodeIds;
+  }
+}
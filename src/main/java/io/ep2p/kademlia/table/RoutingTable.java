@@ -5,6 +5,7 @@ import io.ep2p.kademlia.exception.FullBucketException;
 import io.ep2p.kademlia.model.FindNodeAnswer;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.util.ReferenceTargets;
 
 import java.io.Serializable;
 import java.util.List;
@@ -40,7 +41,15 @@ public interface RoutingTable<I extends Number, C extends ConnectionInfo, B exte
     void forceUpdate(Node<I, C> node);
 
     /**
-     * Delete node from table
+     * Updates the routing table with a node. If its bucket is full, the node is kept in the replacement cache of the
+     * bucket instead, and enters the bucket once a current member fails and gets deleted
+     * @param node to update
+     * @return if node is added newly
+     */
+    boolean updateOrCache(Node<I, C> node);
+
+    /**
+     * Delete node from table. The most recently seen replacement candidate of the bucket, if any, takes its place
      * @param node to delete
      */
     void delete(Node<I, C> node);
@@ -59,4 +68,10 @@ public interface RoutingTable<I extends Number, C extends ConnectionInfo, B exte
     I getDistance(I id);
 
     ExternalNode<I,C> getExternalNode(Node<I,C> node);
+
+    /**
+     * Ids at distance 2^i from the table owner, computed once per table
+     * @return targets `id ^ 2^i` of the owner for each bit i of the identifier
+     */
+    ReferenceTargets<I> getReferenceTargets();
 }
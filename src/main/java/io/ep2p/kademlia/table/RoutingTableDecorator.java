@@ -5,6 +5,7 @@ import io.ep2p.kademlia.exception.FullBucketException;
 import io.ep2p.kademlia.model.FindNodeAnswer;
 import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.util.ReferenceTargets;
 
 import java.util.List;
 
@@ -36,6 +37,11 @@ public abstract class RoutingTableDecorator<I extends Number, C extends Connecti
         this.routingTable.forceUpdate(node);
     }
 
+    @Override
+    public boolean updateOrCache(Node<I, C> node) {
+        return this.routingTable.updateOrCache(node);
+    }
+
     @Override
     public void delete(Node<I, C> node) {
         this.routingTable.delete(node);
@@ -65,4 +71,9 @@ public abstract class RoutingTableDecorator<I extends Number, C extends Connecti
     public ExternalNode<I, C> getExternalNode(Node<I, C> node) {
         return this.routingTable.getExternalNode(node);
     }
+
+    @Override
+    public ReferenceTargets<I> getReferenceTargets() {
+        return this.routingTable.getReferenceTargets();
+    }
 }
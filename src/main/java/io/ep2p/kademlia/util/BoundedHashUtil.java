@@ -1,6 +1,7 @@
 package io.ep2p.kademlia.util;
 
 import io.ep2p.kademlia.exception.UnsupportedBoundingException;
+import io.ep2p.kademlia.node.id.LongArrayId;
 import lombok.Getter;
 
 import java.math.BigInteger;
@@ -39,6 +40,14 @@ public class BoundedHashUtil {
             return (O) input;
         }
 
+        if(oClass.equals(LongArrayId.class)){
+            if(input.getClass() == LongArrayId.class)
+                return (O) ((LongArrayId) input).mask(maxSize);
+            else if(input.getClass() == BigInteger.class)
+                return (O) LongArrayId.valueOf((BigInteger) input, maxSize).mask(maxSize);
+            return (O) LongArrayId.valueOf(input.longValue(), maxSize).mask(maxSize);
+        }
+
         throw new UnsupportedBoundingException(oClass);
     }
 }
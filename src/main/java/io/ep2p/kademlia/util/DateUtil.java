@@ -1,6 +1,7 @@
 package io.ep2p.kademlia.util;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 public class DateUtil {
     private DateUtil(){}
@@ -8,4 +9,45 @@ public class DateUtil {
     public static Date getDateOfSecondsAgo(int seconds){
         return new Date(new Date().getTime() - (seconds * 1000L));
     }
+
+    /**
+     * @param timeout time to wait from now
+     * @param timeUnit unit of timeout
+     * @return deadline in epoch milliseconds, or 0 (no deadline) if timeout is not positive
+     */
+    public static long getDeadline(long timeout, TimeUnit timeUnit){
+        if (timeout <= 0)
+            return 0;
+        return System.currentTimeMillis() + timeUnit.toMillis(timeout);
+    }
+
+    /**
+     * Deadlines are only meaningful to the clock of the node that has set them, so they are sent to other nodes as the time that is left
+     * @param deadline deadline in epoch milliseconds, 0 for no deadline
+     * @return milliseconds left to the deadline, 0 for no deadline, or -1 if it has passed
+     */
+    public static long getRemainingMillis(long deadline){
+        if (deadline <= 0)
+            return 0;
+        long remaining = deadline - System.currentTimeMillis();
+        return remaining > 0 ? remaining : -1;
+    }
+
+    /**
+     * @param remainingMillis time left as returned by {@link #getRemainingMillis(long)}
+     * @return deadline in epoch milliseconds of this node's clock, 0 for no deadline
+     */
+    public static long getDeadlineOfRemaining(long remainingMillis){
+        if (remainingMillis == 0)
+            return 0;
+        return System.currentTimeMillis() + Math.max(remainingMillis, 0);
+    }
+
+    /**
+     * @param deadline deadline in epoch milliseconds, 0 for no deadline
+     * @return true if deadline is set and has passed
+     */
+    public static boolean isExpired(long deadline){
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
 }
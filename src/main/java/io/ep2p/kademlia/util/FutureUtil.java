@@ -0,0 +1,46 @@
+package io.ep2p.kademlia.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+public class FutureUtil {
+    private FutureUtil(){}
+
+    /**
+     * @param futures futures by key
+     * @return future of results by key, completed once all futures are completed, in the iteration order of `futures`
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, T> CompletableFuture<Map<K, T>> allOf(Map<K, ? extends Future<T>> futures){
+        Map<K, CompletableFuture<T>> completableFutures = new LinkedHashMap<>();
+        futures.forEach((key, future) -> completableFutures.put(key, toCompletableFuture(future)));
+        return CompletableFuture.allOf(completableFutures.values().toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<K, T> results = new LinkedHashMap<>();
+            completableFutures.forEach((key, future) -> results.put(key, future.join()));
+            return results;
+        });
+    }
+
+    /**
+     * @param future any future
+     * @return the future itself if it is a CompletableFuture, otherwise a CompletableFuture that waits for it on the common pool
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(Future<T> future){
+        if (future instanceof CompletableFuture)
+            return (CompletableFuture<T>) future;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            }
+        });
+    }
+}
@@ -2,48 +2,64 @@ package io.ep2p.kademlia.util;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Distances 2^i and the ids at these distances from a node.
+ * Distance tables are computed once per identifier size and shared. They are immutable and looked up without locking, so they can be read from any number of threads.
+ * Ids at these distances depend on the node id, so they are cached by the routing table of each node: see {@link io.ep2p.kademlia.table.RoutingTable#getReferenceTargets()}.
+ */
 public class KadDistanceUtil {
-    private static final Map<Integer, List<Integer>> identifierToDistanceListMap = new HashMap<>();
+    private static final ConcurrentMap<Integer, List<BigInteger>> distanceTables = new ConcurrentHashMap<>();
 
     private KadDistanceUtil(){}
 
-    public static synchronized List<Integer> getDistancesOfIdentifierSize(int identifierSize){
-        if(identifierToDistanceListMap.containsKey(identifierSize)){
-            return identifierToDistanceListMap.get(identifierSize);
-        }
-        ArrayList<Integer> distances = new ArrayList<>();
-        for(int i = 0; i < identifierSize; i++){
-            distances.add((int) Math.pow(2, i));
-        }
-        identifierToDistanceListMap.put(identifierSize, distances);
-        return distances;
+    /**
+     * @param identifierSize number of bits of the identifier
+     * @return unmodifiable list of 2^i for each bit i of the identifier
+     */
+    public static List<BigInteger> getDistanceTable(int identifierSize){
+        List<BigInteger> distances = distanceTables.get(identifierSize);
+        if (distances != null)
+            return distances;
+        return distanceTables.computeIfAbsent(identifierSize, size -> {
+            List<BigInteger> table = new ArrayList<>(Math.max(0, size));
+            for (int i = 0; i < size; i++) {
+                table.add(BigInteger.ONE.shiftLeft(i));
+            }
+            return Collections.unmodifiableList(table);
+        });
     }
 
-    @SuppressWarnings("unchecked")
-    public static <I extends Number> List<I> getNodesWithDistance(I nodeId, int identifierSize) {
-        if(nodeId instanceof Long){
-            ArrayList<Long> validNodes = new ArrayList<>();
-            getDistancesOfIdentifierSize(identifierSize).forEach(distance -> validNodes.add(((Long) nodeId) ^ distance));
-
-            return (List<I>) validNodes;
+    /**
+     * @param identifierSize number of bits of the identifier
+     * @return unmodifiable list of 2^i for each bit i of the identifier, distances that do not fit in an int are {@link Integer#MAX_VALUE}
+     * @deprecated distances of identifiers of more than 31 bits do not fit in an int, use {@link #getDistanceTable(int)}
+     */
+    @Deprecated
+    public static List<Integer> getDistancesOfIdentifierSize(int identifierSize){
+        List<Integer> distances = new ArrayList<>(Math.max(0, identifierSize));
+        for (int i = 0; i < identifierSize; i++) {
+            distances.add(i < Integer.SIZE - 1 ? 1 << i : Integer.MAX_VALUE);
         }
-        if (nodeId instanceof BigInteger){
-            ArrayList<BigInteger> validNodes = new ArrayList<>();
-            getDistancesOfIdentifierSize(identifierSize).forEach(distance -> validNodes.add(((BigInteger) nodeId).xor(BigInteger.valueOf(distance))));
-
-            return (List<I>) validNodes;
-        }
-        if (nodeId instanceof Integer){
-            ArrayList<Integer> validNodes = new ArrayList<>();
-            getDistancesOfIdentifierSize(identifierSize).forEach(distance -> validNodes.add(((Integer) nodeId) ^ distance));
+        return Collections.unmodifiableList(distances);
+    }
 
-            return (List<I>) validNodes;
+    /**
+     * @param nodeId id of a node
+     * @param identifierSize number of bits of the identifier
+     * @param <I> Number type of node ID between supported types
+     * @return unmodifiable list of `nodeId ^ 2^i` for each bit i of the identifier, empty for unsupported id types.
+     * Computed on every call, the targets of a local node are kept by its routing table
+     */
+    public static <I extends Number> List<I> getNodesWithDistance(I nodeId, int identifierSize) {
+        try {
+            return ReferenceTargets.of(nodeId, identifierSize).asList();
+        } catch (IllegalArgumentException e) {
+            return Collections.emptyList();
         }
-
-        return new ArrayList<>();
     }
 }
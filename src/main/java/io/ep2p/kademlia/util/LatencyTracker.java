@@ -0,0 +1,48 @@
+package io.ep2p.kademlia.util;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latest latency samples in a ring buffer and answers percentile queries over them.
+ * Thread safe.
+ */
+public class LatencyTracker {
+    private final long[] samples;
+    private final long defaultValue;
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param windowSize number of latest samples to keep
+     * @param defaultValue value of every percentile until the first sample is recorded
+     */
+    public LatencyTracker(int windowSize, long defaultValue) {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("Window size should be positive");
+        this.samples = new long[windowSize];
+        this.defaultValue = defaultValue;
+    }
+
+    public synchronized void record(long value) {
+        this.samples[this.next] = value;
+        this.next = (this.next + 1) % this.samples.length;
+        if (this.count < this.samples.length)
+            this.count++;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return smallest recorded value that is greater than or equal to `percentile` percent of the recorded values
+     */
+    public long percentile(int percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (this.count == 0)
+                return this.defaultValue;
+            sorted = Arrays.copyOf(this.samples, this.count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
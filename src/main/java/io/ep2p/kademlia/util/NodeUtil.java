@@ -9,6 +9,7 @@ import io.ep2p.kademlia.protocol.message.PingKademliaMessage;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class NodeUtil {
@@ -23,16 +24,30 @@ public class NodeUtil {
      * @return boolean True if node is alive
      */
     public static <I extends Number, C extends ConnectionInfo> boolean recentlySeenOrAlive(KademliaNodeAPI<I, C> kademliaNodeAPI, ExternalNode<I, C> externalNode, Date date) {
+        return recentlySeenOrAliveAsync(kademliaNodeAPI, externalNode, date).join();
+    }
+
+    /**
+     * Check if a node is seen recently or is alive, without waiting for the ping answer
+     * @param kademliaNodeAPI Node to send message from
+     * @param externalNode Node to check
+     * @param date Date to use for comparing
+     * @param <I> ID type of the node
+     * @param <C> ConnectionInfo type of the node
+     * @return future of True if node is alive
+     */
+    public static <I extends Number, C extends ConnectionInfo> CompletableFuture<Boolean> recentlySeenOrAliveAsync(KademliaNodeAPI<I, C> kademliaNodeAPI, ExternalNode<I, C> externalNode, Date date) {
         if (externalNode.getLastSeen().after(date))
-            return true;
-        KademliaMessage<I, C, ?> pingAnswer = kademliaNodeAPI.getMessageSender().sendMessage(kademliaNodeAPI, externalNode, new PingKademliaMessage<>());
-        if (!pingAnswer.isAlive()){
-            try {
-                kademliaNodeAPI.onMessage(pingAnswer);
-            } catch (HandlerNotFoundException e) {
-                log.error(e.getMessage(), e);
+            return CompletableFuture.completedFuture(true);
+        return kademliaNodeAPI.getMessageSender().sendMessageAsync(kademliaNodeAPI, externalNode, new PingKademliaMessage<>()).thenApply(pingAnswer -> {
+            if (!pingAnswer.isAlive()){
+                try {
+                    kademliaNodeAPI.onMessage(pingAnswer);
+                } catch (HandlerNotFoundException e) {
+                    log.error(e.getMessage(), e);
+                }
             }
-        }
-        return pingAnswer.isAlive();
+            return pingAnswer.isAlive();
+        });
     }
 }
@@ -0,0 +1,155 @@
+package io.ep2p.kademlia.util;
+
+import io.ep2p.kademlia.node.id.LongArrayId;
+
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Ids at distance 2^i from a node id, `id ^ 2^i` for each bit `i` of the identifier, kept in the native representation of the id family.
+ * Primitive ids have one target per bit of their width at most. Immutable, so a single instance can be shared by any number of threads.
+ * @param <I> Number type of node ID between supported types
+ */
+public abstract class ReferenceTargets<I extends Number> {
+
+    /**
+     * @param nodeId id to compute targets of
+     * @param identifierSize number of bits of the identifier
+     * @param <I> Number type of node ID between supported types
+     * @return targets of nodeId
+     * @throws IllegalArgumentException if the id type is not supported
+     */
+    @SuppressWarnings("unchecked")
+    public static <I extends Number> ReferenceTargets<I> of(I nodeId, int identifierSize) {
+        if (nodeId instanceof Integer)
+            return (ReferenceTargets<I>) new IntegerTargets((Integer) nodeId, identifierSize);
+        if (nodeId instanceof Long)
+            return (ReferenceTargets<I>) new LongTargets((Long) nodeId, identifierSize);
+        if (nodeId instanceof BigInteger)
+            return (ReferenceTargets<I>) new BigIntegerTargets((BigInteger) nodeId, identifierSize);
+        if (nodeId instanceof LongArrayId)
+            return (ReferenceTargets<I>) new LongArrayIdTargets((LongArrayId) nodeId, identifierSize);
+        throw new IllegalArgumentException("Unsupported id type: " + nodeId.getClass().getName());
+    }
+
+    /**
+     * @return number of targets
+     */
+    public abstract int size();
+
+    /**
+     * @param bit index of the bit, 0 is the least significant bit
+     * @return `id ^ 2^bit`
+     */
+    public abstract I get(int bit);
+
+    /**
+     * @return unmodifiable view of the targets, in order of bit
+     */
+    public List<I> asList() {
+        return new AbstractList<>() {
+            @Override
+            public I get(int index) {
+                return ReferenceTargets.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return ReferenceTargets.this.size();
+            }
+        };
+    }
+
+    public static final class IntegerTargets extends ReferenceTargets<Integer> {
+        private final int[] targets;
+
+        private IntegerTargets(int nodeId, int identifierSize) {
+            this.targets = new int[Math.max(0, Math.min(identifierSize, Integer.SIZE))];
+            for (int i = 0; i < this.targets.length; i++) {
+                this.targets[i] = nodeId ^ (1 << i);
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.targets.length;
+        }
+
+        @Override
+        public Integer get(int bit) {
+            return this.targets[bit];
+        }
+
+        public int getInt(int bit) {
+            return this.targets[bit];
+        }
+    }
+
+    public static final class LongTargets extends ReferenceTargets<Long> {
+        private final long[] targets;
+
+        private LongTargets(long nodeId, int identifierSize) {
+            this.targets = new long[Math.max(0, Math.min(identifierSize, Long.SIZE))];
+            for (int i = 0; i < this.targets.length; i++) {
+                this.targets[i] = nodeId ^ (1L << i);
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.targets.length;
+        }
+
+        @Override
+        public Long get(int bit) {
+            return this.targets[bit];
+        }
+
+        public long getLong(int bit) {
+            return this.targets[bit];
+        }
+    }
+
+    public static final class BigIntegerTargets extends ReferenceTargets<BigInteger> {
+        private final BigInteger[] targets;
+
+        private BigIntegerTargets(BigInteger nodeId, int identifierSize) {
+            this.targets = new BigInteger[Math.max(0, identifierSize)];
+            for (int i = 0; i < this.targets.length; i++) {
+                this.targets[i] = nodeId.flipBit(i);
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.targets.length;
+        }
+
+        @Override
+        public BigInteger get(int bit) {
+            return this.targets[bit];
+        }
+    }
+
+    public static final class LongArrayIdTargets extends ReferenceTargets<LongArrayId> {
+        private final LongArrayId[] targets;
+
+        private LongArrayIdTargets(LongArrayId nodeId, int identifierSize) {
+            this.targets = new LongArrayId[Math.max(0, Math.min(identifierSize, nodeId.width()))];
+            for (int i = 0; i < this.targets.length; i++) {
+                this.targets[i] = nodeId.flipBit(i);
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.targets.length;
+        }
+
+        @Override
+        public LongArrayId get(int bit) {
+            return this.targets[bit];
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.ep2p.kademlia.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.ep2p.kademlia.NodeSettings;
+import lombok.Getter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors that many nodes of the same JVM run on, instead of threads of their own.
+ * The scheduler only triggers periodic and delayed tasks, the work itself runs on the bounded worker pool.
+ * Tasks that may block on the transport, such as sending a message through a synchronous MessageSender, run on the I/O executor instead,
+ * so that slow peers can not take all of the workers. It has a bound of its own, tasks wait in its queue once all of its threads are blocked.
+ * Each node acquires the executors when it is created and releases them when it stops. They are shut down once the last node releases them.
+ * Thread safe.
+ */
+public class SharedExecutors {
+    private static SharedExecutors defaultInstance;
+    /* Sizes of the default executors, 0 for the sizes of NodeSettings.Default */
+    private static int defaultScheduledPoolSize = 0;
+    private static int defaultPoolSize = 0;
+    private static int defaultIoPoolSize = 0;
+
+    @Getter
+    private final ScheduledExecutorService scheduledExecutorService;
+    @Getter
+    private final ExecutorService executorService;
+    @Getter
+    private final ExecutorService ioExecutorService;
+    private int references = 0;
+    private boolean shutdown = false;
+
+    /**
+     * @param scheduledExecutorService executor to schedule tasks on
+     * @param executorService executor to run tasks on, may be the same as scheduledExecutorService
+     * @param ioExecutorService executor to run tasks that may block on the transport, should have room for as many sends as are expected to wait at once
+     */
+    public SharedExecutors(ScheduledExecutorService scheduledExecutorService, ExecutorService executorService, ExecutorService ioExecutorService) {
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.executorService = executorService;
+        this.ioExecutorService = ioExecutorService;
+    }
+
+    /**
+     * Runs the tasks that may block on executorService as well, which then has to be large enough for them
+     * @param scheduledExecutorService executor to schedule tasks on
+     * @param executorService executor to run tasks on, may be the same as scheduledExecutorService
+     */
+    public SharedExecutors(ScheduledExecutorService scheduledExecutorService, ExecutorService executorService) {
+        this(scheduledExecutorService, executorService, executorService);
+    }
+
+    /**
+     * Creates the executors, with an I/O executor of `NodeSettings.Default.IO_EXECUTOR_POOL_SIZE` threads
+     * @param scheduledPoolSize number of scheduler threads
+     * @param poolSize number of worker threads
+     */
+    public SharedExecutors(int scheduledPoolSize, int poolSize) {
+        this(scheduledPoolSize, poolSize, NodeSettings.Default.IO_EXECUTOR_POOL_SIZE);
+    }
+
+    /**
+     * Creates the executors. I/O threads are only kept while they are needed, tasks wait in a queue when all of them are busy
+     * @param scheduledPoolSize number of scheduler threads
+     * @param poolSize number of worker threads
+     * @param ioPoolSize maximum number of I/O threads
+     */
+    public SharedExecutors(int scheduledPoolSize, int poolSize, int ioPoolSize) {
+        this(
+                Executors.newScheduledThreadPool(scheduledPoolSize, new ThreadFactoryBuilder().setNameFormat("kademlia-scheduler-%d").build()),
+                Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setNameFormat("kademlia-worker-%d").build()),
+                newIoExecutorService(ioPoolSize)
+        );
+    }
+
+    /**
+     * Sets the size of the default executors, keeping the I/O executor size. Default executors that are already created keep their size until they are shut down.
+     * Until it is called, they are sized by `NodeSettings.Default.SCHEDULED_EXECUTOR_POOL_SIZE` and `NodeSettings.Default.DHT_EXECUTOR_POOL_SIZE`.
+     * @param scheduledPoolSize number of scheduler threads
+     * @param poolSize number of worker threads
+     */
+    public static synchronized void configureDefault(int scheduledPoolSize, int poolSize) {
+        configureDefault(scheduledPoolSize, poolSize, defaultIoPoolSize > 0 ? defaultIoPoolSize : NodeSettings.Default.IO_EXECUTOR_POOL_SIZE);
+    }
+
+    /**
+     * Sets the size of the default executors. Default executors that are already created keep their size until they are shut down.
+     * Until it is called, the I/O executor is sized by `NodeSettings.Default.IO_EXECUTOR_POOL_SIZE`.
+     * @param scheduledPoolSize number of scheduler threads
+     * @param poolSize number of worker threads
+     * @param ioPoolSize maximum number of I/O threads
+     */
+    public static synchronized void configureDefault(int scheduledPoolSize, int poolSize, int ioPoolSize) {
+        if (scheduledPoolSize <= 0 || poolSize <= 0 || ioPoolSize <= 0)
+            throw new IllegalArgumentException("Pool sizes should be positive");
+        defaultScheduledPoolSize = scheduledPoolSize;
+        defaultPoolSize = poolSize;
+        defaultIoPoolSize = ioPoolSize;
+    }
+
+    /**
+     * Acquires the executors that are shared by every node that is not given executors of its own.
+     * They are sized by {@link #configureDefault(int, int, int)}, not by the settings of the nodes that acquire them,
+     * and created again if a node acquires them after they are shut down.
+     * @return default shared executors
+     */
+    public static synchronized SharedExecutors acquireDefault() {
+        if (defaultInstance == null || defaultInstance.isShutdown()) {
+            int scheduledPoolSize = defaultScheduledPoolSize > 0 ? defaultScheduledPoolSize : NodeSettings.Default.SCHEDULED_EXECUTOR_POOL_SIZE;
+            int poolSize = defaultPoolSize > 0 ? defaultPoolSize : NodeSettings.Default.DHT_EXECUTOR_POOL_SIZE;
+            int ioPoolSize = defaultIoPoolSize > 0 ? defaultIoPoolSize : NodeSettings.Default.IO_EXECUTOR_POOL_SIZE;
+            defaultInstance = new SharedExecutors(Math.max(1, scheduledPoolSize), Math.max(1, poolSize), Math.max(1, ioPoolSize));
+        }
+        return defaultInstance.acquire();
+    }
+
+    /**
+     * @return this instance
+     * @throws IllegalStateException if the executors are already shut down
+     */
+    public synchronized SharedExecutors acquire() {
+        if (this.shutdown)
+            throw new IllegalStateException("Executors are shut down");
+        this.references++;
+        return this;
+    }
+
+    /**
+     * Shuts the executors down if it is the last reference, letting the tasks that are already submitted run
+     */
+    public void release() {
+        release(false);
+    }
+
+    /**
+     * Shuts the executors down if it is the last reference, interrupting the running tasks
+     */
+    public void releaseNow() {
+        release(true);
+    }
+
+    public synchronized boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    /**
+     * @return number of acquired references that are not released yet
+     */
+    public synchronized int getReferences() {
+        return this.references;
+    }
+
+    private static ExecutorService newIoExecutorService(int ioPoolSize) {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                ioPoolSize, ioPoolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("kademlia-io-%d").build()
+        );
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    private synchronized void release(boolean now) {
+        if (this.references == 0)
+            throw new IllegalStateException("Executors are not acquired");
+        if (--this.references > 0)
+            return;
+        this.shutdown = true;
+        if (now) {
+            this.scheduledExecutorService.shutdownNow();
+            this.executorService.shutdownNow();
+            this.ioExecutorService.shutdownNow();
+        } else {
+            this.scheduledExecutorService.shutdown();
+            this.executorService.shutdown();
+            this.ioExecutorService.shutdown();
+        }
+    }
+}
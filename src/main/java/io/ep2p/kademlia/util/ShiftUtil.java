@@ -1,5 +1,7 @@
 package io.ep2p.kademlia.util;
 
+import io.ep2p.kademlia.node.id.LongArrayId;
+
 import java.math.BigInteger;
 
 public class ShiftUtil {
@@ -17,6 +19,10 @@ public class ShiftUtil {
             return (I) ((BigInteger) input).shiftLeft(-size).shiftRight(-size);
         }
 
+        if (input instanceof LongArrayId){
+            return (I) ((LongArrayId) input).mask(size);
+        }
+
         throw new IllegalArgumentException();
     }
 }
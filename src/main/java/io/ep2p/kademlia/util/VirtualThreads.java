@@ -0,0 +1,28 @@
+package io.ep2p.kademlia.util;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads without depending on Java 21.
+ * This version is used on older runtimes, which have no virtual threads.
+ * The jar is a multi-release jar, and Java 21 or newer runtimes load the version of this class under src/main/java21 instead.
+ */
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * @return executor that runs each task on a new virtual thread. It is shared and should not be shut down
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads
+     */
+    public static ExecutorService getExecutorService() {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+    }
+}
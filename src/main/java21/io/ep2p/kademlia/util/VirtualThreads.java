@@ -0,0 +1,29 @@
+package io.ep2p.kademlia.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, version for Java 21 or newer runtimes.
+ */
+public final class VirtualThreads {
+    /* Has no threads while it has no tasks, so it is never shut down */
+    private static final ExecutorService EXECUTOR_SERVICE = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kademlia-virtual-", 0).factory());
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * @return executor that runs each task on a new virtual thread. It is shared and should not be shut down
+     */
+    public static ExecutorService getExecutorService() {
+        return EXECUTOR_SERVICE;
+    }
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import io.ep2p.kademlia.NodeSettings;
+import io.ep2p.kademlia.exception.FullBucketException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.BucketHelper;
+import io.ep2p.kademlia.table.LongRoutingTable;
+import io.ep2p.kademlia.table.RoutingTable;
+import io.ep2p.kademlia.util.FindNodeAnswerReducer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares top-k findClosest against the previous gather-sort-trim implementation.
+ * Run the main method from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindClosestBenchmark {
+    @Param({"20", "100"})
+    public int bucketSize;
+
+    private NodeSettings nodeSettings;
+    private long ownerId;
+    private LongRoutingTable<EmptyConnectionInfo> routingTable;
+    private long[] destinations;
+    private int index;
+
+    @Setup
+    public void setup() {
+        nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(32);
+        nodeSettings.setBucketSize(bucketSize);
+        nodeSettings.setFindNodeSize(20);
+        Random random = new Random(32);
+        ownerId = (long) random.nextInt() & 0xFFFFFFFFL;
+        routingTable = new LongRoutingTable<>(ownerId, nodeSettings);
+        for (int i = 0; i < 20_000; i++) {
+            try {
+                routingTable.update(new SampleNode<>((long) random.nextInt() & 0xFFFFFFFFL));
+            } catch (FullBucketException ignored) {}
+        }
+        destinations = new long[1024];
+        for (int i = 0; i < destinations.length; i++) {
+            destinations[i] = (long) random.nextInt() & 0xFFFFFFFFL;
+        }
+    }
+
+    @Benchmark
+    public FindNodeAnswer<Long, EmptyConnectionInfo> topK() {
+        return routingTable.findClosest(nextDestination());
+    }
+
+    @Benchmark
+    public FindNodeAnswer<Long, EmptyConnectionInfo> gatherSortTrim() {
+        return legacyFindClosest(routingTable, nextDestination());
+    }
+
+    private long nextDestination() {
+        return destinations[index++ & (destinations.length - 1)];
+    }
+
+    /* findClosest implementation before top-k selection */
+    private FindNodeAnswer<Long, EmptyConnectionInfo> legacyFindClosest(RoutingTable<Long, EmptyConnectionInfo, ?> table, Long destinationId) {
+        FindNodeAnswer<Long, EmptyConnectionInfo> findNodeAnswer = new FindNodeAnswer<>(destinationId);
+        Bucket<Long, EmptyConnectionInfo> bucket = table.findBucket(destinationId);
+        BucketHelper.addToAnswer(bucket, findNodeAnswer, destinationId);
+
+        for (int i = 1; findNodeAnswer.size() < nodeSettings.getBucketSize() && ((bucket.getId() - i) >= 0 ||
+                (bucket.getId() + i) <= nodeSettings.getIdentifierSize()); i++) {
+            if (bucket.getId() - i >= 0) {
+                BucketHelper.addToAnswer(table.getBuckets().get(bucket.getId() - i), findNodeAnswer, destinationId);
+            }
+            if (bucket.getId() + i <= nodeSettings.getIdentifierSize()) {
+                BucketHelper.addToAnswer(table.getBuckets().get(bucket.getId() + i), findNodeAnswer, destinationId);
+            }
+        }
+
+        Collections.sort(findNodeAnswer.getNodes());
+        new FindNodeAnswerReducer<>(ownerId, findNodeAnswer, nodeSettings.getFindNodeSize(), nodeSettings.getIdentifierSize()).reduce();
+        while (findNodeAnswer.size() > nodeSettings.getFindNodeSize()) {
+            findNodeAnswer.remove(findNodeAnswer.size() - 1);
+        }
+        return findNodeAnswer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FindClosestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
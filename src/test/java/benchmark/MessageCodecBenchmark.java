@@ -0,0 +1,113 @@
+package benchmark;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.external.LongExternalNode;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.codec.BinaryMessageCodec;
+import io.ep2p.kademlia.protocol.codec.IdCodec;
+import io.ep2p.kademlia.protocol.codec.ObjectCodec;
+import io.ep2p.kademlia.protocol.message.DHTStoreKademliaMessage;
+import io.ep2p.kademlia.protocol.message.FindNodeResponseMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares size and speed of BinaryMessageCodec against java serialization of the same message fields.
+ * Encoded sizes are printed during setup.
+ * Run the main method from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+    @Param({MessageType.FIND_NODE_RES, MessageType.DHT_STORE})
+    public String messageType;
+
+    private BinaryMessageCodec<Long, EmptyConnectionInfo, Long, String> codec;
+    private KademliaMessage<Long, EmptyConnectionInfo, ? extends Serializable> message;
+    private byte[] binary;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        EmptyConnectionInfo connectionInfo = new EmptyConnectionInfo();
+        codec = new BinaryMessageCodec<>(new IdCodec.LongIdCodec(), new ObjectCodec<>() {
+            @Override
+            public void write(DataOutput out, EmptyConnectionInfo value) {
+            }
+
+            @Override
+            public EmptyConnectionInfo read(DataInput in) {
+                return connectionInfo;
+            }
+        }, new ObjectCodec.LongCodec(), new ObjectCodec.StringCodec());
+
+        Random random = new Random(32);
+        if (messageType.equals(MessageType.FIND_NODE_RES)) {
+            long destinationId = random.nextLong();
+            FindNodeAnswer<Long, EmptyConnectionInfo> findNodeAnswer = new FindNodeAnswer<>(destinationId);
+            for (int i = 0; i < 20; i++) {
+                long id = random.nextLong();
+                findNodeAnswer.add(new LongExternalNode<>(new SampleNode<>(id), id ^ destinationId));
+            }
+            FindNodeResponseMessage<Long, EmptyConnectionInfo> findNodeResponseMessage = new FindNodeResponseMessage<>();
+            findNodeResponseMessage.setData(findNodeAnswer);
+            message = findNodeResponseMessage;
+        } else {
+            byte[] value = new byte[100];
+            random.nextBytes(value);
+            message = new DHTStoreKademliaMessage<>(new DHTStoreKademliaMessage.DHTData<>(new SampleNode<>(random.nextLong()), random.nextLong(), new String(value, "ISO-8859-1"), System.currentTimeMillis()));
+        }
+        message.setNode(new SampleNode<>(random.nextLong()));
+
+        binary = binaryEncode();
+        serialized = javaSerializationEncode();
+        System.out.printf("%n%s: binary %d bytes, java serialization %d bytes%n", messageType, binary.length, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return codec.encode(message);
+    }
+
+    @Benchmark
+    public KademliaMessage<Long, EmptyConnectionInfo, Serializable> binaryDecode() {
+        return codec.decode(binary);
+    }
+
+    /* KademliaMessage is not Serializable, so its fields are written one after another */
+    @Benchmark
+    public byte[] javaSerializationEncode() throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+            objectOutputStream.writeUTF(message.getType());
+            objectOutputStream.writeBoolean(message.isAlive());
+            objectOutputStream.writeObject(message.getNode());
+            objectOutputStream.writeObject(message.getData());
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @Benchmark
+    public Object[] javaSerializationDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return new Object[]{objectInputStream.readUTF(), objectInputStream.readBoolean(), objectInputStream.readObject(), objectInputStream.readObject()};
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.OpcodeTable;
+import io.ep2p.kademlia.protocol.handler.GeneralResponseMessageHandler;
+import io.ep2p.kademlia.protocol.handler.MessageHandler;
+import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the handler of a message by opcode against the previous string keyed map and string switch.
+ * Run the main method from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageDispatchBenchmark {
+    private final Map<String, MessageHandler<Integer, EmptyConnectionInfo>> stringRegistry = new ConcurrentHashMap<>();
+    private final OpcodeTable<MessageHandler<Integer, EmptyConnectionInfo>> opcodeRegistry = new OpcodeTable<>();
+    private EmptyKademliaMessage<Integer, EmptyConnectionInfo>[] messages;
+    private int index;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        int types = MessageOpcodes.builtInCount();
+        for (int opcode = 0; opcode < types; opcode++) {
+            MessageHandler<Integer, EmptyConnectionInfo> handler = new GeneralResponseMessageHandler<>();
+            stringRegistry.put(MessageOpcodes.typeOf(opcode), handler);
+            opcodeRegistry.put(MessageOpcodes.typeOf(opcode), handler);
+        }
+        Random random = new Random(17);
+        messages = new EmptyKademliaMessage[1024];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = new EmptyKademliaMessage<>();
+            messages[i].setType(MessageOpcodes.typeOf(random.nextInt(types)));
+        }
+    }
+
+    private EmptyKademliaMessage<Integer, EmptyConnectionInfo> nextMessage() {
+        return messages[index++ & (messages.length - 1)];
+    }
+
+    @Benchmark
+    public MessageHandler<Integer, EmptyConnectionInfo> opcodeTable() {
+        return opcodeRegistry.get(nextMessage().getOpcode());
+    }
+
+    @Benchmark
+    public MessageHandler<Integer, EmptyConnectionInfo> stringMap() {
+        return stringRegistry.get(nextMessage().getType());
+    }
+
+    /* Same as the previous DHTLookupService dispatch */
+    @Benchmark
+    public int stringSwitch() {
+        switch (nextMessage().getType()) {
+            case MessageType.DHT_LOOKUP:
+                return 1;
+            case MessageType.DHT_LOOKUP_RESULT:
+                return 2;
+            case MessageType.DHT_FIND_VALUE:
+                return 3;
+            case MessageType.DHT_LOOKUP_BATCH:
+                return 4;
+            case MessageType.DHT_LOOKUP_BATCH_RESULT:
+                return 5;
+            default:
+                return 0;
+        }
+    }
+
+    @Benchmark
+    public int opcodeSwitch() {
+        switch (nextMessage().getOpcode()) {
+            case MessageOpcodes.DHT_LOOKUP:
+                return 1;
+            case MessageOpcodes.DHT_LOOKUP_RESULT:
+                return 2;
+            case MessageOpcodes.DHT_FIND_VALUE:
+                return 3;
+            case MessageOpcodes.DHT_LOOKUP_BATCH:
+                return 4;
+            case MessageOpcodes.DHT_LOOKUP_BATCH_RESULT:
+                return 5;
+            default:
+                return 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageDispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
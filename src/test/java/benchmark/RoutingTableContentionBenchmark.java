@@ -0,0 +1,102 @@
+package benchmark;
+
+import io.ep2p.kademlia.NodeSettings;
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.exception.FullBucketException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.LongRoutingTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-bucket locking of forceUpdate against the previous table-wide synchronized forceUpdate,
+ * with 32 handler threads updating a shared routing table.
+ * Run the main method from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class RoutingTableContentionBenchmark {
+    private LongRoutingTable<EmptyConnectionInfo> bucketLockedTable;
+    private LongRoutingTable<EmptyConnectionInfo> tableLockedTable;
+    private SampleNode<Long>[] nodes;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Random random = new Random();
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(32);
+        nodeSettings.setBucketSize(20);
+        Random random = new Random(32);
+        long ownerId = (long) random.nextInt() & 0xFFFFFFFFL;
+        bucketLockedTable = new LongRoutingTable<>(ownerId, nodeSettings);
+        tableLockedTable = new TableLockedLongRoutingTable<>(ownerId, nodeSettings);
+        nodes = new SampleNode[1 << 16];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new SampleNode<>((long) random.nextInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    @Benchmark
+    public void bucketLocked(ThreadState threadState) {
+        bucketLockedTable.forceUpdate(nodes[threadState.random.nextInt(nodes.length)]);
+    }
+
+    @Benchmark
+    public void tableLocked(ThreadState threadState) {
+        tableLockedTable.forceUpdate(nodes[threadState.random.nextInt(nodes.length)]);
+    }
+
+    /* forceUpdate implementation before per-bucket locking */
+    private static class TableLockedLongRoutingTable<C extends ConnectionInfo> extends LongRoutingTable<C> {
+        private static final long serialVersionUID = 1L;
+
+        TableLockedLongRoutingTable(Long id, NodeSettings nodeSettings) {
+            super(id, nodeSettings);
+        }
+
+        @Override
+        public synchronized void forceUpdate(Node<Long, C> node) {
+            try {
+                this.update(node);
+            } catch (FullBucketException e) {
+                Bucket<Long, C> bucket = this.findBucket(node.getId());
+                Date date = null;
+                Long oldestNode = null;
+                for (Long nodeId : bucket.getNodeIds()) {
+                    if (nodeId.equals(this.id)){
+                        continue;
+                    }
+                    if (date == null || bucket.getNode(nodeId).getLastSeen().before(date)){
+                        date = bucket.getNode(nodeId).getLastSeen();
+                        oldestNode = nodeId;
+                    }
+                }
+                bucket.remove(oldestNode);
+                this.forceUpdate(node);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RoutingTableContentionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
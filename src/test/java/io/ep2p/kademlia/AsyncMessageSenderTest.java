@@ -0,0 +1,91 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.AsyncTestMessageSenderAPI;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.services.DHTLookupServiceFactory;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs DHT operations with a MessageSender that answers through futures completed by another thread.
+ */
+class AsyncMessageSenderTest {
+
+    @Test
+    void testRecursiveLookup() throws ExecutionException, InterruptedException, TimeoutException {
+        testStoreAndLookup(new DHTLookupServiceFactory.DefaultDHTLookupServiceFactory<>());
+    }
+
+    @Test
+    void testIterativeLookup() throws ExecutionException, InterruptedException, TimeoutException {
+        testStoreAndLookup(new DHTLookupServiceFactory.IterativeDHTLookupServiceFactory<>());
+    }
+
+    private void testStoreAndLookup(DHTLookupServiceFactory<Integer, EmptyConnectionInfo, Integer, String> lookupServiceFactory) throws ExecutionException, InterruptedException, TimeoutException {
+        AsyncTestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new AsyncTestMessageSenderAPI<>(2);
+
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(100);
+        nodeSettings.setPingScheduleTimeValue(5);
+
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+
+        List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setDhtLookupServiceFactory(lookupServiceFactory)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            if (i == 0) {
+                node.start();
+            } else {
+                Assertions.assertTrue(node.start(nodes.get(0)).get(5, TimeUnit.SECONDS), "Failed to bootstrap the node with ID " + i);
+            }
+            nodes.add(node);
+        }
+
+        Thread.sleep(2000);
+
+        for (int i = 0; i < 10; i++) {
+            String data = UUID.randomUUID().toString();
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = nodes.get(i);
+            StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer = node.store(data.hashCode(), data).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult());
+
+            // Start all lookups before waiting for any of them
+            List<Future<LookupAnswer<Integer, EmptyConnectionInfo, Integer, String>>> lookupFutures = new ArrayList<>();
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> lookupNode : nodes) {
+                lookupFutures.add(lookupNode.lookup(data.hashCode()));
+            }
+            for (Future<LookupAnswer<Integer, EmptyConnectionInfo, Integer, String>> lookupFuture : lookupFutures) {
+                LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = lookupFuture.get(5, TimeUnit.SECONDS);
+                Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+                Assertions.assertEquals(data, lookupAnswer.getValue());
+                Assertions.assertEquals(storeAnswer.getNode().getId(), lookupAnswer.getNode().getId());
+            }
+        }
+
+        messageSenderAPI.stopAll();
+    }
+}
@@ -0,0 +1,174 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.connection.BatchingMessageSender;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.node.KademliaNode;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.handler.MessageHandler;
+import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BatchingMessageSenderTest {
+    private static final String COUNT = "COUNT";
+
+    private final Map<String, AtomicInteger> sentMessages = new ConcurrentHashMap<>();
+    private final List<Integer> handled = new CopyOnWriteArrayList<>();
+    private final TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+        @Override
+        public <O extends Serializable> void sendAsyncMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, O> message) {
+            sentMessages.computeIfAbsent(message.getType(), type -> new AtomicInteger()).incrementAndGet();
+            super.sendAsyncMessage(caller, receiver, message);
+        }
+    };
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+    private KademliaNodeAPI<Integer, EmptyConnectionInfo> caller;
+    private KademliaNodeAPI<Integer, EmptyConnectionInfo> receiver;
+
+    @BeforeEach
+    void setUp() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        caller = new KademliaNode<>(1, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(1), messageSenderAPI, nodeSettings);
+        receiver = new KademliaNode<>(2, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(2), messageSenderAPI, nodeSettings);
+        receiver.registerMessageHandler(COUNT, new MessageHandler<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <U extends KademliaMessage<Integer, EmptyConnectionInfo, ?>, O extends KademliaMessage<Integer, EmptyConnectionInfo, ?>> O handle(KademliaNodeAPI<Integer, EmptyConnectionInfo> kademliaNode, U message) {
+                Assertions.assertEquals(caller.getId(), message.getNode().getId());
+                handled.add((Integer) message.getData());
+                return (O) new EmptyKademliaMessage<Integer, EmptyConnectionInfo>();
+            }
+        });
+        for (KademliaNodeAPI<Integer, EmptyConnectionInfo> node : List.of(caller, receiver)) {
+            messageSenderAPI.registerNode(node);
+            node.start();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+        scheduledExecutorService.shutdownNow();
+    }
+
+    @Test
+    void testMessagesAreSentAsOneBatch() throws InterruptedException {
+        BatchingMessageSender<Integer, EmptyConnectionInfo> batchingMessageSender = new BatchingMessageSender<>(messageSenderAPI, scheduledExecutorService, 200, TimeUnit.MILLISECONDS, 100);
+        for (int i = 0; i < 10; i++) {
+            batchingMessageSender.sendAsyncMessage(caller, receiver, new CountKademliaMessage(i));
+        }
+        Assertions.assertEquals(10, batchingMessageSender.pendingMessages());
+        Assertions.assertTrue(sentMessages.isEmpty());
+
+        Thread.sleep(1000);
+        Assertions.assertEquals(1, sentMessages.get(MessageType.BATCH).get());
+        Assertions.assertNull(sentMessages.get(COUNT));
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), handled);
+        Assertions.assertEquals(0, batchingMessageSender.pendingMessages());
+    }
+
+    @Test
+    void testFullBatchIsSentBeforeWindowEnds() throws InterruptedException {
+        BatchingMessageSender<Integer, EmptyConnectionInfo> batchingMessageSender = new BatchingMessageSender<>(messageSenderAPI, scheduledExecutorService, 1, TimeUnit.HOURS, 4);
+        for (int i = 0; i < 9; i++) {
+            batchingMessageSender.sendAsyncMessage(caller, receiver, new CountKademliaMessage(i));
+        }
+        Thread.sleep(500);
+        Assertions.assertEquals(2, sentMessages.get(MessageType.BATCH).get());
+        Assertions.assertEquals(8, handled.size());
+        Assertions.assertEquals(1, batchingMessageSender.pendingMessages());
+
+        // Last message is alone in its batch, so it is sent as it is
+        batchingMessageSender.flushAll();
+        Thread.sleep(500);
+        Assertions.assertEquals(2, sentMessages.get(MessageType.BATCH).get());
+        Assertions.assertEquals(1, sentMessages.get(COUNT).get());
+        Assertions.assertEquals(9, handled.size());
+    }
+
+    @Test
+    void testCloseSendsWaitingBatches() throws InterruptedException {
+        BatchingMessageSender<Integer, EmptyConnectionInfo> batchingMessageSender = new BatchingMessageSender<>(messageSenderAPI, scheduledExecutorService, 1, TimeUnit.HOURS, 100);
+        for (int i = 0; i < 3; i++) {
+            batchingMessageSender.sendAsyncMessage(caller, receiver, new CountKademliaMessage(i));
+        }
+        batchingMessageSender.close();
+        Assertions.assertEquals(0, batchingMessageSender.pendingMessages());
+        Assertions.assertEquals(1, sentMessages.get(MessageType.BATCH).get());
+
+        // Messages are not held back once the sender is closed
+        batchingMessageSender.sendAsyncMessage(caller, receiver, new CountKademliaMessage(3));
+        Assertions.assertEquals(1, sentMessages.get(COUNT).get());
+        Assertions.assertEquals(0, batchingMessageSender.pendingMessages());
+        Thread.sleep(500);
+        Assertions.assertEquals(List.of(0, 1, 2, 3), handled);
+    }
+
+    @Test
+    void testCloseWhileSending() throws InterruptedException {
+        BatchingMessageSender<Integer, EmptyConnectionInfo> batchingMessageSender = new BatchingMessageSender<>(messageSenderAPI, scheduledExecutorService, 1, TimeUnit.HOURS, 100);
+        ExecutorService senders = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 2000; i++) {
+            int number = i;
+            senders.submit(() -> batchingMessageSender.sendAsyncMessage(caller, receiver, new CountKademliaMessage(number)));
+            if (i == 1000)
+                senders.submit(batchingMessageSender::close);
+        }
+        senders.shutdown();
+        Assertions.assertTrue(senders.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Messages that raced with close() are sent too, none of them waits for the hour long window
+        Assertions.assertEquals(0, batchingMessageSender.pendingMessages());
+        Thread.sleep(500);
+        Assertions.assertEquals(2000, handled.size());
+    }
+
+    @Test
+    void testStoppingNodeSendsItsBatches() {
+        BatchingMessageSender<Integer, EmptyConnectionInfo> batchingMessageSender = new BatchingMessageSender<>(messageSenderAPI, scheduledExecutorService, 1, TimeUnit.HOURS, 100);
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        KademliaNodeAPI<Integer, EmptyConnectionInfo> batchingNode = new KademliaNode<>(3, new EmptyConnectionInfo(), new DefaultRoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>>(nodeSettings).getRoutingTable(3), batchingMessageSender, nodeSettings);
+        batchingMessageSender.sendAsyncMessage(caller, receiver, new CountKademliaMessage(0));
+        batchingMessageSender.sendAsyncMessage(batchingNode, receiver, new CountKademliaMessage(1));
+        batchingMessageSender.sendAsyncMessage(batchingNode, receiver, new CountKademliaMessage(2));
+        Assertions.assertEquals(3, batchingMessageSender.pendingMessages());
+
+        // Only the messages of the stopping node are sent, the sender keeps batching for the others
+        batchingNode.stopNow();
+        Assertions.assertEquals(1, sentMessages.get(MessageType.BATCH).get());
+        Assertions.assertEquals(1, batchingMessageSender.pendingMessages());
+        batchingMessageSender.close();
+    }
+
+    private static class CountKademliaMessage extends KademliaMessage<Integer, EmptyConnectionInfo, Integer> {
+        private CountKademliaMessage(int value) {
+            super(COUNT);
+            setData(value);
+        }
+    }
+}
@@ -4,21 +4,31 @@ import io.ep2p.kademlia.helpers.*;
 import io.ep2p.kademlia.model.LookupAnswer;
 import io.ep2p.kademlia.model.StoreAnswer;
 import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.message.DHTStoreResultKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
 import io.ep2p.kademlia.table.Bucket;
 import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
 import io.ep2p.kademlia.table.RoutingTableFactory;
 import org.junit.jupiter.api.Assertions;
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
 import java.math.BigInteger;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class BigIntegerDHTTest {
 
@@ -26,12 +36,13 @@ class BigIntegerDHTTest {
     void testRandomStore() throws ExecutionException, InterruptedException {
         TestMessageSenderAPI<BigInteger, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
 
-        NodeSettings.Default.IDENTIFIER_SIZE = 128;
-        NodeSettings.Default.BUCKET_SIZE = 100;
-        NodeSettings.Default.PING_SCHEDULE_TIME_VALUE = 2;
-        NodeSettings.Default.ENABLED_FIRST_STORE_REQUEST_FORCE_PASS = false;
+        // Settings are built locally, other tests change NodeSettings.Default
         NodeSettings nodeSettings = NodeSettings.Default.build();
-
+        nodeSettings.setIdentifierSize(128);
+        nodeSettings.setBucketSize(100);
+        nodeSettings.setPingScheduleTimeValue(2);
+        nodeSettings.setPingScheduleTimeUnit(TimeUnit.SECONDS);
+        nodeSettings.setEnabledFirstStoreRequestForcePass(false);
 
         RoutingTableFactory<BigInteger, EmptyConnectionInfo, Bucket<BigInteger, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
 
@@ -39,15 +50,20 @@ class BigIntegerDHTTest {
 
 
         DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> previousNode = null;
-        for(int i = 1; i < 8; i++){
-            BigInteger id = BigInteger.valueOf(new Random().nextInt((int) Math.pow(2, NodeSettings.Default.IDENTIFIER_SIZE)));
-            DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> nextNode = new DHTKademliaNodeBuilder<>(id, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(id), messageSenderAPI, keyHashGenerator, new SampleBigIntegerRepository()).build();
+        Set<BigInteger> ids = new HashSet<>();
+        Random random = new Random();
+        while (ids.size() < 7)
+            ids.add(BigInteger.valueOf(random.nextInt(Integer.MAX_VALUE)));
+        int i = 1;
+        for (BigInteger id : ids){
+            DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> nextNode = new DHTKademliaNodeBuilder<>(id, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(id), messageSenderAPI, keyHashGenerator, new SampleBigIntegerRepository()).setNodeSettings(nodeSettings).build();
             messageSenderAPI.registerNode(nextNode);
             if (previousNode != null)
                 Assertions.assertTrue(nextNode.start(previousNode).get(), "Failed to bootstrap the node with ID " + i);
             else
                 nextNode.start();
             previousNode = nextNode;
+            i++;
         }
         System.out.println("Started all nodes.");
 
@@ -71,31 +87,45 @@ class BigIntegerDHTTest {
                 e.printStackTrace();
             }
         }));
+
+        messageSenderAPI.stopAll();
     }
 
     @Test
     void testStore() throws ExecutionException, InterruptedException {
-        TestMessageSenderAPI<BigInteger, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+        // Holds store results back while set, until the timeout has been checked
+        AtomicBoolean holdResults = new AtomicBoolean(false);
+        CountDownLatch releaseResults = new CountDownLatch(1);
+        TestMessageSenderAPI<BigInteger, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+            @SneakyThrows
+            @Override
+            public <O extends Serializable> void sendAsyncMessage(KademliaNodeAPI<BigInteger, EmptyConnectionInfo> caller, Node<BigInteger, EmptyConnectionInfo> receiver, KademliaMessage<BigInteger, EmptyConnectionInfo, O> message) {
+                if (message instanceof DHTStoreResultKademliaMessage && holdResults.get())
+                    releaseResults.await();
+                super.sendAsyncMessage(caller, receiver, message);
+            }
+        };
 
-        NodeSettings.Default.IDENTIFIER_SIZE = 32;
-        NodeSettings.Default.BUCKET_SIZE = 100;
-        NodeSettings.Default.PING_SCHEDULE_TIME_VALUE = 5;
-        NodeSettings.Default.ENABLED_FIRST_STORE_REQUEST_FORCE_PASS = false;
         NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(32);
+        nodeSettings.setBucketSize(100);
+        nodeSettings.setPingScheduleTimeValue(5);
+        nodeSettings.setPingScheduleTimeUnit(TimeUnit.SECONDS);
+        nodeSettings.setEnabledFirstStoreRequestForcePass(false);
 
         RoutingTableFactory<BigInteger, EmptyConnectionInfo, Bucket<BigInteger, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
 
-        KeyHashGenerator<BigInteger, BigInteger> keyHashGenerator = new SampleBigIntegerKeyHashGenerator(NodeSettings.Default.IDENTIFIER_SIZE);
+        KeyHashGenerator<BigInteger, BigInteger> keyHashGenerator = new SampleBigIntegerKeyHashGenerator(nodeSettings.getIdentifierSize());
 
         // Bootstrap Node
-        DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> bootstrapNode = new DHTKademliaNodeBuilder<>(BigInteger.valueOf(0), new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(BigInteger.valueOf(0)), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).build();
+        DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> bootstrapNode = new DHTKademliaNodeBuilder<>(BigInteger.valueOf(0), new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(BigInteger.valueOf(0)), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).setNodeSettings(nodeSettings).build();
         messageSenderAPI.registerNode(bootstrapNode);
         bootstrapNode.start();
 
         // Other nodes
         for(int i = 1; i < 30; i++){
             BigInteger id = BigInteger.valueOf(i);
-            DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> nextNode = new DHTKademliaNodeBuilder<>(id, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(id), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).build();
+            DHTKademliaNodeAPI<BigInteger, EmptyConnectionInfo, BigInteger, String> nextNode = new DHTKademliaNodeBuilder<>(id, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(id), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).setNodeSettings(nodeSettings).build();
             messageSenderAPI.registerNode(nextNode);
             Assertions.assertTrue(nextNode.start(bootstrapNode).get(), "Failed to bootstrap the node with ID " + i);
         }
@@ -107,8 +137,16 @@ class BigIntegerDHTTest {
             testStore(bootstrapNode, UUID.randomUUID().toString());
         }
 
+        // A key that is stored in another node, so the answer has to come back as a held DHT_STORE_RESULT
         String data2 = UUID.randomUUID().toString();
-        Assertions.assertThrows(TimeoutException.class, () -> bootstrapNode.store(BigInteger.valueOf(data2.hashCode()), data2).get(1, TimeUnit.NANOSECONDS));
+        while (bootstrapNode.getRoutingTable().findClosest(keyHashGenerator.generateHash(BigInteger.valueOf(data2.hashCode()))).getNodes().get(0).getId().equals(bootstrapNode.getId()))
+            data2 = UUID.randomUUID().toString();
+        String value2 = data2;
+        holdResults.set(true);
+        Future<StoreAnswer<BigInteger, EmptyConnectionInfo, BigInteger>> storeFuture = bootstrapNode.store(BigInteger.valueOf(value2.hashCode()), value2);
+        Assertions.assertThrows(TimeoutException.class, () -> storeFuture.get(1, TimeUnit.NANOSECONDS));
+        releaseResults.countDown();
+        Assertions.assertEquals(StoreAnswer.Result.STORED, storeFuture.get().getResult());
 
         messageSenderAPI.stopAll();
     }
@@ -0,0 +1,76 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.node.external.IntegerExternalNode;
+import io.ep2p.kademlia.table.IntegerBucket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+class BucketOrderTest {
+
+    @Test
+    void testLastSeenOrder() {
+        IntegerBucket<EmptyConnectionInfo> bucket = new IntegerBucket<>(3);
+        for (int i = 1; i <= 5; i++) {
+            bucket.add(externalNode(i));
+        }
+        Assertions.assertEquals(Arrays.asList(5, 4, 3, 2, 1), bucket.getNodeIds());
+        Assertions.assertEquals(5, bucket.size());
+
+        bucket.pushToFront(externalNode(2));
+        bucket.pushToFront(externalNode(1));
+        Assertions.assertEquals(Arrays.asList(1, 2, 5, 4, 3), bucket.getNodeIds());
+
+        bucket.remove(5);
+        Assertions.assertFalse(bucket.contains(5));
+        Assertions.assertNull(bucket.getNode(5));
+        Assertions.assertEquals(Arrays.asList(1, 2, 4, 3), bucket.getNodeIds());
+
+        // Least recently seen node is evicted, unless it is the excluded one
+        Assertions.assertTrue(bucket.evictOldest(0));
+        Assertions.assertEquals(Arrays.asList(1, 2, 4), bucket.getNodeIds());
+        Assertions.assertTrue(bucket.evictOldest(4));
+        Assertions.assertEquals(Arrays.asList(1, 4), bucket.getNodeIds());
+        Assertions.assertTrue(bucket.evictOldest(0));
+        Assertions.assertTrue(bucket.evictOldest(0));
+        Assertions.assertFalse(bucket.evictOldest(0));
+        Assertions.assertEquals(0, bucket.size());
+    }
+
+    @Test
+    void testSnapshotIsStable() {
+        IntegerBucket<EmptyConnectionInfo> bucket = new IntegerBucket<>(3);
+        bucket.add(externalNode(1));
+        bucket.add(externalNode(2));
+        List<Integer> snapshot = bucket.getNodeIds();
+        Assertions.assertSame(snapshot, bucket.getNodeIds());
+
+        bucket.add(externalNode(3));
+        bucket.pushToFront(externalNode(1));
+        Assertions.assertEquals(Arrays.asList(2, 1), snapshot);
+        Assertions.assertEquals(Arrays.asList(1, 3, 2), bucket.getNodeIds());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.add(4));
+    }
+
+    @Test
+    void testPushToFrontUpdatesLastSeen() {
+        IntegerBucket<EmptyConnectionInfo> bucket = new IntegerBucket<>(3);
+        bucket.add(externalNode(1));
+        ExternalNode<Integer, EmptyConnectionInfo> seenNode = externalNode(1);
+        seenNode.setLastSeen(new Date(System.currentTimeMillis() + 1000));
+        bucket.pushToFront(seenNode);
+        Assertions.assertEquals(seenNode.getLastSeen(), bucket.getNode(1).getLastSeen());
+    }
+
+    private static ExternalNode<Integer, EmptyConnectionInfo> externalNode(int id) {
+        ExternalNode<Integer, EmptyConnectionInfo> externalNode = new IntegerExternalNode<>(new SampleNode<>(id), id);
+        externalNode.setLastSeen(new Date());
+        return externalNode;
+    }
+}
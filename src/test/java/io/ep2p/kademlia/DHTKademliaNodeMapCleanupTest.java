@@ -6,8 +6,11 @@ import io.ep2p.kademlia.helpers.SampleRepository;
 import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
 import io.ep2p.kademlia.model.StoreAnswer;
 import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
 import io.ep2p.kademlia.table.Bucket;
 import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
 import io.ep2p.kademlia.table.RoutingTableFactory;
@@ -15,9 +18,11 @@ import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -28,7 +33,13 @@ class DHTKademliaNodeMapCleanupTest {
     @SneakyThrows
     @Test
     void testCleanStoreAndLookupMaps() {
-        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+        // Results arrive a little late, so that a store is still running right after it is requested
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+            @Override
+            public <O extends Serializable> void sendAsyncMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, O> message) {
+                CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS).execute(() -> super.sendAsyncMessage(caller, receiver, message));
+            }
+        };
 
         NodeSettings.Default.IDENTIFIER_SIZE = 4;
         NodeSettings.Default.BUCKET_SIZE = 100;
@@ -66,7 +77,11 @@ class DHTKademliaNodeMapCleanupTest {
         Assertions.assertFalse(((Map<Integer, Object>) storeMap).containsKey(data.hashCode()));
         Assertions.assertEquals(((Map<Integer, Object>) storeMap).size(), 0);
         Assertions.assertThrows(TimeoutException.class, () -> {
-            String data1 = UUID.randomUUID().toString();
+            // Keys of the bootstrap node itself are stored before store() returns
+            String data1;
+            do {
+                data1 = UUID.randomUUID().toString();
+            } while (keyHashGenerator.generateHash(data1.hashCode()).equals(bootstrapNode.getId()));
             StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer1 = bootstrapNode.store(data1.hashCode(), data1).get(1, TimeUnit.NANOSECONDS);
         });
 
@@ -7,15 +7,23 @@ import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
 import io.ep2p.kademlia.model.LookupAnswer;
 import io.ep2p.kademlia.model.StoreAnswer;
 import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
 import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
 import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.message.DHTStoreKademliaMessage;
+import io.ep2p.kademlia.protocol.message.DHTStoreResultKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
 import io.ep2p.kademlia.table.Bucket;
 import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
 import io.ep2p.kademlia.table.RoutingTableFactory;
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -78,4 +86,50 @@ class DHTTest {
         System.out.println(lookupAnswer.getNode().getId() + " returned the data");
     }
 
+    @Test
+    void testStoreResultBeforeHandleStoreReturns() throws ExecutionException, InterruptedException, TimeoutException {
+        // Holds the store request until its result has been delivered, so the result arrives before store() has passed the request on
+        CountDownLatch resultDelivered = new CountDownLatch(1);
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+            @SneakyThrows
+            @Override
+            public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+                KademliaMessage<Integer, EmptyConnectionInfo, O> response = super.sendMessage(caller, receiver, message);
+                if (message instanceof DHTStoreKademliaMessage)
+                    resultDelivered.await(5, TimeUnit.SECONDS);
+                return response;
+            }
+
+            @SneakyThrows
+            @Override
+            public <O extends Serializable> void sendAsyncMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, O> message) {
+                message.setNode(caller);
+                map.get(receiver.getId()).onMessage(message);
+                if (message instanceof DHTStoreResultKademliaMessage)
+                    resultDelivered.countDown();
+            }
+        };
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+
+        int key = 1;
+        while (keyHashGenerator.generateHash(key) == 0)
+            key++;
+        int hash = keyHashGenerator.generateHash(key);
+
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(0, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(0), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).setNodeSettings(nodeSettings).build();
+        messageSenderAPI.registerNode(node);
+        node.start();
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> closestNode = new DHTKademliaNodeBuilder<>(hash, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(hash), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).setNodeSettings(nodeSettings).build();
+        messageSenderAPI.registerNode(closestNode);
+        Assertions.assertTrue(closestNode.start(node).get(5, TimeUnit.SECONDS));
+
+        StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer = node.store(key, "value").get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult());
+        Assertions.assertEquals(hash, storeAnswer.getNode().getId());
+
+        messageSenderAPI.stopAll();
+    }
 }
@@ -0,0 +1,123 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.handler.MessageHandler;
+import io.ep2p.kademlia.protocol.message.DHTLookupKademliaMessage;
+import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class DHTTimeoutTest {
+    private TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI;
+    private KeyHashGenerator<Integer, Integer> keyHashGenerator;
+    private DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node0;
+    private DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node1;
+
+    @BeforeEach
+    void setUp() throws ExecutionException, InterruptedException {
+        messageSenderAPI = new TestMessageSenderAPI<>();
+        keyHashGenerator = new SampleKeyHashGenerator(4);
+
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setPingScheduleTimeValue(5);
+        nodeSettings.setDhtOperationTimeoutValue(500);
+        nodeSettings.setDhtOperationTimeoutUnit(TimeUnit.MILLISECONDS);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        node0 = new DHTKademliaNodeBuilder<>(0, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(0), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                .setNodeSettings(nodeSettings)
+                .build();
+        node1 = new DHTKademliaNodeBuilder<>(1, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(1), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                .setNodeSettings(nodeSettings)
+                .build();
+        messageSenderAPI.registerNode(node0);
+        messageSenderAPI.registerNode(node1);
+        node0.start();
+        Assertions.assertTrue(node1.start(node0).get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testLostResultsTimeOut() throws ExecutionException, InterruptedException, TimeoutException {
+        // Node 1 accepts requests but never answers them
+        AtomicInteger ignoredMessages = new AtomicInteger();
+        node1.registerMessageHandler(MessageType.DHT_LOOKUP, ignoringHandler(ignoredMessages));
+        node1.registerMessageHandler(MessageType.DHT_STORE, ignoringHandler(ignoredMessages));
+
+        LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = node0.lookup(1).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.TIMEOUT, lookupAnswer.getResult());
+
+        lookupAnswer = node0.lookup(1, 100, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.TIMEOUT, lookupAnswer.getResult());
+
+        StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer = node0.store(keyClosestToNode1(), "value", 100, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(StoreAnswer.Result.TIMEOUT, storeAnswer.getResult());
+        Assertions.assertEquals(3, ignoredMessages.get());
+    }
+
+    @Test
+    void testExpiredRequestsAreDropped() throws InterruptedException {
+        AtomicInteger results = new AtomicInteger();
+        node0.registerMessageHandler(MessageType.DHT_LOOKUP_RESULT, ignoringHandler(results));
+        node1.getKademliaRepository().store(1, "value");
+
+        messageSenderAPI.sendMessage(node0, node1, new DHTLookupKademliaMessage<>(
+                new DHTLookupKademliaMessage.DHTLookup<>(node0, 1, 0, System.currentTimeMillis() - 1)
+        ));
+        Thread.sleep(500);
+        Assertions.assertEquals(0, results.get());
+
+        messageSenderAPI.sendMessage(node0, node1, new DHTLookupKademliaMessage<>(
+                new DHTLookupKademliaMessage.DHTLookup<>(node0, 1, 0, System.currentTimeMillis() + 5000)
+        ));
+        Thread.sleep(500);
+        Assertions.assertEquals(1, results.get());
+    }
+
+    /* Key that node 0 passes to node 1 instead of storing it */
+    private int keyClosestToNode1() {
+        int key = 0;
+        while ((keyHashGenerator.generateHash(key) & 1) == 0)
+            key++;
+        return key;
+    }
+
+    private static <I extends Number, C extends ConnectionInfo> MessageHandler<I, C> ignoringHandler(AtomicInteger counter) {
+        return new MessageHandler<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <U extends KademliaMessage<I, C, ? extends Serializable>, O extends KademliaMessage<I, C, ? extends Serializable>> O handle(KademliaNodeAPI<I, C> kademliaNode, U message) {
+                counter.incrementAndGet();
+                return (O) new EmptyKademliaMessage<I, C>();
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.codec.*;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.protocol.message.PingKademliaMessage;
+import io.ep2p.kademlia.table.PrimitiveLongRoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+class FindNodeResponseBufferTest {
+    /* Java serialization writes some bytes for each connection info, which the view has to skip */
+    private final ObjectCodec<EmptyConnectionInfo> connectionInfoCodec = new ObjectCodec.JavaSerializationCodec<>();
+    private final PrimitiveLongRoutingTable<EmptyConnectionInfo> routingTable;
+
+    FindNodeResponseBufferTest() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(16);
+        nodeSettings.setBucketSize(5);
+        nodeSettings.setFindNodeSize(8);
+        routingTable = new PrimitiveLongRoutingTable<>(1L, nodeSettings);
+        Random random = new Random(16);
+        for (int i = 0; i < 300; i++) {
+            routingTable.updateOrCache(new SampleNode<>((long) random.nextInt(1 << 16)));
+        }
+    }
+
+    private ByteBuffer write(ByteBuffer buffer, long destinationId) {
+        new FindNodeResponseWriter<>(connectionInfoCodec).write(buffer, new SampleNode<>(1L), routingTable, destinationId);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Test
+    void testViewReadsClosestNodes() {
+        FindNodeResponseView<EmptyConnectionInfo> view = new FindNodeResponseView<>(connectionInfoCodec);
+        for (long destinationId : new long[]{0, 1234, 65535}) {
+            FindNodeAnswer<Long, EmptyConnectionInfo> expected = routingTable.findClosest(destinationId);
+            view.wrap(write(ByteBuffer.allocateDirect(4096), destinationId));
+
+            Assertions.assertTrue(view.isAlive());
+            Assertions.assertEquals(1L, view.senderId());
+            Assertions.assertNotNull(view.senderConnectionInfo());
+            Assertions.assertEquals(destinationId, view.destinationId());
+            Assertions.assertEquals(expected.size(), view.size());
+            List<Long> ids = new ArrayList<>();
+            while (view.next()) {
+                ExternalNode<Long, EmptyConnectionInfo> externalNode = expected.getNodes().get(view.index());
+                Assertions.assertEquals(externalNode.getDistance(), view.distance());
+                ids.add(view.id());
+            }
+            Assertions.assertEquals(ids(expected), ids);
+
+            // Connection info is only decoded when asked for
+            view.rewind();
+            Assertions.assertTrue(view.next());
+            Assertions.assertNotNull(view.connectionInfo());
+            Assertions.assertEquals(ids.get(0), view.id());
+            Assertions.assertEquals(ids(expected), ids(view.toFindNodeAnswer()));
+        }
+    }
+
+    @Test
+    void testBytesAreBinaryMessageCodecMessage() {
+        BinaryMessageCodec<Long, EmptyConnectionInfo, Long, String> codec = new BinaryMessageCodec<>(
+                new IdCodec.LongIdCodec(), connectionInfoCodec, new ObjectCodec.LongCodec(), new ObjectCodec.StringCodec()
+        );
+        // Position and byte order of the caller buffer do not matter
+        ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(10);
+        write(buffer, 1234);
+        buffer.position(10);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        KademliaMessage<Long, EmptyConnectionInfo, Serializable> message = codec.decode(bytes);
+        Assertions.assertEquals(MessageType.FIND_NODE_RES, message.getType());
+        Assertions.assertEquals(1L, message.getNode().getId());
+        @SuppressWarnings("unchecked")
+        FindNodeAnswer<Long, EmptyConnectionInfo> findNodeAnswer = (FindNodeAnswer<Long, EmptyConnectionInfo>) message.getData();
+        Assertions.assertEquals(ids(routingTable.findClosest(1234L)), ids(findNodeAnswer));
+
+        Assertions.assertThrows(MessageCodecException.class, () -> new FindNodeResponseView<>(connectionInfoCodec).wrap(ByteBuffer.wrap(codec.encode(new PingKademliaMessage<>()))));
+    }
+
+    private List<Long> ids(FindNodeAnswer<Long, EmptyConnectionInfo> findNodeAnswer) {
+        return findNodeAnswer.getNodes().stream().map(ExternalNode::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,151 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.message.DHTFindValueKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.services.DHTLookupServiceFactory;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import io.ep2p.kademlia.util.LatencyTracker;
+import io.ep2p.kademlia.util.SharedExecutors;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class HedgedDHTLookupTest {
+    private final Set<Integer> slowNodes = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, AtomicInteger> sentQueries = new ConcurrentHashMap<>();
+    private final KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+    private final List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+    private final TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+        @SneakyThrows
+        @Override
+        public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+            if (message instanceof DHTFindValueKademliaMessage)
+                sentQueries.computeIfAbsent(caller.getId(), id -> new AtomicInteger()).incrementAndGet();
+            if (slowNodes.contains(receiver.getId()))
+                Thread.sleep(2000);
+            return super.sendMessage(caller, receiver, message);
+        }
+    };
+
+    private void setUpNodes(int readQuorum) {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setAlpha(1);
+        nodeSettings.setReadQuorum(readQuorum);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        // Every send to a slow node blocks an I/O thread, so pings of the 16 nodes would fill a default sized I/O executor and hold the queries back
+        SharedExecutors sharedExecutors = new SharedExecutors(1, 4, 16 * nodeSettings.getMaximumInFlightPings() + 16);
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setSharedExecutors(sharedExecutors)
+                    .setDhtLookupServiceFactory(new DHTLookupServiceFactory.HedgedDHTLookupServiceFactory<>())
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+
+        for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes) {
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> other : nodes) {
+                if (!other.getId().equals(node.getId()))
+                    node.getRoutingTable().updateOrCache(other);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testSlowNodeIsHedged() throws ExecutionException, InterruptedException, TimeoutException {
+        setUpNodes(1);
+        int hash = keyHashGenerator.generateHash(10);
+        nodes.get(hash).getKademliaRepository().store(10, "ten");
+        nodes.get(hash ^ 1).getKademliaRepository().store(10, "ten");
+        slowNodes.add(hash);
+
+        // Only one query is in flight at a time, so without a backup query the answer would take as long as the slow node
+        long start = System.currentTimeMillis();
+        LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = nodes.get(hash ^ 8).lookup(10).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(System.currentTimeMillis() - start < 1500, "Lookup was not hedged");
+        Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+        Assertions.assertEquals(hash ^ 1, lookupAnswer.getNode().getId());
+    }
+
+    @Test
+    void testBackupQueriesAreNotHedged() throws InterruptedException {
+        setUpNodes(1);
+        for (int i = 0; i < 16; i++) {
+            slowNodes.add(i);
+        }
+
+        // The primary query is hedged once, the backup query is just as slow but is not hedged again
+        int caller = keyHashGenerator.generateHash(10) ^ 8;
+        nodes.get(caller).lookup(10);
+        Thread.sleep(1000);
+        Assertions.assertEquals(2, sentQueries.get(caller).get());
+    }
+
+    @Test
+    void testReadQuorum() throws ExecutionException, InterruptedException, TimeoutException {
+        setUpNodes(2);
+        int hash = keyHashGenerator.generateHash(10);
+        nodes.get(hash).getKademliaRepository().store(10, "stale");
+        nodes.get(hash ^ 1).getKademliaRepository().store(10, "ten");
+        nodes.get(hash ^ 2).getKademliaRepository().store(10, "ten");
+
+        // Closest node answers first, but it is outvoted
+        LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = nodes.get(hash ^ 8).lookup(10).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+        Assertions.assertEquals("ten", lookupAnswer.getValue());
+
+        // A single copy is still returned once there is nobody else to ask
+        nodes.get(hash).getKademliaRepository().store(11, "eleven");
+        lookupAnswer = nodes.get(hash ^ 8).lookup(11).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+        Assertions.assertEquals("eleven", lookupAnswer.getValue());
+    }
+
+    @Test
+    void testLatencyTrackerPercentile() {
+        LatencyTracker latencyTracker = new LatencyTracker(10, 7);
+        Assertions.assertEquals(7, latencyTracker.percentile(95));
+        for (int i = 1; i <= 20; i++) {
+            latencyTracker.record(i);
+        }
+        // Only the latest 10 samples, 11 to 20, are kept
+        Assertions.assertEquals(11, latencyTracker.percentile(0));
+        Assertions.assertEquals(15, latencyTracker.percentile(50));
+        Assertions.assertEquals(20, latencyTracker.percentile(95));
+    }
+}
@@ -0,0 +1,129 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.services.DHTLookupServiceFactory;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class IterativeDHTLookupTest {
+    private static final int IDENTIFIER_SIZE = 5;
+
+    @Test
+    void testIterativeLookup() throws ExecutionException, InterruptedException, TimeoutException {
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(IDENTIFIER_SIZE);
+        nodeSettings.setBucketSize(2);
+        nodeSettings.setFindNodeSize(4);
+        nodeSettings.setAlpha(2);
+        nodeSettings.setPingScheduleTimeValue(5);
+
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(IDENTIFIER_SIZE);
+        DHTLookupServiceFactory<Integer, EmptyConnectionInfo, Integer, String> lookupServiceFactory = new DHTLookupServiceFactory.IterativeDHTLookupServiceFactory<>();
+
+        List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+        for (int i = 0; i < Math.pow(2, IDENTIFIER_SIZE); i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setDhtLookupServiceFactory(lookupServiceFactory)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+
+        // Each node knows two random nodes of each bucket, so that lookups have to go through several nodes to reach the closest one
+        Random random = new Random(IDENTIFIER_SIZE);
+        for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes) {
+            List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> others = new ArrayList<>(nodes);
+            Collections.shuffle(others, random);
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> other : others) {
+                if (!other.getId().equals(node.getId()))
+                    node.getRoutingTable().updateOrCache(other);
+            }
+        }
+
+        // Value is held by the node with the same id as the hash of the key, which every lookup should converge to
+        for (int key = 0; key < nodes.size(); key += 5) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> holder = nodes.get(keyHashGenerator.generateHash(key));
+            holder.getKademliaRepository().store(key, "value-" + key);
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes) {
+                LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = node.lookup(key).get(5, TimeUnit.SECONDS);
+                Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult(), "Node " + node.getId() + " did not find key " + key);
+                Assertions.assertEquals("value-" + key, lookupAnswer.getValue());
+                Assertions.assertEquals(holder.getId(), lookupAnswer.getNode().getId());
+            }
+        }
+
+        // Missing keys fail once there are no closer nodes to ask
+        LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = nodes.get(7).lookup(3).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.FAILED, lookupAnswer.getResult());
+
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testDeadNodesAreSkipped() throws ExecutionException, InterruptedException, TimeoutException {
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setAlpha(1);
+        nodeSettings.setPingScheduleTimeValue(5);
+
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+
+        List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setDhtLookupServiceFactory(new DHTLookupServiceFactory.IterativeDHTLookupServiceFactory<>())
+                    .build();
+            messageSenderAPI.registerNode(node);
+            if (i == 0) {
+                node.start();
+            } else {
+                Assertions.assertTrue(node.start(nodes.get(0)).get(), "Failed to bootstrap the node with ID " + i);
+            }
+            nodes.add(node);
+        }
+
+        Thread.sleep(1000);
+
+        // Closest node to the key goes away without telling the others, next closest one holds the value
+        int hash = keyHashGenerator.generateHash(10);
+        nodes.get(hash ^ 1).getKademliaRepository().store(10, "ten");
+        messageSenderAPI.map.remove(hash);
+        nodes.get(hash).stopNow();
+
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(hash ^ 8);
+        LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = requester.lookup(10).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+        Assertions.assertEquals(hash ^ 1, lookupAnswer.getNode().getId());
+        Assertions.assertFalse(requester.getRoutingTable().contains(hash));
+
+        messageSenderAPI.stopAll();
+    }
+}
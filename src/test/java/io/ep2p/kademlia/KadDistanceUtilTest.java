@@ -0,0 +1,88 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.node.id.LongArrayId;
+import io.ep2p.kademlia.table.BigIntegerRoutingTable;
+import io.ep2p.kademlia.util.KadDistanceUtil;
+import io.ep2p.kademlia.util.ReferenceTargets;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+class KadDistanceUtilTest {
+
+    @Test
+    void testDistanceTable() {
+        List<BigInteger> distances = KadDistanceUtil.getDistanceTable(256);
+        Assertions.assertEquals(256, distances.size());
+        for (int i = 0; i < 256; i++) {
+            Assertions.assertEquals(BigInteger.ONE.shiftLeft(i), distances.get(i));
+        }
+        Assertions.assertSame(distances, KadDistanceUtil.getDistanceTable(256));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> distances.add(BigInteger.ONE));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testIntDistancesSaturate() {
+        List<Integer> distances = KadDistanceUtil.getDistancesOfIdentifierSize(128);
+        Assertions.assertEquals(128, distances.size());
+        Assertions.assertEquals(1 << 30, distances.get(30));
+        for (int i = 31; i < 128; i++) {
+            Assertions.assertEquals(Integer.MAX_VALUE, distances.get(i));
+        }
+    }
+
+    @Test
+    void testPrimitiveTargets() {
+        ReferenceTargets<Integer> integerTargets = ReferenceTargets.of(100, 128);
+        Assertions.assertEquals(Integer.SIZE, integerTargets.size());
+        for (int i = 0; i < Integer.SIZE; i++) {
+            Assertions.assertEquals(100 ^ (1 << i), integerTargets.get(i));
+        }
+        Assertions.assertEquals(100 ^ Integer.MIN_VALUE, ((ReferenceTargets.IntegerTargets) integerTargets).getInt(31));
+
+        ReferenceTargets<Long> longTargets = ReferenceTargets.of(100L, 128);
+        Assertions.assertEquals(Long.SIZE, longTargets.size());
+        for (int i = 0; i < Long.SIZE; i++) {
+            Assertions.assertEquals(100L ^ (1L << i), longTargets.get(i));
+        }
+        Assertions.assertEquals(List.of(101L, 102L, 96L), KadDistanceUtil.getNodesWithDistance(100L, 3));
+    }
+
+    @Test
+    void testWideTargets() {
+        BigInteger bigIntegerId = BigInteger.valueOf(100);
+        ReferenceTargets<BigInteger> bigIntegerTargets = ReferenceTargets.of(bigIntegerId, 160);
+        Assertions.assertEquals(160, bigIntegerTargets.size());
+        for (int i = 0; i < 160; i++) {
+            Assertions.assertEquals(bigIntegerId.xor(BigInteger.ONE.shiftLeft(i)), bigIntegerTargets.get(i));
+        }
+
+        LongArrayId longArrayId = LongArrayId.valueOf(100, 256);
+        ReferenceTargets<LongArrayId> longArrayIdTargets = ReferenceTargets.of(longArrayId, 512);
+        Assertions.assertEquals(256, longArrayIdTargets.size());
+        for (int i = 0; i < 256; i++) {
+            Assertions.assertEquals(LongArrayId.valueOf(BigInteger.valueOf(100).flipBit(i), 256), longArrayIdTargets.get(i));
+        }
+    }
+
+    @Test
+    void testNodesWithDistance() {
+        Assertions.assertEquals(ReferenceTargets.of(7L, 32).asList(), KadDistanceUtil.getNodesWithDistance(7L, 32));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> KadDistanceUtil.getNodesWithDistance(7L, 64).add(1L));
+        Assertions.assertTrue(KadDistanceUtil.getNodesWithDistance(7.0, 64).isEmpty());
+    }
+
+    @Test
+    void testRoutingTableKeepsTargets() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(160);
+        BigIntegerRoutingTable<EmptyConnectionInfo> routingTable = new BigIntegerRoutingTable<>(BigInteger.valueOf(100), nodeSettings);
+        ReferenceTargets<BigInteger> targets = routingTable.getReferenceTargets();
+        Assertions.assertEquals(KadDistanceUtil.getNodesWithDistance(BigInteger.valueOf(100), 160), targets.asList());
+        Assertions.assertSame(targets, routingTable.getReferenceTargets());
+    }
+}
@@ -0,0 +1,169 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.node.id.LongArrayId;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTable;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+class LongArrayIdDHTTest {
+    private static final int ID_SIZE = 256;
+
+    @Test
+    void testIdArithmetic() {
+        Random random = new Random(ID_SIZE);
+        for (int i = 0; i < 1000; i++) {
+            BigInteger a = new BigInteger(ID_SIZE, random);
+            BigInteger b = new BigInteger(random.nextInt(ID_SIZE) + 1, random);
+            BigInteger target = new BigInteger(ID_SIZE, random);
+            LongArrayId aId = LongArrayId.valueOf(a, ID_SIZE);
+            LongArrayId bId = LongArrayId.valueOf(b, ID_SIZE);
+            LongArrayId targetId = LongArrayId.valueOf(target, ID_SIZE);
+
+            Assertions.assertEquals(a, aId.toBigInteger());
+            Assertions.assertEquals(aId, LongArrayId.fromBytes(aId.toBytes()));
+            Assertions.assertEquals(a.xor(b), aId.xor(bId).toBigInteger());
+            Assertions.assertEquals(a.xor(b).bitLength(), aId.xorBitLength(bId, ID_SIZE));
+            Assertions.assertEquals(a.xor(b).bitLength(), aId.xor(bId).bitLength());
+            Assertions.assertEquals(a.compareTo(b), Integer.signum(aId.compareTo(bId)));
+            Assertions.assertEquals(a.xor(target).compareTo(b.xor(target)), Integer.signum(LongArrayId.compareDistance(aId, bId, targetId)));
+
+            int bits = random.nextInt(ID_SIZE) + 1;
+            BigInteger mask = BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+            Assertions.assertEquals(a.and(mask), aId.mask(bits).toBigInteger());
+            Assertions.assertEquals(a.and(mask).bitLength(), aId.bitLength(bits));
+            Assertions.assertEquals(a.flipBit(bits - 1), aId.flipBit(bits - 1).toBigInteger());
+            Assertions.assertEquals(a.testBit(bits - 1), aId.testBit(bits - 1));
+        }
+    }
+
+    @Test
+    void testRoutingTableBuckets() {
+        NodeSettings.Default.IDENTIFIER_SIZE = 160;
+        NodeSettings.Default.BUCKET_SIZE = 20;
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        RoutingTableFactory<LongArrayId, EmptyConnectionInfo, Bucket<LongArrayId, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        Random random = new Random(160);
+        BigInteger owner = new BigInteger(160, random);
+        RoutingTable<LongArrayId, EmptyConnectionInfo, Bucket<LongArrayId, EmptyConnectionInfo>> routingTable = routingTableFactory.getRoutingTable(LongArrayId.valueOf(owner, 160));
+        for (int i = 0; i < 100; i++) {
+            BigInteger id = new BigInteger(random.nextInt(160) + 1, random);
+            LongArrayId longArrayId = LongArrayId.valueOf(id, 160);
+            Assertions.assertEquals(id.xor(owner).bitLength(), routingTable.findBucket(longArrayId).getId());
+            Assertions.assertEquals(id.xor(owner).bitLength(), routingTable.getNodePrefix(routingTable.getDistance(longArrayId)));
+        }
+    }
+
+    @Test
+    void testFindClosest() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(160);
+        nodeSettings.setBucketSize(20);
+        nodeSettings.setFindNodeSize(20);
+        RoutingTableFactory<LongArrayId, EmptyConnectionInfo, Bucket<LongArrayId, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        Random random = new Random(20);
+        RoutingTable<LongArrayId, EmptyConnectionInfo, Bucket<LongArrayId, EmptyConnectionInfo>> routingTable = routingTableFactory.getRoutingTable(LongArrayId.valueOf(new BigInteger(160, random), 160));
+        List<BigInteger> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            BigInteger id = new BigInteger(160, random);
+            if (routingTable.updateOrCache(new SampleNode<>(LongArrayId.valueOf(id, 160))) && routingTable.contains(LongArrayId.valueOf(id, 160)))
+                ids.add(id);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            BigInteger destination = new BigInteger(160, random);
+            FindNodeAnswer<LongArrayId, EmptyConnectionInfo> findNodeAnswer = routingTable.findClosest(LongArrayId.valueOf(destination, 160));
+            List<BigInteger> expected = new ArrayList<>(ids);
+            expected.sort(Comparator.comparing(destination::xor));
+            Assertions.assertEquals(expected.subList(0, 20), findNodeAnswer.getNodes().stream().map(node -> node.getId().toBigInteger()).collect(Collectors.toList()));
+            for (ExternalNode<LongArrayId, EmptyConnectionInfo> node : findNodeAnswer.getNodes()) {
+                Assertions.assertEquals(node.getId().toBigInteger().xor(destination), node.getDistance().toBigInteger());
+            }
+        }
+    }
+
+    @Test
+    void testStore() throws ExecutionException, InterruptedException {
+        TestMessageSenderAPI<LongArrayId, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+
+        NodeSettings.Default.IDENTIFIER_SIZE = ID_SIZE;
+        NodeSettings.Default.BUCKET_SIZE = 100;
+        NodeSettings.Default.PING_SCHEDULE_TIME_VALUE = 5;
+        NodeSettings.Default.ENABLED_FIRST_STORE_REQUEST_FORCE_PASS = false;
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+
+        RoutingTableFactory<LongArrayId, EmptyConnectionInfo, Bucket<LongArrayId, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        KeyHashGenerator<LongArrayId, LongArrayId> keyHashGenerator = key -> key;
+
+        // Bootstrap Node
+        LongArrayId bootstrapId = LongArrayId.zero(ID_SIZE);
+        DHTKademliaNodeAPI<LongArrayId, EmptyConnectionInfo, LongArrayId, String> bootstrapNode = new DHTKademliaNodeBuilder<>(bootstrapId, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(bootstrapId), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).build();
+        messageSenderAPI.registerNode(bootstrapNode);
+        bootstrapNode.start();
+
+        // Other nodes, spread over the whole 256 bit space
+        Random random = new Random(ID_SIZE);
+        for(int i = 1; i < 30; i++){
+            LongArrayId id = LongArrayId.valueOf(new BigInteger(ID_SIZE, random), ID_SIZE);
+            DHTKademliaNodeAPI<LongArrayId, EmptyConnectionInfo, LongArrayId, String> nextNode = new DHTKademliaNodeBuilder<>(id, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(id), messageSenderAPI, keyHashGenerator, new SampleRepository<>()).build();
+            messageSenderAPI.registerNode(nextNode);
+            Assertions.assertTrue(nextNode.start(bootstrapNode).get(), "Failed to bootstrap the node with ID " + id);
+        }
+
+        Thread.sleep(2000);
+
+        for (int i = 0; i < 10; i++){
+            testStore(bootstrapNode, UUID.randomUUID().toString());
+        }
+
+        messageSenderAPI.stopAll();
+    }
+
+    private void testStore(DHTKademliaNodeAPI<LongArrayId, EmptyConnectionInfo, LongArrayId, String> node, String data) throws ExecutionException, InterruptedException {
+        LongArrayId key = sha256(data);
+        StoreAnswer<LongArrayId, EmptyConnectionInfo, LongArrayId> storeAnswer = node.store(key, data).get();
+        Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult(), "StoreAnswer Result was " + storeAnswer.getResult() + ", stored in node" + storeAnswer.getNode().getId());
+
+        LookupAnswer<LongArrayId, EmptyConnectionInfo, LongArrayId, String> lookupAnswer = node.lookup(key).get();
+        Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+        Assertions.assertEquals(data, lookupAnswer.getValue());
+        Assertions.assertEquals(storeAnswer.getNode().getId(), lookupAnswer.getNode().getId());
+    }
+
+    private static LongArrayId sha256(String data) {
+        try {
+            return LongArrayId.fromBytes(MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LookupAllTest {
+    private static final int KEYS = 64;
+    private final Map<String, AtomicInteger> sentMessages = new ConcurrentHashMap<>();
+    private final KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+    private final List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+    private final TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+        @Override
+        public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+            sentMessages.computeIfAbsent(caller.getId() + ":" + message.getType(), type -> new AtomicInteger()).incrementAndGet();
+            return super.sendMessage(caller, receiver, message);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+
+        // Every key is held by the node with the same id as its hash
+        for (int key = 0; key < KEYS; key++) {
+            nodes.get(keyHashGenerator.generateHash(key)).getKademliaRepository().store(key, "value-" + key);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+    }
+
+    private void fillRoutingTables(List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes) {
+        for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes) {
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> other : nodes) {
+                if (!other.getId().equals(node.getId()))
+                    node.getRoutingTable().updateOrCache(other);
+            }
+        }
+    }
+
+    private List<Integer> keys() {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < KEYS; key++) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private int sentMessages(int caller, String type) {
+        AtomicInteger count = sentMessages.get(caller + ":" + type);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    void testLookupAllSendsOneMessagePerNode() throws ExecutionException, InterruptedException, TimeoutException {
+        fillRoutingTables(nodes);
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(3);
+
+        Map<Integer, LookupAnswer<Integer, EmptyConnectionInfo, Integer, String>> lookupAnswers = requester.lookupAll(keys()).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(KEYS, lookupAnswers.size());
+        lookupAnswers.forEach((key, lookupAnswer) -> {
+            Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult(), "Key " + key + " was not found");
+            Assertions.assertEquals("value-" + key, lookupAnswer.getValue());
+            Assertions.assertEquals(keyHashGenerator.generateHash(key), lookupAnswer.getNode().getId());
+        });
+
+        // Keys of the requester itself are found without any message
+        Assertions.assertEquals(15, sentMessages(3, MessageType.DHT_LOOKUP_BATCH));
+        Assertions.assertEquals(0, sentMessages(3, MessageType.DHT_LOOKUP));
+    }
+
+    @Test
+    void testLookupAllThroughOtherNodes() throws ExecutionException, InterruptedException, TimeoutException {
+        // Requester only knows node 0, which answers its own keys and passes on the others
+        fillRoutingTables(nodes.subList(0, 15));
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(15);
+        requester.getRoutingTable().updateOrCache(nodes.get(0));
+
+        // Nobody holds the last key
+        List<Integer> keys = keys();
+        keys.add(KEYS);
+
+        Map<Integer, LookupAnswer<Integer, EmptyConnectionInfo, Integer, String>> lookupAnswers = requester.lookupAll(keys).get(5, TimeUnit.SECONDS);
+        for (int key = 0; key < KEYS; key++) {
+            LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = lookupAnswers.get(key);
+            Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult(), "Key " + key + " was not found");
+            Assertions.assertEquals("value-" + key, lookupAnswer.getValue());
+            Assertions.assertEquals(keyHashGenerator.generateHash(key), lookupAnswer.getNode().getId());
+        }
+        Assertions.assertEquals(LookupAnswer.Result.FAILED, lookupAnswers.get(KEYS).getResult());
+        Assertions.assertEquals(1, sentMessages(15, MessageType.DHT_LOOKUP_BATCH));
+    }
+}
@@ -0,0 +1,193 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.exception.MessageCodecException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.external.IntegerExternalNode;
+import io.ep2p.kademlia.node.id.LongArrayId;
+import io.ep2p.kademlia.protocol.codec.BinaryMessageCodec;
+import io.ep2p.kademlia.protocol.codec.DecodedNode;
+import io.ep2p.kademlia.protocol.codec.IdCodec;
+import io.ep2p.kademlia.protocol.codec.ObjectCodec;
+import io.ep2p.kademlia.protocol.message.*;
+import io.ep2p.kademlia.util.DateUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class MessageCodecTest {
+    private static final EmptyConnectionInfo CONNECTION_INFO = new EmptyConnectionInfo();
+    /* Nothing to write, decoded nodes share the same instance so that they are equal to the encoded ones */
+    private static final ObjectCodec<EmptyConnectionInfo> CONNECTION_INFO_CODEC = new ObjectCodec<>() {
+        @Override
+        public void write(DataOutput out, EmptyConnectionInfo value) {
+        }
+
+        @Override
+        public EmptyConnectionInfo read(DataInput in) {
+            return CONNECTION_INFO;
+        }
+    };
+
+    private final BinaryMessageCodec<Integer, EmptyConnectionInfo, Integer, String> codec = new BinaryMessageCodec<>(
+            new IdCodec.IntegerIdCodec(), CONNECTION_INFO_CODEC, new ObjectCodec.IntegerCodec(), new ObjectCodec.StringCodec()
+    );
+    private final Node<Integer, EmptyConnectionInfo> sender = new DecodedNode<>(3, CONNECTION_INFO);
+    private final Node<Integer, EmptyConnectionInfo> requester = new DecodedNode<>(12, CONNECTION_INFO);
+
+    private KademliaMessage<Integer, EmptyConnectionInfo, Serializable> roundTrip(KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable> message) {
+        message.setNode(sender);
+        KademliaMessage<Integer, EmptyConnectionInfo, Serializable> decoded = codec.decode(codec.encode(message));
+        Assertions.assertEquals(message.getClass(), decoded.getClass());
+        Assertions.assertEquals(message.getNode(), decoded.getNode());
+        // FindNodeAnswer and messages of a batch have no equals of their own
+        if (!(message.getData() instanceof FindNodeAnswer) && !(message instanceof BatchKademliaMessage))
+            Assertions.assertEquals(message.getData(), decoded.getData());
+        Assertions.assertEquals(message.isAlive(), decoded.isAlive());
+        Assertions.assertEquals(message.getCorrelationId(), decoded.getCorrelationId());
+        return decoded;
+    }
+
+    @Test
+    void testNodeMessages() {
+        roundTrip(new EmptyKademliaMessage<>());
+        roundTrip(new PingKademliaMessage<>());
+        PingKademliaMessage<Integer, EmptyConnectionInfo> pingMessage = new PingKademliaMessage<>();
+        pingMessage.setCorrelationId(Long.MAX_VALUE);
+        roundTrip(pingMessage);
+        roundTrip(new ShutdownKademliaMessage<>());
+
+        PongKademliaMessage<Integer, EmptyConnectionInfo> pongMessage = new PongKademliaMessage<>();
+        pongMessage.setFromFindHandler(true);
+        pongMessage.setAlive(false);
+        Assertions.assertTrue(((PongKademliaMessage<Integer, EmptyConnectionInfo>) (KademliaMessage<?, ?, ?>) roundTrip(pongMessage)).isFromFindHandler());
+
+        FindNodeRequestMessage<Integer, EmptyConnectionInfo> findNodeRequestMessage = new FindNodeRequestMessage<>();
+        findNodeRequestMessage.setData(7);
+        roundTrip(findNodeRequestMessage);
+
+        FindNodeAnswer<Integer, EmptyConnectionInfo> findNodeAnswer = new FindNodeAnswer<>(7);
+        for (int id : new int[]{6, 5, 15}) {
+            findNodeAnswer.add(new IntegerExternalNode<>(new DecodedNode<>(id, CONNECTION_INFO), id ^ 7));
+        }
+        FindNodeResponseMessage<Integer, EmptyConnectionInfo> findNodeResponseMessage = new FindNodeResponseMessage<>();
+        findNodeResponseMessage.setData(findNodeAnswer);
+        FindNodeAnswer<?, ?> decodedAnswer = (FindNodeAnswer<?, ?>) roundTrip(findNodeResponseMessage).getData();
+        Assertions.assertEquals(findNodeAnswer.getDestinationId(), decodedAnswer.getDestinationId());
+        Assertions.assertEquals(findNodeAnswer.getNodes(), decodedAnswer.getNodes());
+    }
+
+    @Test
+    void testDHTMessages() {
+        roundTrip(new DHTStoreKademliaMessage<>(new DHTStoreKademliaMessage.DHTData<>(requester, 10, "ten", 0)));
+        roundTrip(new DHTStoreReplicaKademliaMessage<>(new DHTStoreKademliaMessage.DHTData<>(requester, 10, null, 0)));
+        roundTrip(new DHTStorePullKademliaMessage<>(new DHTStorePullKademliaMessage.DHTStorePullData<>(10)));
+        roundTrip(new DHTStoreResultKademliaMessage<>(new DHTStoreResultKademliaMessage.DHTStoreResult<>(10, StoreAnswer.Result.PASSED)));
+        roundTrip(new DHTLookupKademliaMessage<>(new DHTLookupKademliaMessage.DHTLookup<>(requester, 10, 300, 0)));
+        roundTrip(new DHTLookupResultKademliaMessage<>(new DHTLookupResultKademliaMessage.DHTLookupResult<>(LookupAnswer.Result.FOUND, 10, "ten")));
+        roundTrip(new DHTFindValueKademliaMessage<>(10));
+
+        Map<Integer, String> entries = new LinkedHashMap<>();
+        Map<Integer, StoreAnswer.Result> results = new LinkedHashMap<>();
+        List<Integer> keys = new ArrayList<>();
+        ArrayList<DHTLookupResultKademliaMessage.DHTLookupResult<Integer, String>> lookupResults = new ArrayList<>();
+        for (int key = 0; key < 200; key++) {
+            entries.put(key, "value-" + key);
+            results.put(key, StoreAnswer.Result.values()[key % StoreAnswer.Result.values().length]);
+            keys.add(key);
+            lookupResults.add(new DHTLookupResultKademliaMessage.DHTLookupResult<>(LookupAnswer.Result.FAILED, key, null));
+        }
+        roundTrip(new DHTStoreBatchKademliaMessage<>(new DHTStoreBatchKademliaMessage.DHTStoreBatch<>(requester, entries, 0)));
+        roundTrip(new DHTStoreBatchResultKademliaMessage<>(new DHTStoreBatchResultKademliaMessage.DHTStoreBatchResult<>(results)));
+        roundTrip(new DHTLookupBatchKademliaMessage<>(new DHTLookupBatchKademliaMessage.DHTLookupBatch<>(requester, keys, 1, 0)));
+        roundTrip(new DHTLookupBatchResultKademliaMessage<>(lookupResults));
+    }
+
+    @Test
+    void testDeadlines() throws IOException, ClassNotFoundException {
+        long deadline = System.currentTimeMillis() + 60000;
+        DHTLookupKademliaMessage<Integer, EmptyConnectionInfo, Integer> lookupMessage = new DHTLookupKademliaMessage<>(new DHTLookupKademliaMessage.DHTLookup<>(requester, 10, 1, deadline));
+        lookupMessage.setNode(sender);
+        long decodedDeadline = ((DHTLookupKademliaMessage.DHTLookup<?, ?, ?>) codec.decode(codec.encode(lookupMessage)).getData()).getDeadline();
+        Assertions.assertTrue(decodedDeadline > 0 && decodedDeadline <= System.currentTimeMillis() + 60000, "Deadline should be sent as the time that is left");
+
+        // Deadlines that have passed stay passed, instead of turning into no deadline
+        DHTStoreKademliaMessage.DHTData<Integer, EmptyConnectionInfo, Integer, String> expiredData = new DHTStoreKademliaMessage.DHTData<>(requester, 10, "ten", 1234L);
+        DHTStoreKademliaMessage<Integer, EmptyConnectionInfo, Integer, String> storeMessage = new DHTStoreKademliaMessage<>(expiredData);
+        storeMessage.setNode(sender);
+        Assertions.assertTrue(DateUtil.isExpired(((DHTStoreKademliaMessage.DHTData<?, ?, ?, ?>) codec.decode(codec.encode(storeMessage)).getData()).getDeadline()));
+
+        // Java serialization sends the time that is left too
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+            objectOutputStream.writeObject(new DHTStoreKademliaMessage.DHTData<>(null, 10, "ten", deadline));
+            objectOutputStream.writeObject(new DHTStoreKademliaMessage.DHTData<>(null, 10, "ten", 0));
+        }
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))) {
+            decodedDeadline = ((DHTStoreKademliaMessage.DHTData<?, ?, ?, ?>) objectInputStream.readObject()).getDeadline();
+            Assertions.assertTrue(decodedDeadline > 0 && decodedDeadline <= System.currentTimeMillis() + 60000);
+            Assertions.assertEquals(0, ((DHTStoreKademliaMessage.DHTData<?, ?, ?, ?>) objectInputStream.readObject()).getDeadline());
+        }
+    }
+
+    @Test
+    void testBatchMessage() {
+        ArrayList<KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable>> messages = new ArrayList<>();
+        messages.add(new ShutdownKademliaMessage<>());
+        messages.add(new DHTStoreResultKademliaMessage<>(new DHTStoreResultKademliaMessage.DHTStoreResult<>(10, StoreAnswer.Result.STORED)));
+        messages.add(new DHTLookupResultKademliaMessage<>(new DHTLookupResultKademliaMessage.DHTLookupResult<>(LookupAnswer.Result.FOUND, 10, "ten")));
+        for (KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable> message : messages) {
+            message.setNode(sender);
+        }
+        BatchKademliaMessage<Integer, EmptyConnectionInfo> batchMessage = new BatchKademliaMessage<>(messages);
+        batchMessage.setCorrelationId(42);
+
+        @SuppressWarnings("unchecked")
+        List<KademliaMessage<Integer, EmptyConnectionInfo, Serializable>> decodedMessages = (List<KademliaMessage<Integer, EmptyConnectionInfo, Serializable>>) roundTrip(batchMessage).getData();
+        Assertions.assertEquals(messages.size(), decodedMessages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            Assertions.assertEquals(messages.get(i).getType(), decodedMessages.get(i).getType());
+            Assertions.assertEquals(messages.get(i).getData(), decodedMessages.get(i).getData());
+            Assertions.assertEquals(sender, decodedMessages.get(i).getNode());
+        }
+    }
+
+    @Test
+    void testFixedWidthIds() throws IOException {
+        IdCodec.BigIntegerIdCodec bigIntegerIdCodec = new IdCodec.BigIntegerIdCodec(160);
+        LongArrayId longArrayId = LongArrayId.valueOf(BigInteger.TWO.pow(159).add(BigInteger.TEN), 160);
+        IdCodec.LongArrayIdCodec longArrayIdCodec = new IdCodec.LongArrayIdCodec(160);
+        for (BigInteger id : new BigInteger[]{BigInteger.ZERO, BigInteger.TEN, BigInteger.TWO.pow(160).subtract(BigInteger.ONE)}) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            bigIntegerIdCodec.write(new DataOutputStream(byteArrayOutputStream), id);
+            Assertions.assertEquals(20, byteArrayOutputStream.size());
+            Assertions.assertEquals(id, bigIntegerIdCodec.read(new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))));
+        }
+        DataOutputStream discarded = new DataOutputStream(new ByteArrayOutputStream());
+        Assertions.assertThrows(MessageCodecException.class, () -> bigIntegerIdCodec.write(discarded, BigInteger.ONE.negate()));
+        Assertions.assertThrows(MessageCodecException.class, () -> bigIntegerIdCodec.write(discarded, BigInteger.TWO.pow(160)));
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        longArrayIdCodec.write(new DataOutputStream(byteArrayOutputStream), longArrayId);
+        Assertions.assertEquals(longArrayIdCodec.size(), byteArrayOutputStream.size());
+        Assertions.assertEquals(longArrayId, longArrayIdCodec.read(new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))));
+    }
+
+    @Test
+    void testInvalidBytes() {
+        Assertions.assertThrows(MessageCodecException.class, () -> codec.decode(new byte[]{(byte) 200, 0}));
+        Assertions.assertThrows(MessageCodecException.class, () -> codec.decode(new byte[]{1}));
+        byte[] ping = codec.encode(new PingKademliaMessage<>());
+        Assertions.assertThrows(MessageCodecException.class, () -> codec.decode(Arrays.copyOf(ping, ping.length + 1)));
+    }
+}
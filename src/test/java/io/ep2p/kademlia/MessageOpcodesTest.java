@@ -0,0 +1,93 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.exception.HandlerNotFoundException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.node.KademliaNode;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.protocol.MessageOpcodes;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.OpcodeTable;
+import io.ep2p.kademlia.protocol.handler.MessageHandler;
+import io.ep2p.kademlia.protocol.message.EmptyKademliaMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.protocol.message.PingKademliaMessage;
+import io.ep2p.kademlia.table.IntegerRoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+
+class MessageOpcodesTest {
+
+    private static class CustomMessage extends KademliaMessage<Integer, EmptyConnectionInfo, String> {
+        CustomMessage(String type) {
+            super(type);
+        }
+    }
+
+    @Test
+    void testBuiltInOpcodes() {
+        Assertions.assertEquals(MessageOpcodes.PING, new PingKademliaMessage<>().getOpcode());
+        Assertions.assertEquals(MessageOpcodes.DHT_LOOKUP_BATCH_RESULT, MessageOpcodes.opcodeOf(MessageType.DHT_LOOKUP_BATCH_RESULT));
+        Assertions.assertEquals(MessageType.DHT_STORE_REPLICA, MessageOpcodes.typeOf(MessageOpcodes.DHT_STORE_REPLICA));
+        Assertions.assertEquals(MessageOpcodes.UNKNOWN, MessageOpcodes.find("NOT_SEEN_BEFORE"));
+
+        // Opcode follows the type
+        EmptyKademliaMessage<Integer, EmptyConnectionInfo> message = new EmptyKademliaMessage<>();
+        message.setType(MessageType.SHUTDOWN);
+        Assertions.assertEquals(MessageOpcodes.SHUTDOWN, message.getOpcode());
+    }
+
+    @Test
+    void testCustomTypes() {
+        int opcode = MessageOpcodes.opcodeOf("CUSTOM_TYPE");
+        Assertions.assertFalse(MessageOpcodes.isBuiltIn(opcode));
+        Assertions.assertEquals(opcode, MessageOpcodes.opcodeOf("CUSTOM_TYPE"));
+        Assertions.assertEquals("CUSTOM_TYPE", MessageOpcodes.typeOf(opcode));
+
+        OpcodeTable<String> opcodeTable = new OpcodeTable<>();
+        opcodeTable.put(MessageType.PING, "ping");
+        opcodeTable.put("ANOTHER_CUSTOM_TYPE", "custom");
+        Assertions.assertEquals("ping", opcodeTable.get(MessageOpcodes.PING));
+        Assertions.assertEquals("custom", opcodeTable.get("ANOTHER_CUSTOM_TYPE"));
+        Assertions.assertNull(opcodeTable.get(MessageOpcodes.PONG));
+        Assertions.assertNull(opcodeTable.get(MessageOpcodes.UNKNOWN));
+        Assertions.assertNull(opcodeTable.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testCustomTypeDispatch() throws HandlerNotFoundException {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        KademliaNode<Integer, EmptyConnectionInfo> node = new KademliaNode<>(0, new EmptyConnectionInfo(), new IntegerRoutingTable<>(0, nodeSettings), new TestMessageSenderAPI<>(), nodeSettings);
+
+        MessageHandler<Integer, EmptyConnectionInfo> handler = new MessageHandler<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <U extends KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable>, O extends KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable>> O handle(KademliaNodeAPI<Integer, EmptyConnectionInfo> kademliaNode, U message) {
+                return (O) new CustomMessage("CUSTOM_ANSWER");
+            }
+        };
+        node.registerMessageHandler("CUSTOM_REQUEST", handler);
+
+        Assertions.assertSame(handler, node.getHandler("CUSTOM_REQUEST"));
+        Assertions.assertEquals("CUSTOM_ANSWER", node.onMessage(new CustomMessage("CUSTOM_REQUEST")).getType());
+        Assertions.assertThrows(HandlerNotFoundException.class, () -> node.onMessage(new CustomMessage("CUSTOM_WITHOUT_HANDLER")));
+        Assertions.assertThrows(HandlerNotFoundException.class, () -> node.getHandler("CUSTOM_WITHOUT_HANDLER"));
+        node.stopNow();
+    }
+
+    @Test
+    void testMessagesDoNotRegisterTypes() {
+        // Types of received messages must not grow the registry
+        CustomMessage message = new CustomMessage("RECEIVED_TYPE");
+        Assertions.assertEquals(MessageOpcodes.UNKNOWN, message.getOpcode());
+        Assertions.assertEquals(MessageOpcodes.UNKNOWN, MessageOpcodes.find("RECEIVED_TYPE"));
+
+        // Message created before registration resolves once a handler gets its type
+        new OpcodeTable<String>().put("RECEIVED_TYPE", "handler");
+        Assertions.assertEquals(MessageOpcodes.find("RECEIVED_TYPE"), message.getOpcode());
+        Assertions.assertNotEquals(MessageOpcodes.UNKNOWN, message.getOpcode());
+    }
+}
@@ -0,0 +1,149 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.node.id.LongArrayId;
+import io.ep2p.kademlia.table.BigIntegerRoutingTable;
+import io.ep2p.kademlia.table.IntegerRoutingTable;
+import io.ep2p.kademlia.table.LongArrayIdRoutingTable;
+import io.ep2p.kademlia.table.LongRoutingTable;
+import io.ep2p.kademlia.table.PrimitiveLongRoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that constant time prefix calculation picks the same bucket as the bit by bit loops it replaced.
+ * Every identifier size up to the width of the id type is tested against random ids of random bit lengths, plus edge values.
+ */
+class NodePrefixTest {
+    private static final int SAMPLES = 2000;
+
+    @Test
+    void testIntegerPrefix() {
+        Random random = new Random(32);
+        for (int identifierSize = 0; identifierSize <= Integer.SIZE; identifierSize++) {
+            IntegerRoutingTable<EmptyConnectionInfo> routingTable = new IntegerRoutingTable<>(0, settings(identifierSize));
+            for (int id : integerSamples(random)) {
+                Assertions.assertEquals(legacyPrefix(id, identifierSize), routingTable.getNodePrefix(id), "id " + id + ", identifier size " + identifierSize);
+                Assertions.assertEquals(legacyPrefix(id, identifierSize), routingTable.findBucket(id).getId());
+            }
+        }
+    }
+
+    @Test
+    void testLongPrefix() {
+        Random random = new Random(64);
+        for (int identifierSize = 0; identifierSize <= Long.SIZE; identifierSize++) {
+            LongRoutingTable<EmptyConnectionInfo> routingTable = new LongRoutingTable<>(0L, settings(identifierSize));
+            PrimitiveLongRoutingTable<EmptyConnectionInfo> primitiveRoutingTable = new PrimitiveLongRoutingTable<>(0L, settings(identifierSize));
+            for (long id : longSamples(random)) {
+                int expected = legacyPrefix(id, identifierSize);
+                Assertions.assertEquals(expected, routingTable.getNodePrefix(id), "id " + id + ", identifier size " + identifierSize);
+                Assertions.assertEquals(expected, routingTable.findBucket(id).getId());
+                Assertions.assertEquals(expected, primitiveRoutingTable.getNodePrefix(id));
+                Assertions.assertEquals(expected, primitiveRoutingTable.findBucket(id).getId());
+            }
+        }
+    }
+
+    /*
+     * The replaced BigInteger loop xor-ed the id with the loop counter before testing each bit, so it misplaced small
+     * distances (distance 0 landed in bucket 5 with 32 bit identifiers). BigInteger and LongArrayId tables are
+     * checked against the bit by bit loop of the Long table instead, which is what that loop was meant to do.
+     */
+    @Test
+    void testBigIntegerPrefix() {
+        Random random = new Random(128);
+        for (int identifierSize = 0; identifierSize <= 256; identifierSize++) {
+            BigIntegerRoutingTable<EmptyConnectionInfo> routingTable = new BigIntegerRoutingTable<>(BigInteger.ZERO, settings(identifierSize));
+            LongArrayIdRoutingTable<EmptyConnectionInfo> longArrayIdRoutingTable = new LongArrayIdRoutingTable<>(LongArrayId.zero(256), settings(identifierSize));
+            LongRoutingTable<EmptyConnectionInfo> longRoutingTable = new LongRoutingTable<>(0L, settings(Math.min(identifierSize, Long.SIZE - 1)));
+            for (BigInteger id : bigIntegerSamples(random)) {
+                int expected = legacyPrefix(id, identifierSize);
+                Assertions.assertEquals(expected, routingTable.getNodePrefix(id), "id " + id + ", identifier size " + identifierSize);
+                Assertions.assertEquals(expected, routingTable.findBucket(id).getId());
+                Assertions.assertEquals(expected, longArrayIdRoutingTable.getNodePrefix(LongArrayId.valueOf(id, 256)));
+                Assertions.assertEquals(expected, longArrayIdRoutingTable.findBucket(LongArrayId.valueOf(id, 256)).getId());
+                if (identifierSize < Long.SIZE && id.bitLength() < Long.SIZE) {
+                    Assertions.assertEquals(longRoutingTable.getNodePrefix(id.longValue()), routingTable.getNodePrefix(id));
+                }
+            }
+        }
+    }
+
+    /* Loop previously used by Integer routing table */
+    private static int legacyPrefix(int id, int identifierSize) {
+        for (int j = 0; j < identifierSize; j++) {
+            if ((id >> (identifierSize - 1 - j) & 0x1) != 0) {
+                return identifierSize - j;
+            }
+        }
+        return 0;
+    }
+
+    /* Loop previously used by Long and PrimitiveLong routing tables */
+    private static int legacyPrefix(long id, int identifierSize) {
+        for (int j = 0; j < identifierSize; j++) {
+            if ((id >> (identifierSize - 1 - j) & 0x1) != 0) {
+                return identifierSize - j;
+            }
+        }
+        return 0;
+    }
+
+    /* Same loop as above on BigInteger bits */
+    private static int legacyPrefix(BigInteger id, int identifierSize) {
+        for (int j = 0; j < identifierSize; j++) {
+            if (id.testBit(identifierSize - 1 - j)) {
+                return identifierSize - j;
+            }
+        }
+        return 0;
+    }
+
+    private static NodeSettings settings(int identifierSize) {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(identifierSize);
+        return nodeSettings;
+    }
+
+    private static List<Integer> integerSamples(Random random) {
+        List<Integer> samples = new ArrayList<>(List.of(0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int i = 0; i < Integer.SIZE; i++) {
+            samples.add(1 << i);
+            samples.add((1 << i) - 1);
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            samples.add(random.nextInt() >>> random.nextInt(Integer.SIZE));
+        }
+        return samples;
+    }
+
+    private static List<Long> longSamples(Random random) {
+        List<Long> samples = new ArrayList<>(List.of(0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE));
+        for (int i = 0; i < Long.SIZE; i++) {
+            samples.add(1L << i);
+            samples.add((1L << i) - 1);
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            samples.add(random.nextLong() >>> random.nextInt(Long.SIZE));
+        }
+        return samples;
+    }
+
+    private static List<BigInteger> bigIntegerSamples(Random random) {
+        List<BigInteger> samples = new ArrayList<>(List.of(BigInteger.ZERO, BigInteger.ONE));
+        for (int i = 0; i < 256; i += 7) {
+            samples.add(BigInteger.ONE.shiftLeft(i));
+            samples.add(BigInteger.ONE.shiftLeft(i).subtract(BigInteger.ONE));
+        }
+        for (int i = 0; i < SAMPLES / 10; i++) {
+            samples.add(new BigInteger(random.nextInt(256) + 1, random));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,157 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.connection.PendingRequests;
+import io.ep2p.kademlia.connection.PipeliningMessageSender;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.KademliaNode;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.codec.BinaryMessageCodec;
+import io.ep2p.kademlia.protocol.codec.DecodedNode;
+import io.ep2p.kademlia.protocol.codec.IdCodec;
+import io.ep2p.kademlia.protocol.codec.ObjectCodec;
+import io.ep2p.kademlia.protocol.message.FindNodeRequestMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.protocol.message.PingKademliaMessage;
+import io.ep2p.kademlia.table.IntegerRoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+class PendingRequestsTest {
+    private static final EmptyConnectionInfo CONNECTION_INFO = new EmptyConnectionInfo();
+    private final BinaryMessageCodec<Integer, EmptyConnectionInfo, Integer, String> codec = new BinaryMessageCodec<>(new IdCodec.IntegerIdCodec(), new ObjectCodec<>() {
+        @Override
+        public void write(DataOutput out, EmptyConnectionInfo value) {
+        }
+
+        @Override
+        public EmptyConnectionInfo read(DataInput in) {
+            return CONNECTION_INFO;
+        }
+    }, new ObjectCodec.IntegerCodec(), new ObjectCodec.StringCodec());
+
+    @Test
+    void testOutOfOrderResponsesOverOneConnection() throws InterruptedException, ExecutionException, TimeoutException {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setFindNodeSize(1);
+        KademliaNode<Integer, EmptyConnectionInfo> peer = new KademliaNode<>(0, CONNECTION_INFO, new IntegerRoutingTable<>(0, nodeSettings), new TestMessageSenderAPI<>(), nodeSettings);
+        for (int i = 1; i < 16; i++) {
+            peer.getRoutingTable().updateOrCache(new SampleNode<>(i));
+        }
+
+        // Other side of the connection answers requests in parallel, each after a random delay
+        PendingRequests<Integer, EmptyConnectionInfo> pendingRequests = new PendingRequests<>();
+        ExecutorService connection = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<KademliaMessage<Integer, EmptyConnectionInfo, FindNodeAnswer<Integer, EmptyConnectionInfo>>>> futures = new ArrayList<>();
+        for (int destination = 1; destination < 16; destination++) {
+            FindNodeRequestMessage<Integer, EmptyConnectionInfo> request = new FindNodeRequestMessage<>();
+            request.setData(destination);
+            request.setNode(new DecodedNode<>(15, CONNECTION_INFO));
+            futures.add(pendingRequests.register(request, 5, TimeUnit.SECONDS));
+            byte[] requestBytes = codec.encode(request);
+            connection.submit(() -> {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(50));
+                KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable> response = peer.onMessage(codec.decode(requestBytes));
+                response.setNode(peer);
+                Assertions.assertTrue(pendingRequests.complete(codec.decode(codec.encode(response))));
+                return null;
+            });
+        }
+
+        Set<Long> correlationIds = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < futures.size(); i++) {
+            KademliaMessage<Integer, EmptyConnectionInfo, FindNodeAnswer<Integer, EmptyConnectionInfo>> response = futures.get(i).get(5, TimeUnit.SECONDS);
+            // Closest node to each destination is the destination itself
+            Assertions.assertEquals(i + 1, response.getData().getDestinationId());
+            Assertions.assertEquals(i + 1, response.getData().getNodes().get(0).getId());
+            correlationIds.add(response.getCorrelationId());
+        }
+        Assertions.assertEquals(futures.size(), correlationIds.size());
+        Assertions.assertEquals(0, pendingRequests.size());
+        connection.shutdown();
+    }
+
+    @Test
+    void testPipeliningMessageSender() throws InterruptedException, ExecutionException, TimeoutException {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setFindNodeSize(1);
+        KademliaNode<Integer, EmptyConnectionInfo> peer = new KademliaNode<>(0, CONNECTION_INFO, new IntegerRoutingTable<>(0, nodeSettings), new TestMessageSenderAPI<>(), nodeSettings);
+        for (int i = 1; i < 16; i++) {
+            peer.getRoutingTable().updateOrCache(new SampleNode<>(i));
+        }
+        KademliaNode<Integer, EmptyConnectionInfo> caller = new KademliaNode<>(15, CONNECTION_INFO, new IntegerRoutingTable<>(15, nodeSettings), new TestMessageSenderAPI<>(), nodeSettings);
+
+        // Connection to the peer answers requests in parallel, each after a random delay, and drops the ones sent to other nodes
+        ExecutorService connection = Executors.newFixedThreadPool(8);
+        PipeliningMessageSender<Integer, EmptyConnectionInfo> messageSender = new PipeliningMessageSender<>(500, TimeUnit.MILLISECONDS) {
+            @Override
+            protected void write(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable> message) {
+                if (!receiver.getId().equals(peer.getId()))
+                    return;
+                message.setNode(new DecodedNode<>(caller.getId(), CONNECTION_INFO));
+                byte[] requestBytes = codec.encode(message);
+                connection.submit(() -> {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(50));
+                    KademliaMessage<Integer, EmptyConnectionInfo, ? extends Serializable> response = peer.onMessage(codec.decode(requestBytes));
+                    response.setNode(peer);
+                    Assertions.assertTrue(onResponse(codec.decode(codec.encode(response))));
+                    return null;
+                });
+            }
+        };
+
+        List<CompletableFuture<KademliaMessage<Integer, EmptyConnectionInfo, FindNodeAnswer<Integer, EmptyConnectionInfo>>>> futures = new ArrayList<>();
+        for (int destination = 1; destination < 16; destination++) {
+            FindNodeRequestMessage<Integer, EmptyConnectionInfo> request = new FindNodeRequestMessage<>();
+            request.setData(destination);
+            futures.add(messageSender.sendMessageAsync(caller, peer, request));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            KademliaMessage<Integer, EmptyConnectionInfo, FindNodeAnswer<Integer, EmptyConnectionInfo>> response = futures.get(i).get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(response.isAlive());
+            Assertions.assertEquals(i + 1, response.getData().getDestinationId());
+        }
+
+        // Requests that are not answered in time look like the receiver is gone
+        KademliaMessage<Integer, EmptyConnectionInfo, Serializable> unanswered = messageSender.sendMessage(caller, new SampleNode<>(7), new PingKademliaMessage<>());
+        Assertions.assertFalse(unanswered.isAlive());
+        Assertions.assertEquals(7, unanswered.getNode().getId());
+        Assertions.assertEquals(0, messageSender.pendingRequests());
+        connection.shutdown();
+    }
+
+    @Test
+    void testUnansweredRequests() {
+        PendingRequests<Integer, EmptyConnectionInfo> pendingRequests = new PendingRequests<>();
+        CompletableFuture<KademliaMessage<Integer, EmptyConnectionInfo, String>> timedOut = pendingRequests.register(new PingKademliaMessage<>(), 100, TimeUnit.MILLISECONDS);
+        ExecutionException executionException = Assertions.assertThrows(ExecutionException.class, timedOut::get);
+        Assertions.assertTrue(executionException.getCause() instanceof TimeoutException);
+
+        PingKademliaMessage<Integer, EmptyConnectionInfo> request = new PingKademliaMessage<>();
+        CompletableFuture<KademliaMessage<Integer, EmptyConnectionInfo, String>> closed = pendingRequests.register(request, 5, TimeUnit.SECONDS);
+        Assertions.assertNotEquals(0, request.getCorrelationId());
+        Assertions.assertEquals(1, pendingRequests.size());
+
+        // Messages that are not responses of pending requests are left to the caller
+        Assertions.assertFalse(pendingRequests.complete(new PingKademliaMessage<>()));
+        pendingRequests.failAll(new CancellationException("Connection closed"));
+        Assertions.assertTrue(closed.isCompletedExceptionally());
+        Assertions.assertEquals(0, pendingRequests.size());
+    }
+}
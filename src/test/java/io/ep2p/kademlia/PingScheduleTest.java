@@ -0,0 +1,114 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.node.strategies.ReferencedNodesStrategy;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PingScheduleTest {
+    private final KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+    private final List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+    private final Set<Integer> pingedNodes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlightPings = new AtomicInteger();
+    private final AtomicInteger maximumInFlightPings = new AtomicInteger();
+    private final TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+        @SneakyThrows
+        @Override
+        public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+            if (!message.getType().equals(MessageType.PING) || caller.getId() != 0)
+                return super.sendMessage(caller, receiver, message);
+            pingedNodes.add(receiver.getId());
+            maximumInFlightPings.accumulateAndGet(inFlightPings.incrementAndGet(), Math::max);
+            try {
+                // Slow transport, a round of sequential pings would take longer than the period
+                Thread.sleep(150);
+                return super.sendMessage(caller, receiver, message);
+            } finally {
+                inFlightPings.decrementAndGet();
+            }
+        }
+    };
+
+    private DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> setUpNodes(int maximumInFlightPings) {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setPingScheduleTimeValue(200);
+        nodeSettings.setPingScheduleTimeUnit(TimeUnit.MILLISECONDS);
+        nodeSettings.setMaximumInFlightPings(maximumInFlightPings);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        for (int i = 0; i < 8; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            nodes.add(node);
+        }
+
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> pinger = nodes.get(0);
+        pinger.setReferencedNodesStrategy(ReferencedNodesStrategy.Strategies.ALL_ALIVE.getReferencedNodesStrategy());
+        for (int i = 1; i < 8; i++) {
+            pinger.getRoutingTable().updateOrCache(nodes.get(i));
+        }
+        return pinger;
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testPingsAreSentConcurrently() throws InterruptedException {
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> pinger = setUpNodes(3);
+        pinger.start();
+
+        // Nodes are seen when they are added, so they are pinged from the second round on
+        long deadline = System.currentTimeMillis() + 900;
+        while (pingedNodes.size() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(7, pingedNodes.size(), "Pings were not sent concurrently");
+        Assertions.assertTrue(maximumInFlightPings.get() > 1);
+        Assertions.assertTrue(maximumInFlightPings.get() <= 3, "In flight pings exceeded the limit: " + maximumInFlightPings.get());
+    }
+
+    @Test
+    void testRecentlySeenNodesAreNotPinged() throws InterruptedException {
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> pinger = setUpNodes(8);
+        pinger.start();
+
+        // Node 1 keeps talking to the pinger, others are silent
+        long end = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < end) {
+            pinger.getRoutingTable().updateOrCache(nodes.get(1));
+            Thread.sleep(20);
+        }
+        Assertions.assertFalse(pingedNodes.contains(1));
+        Assertions.assertEquals(6, pingedNodes.size());
+    }
+}
@@ -0,0 +1,72 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.exception.FullBucketException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.external.ExternalNode;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.LongRoutingTable;
+import io.ep2p.kademlia.table.PrimitiveLongRoutingTable;
+import io.ep2p.kademlia.table.PrimitiveRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ *  PrimitiveLongRoutingTable should behave exactly like LongRoutingTable
+ */
+class PrimitiveLongRoutingTableTest {
+
+    @Test
+    void testSameAsLongRoutingTable() throws FullBucketException {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(16);
+        nodeSettings.setBucketSize(5);
+        nodeSettings.setFindNodeSize(5);
+        Random random = new Random(16);
+
+        for (int round = 0; round < 20; round++) {
+            long ownerId = random.nextInt(1 << 16);
+            RoutingTable<Long, EmptyConnectionInfo, Bucket<Long, EmptyConnectionInfo>> primitiveTable = new PrimitiveRoutingTableFactory<Long, EmptyConnectionInfo, Bucket<Long, EmptyConnectionInfo>>(nodeSettings).getRoutingTable(ownerId);
+            LongRoutingTable<EmptyConnectionInfo> longTable = new LongRoutingTable<>(ownerId, nodeSettings);
+            Assertions.assertTrue(primitiveTable instanceof PrimitiveLongRoutingTable);
+
+            for (int i = 0; i < 300; i++) {
+                SampleNode<Long> node = new SampleNode<>((long) random.nextInt(1 << 16));
+                boolean full = false;
+                try {
+                    longTable.update(node);
+                } catch (FullBucketException e) {
+                    full = true;
+                }
+                if (full)
+                    Assertions.assertThrows(FullBucketException.class, () -> primitiveTable.update(node));
+                else
+                    primitiveTable.update(node);
+                if (random.nextInt(10) == 0) {
+                    primitiveTable.delete(node);
+                    longTable.delete(node);
+                }
+            }
+
+            for (int i = 0; i <= nodeSettings.getIdentifierSize(); i++) {
+                Assertions.assertEquals(longTable.getBuckets().get(i).getNodeIds(), primitiveTable.getBuckets().get(i).getNodeIds());
+            }
+
+            for (int i = 0; i < 100; i++) {
+                long destination = random.nextInt(1 << 16);
+                Assertions.assertEquals(ids(longTable.findClosest(destination)), ids(primitiveTable.findClosest(destination)));
+                Assertions.assertEquals(longTable.contains(destination), primitiveTable.contains(destination));
+            }
+        }
+    }
+
+    private List<Long> ids(FindNodeAnswer<Long, EmptyConnectionInfo> findNodeAnswer) {
+        return findNodeAnswer.getNodes().stream().map(ExternalNode::getId).collect(Collectors.toList());
+    }
+}
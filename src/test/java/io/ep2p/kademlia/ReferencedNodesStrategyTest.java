@@ -0,0 +1,90 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.FindNodeAnswer;
+import io.ep2p.kademlia.node.KademliaNode;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.strategies.ClosestPerBucketReferencedNodeStrategy;
+import io.ep2p.kademlia.table.IntegerRoutingTable;
+import io.ep2p.kademlia.table.LongRoutingTable;
+import io.ep2p.kademlia.table.PrimitiveLongRoutingTable;
+import io.ep2p.kademlia.table.RoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that scanning the buckets picks the same nodes as looking up the closest node to each `id ^ 2^i`, which the strategy did before.
+ */
+class ReferencedNodesStrategyTest {
+    private static final int IDENTIFIER_SIZE = 12;
+
+    @Test
+    void testIntegerTable() {
+        Random random = new Random(12);
+        for (int round = 0; round < 20; round++) {
+            int owner = random.nextInt(1 << IDENTIFIER_SIZE);
+            IntegerRoutingTable<EmptyConnectionInfo> routingTable = new IntegerRoutingTable<>(owner, settings());
+            int nodeCount = random.nextInt(300);
+            for (int i = 0; i < nodeCount; i++) {
+                routingTable.updateOrCache(new SampleNode<>(random.nextInt(1 << IDENTIFIER_SIZE)));
+            }
+            assertSameReferencedNodes(owner, routingTable);
+        }
+    }
+
+    @Test
+    void testLongTables() {
+        Random random = new Random(64);
+        for (int round = 0; round < 20; round++) {
+            long owner = random.nextInt(1 << IDENTIFIER_SIZE);
+            LongRoutingTable<EmptyConnectionInfo> routingTable = new LongRoutingTable<>(owner, settings());
+            PrimitiveLongRoutingTable<EmptyConnectionInfo> primitiveRoutingTable = new PrimitiveLongRoutingTable<>(owner, settings());
+            int nodeCount = random.nextInt(300);
+            for (int i = 0; i < nodeCount; i++) {
+                SampleNode<Long> node = new SampleNode<>((long) random.nextInt(1 << IDENTIFIER_SIZE));
+                routingTable.updateOrCache(node);
+                primitiveRoutingTable.updateOrCache(node);
+            }
+            assertSameReferencedNodes(owner, routingTable);
+            assertSameReferencedNodes(owner, primitiveRoutingTable);
+        }
+    }
+
+    private <I extends Number> void assertSameReferencedNodes(I owner, RoutingTable<I, EmptyConnectionInfo, ?> routingTable) {
+        @SuppressWarnings("unchecked")
+        KademliaNodeAPI<I, EmptyConnectionInfo> kademliaNode = new KademliaNode<>(owner, new EmptyConnectionInfo(), (RoutingTable) routingTable, new TestMessageSenderAPI<>(), settings());
+        // Nodes add themselves to their routing table when they start
+        routingTable.forceUpdate(kademliaNode);
+        try {
+            List<I> expected = new ArrayList<>();
+            for (I distance : routingTable.getReferenceTargets().asList()) {
+                FindNodeAnswer<I, EmptyConnectionInfo> findNodeAnswer = routingTable.findClosest(distance);
+                I closest = findNodeAnswer.getNodes().get(0).getId();
+                if (!closest.equals(owner) && !expected.contains(closest))
+                    expected.add(closest);
+            }
+
+            List<I> actual = new ArrayList<>();
+            for (Node<I, EmptyConnectionInfo> node : new ClosestPerBucketReferencedNodeStrategy().getReferencedNodes(kademliaNode)) {
+                actual.add(node.getId());
+            }
+            Assertions.assertEquals(expected, actual, "Owner " + owner);
+        } finally {
+            kademliaNode.stopNow();
+        }
+    }
+
+    private static NodeSettings settings() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(IDENTIFIER_SIZE);
+        nodeSettings.setBucketSize(20);
+        return nodeSettings;
+    }
+}
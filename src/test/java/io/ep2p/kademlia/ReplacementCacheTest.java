@@ -0,0 +1,129 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.exception.FullBucketException;
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleNode;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.node.KademliaNode;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.strategies.ReferencedNodesStrategy;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.IntegerRoutingTable;
+import io.ep2p.kademlia.table.RoutingTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class ReplacementCacheTest {
+
+    @Test
+    void testCandidatesReplaceDeletedNodes() throws FullBucketException {
+        NodeSettings nodeSettings = settings();
+        IntegerRoutingTable<EmptyConnectionInfo> routingTable = new IntegerRoutingTable<>(0, nodeSettings);
+
+        // Bucket 3 holds ids 4 to 7
+        Assertions.assertTrue(routingTable.update(new SampleNode<>(4)));
+        Assertions.assertTrue(routingTable.updateOrCache(new SampleNode<>(5)));
+        Assertions.assertFalse(routingTable.updateOrCache(new SampleNode<>(6)));
+        Assertions.assertFalse(routingTable.updateOrCache(new SampleNode<>(7)));
+        Assertions.assertFalse(routingTable.updateOrCache(new SampleNode<>(6)));
+
+        Bucket<Integer, EmptyConnectionInfo> bucket = routingTable.findBucket(4);
+        Assertions.assertEquals(Arrays.asList(5, 4), bucket.getNodeIds());
+        Assertions.assertEquals(Arrays.asList(6, 7), bucket.getReplacementIds());
+
+        // Known nodes are pushed to front and never cached
+        Assertions.assertFalse(routingTable.updateOrCache(new SampleNode<>(4)));
+        Assertions.assertEquals(Arrays.asList(4, 5), bucket.getNodeIds());
+        Assertions.assertEquals(Arrays.asList(6, 7), bucket.getReplacementIds());
+
+        routingTable.delete(new SampleNode<>(5));
+        Assertions.assertEquals(Arrays.asList(6, 4), bucket.getNodeIds());
+        Assertions.assertEquals(Collections.singletonList(7), bucket.getReplacementIds());
+
+        // Deleting unknown nodes does not promote candidates
+        routingTable.delete(new SampleNode<>(5));
+        Assertions.assertEquals(Collections.singletonList(7), bucket.getReplacementIds());
+    }
+
+    @Test
+    void testStaleNodeIsReplacedInBackground() throws InterruptedException {
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+        NodeSettings nodeSettings = settings();
+        nodeSettings.setBucketSize(1);
+
+        KademliaNode<Integer, EmptyConnectionInfo> node = new KademliaNode<>(0, new EmptyConnectionInfo(), new IntegerRoutingTable<>(0, nodeSettings), messageSenderAPI, nodeSettings);
+        KademliaNode<Integer, EmptyConnectionInfo> aliveNode = new KademliaNode<>(3, new EmptyConnectionInfo(), new IntegerRoutingTable<>(3, nodeSettings), messageSenderAPI, nodeSettings);
+        messageSenderAPI.registerNode(node);
+        messageSenderAPI.registerNode(aliveNode);
+
+        // Node 2 is not reachable, node 3 waits for its place in bucket 2
+        // Table is filled before starting the node, so that its first ping can not remove node 2 before the assertions
+        RoutingTable<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTable = node.getRoutingTable();
+        routingTable.forceUpdate(new SampleNode<>(2));
+        Assertions.assertFalse(routingTable.updateOrCache(aliveNode));
+        Assertions.assertTrue(routingTable.contains(2));
+        Assertions.assertEquals(Collections.singletonList(3), routingTable.findBucket(3).getReplacementIds());
+
+        node.start();
+        aliveNode.start();
+
+        Thread.sleep(2500);
+
+        Assertions.assertFalse(routingTable.contains(2));
+        Assertions.assertTrue(routingTable.contains(3));
+        Assertions.assertTrue(routingTable.findBucket(3).getReplacementIds().isEmpty());
+
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testUnreachableStaleNodeIsReplaced() throws InterruptedException {
+        // Transport fails to reach node 2 instead of answering for it
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+            @Override
+            public <U extends Serializable, O extends Serializable> CompletableFuture<KademliaMessage<Integer, EmptyConnectionInfo, O>> sendMessageAsync(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+                if (receiver.getId() == 2)
+                    return CompletableFuture.failedFuture(new IOException("Connection refused"));
+                return super.sendMessageAsync(caller, receiver, message);
+            }
+        };
+        NodeSettings nodeSettings = settings();
+        nodeSettings.setBucketSize(1);
+
+        KademliaNode<Integer, EmptyConnectionInfo> node = new KademliaNode<>(0, new EmptyConnectionInfo(), new IntegerRoutingTable<>(0, nodeSettings), messageSenderAPI, nodeSettings);
+        messageSenderAPI.registerNode(node);
+        node.setReferencedNodesStrategy(ReferencedNodesStrategy.Strategies.EMPTY.getReferencedNodesStrategy());
+
+        RoutingTable<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTable = node.getRoutingTable();
+        routingTable.forceUpdate(new SampleNode<>(2));
+        Assertions.assertFalse(routingTable.updateOrCache(new SampleNode<>(3)));
+
+        node.start();
+        Thread.sleep(2500);
+
+        Assertions.assertFalse(routingTable.contains(2));
+        Assertions.assertTrue(routingTable.contains(3));
+
+        messageSenderAPI.stopAll();
+    }
+
+    private static NodeSettings settings() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(2);
+        nodeSettings.setReplacementCacheSize(2);
+        nodeSettings.setMaximumLastSeenAgeToConsiderAlive(0);
+        nodeSettings.setPingScheduleTimeValue(1);
+        nodeSettings.setPingScheduleTimeUnit(TimeUnit.SECONDS);
+        return nodeSettings;
+    }
+}
@@ -0,0 +1,119 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.services.DHTStoreServiceFactory;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+class ReplicatedStoreTest {
+    private TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI;
+    private KeyHashGenerator<Integer, Integer> keyHashGenerator;
+    private final List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        messageSenderAPI = new TestMessageSenderAPI<>();
+        keyHashGenerator = new SampleKeyHashGenerator(4);
+
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setReplicationFactor(3);
+        nodeSettings.setWriteQuorum(2);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setDhtStoreServiceFactory(new DHTStoreServiceFactory.ReplicatedDHTStoreServiceFactory<>())
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+
+        for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes) {
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> other : nodes) {
+                if (!other.getId().equals(node.getId()))
+                    node.getRoutingTable().updateOrCache(other);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+        nodes.clear();
+    }
+
+    @Test
+    void testStoreIsReplicatedToClosestNodes() throws ExecutionException, InterruptedException, TimeoutException {
+        int key = 10;
+        int hash = keyHashGenerator.generateHash(key);
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(hash ^ 8);
+
+        StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer = requester.store(key, "ten").get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult());
+        Assertions.assertTrue(storeAnswer.getReplicas().size() >= 2);
+
+        // Quorum only waits for two of them, the third one may still be on its way
+        Thread.sleep(500);
+        for (int id : new int[]{hash, hash ^ 1, hash ^ 2}) {
+            Assertions.assertEquals("ten", nodes.get(id).getKademliaRepository().get(key), "Node " + id + " has no replica");
+        }
+        Assertions.assertFalse(requester.getKademliaRepository().contains(key));
+    }
+
+    @Test
+    void testDeadReplicasAreReplaced() throws ExecutionException, InterruptedException, TimeoutException {
+        int key = 10;
+        int hash = keyHashGenerator.generateHash(key);
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(hash ^ 8);
+
+        // Two closest nodes go away without telling the others
+        for (int id : new int[]{hash, hash ^ 1}) {
+            messageSenderAPI.map.remove(id);
+            nodes.get(id).stopNow();
+        }
+
+        StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer = requester.store(key, "ten").get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult());
+        Set<Integer> replicas = storeAnswer.getReplicas().stream().map(Node::getId).collect(Collectors.toSet());
+        Assertions.assertFalse(replicas.contains(hash));
+        Assertions.assertFalse(replicas.contains(hash ^ 1));
+        Assertions.assertFalse(requester.getRoutingTable().contains(hash));
+
+        Thread.sleep(500);
+        for (int id : new int[]{hash ^ 2, hash ^ 3, hash ^ 4}) {
+            Assertions.assertEquals("ten", nodes.get(id).getKademliaRepository().get(key), "Node " + id + " has no replica");
+        }
+    }
+
+    @Test
+    void testAnswersStartWithoutReplicas() {
+        Assertions.assertTrue(StoreAnswer.<Integer, EmptyConnectionInfo, Integer>builder().build().getReplicas().isEmpty());
+        Assertions.assertTrue(new StoreAnswer<Integer, EmptyConnectionInfo, Integer>().getReplicas().isEmpty());
+    }
+}
@@ -0,0 +1,177 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.LookupAnswer;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.message.FindNodeRequestMessage;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.protocol.message.PingKademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import io.ep2p.kademlia.util.SharedExecutors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SharedExecutorsTest {
+
+    @Test
+    void testNodesShareExecutorsUntilLastOneStops() throws ExecutionException, InterruptedException, TimeoutException {
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+        KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(100);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        SharedExecutors sharedExecutors = new SharedExecutors(1, 4);
+
+        List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setSharedExecutors(sharedExecutors)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            if (i == 0) {
+                node.start();
+            } else {
+                // Bootstrap of a node should not shut down executors that the next nodes bootstrap on
+                Assertions.assertTrue(node.start(nodes.get(0)).get(5, TimeUnit.SECONDS), "Failed to bootstrap the node with ID " + i);
+            }
+            Assertions.assertSame(sharedExecutors.getExecutorService(), node.getExecutorService());
+            Assertions.assertSame(sharedExecutors.getScheduledExecutorService(), node.getScheduledExecutorService());
+            nodes.add(node);
+        }
+        Assertions.assertEquals(16, sharedExecutors.getReferences());
+
+        Thread.sleep(1000);
+        StoreAnswer<Integer, EmptyConnectionInfo, Integer> storeAnswer = nodes.get(3).store(10, "ten").get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult());
+        LookupAnswer<Integer, EmptyConnectionInfo, Integer, String> lookupAnswer = nodes.get(12).lookup(10).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LookupAnswer.Result.FOUND, lookupAnswer.getResult());
+        Assertions.assertEquals("ten", lookupAnswer.getValue());
+
+        // Stopping some of the nodes leaves the others running
+        for (int i = 0; i < 8; i++) {
+            nodes.get(i).stop();
+            messageSenderAPI.map.remove(i);
+        }
+        Assertions.assertFalse(sharedExecutors.isShutdown());
+        lookupAnswer = nodes.get(12).lookup(10).get(5, TimeUnit.SECONDS);
+        Assertions.assertNotEquals(LookupAnswer.Result.TIMEOUT, lookupAnswer.getResult());
+
+        messageSenderAPI.stopAll();
+        Assertions.assertEquals(0, sharedExecutors.getReferences());
+        Assertions.assertTrue(sharedExecutors.isShutdown());
+        Assertions.assertTrue(sharedExecutors.getExecutorService().awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertThrows(IllegalStateException.class, sharedExecutors::acquire);
+    }
+
+    @Test
+    void testDefaultExecutorsAreShared() {
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>();
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, new SampleKeyHashGenerator(4), new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+        Assertions.assertSame(nodes.get(0).getExecutorService(), nodes.get(1).getExecutorService());
+        Assertions.assertSame(nodes.get(0).getScheduledExecutorService(), nodes.get(1).getScheduledExecutorService());
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testSendsRunOnIoExecutor() throws ExecutionException, InterruptedException, TimeoutException {
+        Set<String> sendingThreads = ConcurrentHashMap.newKeySet();
+        TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+            @Override
+            public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+                if (message instanceof PingKademliaMessage || message instanceof FindNodeRequestMessage)
+                    sendingThreads.add(Thread.currentThread().getName());
+                return super.sendMessage(caller, receiver, message);
+            }
+        };
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        SharedExecutors sharedExecutors = new SharedExecutors(1, 1);
+
+        List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, new SampleKeyHashGenerator(4), new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setSharedExecutors(sharedExecutors)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            if (i == 0) {
+                node.start();
+            } else {
+                Assertions.assertTrue(node.start(nodes.get(0)).get(5, TimeUnit.SECONDS));
+            }
+            nodes.add(node);
+        }
+        Thread.sleep(500);
+
+        // Bootstrap requests and the pings of the nodes they return may block on the transport, so none of them takes the single worker
+        Assertions.assertFalse(sendingThreads.isEmpty());
+        for (String thread : sendingThreads) {
+            Assertions.assertTrue(thread.startsWith("kademlia-io-"), thread + " is not an I/O thread");
+        }
+        messageSenderAPI.stopAll();
+        Assertions.assertTrue(sharedExecutors.getIoExecutorService().isShutdown());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SharedExecutors.configureDefault(1, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SharedExecutors.configureDefault(1, 1, 0));
+    }
+
+    @Test
+    void testIoExecutorIsBounded() throws InterruptedException {
+        SharedExecutors sharedExecutors = new SharedExecutors(1, 1, 2).acquire();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maximumRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(6);
+        for (int i = 0; i < 6; i++) {
+            sharedExecutors.getIoExecutorService().execute(() -> {
+                maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        // Blocked tasks queue up instead of adding threads
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, maximumRunning.get());
+        sharedExecutors.release();
+    }
+}
@@ -0,0 +1,138 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class StoreAllTest {
+    private final Map<String, AtomicInteger> sentMessages = new ConcurrentHashMap<>();
+    private final KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+    private final List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+    private final TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+        @Override
+        public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+            sentMessages.computeIfAbsent(message.getType(), type -> new AtomicInteger()).incrementAndGet();
+            return super.sendMessage(caller, receiver, message);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+    }
+
+    private void fillRoutingTables(List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes) {
+        for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes) {
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> other : nodes) {
+                if (!other.getId().equals(node.getId()))
+                    node.getRoutingTable().updateOrCache(other);
+            }
+        }
+    }
+
+    private Map<Integer, String> entries() {
+        Map<Integer, String> entries = new LinkedHashMap<>();
+        for (int key = 0; key < 64; key++) {
+            entries.put(key, "value-" + key);
+        }
+        return entries;
+    }
+
+    @Test
+    void testStoreAllSendsOneMessagePerNode() throws ExecutionException, InterruptedException, TimeoutException {
+        fillRoutingTables(nodes);
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(3);
+
+        Map<Integer, StoreAnswer<Integer, EmptyConnectionInfo, Integer>> storeAnswers = requester.storeAll(entries()).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(64, storeAnswers.size());
+        storeAnswers.forEach((key, storeAnswer) -> {
+            Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult(), "Key " + key + " was not stored");
+            Assertions.assertEquals(keyHashGenerator.generateHash(key), storeAnswer.getNode().getId());
+            Assertions.assertEquals("value-" + key, nodes.get(keyHashGenerator.generateHash(key)).getKademliaRepository().get(key));
+        });
+
+        // Keys of the requester itself are stored without any message
+        Assertions.assertEquals(15, sentMessages.get(MessageType.DHT_STORE_BATCH).get());
+        Assertions.assertNull(sentMessages.get(MessageType.DHT_STORE));
+    }
+
+    @Test
+    void testStoreAllThroughOtherNodes() throws ExecutionException, InterruptedException, TimeoutException {
+        // Requester only knows node 0, which takes the keys it is the closest to and passes on the others
+        // Keys with hashes from 8 to 15 are closer to the requester itself than to node 0
+        fillRoutingTables(nodes.subList(0, 15));
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(15);
+        requester.getRoutingTable().updateOrCache(nodes.get(0));
+
+        Map<Integer, StoreAnswer<Integer, EmptyConnectionInfo, Integer>> storeAnswers = requester.storeAll(entries()).get(5, TimeUnit.SECONDS);
+        storeAnswers.forEach((key, storeAnswer) -> {
+            Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult(), "Key " + key + " was not stored");
+            int hash = keyHashGenerator.generateHash(key);
+            int holder = hash < 8 ? hash : 15;
+            Assertions.assertEquals(holder, storeAnswer.getNode().getId());
+            Assertions.assertEquals("value-" + key, nodes.get(holder).getKademliaRepository().get(key));
+        });
+        Assertions.assertEquals(1, sentMessages.get(MessageType.DHT_STORE_BATCH).get());
+    }
+
+    @Test
+    void testDeadDestinationFallsBack() throws ExecutionException, InterruptedException, TimeoutException {
+        fillRoutingTables(nodes);
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(3);
+        messageSenderAPI.map.remove(6);
+        nodes.get(6).stopNow();
+
+        Map<Integer, StoreAnswer<Integer, EmptyConnectionInfo, Integer>> storeAnswers = requester.storeAll(entries()).get(5, TimeUnit.SECONDS);
+        storeAnswers.forEach((key, storeAnswer) -> {
+            Assertions.assertEquals(StoreAnswer.Result.STORED, storeAnswer.getResult(), "Key " + key + " was not stored");
+            int hash = keyHashGenerator.generateHash(key);
+            int holder = hash == 6 ? 7 : hash;
+            Assertions.assertEquals("value-" + key, nodes.get(holder).getKademliaRepository().get(key));
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package io.ep2p.kademlia;
+
+import io.ep2p.kademlia.helpers.EmptyConnectionInfo;
+import io.ep2p.kademlia.helpers.SampleKeyHashGenerator;
+import io.ep2p.kademlia.helpers.SampleRepository;
+import io.ep2p.kademlia.helpers.TestMessageSenderAPI;
+import io.ep2p.kademlia.model.StoreAnswer;
+import io.ep2p.kademlia.node.DHTKademliaNodeAPI;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.KeyHashGenerator;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.node.builder.DHTKademliaNodeBuilder;
+import io.ep2p.kademlia.protocol.MessageType;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+import io.ep2p.kademlia.table.Bucket;
+import io.ep2p.kademlia.table.DefaultRoutingTableFactory;
+import io.ep2p.kademlia.table.RoutingTableFactory;
+import io.ep2p.kademlia.util.SharedExecutors;
+import io.ep2p.kademlia.util.VirtualThreads;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class VirtualThreadsTest {
+    private final KeyHashGenerator<Integer, Integer> keyHashGenerator = new SampleKeyHashGenerator(4);
+    private final List<DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String>> nodes = new ArrayList<>();
+    private final TestMessageSenderAPI<Integer, EmptyConnectionInfo> messageSenderAPI = new TestMessageSenderAPI<>() {
+        @SneakyThrows
+        @Override
+        public <U extends Serializable, O extends Serializable> KademliaMessage<Integer, EmptyConnectionInfo, O> sendMessage(KademliaNodeAPI<Integer, EmptyConnectionInfo> caller, Node<Integer, EmptyConnectionInfo> receiver, KademliaMessage<Integer, EmptyConnectionInfo, U> message) {
+            // Store hops that are passed on by other nodes block their thread for a while
+            if (message.getType().equals(MessageType.DHT_STORE) && caller.getId() != 0)
+                Thread.sleep(200);
+            return super.sendMessage(caller, receiver, message);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        messageSenderAPI.stopAll();
+    }
+
+    @Test
+    void testBlockingHopsAreNotLimitedByIoExecutor() throws ExecutionException, InterruptedException, TimeoutException {
+        NodeSettings nodeSettings = NodeSettings.Default.build();
+        nodeSettings.setIdentifierSize(4);
+        nodeSettings.setBucketSize(16);
+        nodeSettings.setPingScheduleTimeValue(5);
+        RoutingTableFactory<Integer, EmptyConnectionInfo, Bucket<Integer, EmptyConnectionInfo>> routingTableFactory = new DefaultRoutingTableFactory<>(nodeSettings);
+        // Hops that are not on virtual threads run on two I/O threads
+        SharedExecutors sharedExecutors = new SharedExecutors(1, 2, 2);
+
+        for (int i = 0; i < 16; i++) {
+            DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node = new DHTKademliaNodeBuilder<>(i, new EmptyConnectionInfo(), routingTableFactory.getRoutingTable(i), messageSenderAPI, keyHashGenerator, new SampleRepository<Integer>())
+                    .setNodeSettings(nodeSettings)
+                    .setSharedExecutors(sharedExecutors)
+                    .setVirtualThreads(true)
+                    .build();
+            messageSenderAPI.registerNode(node);
+            node.start();
+            nodes.add(node);
+        }
+        for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> node : nodes.subList(1, 16)) {
+            for (DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> other : nodes.subList(1, 16)) {
+                if (!other.getId().equals(node.getId()))
+                    node.getRoutingTable().updateOrCache(other);
+            }
+        }
+        // Requester only knows node 1, which passes each key of node 15 on from a handler task
+        DHTKademliaNodeAPI<Integer, EmptyConnectionInfo, Integer, String> requester = nodes.get(0);
+        requester.getRoutingTable().updateOrCache(nodes.get(1));
+
+        List<Future<StoreAnswer<Integer, EmptyConnectionInfo, Integer>>> futures = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int key = 0; futures.size() < 20; key++) {
+            if (keyHashGenerator.generateHash(key) == 15)
+                futures.add(requester.store(key, "value-" + key));
+        }
+        for (Future<StoreAnswer<Integer, EmptyConnectionInfo, Integer>> future : futures) {
+            Assertions.assertEquals(StoreAnswer.Result.STORED, future.get(10, TimeUnit.SECONDS).getResult());
+        }
+
+        // Two I/O threads need 10 rounds of hops
+        long elapsed = System.currentTimeMillis() - start;
+        if (VirtualThreads.isAvailable()) {
+            Assertions.assertTrue(elapsed < 1500, "Stores waited for the I/O executor");
+        } else {
+            Assertions.assertTrue(elapsed >= 2000, "Stores did not fall back to the I/O executor");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.ep2p.kademlia.helpers;
+
+import io.ep2p.kademlia.connection.ConnectionInfo;
+import io.ep2p.kademlia.node.KademliaNodeAPI;
+import io.ep2p.kademlia.node.Node;
+import io.ep2p.kademlia.protocol.message.KademliaMessage;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delivers async messages from a small pool, so that callers never wait for the receiver to handle them
+ */
+public class AsyncTestMessageSenderAPI<I extends Number, C extends ConnectionInfo> extends TestMessageSenderAPI<I, C> {
+    private final ExecutorService deliveryExecutorService;
+
+    public AsyncTestMessageSenderAPI(int threads) {
+        this.deliveryExecutorService = Executors.newFixedThreadPool(threads);
+    }
+
+    @Override
+    public <U extends Serializable, O extends Serializable> CompletableFuture<KademliaMessage<I, C, O>> sendMessageAsync(KademliaNodeAPI<I, C> caller, Node<I, C> receiver, KademliaMessage<I, C, U> message) {
+        return CompletableFuture.supplyAsync(() -> this.sendMessage(caller, receiver, message), this.deliveryExecutorService);
+    }
+
+    @Override
+    public void stopAll() {
+        super.stopAll();
+        this.deliveryExecutorService.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package io.ep2p.kademlia.helpers;
+
+import io.ep2p.kademlia.node.Node;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class SampleNode<I extends Number> implements Node<I, EmptyConnectionInfo> {
+    private final I id;
+
+    @Override
+    public EmptyConnectionInfo getConnectionInfo() {
+        return new EmptyConnectionInfo();
+    }
+
+    @Override
+    public I getId() {
+        return id;
+    }
+}